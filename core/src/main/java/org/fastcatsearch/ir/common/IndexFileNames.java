@@ -48,6 +48,9 @@ public class IndexFileNames {
 	public static String getSearchIndexFileName(String name){
 		return "search." + name + ".index";
 	}
+	public static String getSearchTrieFileName(String name){
+		return "search." + name + ".trie";
+	}
 	
 	//
 	// group
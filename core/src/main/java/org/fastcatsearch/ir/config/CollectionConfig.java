@@ -29,11 +29,14 @@ import javax.xml.bind.annotation.XmlType;
 		<segment-document-limit>2000000</segment-document-limit>
 		<segment-revision-backup-size>2</segment-revision-backup-size>
 	</data-plan>
+	<full-indexing-segment-size>4</full-indexing-segment-size>
+	<parallel-segment-search>true</parallel-segment-search>
+	<mmap-file-types>posting,lexicon,field-index</mmap-file-types>
 </collection-config>
  * */
 
 @XmlRootElement(name = "collection-config")
-@XmlType(propOrder = { "name", "indexNode", "searchNodeList", "dataNodeList", "dataPlanConfig", "fullIndexingSegmentSize" })
+@XmlType(propOrder = { "name", "indexNode", "searchNodeList", "dataNodeList", "dataPlanConfig", "fullIndexingSegmentSize", "parallelSegmentSearch", "parallelDocumentFetchSize", "mmapFileTypes" })
 public class CollectionConfig {
 
 	private String name;
@@ -42,6 +45,9 @@ public class CollectionConfig {
 	private List<String> dataNodeList;
 	private DataPlanConfig dataPlanConfig;
 	private Integer fullIndexingSegmentSize;
+	private Boolean parallelSegmentSearch;
+	private Integer parallelDocumentFetchSize;
+	private String mmapFileTypes;
 	
 	public CollectionConfig(){
 		searchNodeList = new ArrayList<String>();
@@ -136,4 +142,34 @@ public class CollectionConfig {
 		this.fullIndexingSegmentSize = fullIndexingSegmentSize;
 	}
 
+	//세그먼트가 여러개일때 세그먼트별 검색을 병렬로 수행할지 여부.
+	@XmlElement(name="parallel-segment-search")
+	public Boolean getParallelSegmentSearch() {
+		return parallelSegmentSearch != null ? parallelSegmentSearch : Boolean.FALSE;
+	}
+
+	public void setParallelSegmentSearch(Boolean parallelSegmentSearch) {
+		this.parallelSegmentSearch = parallelSegmentSearch;
+	}
+
+	//검색결과 문서읽기와 하이라이팅을 병렬로 수행할때 작업 하나가 맡는 최소 문서갯수. 0 이면 순차수행한다.
+	@XmlElement(name="parallel-document-fetch-size")
+	public Integer getParallelDocumentFetchSize() {
+		return parallelDocumentFetchSize != null ? parallelDocumentFetchSize : 0;
+	}
+
+	public void setParallelDocumentFetchSize(Integer parallelDocumentFetchSize) {
+		this.parallelDocumentFetchSize = parallelDocumentFetchSize;
+	}
+
+	//mmap으로 읽을 색인파일 종류. 콤마로 구분한다. posting, lexicon, field-index, group-index, document
+	@XmlElement(name="mmap-file-types")
+	public String getMmapFileTypes() {
+		return mmapFileTypes;
+	}
+
+	public void setMmapFileTypes(String mmapFileTypes) {
+		this.mmapFileTypes = mmapFileTypes;
+	}
+
 }
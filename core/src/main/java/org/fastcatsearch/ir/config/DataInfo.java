@@ -85,6 +85,17 @@ public class DataInfo {
 		}
 	}
 
+	/**
+	 * fromIndex 부터 마지막까지의 세그먼트를 머징된 세그먼트 하나로 교체한다.
+	 * documents, updates, deletes 는 색인이력 누적값이므로 그대로 둔다.
+	 * */
+	public void mergeSegmentInfo(int fromIndex, SegmentInfo mergedSegmentInfo) {
+		while (segmentInfoList.size() > fromIndex) {
+			segmentInfoList.remove(segmentInfoList.size() - 1);
+		}
+		segmentInfoList.add(mergedSegmentInfo);
+	}
+	
 	@XmlAttribute
 	public int getDocuments() {
 		return documents;
@@ -10,15 +10,21 @@ import javax.xml.bind.annotation.XmlType;
 	<separate-inc-indexing>true</separate-inc-indexing>
 	<document-limit>2000000</document-limit>
 	<segment-revision-backup-size>2</segment-revision-backup-size>
+	<segment-merge-factor>10</segment-merge-factor>
+	<segment-merge-delete-ratio>20</segment-merge-delete-ratio>
 </data-plan>
+segment-merge-factor : 비슷한 크기의 세그먼트가 뒤쪽에 이 갯수만큼 쌓이면 하나로 머징한다. 0이면 머징하지 않는다.
+segment-merge-delete-ratio : 머징대상 세그먼트들의 삭제문서 비율(%)이 이 값 이상이면 갯수가 모자라도 머징하여 삭제문서를 제거한다. 0이면 사용하지 않는다.
  * */
 
 @XmlRootElement(name = "data-plan")
-@XmlType(propOrder = { "segmentRevisionBackupSize", "segmentDocumentLimit", "dataSequenceCycle" })
+@XmlType(propOrder = { "segmentMergeDeleteRatio", "segmentMergeFactor", "segmentRevisionBackupSize", "segmentDocumentLimit", "dataSequenceCycle" })
 public class DataPlanConfig {
 	private int dataSequenceCycle;
 	private int documentLimit;
 	private int segmentRevisionBackupSize;
+	private int segmentMergeFactor;
+	private int segmentMergeDeleteRatio;
 	
 	
 	public static final DataPlanConfig DefaultDataPlanConfig = new DataPlanConfig(2, 2000000, 0);
@@ -54,4 +60,18 @@ public class DataPlanConfig {
 	public void setSegmentRevisionBackupSize(int segmentRevisionBackupSize) {
 		this.segmentRevisionBackupSize = segmentRevisionBackupSize;
 	}
+	@XmlElement(name="segment-merge-factor")
+	public int getSegmentMergeFactor() {
+		return segmentMergeFactor;
+	}
+	public void setSegmentMergeFactor(int segmentMergeFactor) {
+		this.segmentMergeFactor = segmentMergeFactor;
+	}
+	@XmlElement(name="segment-merge-delete-ratio")
+	public int getSegmentMergeDeleteRatio() {
+		return segmentMergeDeleteRatio;
+	}
+	public void setSegmentMergeDeleteRatio(int segmentMergeDeleteRatio) {
+		this.segmentMergeDeleteRatio = segmentMergeDeleteRatio;
+	}
 }
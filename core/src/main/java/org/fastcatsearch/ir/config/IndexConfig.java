@@ -1,6 +1,9 @@
 package org.fastcatsearch.ir.config;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+
+import org.fastcatsearch.ir.document.DocumentWriter;
+import org.fastcatsearch.ir.index.PostingSkipList;
 /**
 <index-config>
 	<pk-term-interval>64</pk-term-interval>
@@ -10,7 +13,21 @@ import javax.xml.bind.annotation.XmlRootElement;
 	<work-memory-size>128M</work-memory-size>
 	<work-bucket-size>256</work-bucket-size>
 	<compression-type>fast</compression-type>
+	<posting-block-size>128</posting-block-size>
+	<document-block-size>64</document-block-size>
+	<parse-thread-size>4</parse-thread-size>
+	<analysis-queue-size>256</analysis-queue-size>
+	<merge-thread-size>4</merge-thread-size>
+	<merge-io-limit>100</merge-io-limit>
 </index-config>
+
+posting-block-size : 포스팅 skip 블럭당 문서수. 0 이면 skip 리스트가 없는 예전 포맷으로 기록한다.
+document-block-size : 문서를 함께 압축하는 블럭당 최대 문서수. 블럭 데이터가 16KB를 넘어도 블럭을 마감한다. 0 이면 문서를 한개씩 압축하는 예전 포맷으로 기록한다.
+compression-type : 문서블럭 압축방식. fast(기본), normal, best, lz4
+parse-thread-size : 수집데이터를 문서로 변환하는 스레드 수. 0 이면 수집 스레드에서 변환한다.
+analysis-queue-size : 0 보다 크면 검색색인마다 분석 스레드를 두고 이 크기의 큐로 문서를 전달한다. 0 이면 색인 스레드에서 모든 검색색인을 분석한다.
+merge-thread-size : 세그먼트를 닫을때 검색색인별 임시파일 머징을 동시에 수행하는 스레드 수. 1 이하이면 순서대로 머징한다.
+merge-io-limit : 임시파일 머징의 초당 기록량 한도(MB). 모든 머징 스레드의 합계이며, 0 이면 제한하지 않는다.
  * */
 @XmlRootElement(name = "index-config")
 public class IndexConfig {
@@ -30,6 +47,13 @@ public class IndexConfig {
 	private int indexTermInterval;// inmemory lexicon ratio = 1/indexTermInterval
 	private int indexWorkBucketSize;
 	private int indexWorkMemorySize;// limit memory use. if exeed this value, flush.
+	private Integer postingBlockSize;
+	private Integer documentBlockSize;
+	private String compressionType;
+	private Integer parseThreadSize;
+	private Integer analysisQueueSize;
+	private Integer mergeThreadSize;
+	private Integer mergeIoLimit;
 	
 
 	@XmlElement(name="pk-term-interval")
@@ -57,6 +81,65 @@ public class IndexConfig {
 		return indexWorkMemorySize;
 	}
 
+	@XmlElement(name="posting-block-size")
+	public Integer getPostingBlockSize() {
+		return postingBlockSize;
+	}
+	
+	public int postingBlockSize() {
+		return postingBlockSize != null ? postingBlockSize : PostingSkipList.DEFAULT_BLOCK_SIZE;
+	}
+
+	@XmlElement(name="document-block-size")
+	public Integer getDocumentBlockSize() {
+		return documentBlockSize;
+	}
+	
+	public int documentBlockSize() {
+		return documentBlockSize != null ? documentBlockSize : DocumentWriter.DEFAULT_BLOCK_SIZE;
+	}
+
+	@XmlElement(name="compression-type")
+	public String getCompressionType() {
+		return compressionType;
+	}
+
+	@XmlElement(name="parse-thread-size")
+	public Integer getParseThreadSize() {
+		return parseThreadSize;
+	}
+	
+	public int parseThreadSize() {
+		return parseThreadSize != null ? parseThreadSize : 0;
+	}
+
+	@XmlElement(name="analysis-queue-size")
+	public Integer getAnalysisQueueSize() {
+		return analysisQueueSize;
+	}
+	
+	public int analysisQueueSize() {
+		return analysisQueueSize != null ? analysisQueueSize : 0;
+	}
+
+	@XmlElement(name="merge-thread-size")
+	public Integer getMergeThreadSize() {
+		return mergeThreadSize;
+	}
+	
+	public int mergeThreadSize() {
+		return mergeThreadSize != null ? mergeThreadSize : 1;
+	}
+
+	@XmlElement(name="merge-io-limit")
+	public Integer getMergeIoLimit() {
+		return mergeIoLimit;
+	}
+	
+	public int mergeIoLimit() {
+		return mergeIoLimit != null ? mergeIoLimit : 0;
+	}
+
 	public void setPkTermInterval(int pkTermInterval) {
 		this.pkTermInterval = pkTermInterval;
 	}
@@ -77,5 +160,33 @@ public class IndexConfig {
 		this.indexWorkMemorySize = indexWorkMemorySize;
 	}
 	
+	public void setPostingBlockSize(Integer postingBlockSize) {
+		this.postingBlockSize = postingBlockSize;
+	}
+	
+	public void setDocumentBlockSize(Integer documentBlockSize) {
+		this.documentBlockSize = documentBlockSize;
+	}
+
+	public void setCompressionType(String compressionType) {
+		this.compressionType = compressionType;
+	}
+
+	public void setParseThreadSize(Integer parseThreadSize) {
+		this.parseThreadSize = parseThreadSize;
+	}
+
+	public void setAnalysisQueueSize(Integer analysisQueueSize) {
+		this.analysisQueueSize = analysisQueueSize;
+	}
+
+	public void setMergeThreadSize(Integer mergeThreadSize) {
+		this.mergeThreadSize = mergeThreadSize;
+	}
+
+	public void setMergeIoLimit(Integer mergeIoLimit) {
+		this.mergeIoLimit = mergeIoLimit;
+	}
+	
 }
 
@@ -0,0 +1,81 @@
+package org.fastcatsearch.ir.document;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.fastcatsearch.ir.io.BytesDataOutput;
+
+/**
+ * java.util.zip 의 deflate 압축. Deflater, Inflater 는 처음 사용할때 만들어 재사용하고 close()에서 end() 한다.
+ * */
+public class DeflateDocumentCodec extends DocumentCodec {
+
+	private int id;
+	private int level;
+	private Deflater deflater;
+	private Inflater inflater;
+	private byte[] workingBuffer;
+
+	public DeflateDocumentCodec(int id, int level) {
+		this.id = id;
+		this.level = level;
+	}
+
+	@Override
+	public int id() {
+		return id;
+	}
+
+	@Override
+	public void compress(byte[] src, int offset, int length, BytesDataOutput output) throws IOException {
+		if (deflater == null) {
+			deflater = new Deflater(level);
+			workingBuffer = new byte[4 * 1024];
+		}
+		deflater.reset();
+		deflater.setInput(src, offset, length);
+		deflater.finish();
+		while (!deflater.finished()) {
+			int count = deflater.deflate(workingBuffer);
+			output.writeBytes(workingBuffer, 0, count);
+		}
+	}
+
+	@Override
+	public void decompress(byte[] src, int offset, int length, byte[] dest, int destLength) throws IOException {
+		if (inflater == null) {
+			inflater = new Inflater();
+		}
+		inflater.reset();
+		inflater.setInput(src, offset, length);
+		int count = 0;
+		try {
+			while (!inflater.finished()) {
+				int n = inflater.inflate(dest, count, destLength - count);
+				if (n == 0 && (count == destLength || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				count += n;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		}
+		if (count != destLength || !inflater.finished()) {
+			throw new IOException("Corrupted document block. expected=" + destLength + ", actual=" + count);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (deflater != null) {
+			deflater.end();
+			deflater = null;
+		}
+		if (inflater != null) {
+			inflater.end();
+			inflater = null;
+		}
+	}
+}
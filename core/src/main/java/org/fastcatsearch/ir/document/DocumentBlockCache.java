@@ -0,0 +1,273 @@
+package org.fastcatsearch.ir.document;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 압축을 푼 문서블럭을 보관하는 LRU 캐시. 모든 세그먼트의 DocumentReader가 공유한다.
+ * 한 페이지의 인접한 문서나 묶음문서들은 같은 블럭에 들어있는 경우가 많으므로 블럭 압축해제를 한번만 하게 된다.
+ * 
+ * 블럭 데이터 크기의 합으로 용량을 제한하며, 크기는 -DdocumentBlockCacheSize(MB, 기본 32)로 설정한다. 0 이면 사용하지 않는다.
+ * 키 해시로 나눈 segment 마다 lock 과 접근순서 LinkedHashMap 을 따로 가지므로 검색쓰레드들이 하나의 lock 을 두고 경쟁하지 않는다.
+ * 각 segment 는 전체 용량의 1/segment 수 만큼을 사용한다.
+ * reader별 블럭키를 따로 관리하므로 reader를 닫을때 캐시 전체를 훑지 않고 해당 블럭만 지운다.
+ * 캐시된 블럭은 변경되지 않으므로 여러 쓰레드에서 동시에 읽어도 된다.
+ * */
+public class DocumentBlockCache {
+	private static Logger logger = LoggerFactory.getLogger(DocumentBlockCache.class);
+
+	private static final int DEFAULT_CACHE_SIZE_MB = 32;
+	private static final int DEFAULT_SEGMENT_SIZE = 16;
+	//블럭 하나당 데이터외의 객체 크기 추정치.
+	private static final int ENTRY_OVERHEAD = 96;
+
+	private static DocumentBlockCache instance;
+
+	private final long maxMemorySize;
+	private final Segment[] segments;
+	//reader별 캐시된 블럭키.
+	private final ConcurrentMap<Integer, Set<BlockKey>> readerKeyMap;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	public static synchronized DocumentBlockCache getInstance() {
+		if (instance == null) {
+			int cacheSize = DEFAULT_CACHE_SIZE_MB;
+			String cacheSizeProperty = System.getProperty("documentBlockCacheSize");
+			if (cacheSizeProperty != null) {
+				cacheSize = Integer.parseInt(cacheSizeProperty);
+			}
+			instance = new DocumentBlockCache(cacheSize * 1024L * 1024L);
+			logger.info("Document block cache size = {}MB", cacheSize);
+		}
+		return instance;
+	}
+
+	public DocumentBlockCache(long maxMemorySize) {
+		this(maxMemorySize, DEFAULT_SEGMENT_SIZE);
+	}
+
+	public DocumentBlockCache(long maxMemorySize, int segmentSize) {
+		this.maxMemorySize = maxMemorySize;
+		segments = new Segment[segmentSize];
+		for (int i = 0; i < segmentSize; i++) {
+			segments[i] = new Segment(maxMemorySize / segmentSize);
+		}
+		readerKeyMap = new ConcurrentHashMap<Integer, Set<BlockKey>>();
+	}
+
+	private Segment segment(BlockKey key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[(h & 0x7fffffff) % segments.length];
+	}
+
+	public DocumentBlock get(int readerId, long position) {
+		if (maxMemorySize <= 0) {
+			return null;
+		}
+		BlockKey key = new BlockKey(readerId, position);
+		DocumentBlock block = segment(key).get(key);
+		if (block != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return block;
+	}
+
+	public void put(int readerId, long position, DocumentBlock block) {
+		BlockKey key = new BlockKey(readerId, position);
+		Segment segment = segment(key);
+		if (block.memorySize() > segment.maxMemorySize) {
+			return;
+		}
+		Set<BlockKey> keySet = readerKeyMap.get(readerId);
+		if (keySet == null) {
+			Set<BlockKey> newKeySet = Collections.newSetFromMap(new ConcurrentHashMap<BlockKey, Boolean>());
+			keySet = readerKeyMap.putIfAbsent(readerId, newKeySet);
+			if (keySet == null) {
+				keySet = newKeySet;
+			}
+		}
+		keySet.add(key);
+		segment.put(key, block);
+	}
+
+	/**
+	 * reader를 닫을때 해당 reader의 블럭을 모두 지운다.
+	 * */
+	public void remove(int readerId) {
+		Set<BlockKey> keySet = readerKeyMap.remove(readerId);
+		if (keySet == null) {
+			return;
+		}
+		for (BlockKey key : keySet) {
+			segment(key).remove(key);
+		}
+	}
+
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+		readerKeyMap.clear();
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	public long memorySize() {
+		long memorySize = 0;
+		for (Segment segment : segments) {
+			memorySize += segment.memorySize();
+		}
+		return memorySize;
+	}
+
+	public long maxMemorySize() {
+		return maxMemorySize;
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	private void evicted(BlockKey key) {
+		Set<BlockKey> keySet = readerKeyMap.get(key.readerId);
+		if (keySet != null) {
+			keySet.remove(key);
+		}
+	}
+
+	private class Segment {
+		private final long maxMemorySize;
+		private long memorySize;
+		private final LinkedHashMap<BlockKey, DocumentBlock> map;
+
+		public Segment(long maxMemorySize) {
+			this.maxMemorySize = maxMemorySize;
+			map = new LinkedHashMap<BlockKey, DocumentBlock>(64, 0.75f, true);
+		}
+
+		public synchronized DocumentBlock get(BlockKey key) {
+			return map.get(key);
+		}
+
+		public synchronized void put(BlockKey key, DocumentBlock block) {
+			DocumentBlock old = map.put(key, block);
+			if (old != null) {
+				memorySize -= old.memorySize();
+			}
+			memorySize += block.memorySize();
+			Iterator<Map.Entry<BlockKey, DocumentBlock>> iterator = map.entrySet().iterator();
+			while (memorySize > maxMemorySize && iterator.hasNext()) {
+				Map.Entry<BlockKey, DocumentBlock> entry = iterator.next();
+				memorySize -= entry.getValue().memorySize();
+				iterator.remove();
+				evicted(entry.getKey());
+			}
+		}
+
+		public synchronized void remove(BlockKey key) {
+			DocumentBlock old = map.remove(key);
+			if (old != null) {
+				memorySize -= old.memorySize();
+			}
+		}
+
+		public synchronized void clear() {
+			map.clear();
+			memorySize = 0;
+		}
+
+		public synchronized int size() {
+			return map.size();
+		}
+
+		public synchronized long memorySize() {
+			return memorySize;
+		}
+	}
+
+	static class BlockKey {
+		private final int readerId;
+		private final long position;
+
+		public BlockKey(int readerId, long position) {
+			this.readerId = readerId;
+			this.position = position;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * readerId + (int) (position ^ (position >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof BlockKey)) {
+				return false;
+			}
+			BlockKey other = (BlockKey) obj;
+			return readerId == other.readerId && position == other.position;
+		}
+	}
+
+	/**
+	 * 압축을 푼 문서블럭. i번째 문서 데이터는 data 의 offsets[i] 부터 offsets[i + 1] 전까지이다.
+	 * */
+	public static class DocumentBlock {
+		private final int firstDocNo;
+		private final int[] offsets;
+		private final byte[] data;
+
+		public DocumentBlock(int firstDocNo, int[] offsets, byte[] data) {
+			this.firstDocNo = firstDocNo;
+			this.offsets = offsets;
+			this.data = data;
+		}
+
+		public int firstDocNo() {
+			return firstDocNo;
+		}
+
+		public int size() {
+			return offsets.length - 1;
+		}
+
+		public int offset(int i) {
+			return offsets[i];
+		}
+
+		public int length(int i) {
+			return offsets[i + 1] - offsets[i];
+		}
+
+		public byte[] data() {
+			return data;
+		}
+
+		public long memorySize() {
+			return data.length + offsets.length * 4 + ENTRY_OVERHEAD;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package org.fastcatsearch.ir.document;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.io.BytesDataOutput;
+
+/**
+ * 블럭 문서포맷에서 문서블럭을 압축하는 방식.
+ * 압축방식 id는 document.stored 헤더에 기록되므로 한번 정한 id는 바꾸지 않는다.
+ * Deflater, Inflater 등 내부 상태를 가지므로 thread-safe 하지 않으며, writer와 reader는 각자 인스턴스를 만들어 사용하고 close()로 정리한다.
+ * 
+ * compression-type 설정값 : fast(deflate 1, 기본), normal(deflate 6), best(deflate 9), lz4
+ * */
+public abstract class DocumentCodec {
+
+	public static final int DEFLATE_FAST = 0;
+	public static final int DEFLATE_NORMAL = 1;
+	public static final int DEFLATE_BEST = 2;
+	public static final int LZ4 = 3;
+
+	public static DocumentCodec create(int id) throws IOException {
+		switch (id) {
+		case DEFLATE_FAST:
+			return new DeflateDocumentCodec(DEFLATE_FAST, 1);
+		case DEFLATE_NORMAL:
+			return new DeflateDocumentCodec(DEFLATE_NORMAL, 6);
+		case DEFLATE_BEST:
+			return new DeflateDocumentCodec(DEFLATE_BEST, 9);
+		case LZ4:
+			return new LZ4DocumentCodec();
+		}
+		throw new IOException("Unknown document codec id = " + id);
+	}
+
+	/**
+	 * compression-type 설정값으로 압축방식 id를 찾는다. 값이 없거나 모르는 값이면 fast 를 사용한다.
+	 * */
+	public static int idOf(String compressionType) {
+		if (compressionType == null) {
+			return DEFLATE_FAST;
+		}
+		compressionType = compressionType.trim();
+		if (compressionType.equalsIgnoreCase("normal")) {
+			return DEFLATE_NORMAL;
+		} else if (compressionType.equalsIgnoreCase("best")) {
+			return DEFLATE_BEST;
+		} else if (compressionType.equalsIgnoreCase("lz4")) {
+			return LZ4;
+		}
+		return DEFLATE_FAST;
+	}
+
+	public abstract int id();
+
+	/**
+	 * src 를 압축하여 output 에 이어쓴다.
+	 * */
+	public abstract void compress(byte[] src, int offset, int length, BytesDataOutput output) throws IOException;
+
+	/**
+	 * 압축된 src 를 풀어 dest 의 처음부터 정확히 destLength 바이트를 채운다. 길이가 맞지 않으면 IOException.
+	 * */
+	public abstract void decompress(byte[] src, int offset, int length, byte[] dest, int destLength) throws IOException;
+
+	public void close() {
+	}
+}
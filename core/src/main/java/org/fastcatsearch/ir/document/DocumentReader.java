@@ -19,6 +19,7 @@ package org.fastcatsearch.ir.document;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
@@ -27,12 +28,12 @@ import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.field.Field;
 import org.fastcatsearch.ir.field.FieldDataParseException;
-import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.ByteRefArrayOutputStream;
 import org.fastcatsearch.ir.io.BytesDataInput;
 import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.SchemaSetting;
 import org.slf4j.Logger;
@@ -40,6 +41,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 문서번호는 세그먼트마다 0부터 시작하는 번호로 read한다. baseNo와는 상관없는 내부문서번호.
+ * 
+ * 블럭포맷 파일은 압축을 푼 블럭을 DocumentBlockCache 에 넣어 clone된 reader들과 다른 세그먼트가 함께 사용한다.
+ * 캐시 key는 파일을 연 reader마다 새로 발급하는 readerId 이므로 세그먼트를 다시 열면 예전 블럭은 사용되지 않는다.
+ * clone은 readerId를 그대로 쓰므로 블럭은 파일을 연 원본 reader를 닫을때만 캐시에서 지운다.
+ * Inflater 등 압축해제 객체는 reader마다 하나만 만들어 재사용하고 close()에서 정리한다.
+ * 필드길이 표가 있는 포맷은 readLazyDocument()로 요청한 필드만 읽을 수 있다.
  * */
 
 public class DocumentReader implements Cloneable {
@@ -58,6 +65,17 @@ public class DocumentReader implements Cloneable {
 	private DataInput lastBai;
 	private long positionLimit;
 	
+	private static final AtomicInteger readerIdGenerator = new AtomicInteger();
+	private int readerId;
+	private boolean isClone;
+	private boolean isBlockFormat;
+	private boolean hasFieldTable;
+	private int codecId;
+	private DocumentCodec codec;
+	private Inflater inflater;
+	private byte[] compressedBuffer;
+	private DocumentBlockCache blockCache;
+	
 	public DocumentReader() {
 	}
 
@@ -66,13 +84,28 @@ public class DocumentReader implements Cloneable {
 	}
 
 	public DocumentReader(SchemaSetting schemaSetting, File dir, int baseDocNo) throws IOException {
+		this(schemaSetting, dir, baseDocNo, IndexInputFactory.DEFAULT);
+	}
+	
+	public DocumentReader(SchemaSetting schemaSetting, File dir, int baseDocNo, IndexInputFactory indexInputFactory) throws IOException {
 		this.baseDocNo = baseDocNo;
 		fields = schemaSetting.getFieldSettingList();
-		docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
-		positionInput = new BufferedFileInput(dir, IndexFileNames.docPosition);
+		docInput = indexInputFactory.open(IndexInputFactory.DOCUMENT, dir, IndexFileNames.docStored);
+		positionInput = indexInputFactory.open(IndexInputFactory.DOCUMENT, dir, IndexFileNames.docPosition);
 		positionLimit = positionInput.length();
-		documentCount = docInput.readInt();
-		logger.info("DocumentCount = {}", documentCount);
+		int header = docInput.readInt();
+		if (DocumentWriter.isBlockFormat(header)) {
+			isBlockFormat = true;
+			hasFieldTable = (header == DocumentWriter.FIELD_TABLE_FORMAT);
+			documentCount = docInput.readInt();
+			codecId = docInput.readByte();
+			codec = DocumentCodec.create(codecId);
+		} else {
+			documentCount = header;
+		}
+		readerId = readerIdGenerator.incrementAndGet();
+		blockCache = DocumentBlockCache.getInstance();
+		logger.info("DocumentCount = {}, blockFormat = {}", documentCount, isBlockFormat);
 
 		inflaterOutput = new ByteRefArrayOutputStream(INFLATE_BUFFER_INIT_SIZE); // 자동 증가됨. 초기 20KB으로 내림. 예전에는 3MB였음.
 		workingBuffer = new byte[1024];
@@ -102,40 +135,30 @@ public class DocumentReader implements Cloneable {
 
 		// baseDocNo만큼 빼서 세그먼트별 내부문서번호를 만든다.
 		// docNo -= baseDocNo;
+		
+		if (hasFieldTable) {
+			LazyDocument lazyDocument = readLazyDocument(docNo, fieldSelectOption);
+			if (lazyDocument == null) {
+				return null;
+			}
+			return toDocument(lazyDocument, fieldSelectOption, indexable);
+		}
 
 		DataInput bai = null;
 
 		if (docNo != lastDocNo) {
-			long positionOffset = docNo * IOUtil.SIZE_OF_LONG;
-			if(positionOffset >= positionLimit){
+			long pos = documentPosition(docNo);
+			if(pos < 0){
 				//없는문서.
 				return null;
 			}
-			positionInput.seek(positionOffset);
-			long pos = positionInput.readLong();
-			// find a document block
-			docInput.seek(pos);
-			int len = docInput.readInt();
 			
-			//2014-11-26 검색요청이 많아서 working 버퍼가 너무 빠르게 많이 생길경우 GC 되기전에 OOM 발생할수 있음.
-			// Stream으로 바꾸어 해결.
-			InflaterInputStream decompressInputStream = null;
-			inflaterOutput.reset();
-			int count = -1;
-			try {
-				BoundedInputStream boundedInputStream = new BoundedInputStream(docInput, len);
-				boundedInputStream.setPropagateClose(false);//하위 docInput 를 닫지않는다.
-				decompressInputStream = new InflaterInputStream(boundedInputStream, new Inflater(), 512);
-				while ((count = decompressInputStream.read(workingBuffer)) != -1) {
-					inflaterOutput.write(workingBuffer, 0, count);
-				}
-			} finally {
-				decompressInputStream.close();
+			if (isBlockFormat) {
+				bai = readFromBlock(docNo, pos);
+			} else {
+				bai = readCompressed(pos);
 			}
 
-			BytesRef bytesRef = inflaterOutput.getBytesRef();
-			bai = new BytesDataInput(bytesRef.bytes, 0, bytesRef.length);
-
 			lastDocNo = docNo;
 			lastBai = bai;
 		} else {
@@ -165,12 +188,7 @@ public class DocumentReader implements Cloneable {
 //				logger.debug("fill {} >> empty", i);
 			}
 			if(f != null && indexable){
-				String multiValueDelimiter = fs.getMultiValueDelimiter();
-				try {
-					f.parseIndexable(multiValueDelimiter);
-				} catch (FieldDataParseException e) {
-					throw new IOException(e);
-				}
+				parseIndexable(f, fs);
 			}
 			document.set(i, f);
 		}
@@ -179,6 +197,154 @@ public class DocumentReader implements Cloneable {
 		
 		return document;
 	}
+	
+	/**
+	 * 필드를 요청할때 읽는 문서를 리턴한다. 필드길이 표가 없는 포맷이면 fieldSelectOption 에 해당하는 필드를 모두 읽은 문서를 감싸서 리턴한다.
+	 * 리턴된 문서는 캐시된 블럭을 참조하므로 reader로 다른 문서를 읽은 후에도 사용할 수 있다.
+	 * */
+	public LazyDocument readLazyDocument(int docNo, boolean[] fieldSelectOption) throws IOException {
+		if (!hasFieldTable) {
+			Document document = readDocument(docNo, fieldSelectOption);
+			return document != null ? new LazyDocument(document) : null;
+		}
+		long pos = documentPosition(docNo);
+		if (pos < 0) {
+			//없는문서.
+			return null;
+		}
+		DocumentBlockCache.DocumentBlock block = readBlock(docNo, pos);
+		int i = docNo - block.firstDocNo();
+		BytesDataInput input = new BytesDataInput(block.data(), block.offset(i), block.length(i));
+		input.reset();
+		int fieldSize = fields.size();
+		int[] fieldOffset = new int[fieldSize];
+		int[] fieldLength = new int[fieldSize];
+		for (int f = 0; f < fieldSize; f++) {
+			fieldLength[f] = input.readVInt() - 1;
+		}
+		int offset = block.offset(i) + (int) input.position();
+		for (int f = 0; f < fieldSize; f++) {
+			fieldOffset[f] = offset;
+			if (fieldLength[f] > 0) {
+				offset += fieldLength[f];
+			}
+		}
+		return new LazyDocument(fields, docNo + baseDocNo, block.data(), fieldOffset, fieldLength);
+	}
+	
+	private Document toDocument(LazyDocument lazyDocument, boolean[] fieldSelectOption, boolean indexable) throws IOException {
+		Document document = new Document(fields.size());
+		for (int i = 0; i < fields.size(); i++) {
+			Field f = null;
+			//값이 없는 필드는 빈 필드를 추가해준다.
+			if (fieldSelectOption == null || fieldSelectOption[i] || !lazyDocument.hasValue(i)) {
+				f = lazyDocument.get(i);
+				if (indexable) {
+					parseIndexable(f, fields.get(i));
+				}
+			}
+			document.set(i, f);
+		}
+		document.setDocId(lazyDocument.getDocId());
+		return document;
+	}
+	
+	private void parseIndexable(Field f, FieldSetting fs) throws IOException {
+		String multiValueDelimiter = fs.getMultiValueDelimiter();
+		try {
+			f.parseIndexable(multiValueDelimiter);
+		} catch (FieldDataParseException e) {
+			throw new IOException(e);
+		}
+	}
+	
+	/*
+	 * 문서의 시작위치, 블럭포맷이면 문서가 들어있는 블럭의 시작위치. 없는 문서이면 -1.
+	 * */
+	private long documentPosition(int docNo) throws IOException {
+		long positionOffset = docNo * IOUtil.SIZE_OF_LONG;
+		if (positionOffset >= positionLimit) {
+			return -1;
+		}
+		positionInput.seek(positionOffset);
+		return positionInput.readLong();
+	}
+
+	/*
+	 * 예전 포맷. 문서 하나가 따로 압축되어 있다.
+	 * */
+	private DataInput readCompressed(long pos) throws IOException {
+		// find a document block
+		docInput.seek(pos);
+		int len = docInput.readInt();
+		
+		//2014-11-26 검색요청이 많아서 working 버퍼가 너무 빠르게 많이 생길경우 GC 되기전에 OOM 발생할수 있음.
+		// Stream으로 바꾸어 해결.
+		//Inflater 는 직접 넘겨준 경우 stream close시 end() 되지 않으므로 재사용한다.
+		if (inflater == null) {
+			inflater = new Inflater();
+		}
+		inflater.reset();
+		InflaterInputStream decompressInputStream = null;
+		inflaterOutput.reset();
+		int count = -1;
+		try {
+			BoundedInputStream boundedInputStream = new BoundedInputStream(docInput, len);
+			boundedInputStream.setPropagateClose(false);//하위 docInput 를 닫지않는다.
+			decompressInputStream = new InflaterInputStream(boundedInputStream, inflater, 512);
+			while ((count = decompressInputStream.read(workingBuffer)) != -1) {
+				inflaterOutput.write(workingBuffer, 0, count);
+			}
+		} finally {
+			if (decompressInputStream != null) {
+				decompressInputStream.close();
+			}
+		}
+
+		BytesRef bytesRef = inflaterOutput.getBytesRef();
+		return new BytesDataInput(bytesRef.bytes, 0, bytesRef.length);
+	}
+	
+	/*
+	 * 필드길이 표가 없는 블럭포맷. 필드를 순서대로 읽는다.
+	 * */
+	private DataInput readFromBlock(int docNo, long pos) throws IOException {
+		DocumentBlockCache.DocumentBlock block = readBlock(docNo, pos);
+		int i = docNo - block.firstDocNo();
+		BytesDataInput bai = new BytesDataInput(block.data(), block.offset(i), block.length(i));
+		bai.reset();
+		return bai;
+	}
+	
+	/*
+	 * 캐시에 없으면 블럭을 읽어 압축을 풀고 캐시에 넣는다.
+	 * */
+	private DocumentBlockCache.DocumentBlock readBlock(int docNo, long pos) throws IOException {
+		DocumentBlockCache.DocumentBlock block = blockCache.get(readerId, pos);
+		if (block == null) {
+			docInput.seek(pos);
+			int firstDocNo = docInput.readVInt();
+			int size = docInput.readVInt();
+			int[] offsets = new int[size + 1];
+			for (int i = 0; i < size; i++) {
+				offsets[i + 1] = offsets[i] + docInput.readVInt();
+			}
+			int compressedLength = docInput.readVInt();
+			if (compressedBuffer == null || compressedBuffer.length < compressedLength) {
+				compressedBuffer = new byte[Math.max(compressedLength, DocumentWriter.BLOCK_DATA_SIZE)];
+			}
+			docInput.readBytes(compressedBuffer, 0, compressedLength);
+			byte[] data = new byte[offsets[size]];
+			codec.decompress(compressedBuffer, 0, compressedLength, data, data.length);
+			block = new DocumentBlockCache.DocumentBlock(firstDocNo, offsets, data);
+			blockCache.put(readerId, pos, block);
+		}
+		int i = docNo - block.firstDocNo();
+		if (i < 0 || i >= block.size()) {
+			throw new IOException("Document " + docNo + " is not in block at " + pos + ". firstDocNo=" + block.firstDocNo() + ", size=" + block.size());
+		}
+		return block;
+	}
 
 	@Override
 	public DocumentReader clone() {
@@ -192,11 +358,35 @@ public class DocumentReader implements Cloneable {
 		reader.inflaterOutput = new ByteRefArrayOutputStream(INFLATE_BUFFER_INIT_SIZE); // 자동 증가됨.
 		reader.workingBuffer = new byte[1024];
 		reader.positionLimit = positionLimit;
+		reader.readerId = readerId;
+		reader.isClone = true;
+		reader.isBlockFormat = isBlockFormat;
+		reader.hasFieldTable = hasFieldTable;
+		reader.codecId = codecId;
+		reader.blockCache = blockCache;
+		if (isBlockFormat) {
+			try {
+				reader.codec = DocumentCodec.create(codecId);
+			} catch (IOException e) {
+				//생성자에서 이미 확인한 codec id 이다.
+				throw new IllegalStateException(e);
+			}
+		}
 		return reader;
 	}
 
 	public void close() throws IOException {
 		docInput.close();
 		positionInput.close();
+		if (codec != null) {
+			codec.close();
+		}
+		if (inflater != null) {
+			inflater.end();
+			inflater = null;
+		}
+		if (blockCache != null && !isClone) {
+			blockCache.remove(readerId);
+		}
 	}
 }
@@ -31,6 +31,7 @@ import org.fastcatsearch.ir.index.WriteInfoLoggable;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
 import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.Schema;
@@ -40,11 +41,22 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * 문서를 한개씩 압축하여 기록한다.
  * 입력되는 Document들을 파일로 기록하는 클래스.
  * 
  * 생성되는파일은 2개인데 문서데이터파일, 데이터파일내 문서위치를 기록한 문서위치파일이다.
  * 
+ * 블럭포맷(index-config 의 document-block-size > 0)은 여러 문서를 한 블럭으로 모아 DocumentCodec으로 압축한다.
+ * <pre>
+ * document.stored : int FIELD_TABLE_FORMAT | int 문서수 | byte codec id | 블럭...
+ * 블럭 : VInt 첫문서번호 | VInt 블럭문서수 | 블럭문서수 * VInt 문서길이 | VInt 압축길이 | 압축데이터
+ * 문서 : 필드수 * VInt (필드데이터길이 + 1, 값이 없으면 0) | 필드데이터...
+ * document.position : 문서별로 문서가 들어있는 블럭의 시작위치(long)
+ * </pre>
+ * 문서 앞의 필드길이 표로 필드별 위치를 바로 알 수 있으므로, 요청한 필드만 LazyDocument 로 읽을수 있다.
+ * 필드길이 표가 없는 BLOCK_FORMAT 은 필드마다 boolean 값존재여부 | 필드데이터 를 순서대로 기록한다.
+ * 예전 포맷은 헤더가 문서수(int)로 시작하며, 문서를 한개씩 압축하여 int 압축길이 | 압축데이터 로 기록하고, 문서위치파일에는 문서의 시작위치를 기록한다.
+ * append 시에는 기존 파일의 포맷을 그대로 따른다.
+ * 
  * 문서번호는 append일때에는 이전 리비전의 다음부터 생성한다.아니면 0.
  * 차후에 DocumentReader에서 읽을때는 읽으려는 문서번호에서 docbaseNo을 빼서 내부문서번호로
  * 변경한뒤 읽는다.
@@ -64,25 +76,82 @@ public class DocumentWriter implements WriteInfoLoggable {
 	private Deflater compressor;
 	private int count; //현 색인시 추가문서갯수.
 	
+	//블럭포맷 헤더표시. 예전 포맷의 첫 int 는 문서수이므로 음수가 나오지 않는다.
+	public static final int BLOCK_FORMAT = 0xFCD0C001;
+	public static final int FIELD_TABLE_FORMAT = 0xFCD0C002;
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+	//블럭 데이터가 이 크기를 넘으면 문서수와 상관없이 블럭을 마감한다.
+	public static final int BLOCK_DATA_SIZE = 16 * 1024;
+	
+	private boolean isBlockFormat;
+	private boolean hasFieldTable;
+	private int[] fieldLength;
+	private BytesDataOutput fieldOutput;
+	private int blockSize;
+	private DocumentCodec codec;
+	private BytesDataOutput blockOutput; //압축전 블럭데이터.
+	private BytesDataOutput compressOutput;
+	private int[] blockDocLength;
+	private int blockDocCount;
+	
 	public DocumentWriter(SchemaSetting schemaSetting, File dir, RevisionInfo revisionInfo, IndexConfig indexConfig) throws IOException, IRException {
 		
 		boolean isAppend = revisionInfo.isAppend();
 		
-		compressor = new Deflater(Deflater.BEST_SPEED);
 		fields = schemaSetting.getFieldSettingList();
 		
+		int codecId = DocumentCodec.DEFLATE_FAST;
+		if (indexConfig != null) {
+			blockSize = indexConfig.documentBlockSize();
+			codecId = DocumentCodec.idOf(indexConfig.getCompressionType());
+		} else {
+			blockSize = DEFAULT_BLOCK_SIZE;
+		}
+		isBlockFormat = blockSize > 0;
+		hasFieldTable = isBlockFormat;
+		
+		if (isAppend) {
+			IndexInput docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
+			int header = docInput.readInt();
+			isBlockFormat = isBlockFormat(header);
+			hasFieldTable = (header == FIELD_TABLE_FORMAT);
+			if (isBlockFormat) {
+				totalCount = docInput.readInt();
+				codecId = docInput.readByte();
+				if (blockSize <= 0) {
+					blockSize = DEFAULT_BLOCK_SIZE;
+				}
+			} else {
+				totalCount = header;
+			}
+			docInput.close();
+		}
+		
 		docOutput = new BufferedFileOutput(dir, IndexFileNames.docStored, isAppend);
 		positionOutput = new BufferedFileOutput(dir, IndexFileNames.docPosition, isAppend);
 
 		fbaos = new BytesDataOutput(3 * 1024 * 1024); //초기 3Mb로 시작.
 		workingBuffer = new byte[1024];
-
-		if (isAppend) {
-			IndexInput docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
-			totalCount = docInput.readInt();
-			docInput.close();
+		
+		if (isBlockFormat) {
+			codec = DocumentCodec.create(codecId);
+			blockOutput = new BytesDataOutput(BLOCK_DATA_SIZE * 2);
+			compressOutput = new BytesDataOutput(BLOCK_DATA_SIZE);
+			blockDocLength = new int[blockSize];
+			fieldLength = new int[fields.size()];
+			fieldOutput = new BytesDataOutput(BLOCK_DATA_SIZE);
 		} else {
-			docOutput.writeInt(0); // document count
+			compressor = new Deflater(Deflater.BEST_SPEED);
+		}
+
+		if (!isAppend) {
+			if (isBlockFormat) {
+				docOutput.writeInt(FIELD_TABLE_FORMAT);
+				docOutput.writeInt(0); // document count
+				docOutput.writeByte(codecId);
+			} else {
+				docOutput.writeInt(0); // document count
+			}
 		}
 
 	}
@@ -90,23 +159,19 @@ public class DocumentWriter implements WriteInfoLoggable {
 
 	public int write(Document document) throws IOException, IRException {
 		fbaos.reset();
-		long docStartPosition = docOutput.position();
-		positionOutput.writeLong(docStartPosition);
+		if (hasFieldTable) {
+			writeFieldTable(document, fbaos);
+			return writeToBlock();
+		}
+		writeFields(document, fbaos);
 		
-		for (int i = 0; i < document.size(); i++) {
-			Field f = document.get(i);
-			//필드가 null이면 데이터없는 것으로 처리
-			FieldSetting fieldSetting = fields.get(i);
-			if(f == null || f.isNull() || !fieldSetting.isStore()){
-				fbaos.writeBoolean(false);
-			} else {
-				fbaos.writeBoolean(true);
-				//TODO 차후 필드별 압축으로 변경한다. 필드 데이터를 업데이트 하려면 필드별로 관리해야함.
-//				fbaos.writeBoolean(fieldSetting.isCompress());
-				f.writeRawTo(fbaos);
-			}
+		if (isBlockFormat) {
+			return writeToBlock();
 		}
 		
+		long docStartPosition = docOutput.position();
+		positionOutput.writeLong(docStartPosition);
+		
 		compressor.reset();
 		compressor.setInput(fbaos.array(), 0, (int) fbaos.position());
 		compressor.finish();
@@ -130,6 +195,79 @@ public class DocumentWriter implements WriteInfoLoggable {
 		count++;
 		return totalCount++;
 	}
+	
+	/*
+	 * 문서를 현재 블럭에 추가한다. 블럭은 아직 기록되지 않았으므로 블럭 시작위치는 현재 파일위치이다.
+	 * */
+	private int writeToBlock() throws IOException {
+		positionOutput.writeLong(docOutput.position());
+		int length = (int) fbaos.position();
+		blockOutput.writeBytes(fbaos.array(), 0, length);
+		blockDocLength[blockDocCount++] = length;
+		
+		count++;
+		int docNo = totalCount++;
+		if (blockDocCount >= blockSize || blockOutput.position() >= BLOCK_DATA_SIZE) {
+			flushBlock();
+		}
+		return docNo;
+	}
+	
+	private void flushBlock() throws IOException {
+		if (blockDocCount == 0) {
+			return;
+		}
+		compressOutput.reset();
+		codec.compress(blockOutput.array(), 0, (int) blockOutput.position(), compressOutput);
+		
+		docOutput.writeVInt(totalCount - blockDocCount);
+		docOutput.writeVInt(blockDocCount);
+		for (int i = 0; i < blockDocCount; i++) {
+			docOutput.writeVInt(blockDocLength[i]);
+		}
+		docOutput.writeVInt((int) compressOutput.position());
+		docOutput.writeBytes(compressOutput.array(), 0, (int) compressOutput.position());
+		
+		blockOutput.reset();
+		blockDocCount = 0;
+	}
+	
+	/*
+	 * 필드길이 표 다음에 필드데이터를 기록한다. 필드데이터는 길이를 알아야 하므로 fieldOutput에 먼저 쓴뒤 옮긴다.
+	 * */
+	private void writeFieldTable(Document document, BytesDataOutput output) throws IOException {
+		fieldOutput.reset();
+		for (int i = 0; i < fields.size(); i++) {
+			Field f = i < document.size() ? document.get(i) : null;
+			if (f == null || f.isNull() || !fields.get(i).isStore()) {
+				fieldLength[i] = -1;
+			} else {
+				long st = fieldOutput.position();
+				f.writeRawTo(fieldOutput);
+				fieldLength[i] = (int) (fieldOutput.position() - st);
+			}
+		}
+		for (int i = 0; i < fields.size(); i++) {
+			output.writeVInt(fieldLength[i] + 1);
+		}
+		output.writeBytes(fieldOutput.array(), 0, (int) fieldOutput.position());
+	}
+	
+	private void writeFields(Document document, BytesDataOutput fbaos) throws IOException {
+		for (int i = 0; i < document.size(); i++) {
+			Field f = document.get(i);
+			//필드가 null이면 데이터없는 것으로 처리
+			FieldSetting fieldSetting = fields.get(i);
+			if(f == null || f.isNull() || !fieldSetting.isStore()){
+				fbaos.writeBoolean(false);
+			} else {
+				fbaos.writeBoolean(true);
+				//TODO 차후 필드별 압축으로 변경한다. 필드 데이터를 업데이트 하려면 필드별로 관리해야함.
+//				fbaos.writeBoolean(fieldSetting.isCompress());
+				f.writeRawTo(fbaos);
+			}
+		}
+	}
 
 	public int totalCount(){
 		return totalCount;
@@ -137,10 +275,17 @@ public class DocumentWriter implements WriteInfoLoggable {
 	
 	public void close() throws IOException {
 		logger.debug("DocumentWriter close() count={}", count);
+		
+		if (isBlockFormat) {
+			flushBlock();
+			codec.close();
+		} else {
+			compressor.end();
+		}
 
 		// write header
 		if(count > 0){
-			docOutput.seek(0);
+			docOutput.seek(documentCountPosition(isBlockFormat));
 			docOutput.writeInt(totalCount);
 		}
 		docOutput.close();
@@ -148,6 +293,41 @@ public class DocumentWriter implements WriteInfoLoggable {
 		positionOutput.close();
 	}
 
+	/**
+	 * document.stored 의 첫 int 로 블럭포맷인지 판단한다.
+	 * */
+	public static boolean isBlockFormat(int header) {
+		return header == BLOCK_FORMAT || header == FIELD_TABLE_FORMAT;
+	}
+	
+	/**
+	 * document.stored 헤더에서 문서수가 기록된 위치. 블럭포맷은 포맷표시 다음이고, 예전 포맷은 맨앞이다.
+	 * */
+	public static long documentCountPosition(boolean isBlockFormat) {
+		return isBlockFormat ? IOUtil.SIZE_OF_INT : 0;
+	}
+	
+	/**
+	 * 기록이 끝난 document.stored 의 헤더에 문서수를 다시 기록한다.
+	 * 미러동기화로 문서데이터만 이어붙인 경우에 사용한다.
+	 * */
+	public static void writeDocumentCount(File file, int documentCount) throws IOException {
+		IndexInput input = new BufferedFileInput(file);
+		int header = 0;
+		try {
+			header = input.readInt();
+		} finally {
+			input.close();
+		}
+		BufferedFileOutput output = new BufferedFileOutput(file, true);
+		try {
+			output.seek(documentCountPosition(isBlockFormat(header)));
+			output.writeInt(documentCount);
+		} finally {
+			output.close();
+		}
+	}
+
 	@Override
 	public void getIndexWriteInfo(IndexWriteInfoList writeInfoList) {
 		writeInfoList.setDocumentSize(totalCount);
@@ -0,0 +1,161 @@
+package org.fastcatsearch.ir.document;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.fastcatsearch.ir.io.BytesDataOutput;
+
+/**
+ * LZ4 블럭포맷과 같은 형식의 압축. 외부 라이브러리 없이 java 로만 구현했다.
+ * 압축률은 deflate 보다 낮지만 압축해제가 수배 빠르므로 문서조회가 많은 컬렉션에 사용한다.
+ * 
+ * 시퀀스는 token(리터럴길이 4bit | 매치길이-4 4bit), 추가 리터럴길이, 리터럴, offset(2byte little endian), 추가 매치길이 순이다.
+ * 마지막 시퀀스는 리터럴만 가지며, 마지막 5바이트는 항상 리터럴이다.
+ * */
+public class LZ4DocumentCodec extends DocumentCodec {
+
+	private static final int MIN_MATCH = 4;
+	private static final int HASH_LOG = 12;
+	private static final int LAST_LITERALS = 5;
+	//매치는 블럭끝에서 12바이트 이전에 시작해야 한다.
+	private static final int MF_LIMIT = 12;
+	private static final int MAX_DISTANCE = 65535;
+	private static final int RUN_MASK = 15;
+
+	private int[] hashTable;
+
+	@Override
+	public int id() {
+		return LZ4;
+	}
+
+	private static int readInt(byte[] b, int i) {
+		return (b[i] & 0xff) | ((b[i + 1] & 0xff) << 8) | ((b[i + 2] & 0xff) << 16) | ((b[i + 3] & 0xff) << 24);
+	}
+
+	private static int hash(int value) {
+		return (value * -1640531535) >>> (32 - HASH_LOG);
+	}
+
+	@Override
+	public void compress(byte[] src, int offset, int length, BytesDataOutput output) throws IOException {
+		int end = offset + length;
+		int anchor = offset;
+		if (length >= MF_LIMIT + 1) {
+			if (hashTable == null) {
+				hashTable = new int[1 << HASH_LOG];
+			}
+			Arrays.fill(hashTable, -1);
+			int limit = end - MF_LIMIT;
+			int matchLimit = end - LAST_LITERALS;
+			int ip = offset;
+			while (ip < limit) {
+				int value = readInt(src, ip);
+				int h = hash(value);
+				int ref = hashTable[h];
+				hashTable[h] = ip;
+				if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != value) {
+					ip++;
+					continue;
+				}
+				//앞쪽으로 매치를 늘린다.
+				while (ip > anchor && ref > offset && src[ip - 1] == src[ref - 1]) {
+					ip--;
+					ref--;
+				}
+				int matchLength = MIN_MATCH;
+				while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+					matchLength++;
+				}
+				writeSequence(output, src, anchor, ip - anchor, ip - ref, matchLength);
+				ip += matchLength;
+				anchor = ip;
+			}
+		}
+		//남은 리터럴.
+		writeSequence(output, src, anchor, end - anchor, 0, 0);
+	}
+
+	private static void writeSequence(BytesDataOutput output, byte[] src, int literalOffset, int literalLength, int distance, int matchLength) throws IOException {
+		int token = Math.min(literalLength, RUN_MASK) << 4;
+		if (matchLength > 0) {
+			token |= Math.min(matchLength - MIN_MATCH, RUN_MASK);
+		}
+		output.writeByte((byte) token);
+		if (literalLength >= RUN_MASK) {
+			writeLength(output, literalLength - RUN_MASK);
+		}
+		output.writeBytes(src, literalOffset, literalLength);
+		if (matchLength > 0) {
+			output.writeByte((byte) distance);
+			output.writeByte((byte) (distance >>> 8));
+			if (matchLength - MIN_MATCH >= RUN_MASK) {
+				writeLength(output, matchLength - MIN_MATCH - RUN_MASK);
+			}
+		}
+	}
+
+	private static void writeLength(BytesDataOutput output, int length) throws IOException {
+		while (length >= 255) {
+			output.writeByte((byte) 255);
+			length -= 255;
+		}
+		output.writeByte((byte) length);
+	}
+
+	@Override
+	public void decompress(byte[] src, int offset, int length, byte[] dest, int destLength) throws IOException {
+		int ip = offset;
+		int end = offset + length;
+		int op = 0;
+		try {
+			while (ip < end) {
+				int token = src[ip++] & 0xff;
+				int literalLength = token >>> 4;
+				if (literalLength == RUN_MASK) {
+					int b;
+					do {
+						b = src[ip++] & 0xff;
+						literalLength += b;
+					} while (b == 255);
+				}
+				System.arraycopy(src, ip, dest, op, literalLength);
+				ip += literalLength;
+				op += literalLength;
+				if (ip >= end) {
+					break;
+				}
+
+				int distance = (src[ip] & 0xff) | ((src[ip + 1] & 0xff) << 8);
+				ip += 2;
+				int matchLength = token & RUN_MASK;
+				if (matchLength == RUN_MASK) {
+					int b;
+					do {
+						b = src[ip++] & 0xff;
+						matchLength += b;
+					} while (b == 255);
+				}
+				matchLength += MIN_MATCH;
+				int ref = op - distance;
+				if (distance == 0 || ref < 0 || op + matchLength > destLength) {
+					throw new IOException("Corrupted lz4 document block. pos=" + (ip - offset));
+				}
+				if (distance >= matchLength) {
+					System.arraycopy(dest, ref, dest, op, matchLength);
+					op += matchLength;
+				} else {
+					//겹치는 매치는 한바이트씩 복사해야 반복패턴이 만들어진다.
+					for (int i = 0; i < matchLength; i++) {
+						dest[op++] = dest[ref++];
+					}
+				}
+			}
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("Corrupted lz4 document block.", e);
+		}
+		if (op != destLength) {
+			throw new IOException("Corrupted lz4 document block. expected=" + destLength + ", actual=" + op);
+		}
+	}
+}
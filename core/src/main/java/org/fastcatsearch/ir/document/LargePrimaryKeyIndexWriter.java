@@ -47,6 +47,9 @@ public class LargePrimaryKeyIndexWriter implements BytesToIntWriter, BytesToIntR
 	}
 
 	public void flush() throws IOException {
+		if (memoryKeyIndex.count() == 0) {
+			return;
+		}
 		logger.debug("##flush #{}", flushCount);
 
 		// 임시 파일 flushCount 로 구분.
@@ -210,4 +213,8 @@ public class LargePrimaryKeyIndexWriter implements BytesToIntWriter, BytesToIntR
 		return memoryKeyIndex.wokingMemorySize();
 	}
 
+	public int flushCount() {
+		return flushCount;
+	}
+
 }
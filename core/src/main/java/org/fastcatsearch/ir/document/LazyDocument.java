@@ -0,0 +1,84 @@
+package org.fastcatsearch.ir.document;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.fastcatsearch.ir.field.Field;
+import org.fastcatsearch.ir.io.BytesDataInput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+
+/**
+ * 필드를 요청할때 읽는 문서. 필드길이 표가 있는 문서포맷에서는 get()한 필드만 압축해제된 블럭에서 읽으므로,
+ * 필드가 많고 일부만 보여주는 경우 나머지 필드는 전혀 읽지 않는다.
+ * 예전 포맷의 문서는 DocumentReader가 모두 읽은 Document를 감싼다.
+ * 
+ * 읽은 필드는 보관하여 다시 읽지 않는다. thread-safe 하지 않다.
+ * */
+public class LazyDocument {
+
+	private List<FieldSetting> fields;
+	private int docId;
+
+	//필드길이 표가 있는 포맷.
+	private byte[] data;
+	private int[] fieldOffset;
+	private int[] fieldLength; //값이 없으면 -1.
+	private Field[] fieldList;
+
+	//예전 포맷.
+	private Document document;
+
+	public LazyDocument(List<FieldSetting> fields, int docId, byte[] data, int[] fieldOffset, int[] fieldLength) {
+		this.fields = fields;
+		this.docId = docId;
+		this.data = data;
+		this.fieldOffset = fieldOffset;
+		this.fieldLength = fieldLength;
+		fieldList = new Field[fieldOffset.length];
+	}
+
+	public LazyDocument(Document document) {
+		this.document = document;
+		this.docId = document.getDocId();
+	}
+
+	public int size() {
+		return document != null ? document.size() : fieldList.length;
+	}
+
+	public int getDocId() {
+		return docId;
+	}
+
+	/**
+	 * 저장된 값이 있는지 여부. 예전 포맷에서는 읽지 않은 필드도 false 이다.
+	 * */
+	public boolean hasValue(int i) {
+		if (document != null) {
+			Field f = document.get(i);
+			return f != null && f.rawString() != null;
+		}
+		return fieldLength[i] >= 0;
+	}
+
+	/**
+	 * i번째 필드를 읽는다. 값이 없는 필드는 빈 필드를 리턴한다.
+	 * 예전 포맷에서 DocumentReader가 읽지 않은 필드는 null 이다.
+	 * */
+	public Field get(int i) throws IOException {
+		if (document != null) {
+			return document.get(i);
+		}
+		Field f = fieldList[i];
+		if (f == null) {
+			f = fields.get(i).createEmptyField();
+			if (fieldLength[i] >= 0) {
+				BytesDataInput input = new BytesDataInput(data, fieldOffset[i], fieldLength[i]);
+				input.reset();
+				f.readRawFrom(input);
+			}
+			fieldList[i] = f;
+		}
+		return f;
+	}
+}
@@ -93,6 +93,13 @@ public class PrimaryKeyIndexWriter {
 		return count;
 	}
 	
+	/**
+	 * 할당된 배열 기준의 메모리 사용량.
+	 * */
+	public long ramBytesUsed(){
+		return bucket.length * 4L + array.length + (keyPos.length + nextIdx.length + intValueArray.length) * 4L;
+	}
+	
 	public void write() throws IOException{
 		if(hasOutOfMemory)
 			return;
@@ -27,12 +27,12 @@ import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
 import org.fastcatsearch.ir.config.IndexConfig;
 import org.fastcatsearch.ir.field.Field;
+import org.fastcatsearch.ir.index.IndexingMemoryConsumer;
 import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.settings.PrimaryKeySetting;
 import org.fastcatsearch.ir.settings.RefSetting;
 import org.fastcatsearch.ir.settings.Schema;
-import org.fastcatsearch.ir.util.Formatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,7 +42,7 @@ import org.slf4j.LoggerFactory;
  * @author sangwook.song
  * 
  */
-public class PrimaryKeyIndexesWriter {
+public class PrimaryKeyIndexesWriter implements IndexingMemoryConsumer {
 	private static Logger logger = LoggerFactory.getLogger(PrimaryKeyIndexesWriter.class);
 
 	private boolean hasPrimaryKey;
@@ -53,10 +53,7 @@ public class PrimaryKeyIndexesWriter {
 	private PrimaryKeySetting primaryKeySetting;
 	private int[] primaryKeyFieldIdList;
 
-	
-	int MEMORY_LIMIT = 64 * 1024 * 1024; //적절은 64M
-	int CHECK_COUNT = 100000;
-	int count;
+
 	public PrimaryKeyIndexesWriter(Schema schema, File dir, RevisionInfo revisionInfo, IndexConfig indexConfig) throws IOException, IRException {
 		String segmentId = dir.getName();
 		boolean isAppend = revisionInfo.isAppend();
@@ -138,20 +135,34 @@ public class PrimaryKeyIndexesWriter {
 				deleteSet.set(preDocNo);
 				updateDocCount++;// 수집시 데이터내에 서로 중복된 문서가 발견된 경우 count증가.
 			}
-			
-			count++;
-			if (count % CHECK_COUNT == 0) {
-				long memorySize = indexWriter.checkWorkingMemorySize();
-				logger.info("PK check #{} pk mem {}", count, Formatter.getFormatSize(memorySize));
-				if (memorySize > MEMORY_LIMIT) {
-					indexWriter.flush();
-				}
-			}
-			
-			
 		}
 	}
 
+	/**
+	 * flush 시점은 세그먼트의 IndexingMemoryBudget 이 정한다.
+	 * */
+	@Override
+	public long ramBytesUsed() {
+		return indexWriter != null ? indexWriter.checkWorkingMemorySize() : 0;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (indexWriter != null) {
+			indexWriter.flush();
+		}
+	}
+
+	@Override
+	public int flushCount() {
+		return indexWriter != null ? indexWriter.flushCount() : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "pk";
+	}
+
 	public void close() throws IOException {
 		if(indexWriter != null){
 			indexWriter.close();
@@ -25,6 +25,7 @@ import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Filter;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.slf4j.Logger;
@@ -69,4 +70,19 @@ public abstract class FilterFunction {
 	 */
 	public abstract boolean filtering(RankInfo rankInfo, DataRef dataRef) throws FilterException, IOException;
 	
+	/**
+	 * 컬럼캐시에 올라간 필드를 byte 로 복사하지 않고 값으로 바로 비교할수 있는지 여부.
+	 * true 이면 filtering(RankInfo, ColumnCache) 로 필터링한다.
+	 * */
+	public boolean isColumnFilter(ColumnCache columnCache) {
+		return false;
+	}
+	
+	/**
+	 * isColumnFilter 가 true 일때만 호출된다. 문서번호는 rankInfo.docNo() 를 사용한다.
+	 * */
+	public boolean filtering(RankInfo rankInfo, ColumnCache columnCache) throws FilterException, IOException {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support column filtering.");
+	}
+	
 }
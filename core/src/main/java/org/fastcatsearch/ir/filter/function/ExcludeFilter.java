@@ -24,6 +24,7 @@ import org.fastcatsearch.ir.filter.FilterFunction;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Filter;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 
@@ -112,4 +113,27 @@ public class ExcludeFilter extends PatternFilterFunction {
 
 	}
 
+	@Override
+	public boolean isColumnFilter(ColumnCache columnCache) {
+		return canCompareColumn(columnCache);
+	}
+
+	@Override
+	public boolean filtering(RankInfo rankInfo, ColumnCache columnCache) {
+		int docNo = rankInfo.docNo();
+		for (int j = 0; j < patternCount; j++) {
+			if (patternList[j] != null && compareColumn(columnCache, docNo, patternValues[j]) == 0) {
+				// 매칭했다면 false로 리턴한다. 단, boost시는 true리턴.
+				return isBoostFunction;
+			}
+		}
+		if (isBoostFunction) {
+			rankInfo.addScore(boostScore);
+			if(rankInfo.isExplain()) {
+				rankInfo.explain(fieldIndexId, boostScore, "EXCLUDE_BOOST_FILTER");
+			}
+		}
+		return true;
+	}
+
 }
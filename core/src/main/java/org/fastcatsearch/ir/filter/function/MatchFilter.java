@@ -21,6 +21,7 @@ import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Filter;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 
@@ -105,4 +106,26 @@ public class MatchFilter extends PatternFilterFunction {
 
 	}
 
+	@Override
+	public boolean isColumnFilter(ColumnCache columnCache) {
+		return canCompareColumn(columnCache);
+	}
+
+	@Override
+	public boolean filtering(RankInfo rankInfo, ColumnCache columnCache) {
+		int docNo = rankInfo.docNo();
+		for (int j = 0; j < patternCount; j++) {
+			if (patternList[j] != null && compareColumn(columnCache, docNo, patternValues[j]) == 0) {
+				if (isBoostFunction) {
+					rankInfo.addScore(boostScore);
+					if(rankInfo.isExplain()) {
+						rankInfo.explain(fieldIndexIdList[0], boostScore, "MATCH_BOOST_FILTER");
+					}
+				}
+				return true;
+			}
+		}
+		return isBoostFunction;
+	}
+
 }
@@ -7,6 +7,7 @@ import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.filter.FilterFunction;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 
@@ -22,6 +23,9 @@ public abstract class PatternFilterFunction extends FilterFunction {
     protected int patternCount;
     protected BytesRef[] patternList;
     protected BytesRef[] endPatternList;
+    //컬럼캐시와 비교할 숫자형 패턴값. 색인데이터와 같은 bit 값이며 패턴이 null 인 칸은 사용하지 않는다.
+    protected long[] patternValues;
+    protected long[] endPatternValues;
 
     public PatternFilterFunction(Filter filter, FieldIndexSetting fieldIndexSetting, FieldSetting fieldSetting, boolean isBoostFunction) throws FilterException {
         super(filter, fieldIndexSetting, fieldSetting, isBoostFunction);
@@ -77,7 +81,54 @@ public abstract class PatternFilterFunction extends FilterFunction {
             throw new FilterException("필터패턴을 파싱할 수 없습니다.", e);
         }
 
+        if (fieldSetting != null && fieldSetting.isNumericField()) {
+            patternValues = toValues(patternList);
+            endPatternValues = toValues(endPatternList);
+        }
+    }
+
+    /**
+     * single-value 숫자형 필드가 4byte, 8byte 컬럼으로 올라가 있으면 값으로 비교할수 있다.
+     * */
+    protected boolean canCompareColumn(ColumnCache columnCache) {
+        if (columnCache == null || isMultiField || fieldSetting == null || !columnCache.isTyped()) {
+            return false;
+        }
+        FieldSetting.Type type = fieldSetting.getType();
+        if (type != FieldSetting.Type.INT && type != FieldSetting.Type.LONG && type != FieldSetting.Type.FLOAT
+                && type != FieldSetting.Type.DOUBLE && type != FieldSetting.Type.DATETIME) {
+            return false;
+        }
+        return fieldSetting.getByteSize() == columnCache.dataSize();
+    }
 
+    private long[] toValues(BytesRef[] list) {
+        long[] values = new long[patternCount];
+        for (int j = 0; j < patternCount; j++) {
+            if (list[j] != null) {
+                values[j] = list[j].length == 4 ? list[j].toIntValue() : list[j].toLongValue();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 문서의 컬럼값과 패턴값을 필드타입으로 비교한다.
+     * @return 0:같음, 양수:문서값이 큼, 음수:패턴값이 큼
+     * */
+    protected int compareColumn(ColumnCache columnCache, int docNo, long pattern) {
+        switch (fieldSetting.getType()) {
+        case INT:
+            int intValue = columnCache.getInt(docNo);
+            return intValue < (int) pattern ? -1 : (intValue == (int) pattern ? 0 : 1);
+        case FLOAT:
+            return Float.compare(columnCache.getFloat(docNo), Float.intBitsToFloat((int) pattern));
+        case DOUBLE:
+            return Double.compare(columnCache.getDouble(docNo), Double.longBitsToDouble(pattern));
+        default:
+            long longValue = columnCache.getLong(docNo);
+            return longValue < pattern ? -1 : (longValue == pattern ? 0 : 1);
+        }
     }
 
     public BytesRef[] getPatternList(){
@@ -24,6 +24,7 @@ import org.fastcatsearch.ir.filter.FilterFunction;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Filter;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 
@@ -170,4 +171,28 @@ public class SectionFilter extends PatternFilterFunction {
 		}
 		return 0;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public boolean isColumnFilter(ColumnCache columnCache) {
+		return canCompareColumn(columnCache);
+	}
+
+	@Override
+	public boolean filtering(RankInfo rankInfo, ColumnCache columnCache) {
+		int docNo = rankInfo.docNo();
+		for (int j = 0; j < patternCount; j++) {
+			if ((patternList[j] == null || compareColumn(columnCache, docNo, patternValues[j]) >= 0)
+					&& (endPatternList[j] == null || compareColumn(columnCache, docNo, endPatternValues[j]) <= 0)) {
+				if(isBoostFunction){
+					rankInfo.addScore(boostScore);
+					if(rankInfo.isExplain()) {
+						rankInfo.explain(fieldIndexId, boostScore, "SECTION_BOOST_FILTER");
+					}
+				}
+				return true;
+			}
+		}
+		return isBoostFunction;
+	}
+
+}
@@ -35,6 +35,7 @@ import org.fastcatsearch.ir.group.value.StringGroupingValue;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Group;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.ir.search.FieldIndexReader;
 import org.fastcatsearch.ir.search.FieldIndexesReader;
 import org.fastcatsearch.ir.search.GroupIndexReader;
@@ -61,6 +62,14 @@ public class GroupDataGenerator {
 	private IndexRef<FieldIndexReader>[] fieldIndexRefList;
 	private Map<String, DataRef>[] fieldBytesRefMap;
 	private int[] groupKeySizeList; //그룹별 키의 총 갯수.
+	//그룹번호를 바로 읽는 컬럼캐시. 컬럼캐시가 없는 그룹은 null.
+	private ColumnCache[] groupColumnCaches;
+	//그룹별 function 대상 숫자형 필드의 컬럼캐시와 타입.
+	private Map<String, ColumnCache>[] fieldColumnMap;
+	private Map<String, Type>[] fieldTypeMap;
+	//컬럼캐시에 없어 indexRef 로 읽어야 하는 데이터가 있는지 여부.
+	private boolean readGroupData;
+	private boolean[] readFieldData;
 //	private String[] groupFieldIdList;
 	private FieldSetting[] fieldSettingList;
 	
@@ -74,6 +83,10 @@ public class GroupDataGenerator {
 		fieldIndexRefList = new IndexRef[groupSize];
 		fieldBytesRefMap = new Map[groupSize];
 		groupKeySizeList = new int[groupSize];
+		groupColumnCaches = new ColumnCache[groupSize];
+		fieldColumnMap = new Map[groupSize];
+		fieldTypeMap = new Map[groupSize];
+		readFieldData = new boolean[groupSize];
 		redundancyCheck = new HashSet<Integer>();
 		
 		List<String> indexIdList = new ArrayList<String>(groupSize);
@@ -93,10 +106,17 @@ public class GroupDataGenerator {
 			int idx = schema.getGroupIndexSequence(groupIndexId);
 			
 			if(idx < 0){
+				readGroupData = true;
 				continue;
 			}
 			
 			GroupIndexReader groupIndexReader = indexRef.getReader(i);
+			ColumnCache groupColumnCache = groupIndexReader.columnCache();
+			if(groupColumnCache != null && groupColumnCache.dataSize() == 4){
+				groupColumnCaches[i] = groupColumnCache;
+			}else{
+				readGroupData = true;
+			}
 			int groupKeySize = groupIndexReader.getGroupKeySize();
 			groupKeySizeList[i] = groupKeySize;
 			logger.debug("group#{} [{}] groupKeySize[{}]", i, groupIndexId, groupKeySize);
@@ -158,6 +178,8 @@ public class GroupDataGenerator {
 			if(paramFieldNameList.size() > 0){
 				fieldIndexRefList[i] = fieldIndexesReader.selectIndexRef(paramFieldNameList.toArray(new String[0]));
 				fieldBytesRefMap[i] = new HashMap<String, DataRef>(paramFieldNameList.size());
+				fieldColumnMap[i] = new HashMap<String, ColumnCache>(paramFieldNameList.size());
+				fieldTypeMap[i] = new HashMap<String, Type>(paramFieldNameList.size());
 			
 				//동일한 필드가 파라미터로 여러번 들어올경우 한번만 읽기위해서는 동일한 bytesRef 참조를 가지고 있도록 한다. 
 				int k = 0;
@@ -169,6 +191,16 @@ public class GroupDataGenerator {
 					dataRef.setType(fieldSetting.getType());
 					//차후 dataRef.next하면서 데이터를 읽는다.
 					fieldBytesRefMap[i].put(paramFieldId, dataRef);
+					
+					//숫자형 컬럼캐시 필드는 byte 로 읽어 다시 변환하지 않고 값을 바로 읽는다.
+					FieldIndexReader fieldIndexReader = fieldIndexRefList[i].getReader(k - 1);
+					ColumnCache columnCache = fieldIndexReader != null ? fieldIndexReader.columnCache() : null;
+					if(columnCache != null && isColumnType(fieldSetting.getType()) && columnCache.dataSize() == fieldSetting.getByteSize()){
+						fieldColumnMap[i].put(paramFieldId, columnCache);
+						fieldTypeMap[i].put(paramFieldId, fieldSetting.getType());
+					}else{
+						readFieldData[i] = true;
+					}
 				}
 			}
 		}
@@ -185,42 +217,24 @@ public class GroupDataGenerator {
 		for (int k = 0; k < n; k++) {
 			RankInfo ri = rankInfoList[k];
 			int docNo = ri.docNo();
-			indexRef.read(ri.docNo());
+			if(readGroupData){
+				indexRef.read(docNo);
+			}
 			
 			for(int i = 0; i < groupSize ;i++){
-				if(fieldIndexRefList[i] != null){
+				if(fieldIndexRefList[i] != null && readFieldData[i]){
 					fieldIndexRefList[i].read(docNo);
 				}
+				if(groupColumnCaches[i] != null){
+					addValue(i, groupColumnCaches[i].getInt(docNo), docNo);
+					continue;
+				}
 				redundancyCheck.clear();
 				while(indexRef.getDataRef(i).next()){
 					//multi-value는 여러번..
 					BytesRef bytesRef = indexRef.getDataRef(i).bytesRef();
 					int groupNo = bytesRef.toIntValue();
-					for(GroupFunction groupFunction : groupFunctionList[i]){
-						if(groupFunction == null){
-							continue;
-						}
-						Object value = null;
-						if(groupFunction.getFieldId() != null){
-							DataRef dataRef = fieldBytesRefMap[i].get(groupFunction.getFieldId());
-							dataRef.reset();
-							while(dataRef.next()){
-								value = dataRef.getValue();
-								if(value!=null && value instanceof String) {
-									String strValue = (String)value;
-									//trim nil character
-									int inx = strValue.indexOf('\0');
-									if(inx != -1) {
-										value = strValue.substring(0, inx);
-									}
-								}
-								groupFunction.addValue(groupNo, value);
-							}
-						}else{
-//							logger.debug("doc {} add group value groupNo={} val={}", docNo, groupNo, value);
-							groupFunction.addValue(groupNo, value);
-						}
-					}
+					addValue(i, groupNo, docNo);
 				}
 			}
 			
@@ -228,6 +242,55 @@ public class GroupDataGenerator {
 		
 	}
 	
+	private void addValue(int i, int groupNo, int docNo) throws IOException {
+		for(GroupFunction groupFunction : groupFunctionList[i]){
+			if(groupFunction == null){
+				continue;
+			}
+			Object value = null;
+			if(groupFunction.getFieldId() != null){
+				ColumnCache columnCache = fieldColumnMap[i].get(groupFunction.getFieldId());
+				if(columnCache != null){
+					groupFunction.addValue(groupNo, columnValue(columnCache, fieldTypeMap[i].get(groupFunction.getFieldId()), docNo));
+					continue;
+				}
+				DataRef dataRef = fieldBytesRefMap[i].get(groupFunction.getFieldId());
+				dataRef.reset();
+				while(dataRef.next()){
+					value = dataRef.getValue();
+					if(value!=null && value instanceof String) {
+						String strValue = (String)value;
+						//trim nil character
+						int inx = strValue.indexOf('\0');
+						if(inx != -1) {
+							value = strValue.substring(0, inx);
+						}
+					}
+					groupFunction.addValue(groupNo, value);
+				}
+			}else{
+//				logger.debug("doc {} add group value groupNo={} val={}", docNo, groupNo, value);
+				groupFunction.addValue(groupNo, value);
+			}
+		}
+	}
+	
+	private static boolean isColumnType(Type type) {
+		return type == Type.INT || type == Type.LONG || type == Type.FLOAT || type == Type.DOUBLE;
+	}
+	
+	private static Object columnValue(ColumnCache columnCache, Type type, int docNo) {
+		if(type == Type.INT){
+			return columnCache.getInt(docNo);
+		}else if(type == Type.LONG){
+			return columnCache.getLong(docNo);
+		}else if(type == Type.FLOAT){
+			return columnCache.getFloat(docNo);
+		}else{
+			return columnCache.getDouble(docNo);
+		}
+	}
+	
 	//make an each group data
 	public GroupsData generate() throws IOException{
 		List<GroupEntryList> result = new ArrayList<GroupEntryList>(groupSize);
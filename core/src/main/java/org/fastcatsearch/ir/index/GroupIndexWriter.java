@@ -185,6 +185,13 @@ public class GroupIndexWriter implements WriteInfoLoggable {
 		return groupNo;
 	}
 
+	/**
+	 * 그룹키 맵은 close 때까지 메모리에 유지되므로 flush 로 줄어들지 않는다.
+	 * */
+	public long ramBytesUsed() {
+		return memoryKeyIndex.ramBytesUsed();
+	}
+
 	public void flush() throws IOException {
 		groupIndexOutput.flush();
 		if (isMultiValue) {
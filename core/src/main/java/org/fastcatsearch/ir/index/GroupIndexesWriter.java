@@ -48,6 +48,14 @@ public class GroupIndexesWriter implements WriteInfoLoggable {
 		}
 	}
 
+	public long ramBytesUsed() {
+		long size = 0;
+		for (int i = 0; i < indexSize; i++) {
+			size += groupIndexWriterList[i].ramBytesUsed();
+		}
+		return size;
+	}
+
 	public void flush() throws IOException {
 		for (int i = 0; i < indexSize; i++) {
 			groupIndexWriterList[i].flush();
@@ -3,6 +3,11 @@ package org.fastcatsearch.ir.index;
 public class IndexFieldOption {
 	
 	public static final int STORE_POSITION = 1 << 1;
+	/**
+	 * 포스팅이 고정크기 문서블럭으로 나뉘고 각 텀의 헤더에 skip 리스트가 기록된 포맷.
+	 * 이 옵션이 없는 예전 세그먼트는 skip 리스트 없이 읽는다.
+	 * */
+	public static final int SKIP_BLOCK = 1 << 2;
 	
 	private int optionValue;
 	
@@ -27,6 +32,18 @@ public class IndexFieldOption {
 		return (optionValue & STORE_POSITION) > 0 ;
 	}
 	
+	public void setSkipBlock(){
+		optionValue |= SKIP_BLOCK;
+	}
+	
+	public void removeSkipBlock(){
+		optionValue &= ~SKIP_BLOCK;
+	}
+	
+	public boolean isSkipBlock(){
+		return (optionValue & SKIP_BLOCK) > 0 ;
+	}
+	
 	public boolean equals(Object obj){
 		IndexFieldOption other = (IndexFieldOption) obj;
 		return optionValue == other.optionValue;
@@ -10,6 +10,8 @@ public class IndexWriteInfoList extends ArrayList<IndexWriteInfo>{
 	private static final long serialVersionUID = -3321132694001199373L;
 	
 	private int docSize;
+	private long peakMemorySize; //색인중 최대 메모리 사용량
+	private int flushCount; //메모리 한도를 넘어 임시파일로 flush 한 횟수
 	
 	public IndexWriteInfoList(){
 	}
@@ -21,4 +23,20 @@ public class IndexWriteInfoList extends ArrayList<IndexWriteInfo>{
 	public int getDocumentSize(){
 		return docSize;
 	}
+	
+	public void setPeakMemorySize(long peakMemorySize){
+		this.peakMemorySize = peakMemorySize;
+	}
+	
+	public long getPeakMemorySize(){
+		return peakMemorySize;
+	}
+	
+	public void setFlushCount(int flushCount){
+		this.flushCount = flushCount;
+	}
+	
+	public int getFlushCount(){
+		return flushCount;
+	}
 }
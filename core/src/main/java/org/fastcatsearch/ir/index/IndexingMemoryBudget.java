@@ -0,0 +1,103 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.util.Formatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 세그먼트 writer 하나의 색인 메모리 한도.
+ * 등록된 consumer 와 flush 할수 없는 사용량(그룹키 등)을 합산하여 한도를 넘으면, 사용량이 큰 consumer 부터 한도 아래로 내려갈때까지 flush 한다.
+ * 너무 작은 임시런이 생기지 않도록 한도의 1/64 보다 작은 consumer 는 flush 하지 않는다.
+ * 최대 사용량과 flush 횟수를 기록한다.
+ * */
+public class IndexingMemoryBudget {
+	private static Logger logger = LoggerFactory.getLogger(IndexingMemoryBudget.class);
+
+	private static final int MIN_FLUSH_RATIO = 64;
+
+	private String name;
+	private long budget;
+	private long minFlushBytes;
+	private List<IndexingMemoryConsumer> consumerList;
+	private long[] usedBytes;
+	private long peakBytes;
+	private int flushCount;
+
+	public IndexingMemoryBudget(String name, long budget) {
+		this.name = name;
+		this.budget = budget;
+		this.minFlushBytes = budget / MIN_FLUSH_RATIO;
+		consumerList = new ArrayList<IndexingMemoryConsumer>();
+	}
+
+	public void add(IndexingMemoryConsumer consumer) {
+		consumerList.add(consumer);
+		usedBytes = new long[consumerList.size()];
+	}
+
+	/**
+	 * 사용량을 확인하고 한도를 넘으면 flush 한다.
+	 * @param otherBytes flush 할수 없는 메모리 사용량
+	 * @return flush 후 예상 사용량
+	 * */
+	public long check(long otherBytes) throws IRException, IOException {
+		int size = consumerList.size();
+		//분석 스레드가 사용량을 바꾸고 있을수 있으므로 한번 읽은 값으로 판단한다.
+		long totalBytes = otherBytes;
+		for (int i = 0; i < size; i++) {
+			usedBytes[i] = consumerList.get(i).ramBytesUsed();
+			totalBytes += usedBytes[i];
+		}
+		if (totalBytes > peakBytes) {
+			peakBytes = totalBytes;
+		}
+
+		while (totalBytes > budget) {
+			int largest = -1;
+			for (int i = 0; i < size; i++) {
+				if (usedBytes[i] >= minFlushBytes && (largest == -1 || usedBytes[i] > usedBytes[largest])) {
+					largest = i;
+				}
+			}
+			if (largest == -1) {
+				break;
+			}
+			IndexingMemoryConsumer consumer = consumerList.get(largest);
+			logger.info("[{}] memory {} exceeds {}. flush [{}] {}", name, Formatter.getFormatSize(totalBytes), Formatter.getFormatSize(budget), consumer,
+					Formatter.getFormatSize(usedBytes[largest]));
+			consumer.flush();
+			flushCount++;
+			totalBytes -= usedBytes[largest];
+			usedBytes[largest] = 0;
+		}
+		return totalBytes;
+	}
+
+	public long budget() {
+		return budget;
+	}
+
+	public long peakBytes() {
+		return peakBytes;
+	}
+
+	public int flushCount() {
+		return flushCount;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("[").append(name).append("] memory peak=").append(Formatter.getFormatSize(peakBytes)).append(", budget=").append(Formatter.getFormatSize(budget))
+				.append(", flush=").append(flushCount);
+		for (IndexingMemoryConsumer consumer : consumerList) {
+			sb.append(", ").append(consumer).append("=").append(consumer.flushCount());
+		}
+		return sb.toString();
+	}
+}
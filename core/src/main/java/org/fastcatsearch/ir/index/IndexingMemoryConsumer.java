@@ -0,0 +1,22 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.common.IRException;
+
+/**
+ * 색인중 메모리에 데이터를 쌓았다가 임시파일로 flush 하는 writer.
+ * IndexingMemoryBudget 이 사용량을 합산하여 한도를 넘으면 큰 것부터 flush 한다.
+ * */
+public interface IndexingMemoryConsumer {
+
+	/**
+	 * flush 하면 해제되는 메모리 사용량(byte).
+	 * */
+	public long ramBytesUsed();
+
+	public void flush() throws IRException, IOException;
+
+	public int flushCount();
+
+}
@@ -0,0 +1,73 @@
+package org.fastcatsearch.ir.index;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 색인 파이프라인 한 단계의 처리량.
+ * 처리건수와, 일한 시간(busy), 앞단계 입력이나 뒷단계 큐의 빈자리를 기다린 시간(wait)을 누적한다.
+ * 여러 스레드가 같은 단계를 처리하면 시간은 스레드별 시간의 합이다.
+ * */
+public class IndexingStageMetrics {
+
+	private final String name;
+	private final long startTime;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong busyTime = new AtomicLong();
+	private final AtomicLong waitTime = new AtomicLong();
+
+	public IndexingStageMetrics(String name) {
+		this.name = name;
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * @param nanoTime 처리에 걸린 시간(ns)
+	 * */
+	public void addBusy(long nanoTime) {
+		count.incrementAndGet();
+		busyTime.addAndGet(nanoTime);
+	}
+
+	/**
+	 * 한건을 처리하며 일한 시간과 기다린 시간을 함께 더한다.
+	 * */
+	public void add(long busyNanoTime, long waitNanoTime) {
+		count.incrementAndGet();
+		busyTime.addAndGet(busyNanoTime);
+		waitTime.addAndGet(waitNanoTime);
+	}
+
+	public void addWait(long nanoTime) {
+		waitTime.addAndGet(nanoTime);
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public long count() {
+		return count.get();
+	}
+
+	public long busyTime() {
+		return busyTime.get();
+	}
+
+	public long waitTime() {
+		return waitTime.get();
+	}
+
+	/**
+	 * 시작후 초당 처리건수.
+	 * */
+	public double throughput() {
+		long elapsed = System.nanoTime() - startTime;
+		return elapsed > 0 ? count.get() * 1000000000.0 / elapsed : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + name + "] count=" + count.get() + ", throughput=" + (long) throughput() + "/s, busy=" + busyTime.get() / 1000000 + "ms, wait="
+				+ waitTime.get() / 1000000 + "ms";
+	}
+}
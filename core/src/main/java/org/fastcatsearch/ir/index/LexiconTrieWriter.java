@@ -0,0 +1,237 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 기록이 끝난 lexicon 파일을 읽어 trie 사전파일(search.[indexId].trie)을 만든다.
+ * 기존 lexicon/index 파일은 그대로 두고 같은 리비전 디렉토리에 추가로 기록한다.
+ *
+ * 파일구조는 다음과 같다.
+ * <pre>
+ * int termCount | termCount * long postingPosition | 정방향 trie | 역방향 trie | termCount * int 역방향순서별 term ordinal
+ * trie : int nodeCount | nodeCount * (int minOrd, int maxOrd, byte terminal, VInt edgeSize) | int edgeCount | edgeCount * (UChar label, int target)
+ * </pre>
+ * 노드는 DFS 전위순서로 번호가 매겨지고 노드의 edge 들은 label 순서로 노드순서대로 연속으로 기록되므로, 노드별 edge 시작위치는 읽을때 edgeSize 를 누적하여 계산한다.
+ * 노드 하위의 텀들은 정렬순서상 연속이므로 [minOrd, maxOrd) 구간으로 표현된다.
+ * 역방향 trie 는 텀을 뒤집어 정렬한 순서로 만들며 suffix 검색에 사용한다.
+ * */
+public class LexiconTrieWriter {
+	protected static Logger logger = LoggerFactory.getLogger(LexiconTrieWriter.class);
+
+	//-DlexiconTrie=false 이면 trie 사전을 만들지 않는다.
+	public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("lexiconTrie"));
+
+	private String indexId;
+
+	public LexiconTrieWriter(String indexId) {
+		this.indexId = indexId;
+	}
+
+	public void write(File dir) throws IOException {
+		long st = System.currentTimeMillis();
+		char[][] terms;
+		long[] postingPositions;
+		int termCount = 0;
+
+		File lexiconFile = new File(dir, IndexFileNames.getSearchLexiconFileName(indexId));
+		if (!lexiconFile.exists()) {
+			return;
+		}
+		IndexInput lexiconInput = new BufferedFileInput(lexiconFile);
+		try {
+			int size = lexiconInput.readInt();
+			terms = new char[size][];
+			postingPositions = new long[size];
+			long limit = lexiconInput.length();
+			while (lexiconInput.position() < limit) {
+				if (termCount == terms.length) {
+					terms = Arrays.copyOf(terms, termCount * 2 + 1);
+					postingPositions = Arrays.copyOf(postingPositions, termCount * 2 + 1);
+				}
+				terms[termCount] = lexiconInput.readUString();
+				postingPositions[termCount] = lexiconInput.readLong();
+				termCount++;
+			}
+		} finally {
+			lexiconInput.close();
+		}
+
+		//역방향 정렬.
+		final char[][] reversedTerms = new char[termCount][];
+		Integer[] order = new Integer[termCount];
+		for (int i = 0; i < termCount; i++) {
+			char[] term = terms[i];
+			char[] reversed = new char[term.length];
+			for (int k = 0; k < term.length; k++) {
+				reversed[k] = term[term.length - 1 - k];
+			}
+			reversedTerms[i] = reversed;
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return compareKey(reversedTerms[o1], reversedTerms[o2]);
+			}
+		});
+		char[][] sortedReversedTerms = new char[termCount][];
+		for (int i = 0; i < termCount; i++) {
+			sortedReversedTerms[i] = reversedTerms[order[i]];
+		}
+
+		TrieBuilder forward = new TrieBuilder();
+		forward.build(terms, termCount);
+		TrieBuilder reversed = new TrieBuilder();
+		reversed.build(sortedReversedTerms, termCount);
+
+		IndexOutput output = new BufferedFileOutput(dir, IndexFileNames.getSearchTrieFileName(indexId));
+		try {
+			output.writeInt(termCount);
+			for (int i = 0; i < termCount; i++) {
+				output.writeLong(postingPositions[i]);
+			}
+			forward.writeTo(output);
+			reversed.writeTo(output);
+			for (int i = 0; i < termCount; i++) {
+				output.writeInt(order[i]);
+			}
+			output.flush();
+		} finally {
+			output.close();
+		}
+		logger.debug("## write lexicon trie [{}] termCount[{}] nodes[{}/{}] {}ms", new Object[] { indexId, termCount, forward.nodeCount, reversed.nodeCount,
+				System.currentTimeMillis() - st });
+	}
+
+	private static int compareKey(char[] t1, char[] t2) {
+		int len = t1.length < t2.length ? t1.length : t2.length;
+		for (int i = 0; i < len; i++) {
+			if (t1[i] != t2[i]) {
+				return t1[i] - t2[i];
+			}
+		}
+		return t1.length - t2.length;
+	}
+
+	/**
+	 * 정렬된 텀 배열로부터 trie 를 만든다. 텀 길이만큼 깊어질 수 있으므로 재귀호출 대신 스택을 사용한다.
+	 * */
+	static class TrieBuilder {
+		int nodeCount;
+		int[] minOrd = new int[1024];
+		int[] maxOrd = new int[1024];
+		boolean[] terminal = new boolean[1024];
+		int[] edgeSize = new int[1024];
+
+		int edgeCount;
+		char[] labels = new char[1024];
+		int[] targets = new int[1024];
+
+		//스택 프레임 : 다음 처리할 텀, 끝 텀, 깊이, 다음 기록할 edge.
+		private int[] stackNext = new int[64];
+		private int[] stackEnd = new int[64];
+		private int[] stackDepth = new int[64];
+		private int[] stackEdge = new int[64];
+		private int stackSize;
+
+		void build(char[][] keys, int size) {
+			push(keys, 0, size, 0);
+			while (stackSize > 0) {
+				int top = stackSize - 1;
+				int next = stackNext[top];
+				int end = stackEnd[top];
+				if (next >= end) {
+					stackSize--;
+					continue;
+				}
+				int depth = stackDepth[top];
+				char c = keys[next][depth];
+				int k = next + 1;
+				while (k < end && keys[k][depth] == c) {
+					k++;
+				}
+				int edge = stackEdge[top];
+				stackNext[top] = k;
+				stackEdge[top] = edge + 1;
+				labels[edge] = c;
+				int child = push(keys, next, k, depth + 1);
+				targets[edge] = child;
+			}
+		}
+
+		//노드를 만들고 edge 공간을 할당한 뒤 스택에 넣는다.
+		private int push(char[][] keys, int from, int to, int depth) {
+			if (nodeCount == minOrd.length) {
+				int newSize = nodeCount * 2;
+				minOrd = Arrays.copyOf(minOrd, newSize);
+				maxOrd = Arrays.copyOf(maxOrd, newSize);
+				terminal = Arrays.copyOf(terminal, newSize);
+				edgeSize = Arrays.copyOf(edgeSize, newSize);
+			}
+			int node = nodeCount++;
+			minOrd[node] = from;
+			maxOrd[node] = to;
+			int next = from;
+			while (next < to && keys[next].length == depth) {
+				//중복텀은 첫번째만 사용한다.
+				terminal[node] = true;
+				next++;
+			}
+
+			int groups = 0;
+			for (int j = next; j < to; j++) {
+				if (j == next || keys[j][depth] != keys[j - 1][depth]) {
+					groups++;
+				}
+			}
+			edgeSize[node] = groups;
+			int edgeStart = edgeCount;
+			edgeCount += groups;
+			if (edgeCount > labels.length) {
+				int newSize = Math.max(edgeCount, labels.length * 2);
+				labels = Arrays.copyOf(labels, newSize);
+				targets = Arrays.copyOf(targets, newSize);
+			}
+
+			if (stackSize == stackNext.length) {
+				int newSize = stackSize * 2;
+				stackNext = Arrays.copyOf(stackNext, newSize);
+				stackEnd = Arrays.copyOf(stackEnd, newSize);
+				stackDepth = Arrays.copyOf(stackDepth, newSize);
+				stackEdge = Arrays.copyOf(stackEdge, newSize);
+			}
+			stackNext[stackSize] = next;
+			stackEnd[stackSize] = to;
+			stackDepth[stackSize] = depth;
+			stackEdge[stackSize] = edgeStart;
+			stackSize++;
+			return node;
+		}
+
+		void writeTo(IndexOutput output) throws IOException {
+			output.writeInt(nodeCount);
+			for (int i = 0; i < nodeCount; i++) {
+				output.writeInt(minOrd[i]);
+				output.writeInt(maxOrd[i]);
+				output.writeByte(terminal[i] ? 1 : 0);
+				output.writeVInt(edgeSize[i]);
+			}
+			output.writeInt(edgeCount);
+			for (int i = 0; i < edgeCount; i++) {
+				output.writeUChar(labels[i]);
+				output.writeInt(targets[i]);
+			}
+		}
+	}
+}
@@ -32,6 +32,8 @@ import org.slf4j.LoggerFactory;
 public class MemoryPosting {
 	protected static Logger logger = LoggerFactory.getLogger(MemoryPosting.class);
 	protected static final HashFunctions hfunc = HashFunctions.RSHash;
+	//텀마다 keyPos(4), nextIdx(4), postingArray 참조(8)
+	protected static final int TERM_SLOT_BYTES = 16;
 
 	protected int[] bucket;
 	protected char[] keyArray;
@@ -45,6 +47,8 @@ public class MemoryPosting {
 	protected int keyArrayLength;
 	protected int keyUseLength;
 	protected boolean isIgnoreCase;
+	//flush 하면 해제되는 메모리를 텀추가시마다 누적한다.
+	protected long ramBytesUsed;
 
 	public MemoryPosting(int size) {
 		this(size, false);
@@ -64,6 +68,7 @@ public class MemoryPosting {
 		postingArray = new PostingBuffer[length];
 
 		Arrays.fill(bucket, -1);
+		ramBytesUsed = bucket.length * 4;
 	}
 
 	protected PostingBuffer newPostingBuffer() {
@@ -83,7 +88,7 @@ public class MemoryPosting {
 		if (count > 0) {
 			long st = System.currentTimeMillis();
 			logger.debug("MemoryPosting term sort...");
-			quickSort(sortedID, 0, count - 1);
+			sortTerms(sortedID);
 			logger.debug("Sort Done. time = {}ms", System.currentTimeMillis() - st);
 		}
 		// 기록위치
@@ -129,7 +134,131 @@ public class MemoryPosting {
 		return outPos;
 	}
 
-	private void quickSort(int[] ids, int first, int last) {
+	private static final int INSERTION_SORT_SIZE = 16;
+
+	/**
+	 * 텀 id 를 텀 문자열 순으로 정렬한다.
+	 * multikey quicksort(3-way radix quicksort) 로, 한 자리의 문자로 작은/같은/큰 구간으로 나누고 같은 구간은 다음 자리로 넘어간다.
+	 * 이미 같다고 확인된 앞부분을 다시 비교하지 않으므로 앞부분이 겹치는 텀이 많을수록 quickSort 보다 빠르다.
+	 * 텀은 중복이 없으므로 결과 순서는 compareKey 기준의 quickSort 와 같다.
+	 * */
+	void sortTerms(int[] ids) {
+		int size = ids.length;
+		if (size < 2) {
+			return;
+		}
+		// 텀의 끝 위치. 마지막 텀은 keyUseLength 에서 끝난다.
+		int[] keyEnd = new int[count];
+		for (int id = 0; id < count - 1; id++) {
+			keyEnd[id] = keyPos[id + 1];
+		}
+		keyEnd[count - 1] = keyUseLength;
+
+		// 재귀 대신 구간(lo, hi, depth)을 스택에 쌓는다.
+		int[] stack = new int[3 * 64];
+		int sp = 0;
+		stack[sp++] = 0;
+		stack[sp++] = size - 1;
+		stack[sp++] = 0;
+		while (sp > 0) {
+			int depth = stack[--sp];
+			int hi = stack[--sp];
+			int lo = stack[--sp];
+			if (hi - lo < INSERTION_SORT_SIZE) {
+				insertionSort(ids, keyEnd, lo, hi, depth);
+				continue;
+			}
+
+			// 세 위치 문자의 중간값을 pivot 으로 맨앞에 둔다.
+			int mid = (lo + hi) >>> 1;
+			int a = charAt(ids[lo], keyEnd, depth);
+			int b = charAt(ids[mid], keyEnd, depth);
+			int c = charAt(ids[hi], keyEnd, depth);
+			int pivotPos = (a < b) ? (b < c ? mid : (a < c ? hi : lo)) : (a < c ? lo : (b < c ? hi : mid));
+			swap(ids, lo, pivotPos);
+			int pivot = charAt(ids[lo], keyEnd, depth);
+
+			// ids[lo..lt-1] < pivot = ids[lt..gt] < ids[gt+1..hi]
+			int lt = lo;
+			int gt = hi;
+			int i = lo + 1;
+			while (i <= gt) {
+				int ch = charAt(ids[i], keyEnd, depth);
+				if (ch < pivot) {
+					swap(ids, lt++, i++);
+				} else if (ch > pivot) {
+					swap(ids, i, gt--);
+				} else {
+					i++;
+				}
+			}
+
+			if (sp + 9 > stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			if (lo < lt - 1) {
+				stack[sp++] = lo;
+				stack[sp++] = lt - 1;
+				stack[sp++] = depth;
+			}
+			if (gt + 1 < hi) {
+				stack[sp++] = gt + 1;
+				stack[sp++] = hi;
+				stack[sp++] = depth;
+			}
+			// pivot 이 -1 이면 이 자리에서 끝난 텀들이며, 중복이 없으므로 하나뿐이다.
+			if (pivot >= 0 && lt < gt) {
+				stack[sp++] = lt;
+				stack[sp++] = gt;
+				stack[sp++] = depth + 1;
+			}
+		}
+	}
+
+	// depth 자리의 문자. 텀이 끝났으면 -1 이므로 짧은 텀이 앞에 온다.
+	private int charAt(int id, int[] keyEnd, int depth) {
+		int pos = keyPos[id] + depth;
+		return pos < keyEnd[id] ? keyArray[pos] : -1;
+	}
+
+	private void insertionSort(int[] ids, int[] keyEnd, int lo, int hi, int depth) {
+		for (int i = lo + 1; i <= hi; i++) {
+			int id = ids[i];
+			int j = i - 1;
+			while (j >= lo && compareKey(ids[j], id, keyEnd, depth) > 0) {
+				ids[j + 1] = ids[j];
+				j--;
+			}
+			ids[j + 1] = id;
+		}
+	}
+
+	// depth 이전 자리는 같다고 확인되었으므로 depth 부터 비교한다.
+	private int compareKey(int id, int id2, int[] keyEnd, int depth) {
+		int pos = keyPos[id] + depth;
+		int end = keyEnd[id];
+		int pos2 = keyPos[id2] + depth;
+		int end2 = keyEnd[id2];
+		while (pos < end && pos2 < end2) {
+			if (keyArray[pos] != keyArray[pos2]) {
+				return keyArray[pos] - keyArray[pos2];
+			}
+			pos++;
+			pos2++;
+		}
+		return (end - pos) - (end2 - pos2);
+	}
+
+	private static void swap(int[] ids, int i, int j) {
+		int tmp = ids[i];
+		ids[i] = ids[j];
+		ids[j] = tmp;
+	}
+
+	/**
+	 * 예전 정렬방식. sortTerms 와 결과 비교 및 성능 비교용으로 남겨둔다.
+	 * */
+	void quickSort(int[] ids, int first, int last) {
 		if (last <= 0)
 			return;
 
@@ -241,9 +370,13 @@ public class MemoryPosting {
 		if (p == null) {
 			p = newPostingBuffer();
 			put0(term, p);
+			ramBytesUsed += term.length() * 2 + TERM_SLOT_BYTES;
+		} else {
+			ramBytesUsed -= p.ramBytesUsed();
 		}
 		// logger.debug("term >> {}", term);
 		p.addOne(docNo, position);
+		ramBytesUsed += p.ramBytesUsed();
 	}
 
 	private boolean isTheSame(CharVector term, int id) {
@@ -392,6 +525,13 @@ public class MemoryPosting {
 		return size;
 	}
 
+	/**
+	 * 텀과 포스팅이 사용중인 메모리. workingMemorySize 와 달리 전체 텀을 순회하지 않으므로 문서마다 확인할수 있다.
+	 * */
+	public long ramBytesUsed() {
+		return ramBytesUsed;
+	}
+
 	public int staticMemorySize() {
 		int size = 0;
 		for (int i = 0; i < postingArray.length; i++)
@@ -416,6 +556,7 @@ public class MemoryPosting {
 		count = 0;
 		keyUseLength = 0;
 		// keyarray배열은 그대로 재사용한다.
+		ramBytesUsed = bucket.length * 4;
 
 	}
 
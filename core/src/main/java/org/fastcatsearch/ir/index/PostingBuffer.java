@@ -19,6 +19,7 @@ package org.fastcatsearch.ir.index;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.io.BytesBuffer;
 import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.search.PostingDoc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +32,9 @@ import org.slf4j.LoggerFactory;
 public class PostingBuffer {
 	protected static Logger logger = LoggerFactory.getLogger(PostingBuffer.class);
 	
+	//PostingBuffer 와 BytesBuffer 객체 크기.
+	protected static final int OBJECT_BYTES = 64;
+	
 	protected int postingSize;
 	protected int lastDocNo;
 	protected BytesBuffer postingVector;
@@ -107,6 +111,13 @@ public class PostingBuffer {
 		return postingVector.limit();
 	}
 	
+	/**
+	 * 실제 할당된 배열크기 기준의 메모리 사용량.
+	 * */
+	public int ramBytesUsed(){
+		return OBJECT_BYTES + postingVector.bytes.length;
+	}
+	
 	public int count(){
 		return postingSize;
 	}
@@ -121,4 +132,36 @@ public class PostingBuffer {
 		return postingVector;
 	}
 	
+	/**
+	 * finish 하지 않은 상태에서 지금까지 추가된 문서를 읽는다. 메모리 세그먼트 검색에 사용한다.
+	 * 아직 기록되지 않은 마지막 문서까지 포함하며, 추가와 동시에 호출하면 안된다.
+	 * */
+	public PostingDoc[] readPostingDocs(){
+		PostingDoc[] docs = new PostingDoc[postingSize];
+		BytesBuffer input = new BytesBuffer(postingVector.bytes);
+		input.pos(8);
+		int n = 0;
+		int docNo = -1;
+		while(input.pos() < postingVector.pos()){
+			int delta = IOUtil.readVInt(input);
+			docNo = docNo < 0 ? delta : docNo + delta + 1;
+			int tf = IOUtil.readVInt(input);
+			docs[n++] = new PostingDoc(docNo, tf, readPositions(input, tf));
+		}
+		if(lastDocFrequency > 0){
+			docs[n++] = new PostingDoc(lastDocNo, lastDocFrequency, lastDocPositions());
+		}
+		return docs;
+	}
+	
+	//기록된 문서의 position 을 읽는다. position 을 저장하지 않으면 null.
+	protected int[] readPositions(BytesBuffer input, int tf){
+		return null;
+	}
+	
+	//아직 기록되지 않은 마지막 문서의 position.
+	protected int[] lastDocPositions(){
+		return null;
+	}
+	
 }
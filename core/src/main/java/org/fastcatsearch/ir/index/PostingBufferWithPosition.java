@@ -79,9 +79,30 @@ public class PostingBufferWithPosition extends PostingBuffer {
 		
 	}
 
+	@Override
+	protected int[] readPositions(BytesBuffer input, int tf){
+		int[] positions = new int[tf];
+		for (int i = 0; i < tf; i++) {
+			int delta = IOUtil.readVInt(input);
+			positions[i] = i == 0 ? delta : positions[i - 1] + delta + 1;
+		}
+		return positions;
+	}
+	
+	@Override
+	protected int[] lastDocPositions(){
+		BytesBuffer input = new BytesBuffer(positionBuffer.bytes);
+		return readPositions(input, lastDocFrequency);
+	}
+
 	@Override
 	public int size(){
 		return postingVector.limit() + positionBuffer.limit();
 	}
 	
+	@Override
+	public int ramBytesUsed(){
+		return super.ramBytesUsed() + OBJECT_BYTES + positionBuffer.bytes.length;
+	}
+	
 }
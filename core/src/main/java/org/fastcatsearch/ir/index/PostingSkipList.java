@@ -0,0 +1,183 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+
+/**
+ * 블럭 포스팅 포맷(IndexFieldOption.SKIP_BLOCK)의 skip 리스트.
+ *
+ * 텀별 포스팅 구조는 다음과 같다.
+ * <pre>
+ * VInt len | int count | int lastDocNo | VInt skipSize | [VInt blockSize | skipSize * (VInt lastDocNoDelta, VInt blockBytes)] | 문서데이터
+ * </pre>
+ * 문서데이터는 기존 포맷과 동일하게 이전 문서번호와의 차이로 기록되므로, 블럭 k 의 시작위치로 이동한 뒤
+ * 이전 문서번호를 블럭 k-1 의 마지막 문서번호로 맞추어 주면 그대로 이어서 읽을 수 있다.
+ * skip 항목은 다음 블럭이 존재하는 블럭에만 기록되므로 문서수가 blockSize 이하인 텀은 1바이트만 추가된다.
+ * */
+public class PostingSkipList {
+
+	public static final int DEFAULT_BLOCK_SIZE = 128;
+
+	private int blockSize;
+	private int size;
+	private int[] lastDocNo; // 블럭별 마지막 문서번호.
+	private int[] blockEnd; // 문서데이터 시작으로부터 블럭 끝(다음 블럭 시작)까지의 바이트 수.
+
+	private PostingSkipList(int blockSize, int size) {
+		this.blockSize = blockSize;
+		this.size = size;
+		lastDocNo = new int[size];
+		blockEnd = new int[size];
+	}
+
+	public int blockSize() {
+		return blockSize;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int lastDocNo(int block) {
+		return lastDocNo[block];
+	}
+
+	/**
+	 * block 다음 블럭의 시작위치. 문서데이터 시작으로부터의 상대위치이다.
+	 * */
+	public int nextBlockOffset(int block) {
+		return blockEnd[block];
+	}
+
+	/**
+	 * 현재 블럭(fromBlock)부터 시작해서 target 이상인 문서가 들어있을수 있는 첫 블럭을 찾는다.
+	 * 모든 skip 블럭의 마지막 문서번호가 target 보다 작으면 마지막 블럭(size)을 리턴한다.
+	 * */
+	public int findBlock(int fromBlock, int target) {
+		int block = fromBlock;
+		while (block < size && lastDocNo[block] < target) {
+			block++;
+		}
+		return block;
+	}
+
+	/**
+	 * 포스팅 헤더(count, lastDocNo) 다음 위치에서 skip 리스트를 읽는다.
+	 * */
+	public static PostingSkipList read(IndexInput input) throws IOException {
+		int size = input.readVInt();
+		if (size == 0) {
+			return new PostingSkipList(0, 0);
+		}
+		PostingSkipList skipList = new PostingSkipList(input.readVInt(), size);
+		int prevDocNo = -1;
+		int offset = 0;
+		for (int i = 0; i < size; i++) {
+			prevDocNo += input.readVInt();
+			offset += input.readVInt();
+			skipList.lastDocNo[i] = prevDocNo;
+			skipList.blockEnd[i] = offset;
+		}
+		return skipList;
+	}
+
+	/**
+	 * skip 리스트를 읽지 않고 건너뛴다. 문서데이터만 필요한 경우 사용한다.
+	 * */
+	public static void skip(IndexInput input) throws IOException {
+		int size = input.readVInt();
+		if (size == 0) {
+			return;
+		}
+		input.readVInt();
+		for (int i = 0; i < size * 2; i++) {
+			input.readVInt();
+		}
+	}
+
+	/**
+	 * 포스팅을 색인필드옵션에 맞는 포맷으로 기록한다.
+	 * SKIP_BLOCK 옵션이 있으면 문서데이터를 훑어서 블럭별 skip 리스트를 만들어 함께 기록한다.
+	 * */
+	public static class Writer {
+		private boolean isSkipBlock;
+		private boolean isStorePosition;
+		private int blockSize;
+		private BytesDataOutput skipOutput;
+
+		public Writer(IndexFieldOption indexFieldOption) {
+			this(indexFieldOption, DEFAULT_BLOCK_SIZE);
+		}
+
+		public Writer(IndexFieldOption indexFieldOption, int blockSize) {
+			this.isSkipBlock = indexFieldOption.isSkipBlock();
+			this.isStorePosition = indexFieldOption.isStorePosition();
+			this.blockSize = blockSize;
+			skipOutput = new BytesDataOutput(1024);
+		}
+
+		/**
+		 * @param data 첫 문서번호가 절대값으로 시작하는 문서데이터.
+		 * */
+		public void writePosting(IndexOutput output, int count, int lastDocNo, byte[] data, int offset, int length) throws IOException {
+			if (!isSkipBlock) {
+				output.writeVInt(IOUtil.SIZE_OF_INT * 2 + length);
+				output.writeInt(count);
+				output.writeInt(lastDocNo);
+				output.writeBytes(data, offset, length);
+				return;
+			}
+
+			makeSkipList(count, data, offset, length);
+
+			output.writeVInt(IOUtil.SIZE_OF_INT * 2 + (int) skipOutput.position() + length);
+			output.writeInt(count);
+			output.writeInt(lastDocNo);
+			output.writeBytes(skipOutput.array(), 0, (int) skipOutput.position());
+			output.writeBytes(data, offset, length);
+		}
+
+		private void makeSkipList(int count, byte[] data, int offset, int length) throws IOException {
+			skipOutput.reset();
+			int skipSize = (count - 1) / blockSize;
+			if (count <= 0 || skipSize == 0) {
+				skipOutput.writeVInt(0);
+				return;
+			}
+			skipOutput.writeVInt(skipSize);
+			skipOutput.writeVInt(blockSize);
+
+			int pos = offset;
+			int limit = offset + length;
+			int docId = -1;
+			int prevBlockLastDocNo = -1;
+			int prevBlockEnd = offset;
+			for (int i = 1; i <= skipSize * blockSize; i++) {
+				if (pos >= limit) {
+					throw new IOException("posting data is shorter than count. count=" + count + ", read=" + (i - 1));
+				}
+				int delta = IOUtil.readVInt(data, pos);
+				pos += IOUtil.lenVariableByte(delta);
+				docId = delta + docId + 1;
+				int tf = IOUtil.readVInt(data, pos);
+				pos += IOUtil.lenVariableByte(tf);
+				if (tf > 0 && isStorePosition) {
+					for (int j = 0; j < tf; j++) {
+						pos += IOUtil.lenVariableByte(IOUtil.readVInt(data, pos));
+					}
+				}
+
+				if (i % blockSize == 0) {
+					skipOutput.writeVInt(docId - prevBlockLastDocNo);
+					skipOutput.writeVInt(pos - prevBlockEnd);
+					prevBlockLastDocNo = docId;
+					prevBlockEnd = pos;
+				}
+			}
+		}
+	}
+}
@@ -31,6 +31,7 @@ import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.CharsRefTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.analysis.tokenattributes.StopwordAttribute;
+import org.apache.lucene.store.RateLimiter;
 import org.apache.lucene.util.CharsRef;
 import org.fastcatsearch.ir.analysis.AnalyzerPool;
 import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
@@ -48,10 +49,11 @@ import org.fastcatsearch.ir.io.IndexOutput;
 import org.fastcatsearch.ir.settings.IndexRefSetting;
 import org.fastcatsearch.ir.settings.IndexSetting;
 import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.util.Formatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class SearchIndexWriter implements SingleIndexWriter {
+public class SearchIndexWriter implements SingleIndexWriter, IndexingMemoryConsumer {
 	private static Logger logger = LoggerFactory.getLogger(SearchIndexWriter.class);
 	
 	private String indexId;
@@ -73,6 +75,10 @@ public class SearchIndexWriter implements SingleIndexWriter {
 
 	private RevisionInfo revisionInfo;
 	private AnalyzerOption indexingAnalyzerOption;
+	//분석 스레드에서 색인할때 다른 스레드가 사용량을 읽을수 있도록 문서마다 갱신한다.
+	private volatile long ramBytesUsed;
+	private RateLimiter mergeRateLimiter;
+	private long mergeTime;
 	
 	@Override
 	public String toString(){
@@ -95,6 +101,9 @@ public class SearchIndexWriter implements SingleIndexWriter {
 		} else {
 			memoryPosting = new MemoryPosting(indexBucketSize, ignoreCase);
 		}
+		if (indexConfig.postingBlockSize() > 0) {
+			fieldIndexOption.setSkipBlock();
+		}
 
 		List<IndexRefSetting> refList = indexSetting.getFieldList();
 		indexFieldSequence = new int[refList.size()];
@@ -150,6 +159,7 @@ public class SearchIndexWriter implements SingleIndexWriter {
 		}
 
 		count++;
+		ramBytesUsed = memoryPosting.ramBytesUsed();
 	}
 
 	private void write(int docNo, int i, Field field, boolean isIgnoreCase, int positionIncrementGap) throws IRException, IOException {
@@ -262,6 +272,34 @@ public class SearchIndexWriter implements SingleIndexWriter {
 		return memoryPosting.count();
 	}
 
+	@Override
+	public long ramBytesUsed() {
+		return ramBytesUsed;
+	}
+
+	@Override
+	public int flushCount() {
+		return flushPosition.size();
+	}
+
+	public void setMergeRateLimiter(RateLimiter mergeRateLimiter) {
+		this.mergeRateLimiter = mergeRateLimiter;
+	}
+
+	/**
+	 * 머징할 데이터 크기. 기록된 임시파일과 아직 flush 되지 않은 메모리 크기의 합.
+	 * */
+	public long mergeSize() {
+		return tempFile.length() + ramBytesUsed;
+	}
+
+	/**
+	 * close 에서 임시파일을 머징하는데 걸린 시간(ms).
+	 * */
+	public long mergeTime() {
+		return mergeTime;
+	}
+
 	public void flush() throws IRException {
 		if (count <= 0) {
 			return;
@@ -275,6 +313,7 @@ public class SearchIndexWriter implements SingleIndexWriter {
 			tempOutput.flush();
 
 			memoryPosting.clear();
+			ramBytesUsed = memoryPosting.ramBytesUsed();
 		} catch (IOException e) {
 			throw new IRException(e);
 		}
@@ -298,24 +337,35 @@ public class SearchIndexWriter implements SingleIndexWriter {
 		try {
 			if (count > 0) {
 				logger.debug("Close, flushCount={}", flushPosition.size());
+				long mergeStartTime = System.currentTimeMillis();
 
 				if (revisionInfo.isAppend()) {
 					File prevAppendDir = IndexFileNames.getRevisionDir(baseDir, revisionInfo.getRef());
 					File revisionDir = IndexFileNames.getRevisionDir(baseDir, revisionInfo.getId());
 					TempSearchFieldAppender appender = new TempSearchFieldAppender(indexId, flushPosition, tempFile);
+					appender.setRateLimiter(mergeRateLimiter);
 					try {
-						appender.mergeAndAppendIndex(prevAppendDir, revisionDir, indexConfig.getIndexTermInterval(), fieldIndexOption);
+						appender.mergeAndAppendIndex(prevAppendDir, revisionDir, indexConfig.getIndexTermInterval(), fieldIndexOption, indexConfig.postingBlockSize());
 					} finally {
 						appender.close();
 					}
+					if (LexiconTrieWriter.ENABLED) {
+						new LexiconTrieWriter(indexId).write(revisionDir);
+					}
 				} else {
 					TempSearchFieldMerger merger = new TempSearchFieldMerger(indexId, flushPosition, tempFile);
+					merger.setRateLimiter(mergeRateLimiter);
 					try {
-						merger.mergeAndMakeIndex(baseDir, indexConfig.getIndexTermInterval(), fieldIndexOption);
+						merger.mergeAndMakeIndex(baseDir, indexConfig.getIndexTermInterval(), fieldIndexOption, indexConfig.postingBlockSize());
 					} finally {
 						merger.close();
 					}
+					if (LexiconTrieWriter.ENABLED) {
+						new LexiconTrieWriter(indexId).write(IndexFileNames.getRevisionDir(baseDir, 0));
+					}
 				}
+				mergeTime = System.currentTimeMillis() - mergeStartTime;
+				logger.info("[{}] merged {} runs, time = {}", indexId, flushPosition.size(), Formatter.getFormatTime(mergeTime));
 			}
 		} finally {
 			// delete temp file
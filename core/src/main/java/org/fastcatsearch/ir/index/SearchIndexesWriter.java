@@ -19,7 +19,20 @@ package org.fastcatsearch.ir.index;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.store.RateLimiter;
 
 import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
 import org.fastcatsearch.ir.common.IRException;
@@ -32,18 +45,29 @@ import org.fastcatsearch.ir.util.Formatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * 문서의 검색색인들을 기록한다.
+ * index-config 의 analysis-queue-size 가 0 보다 크면 검색색인마다 분석 스레드(AnalysisWorker)를 두어,
+ * 색인 스레드는 문서를 각 큐에 넣기만 하고 토크나이징과 포스팅 기록은 검색색인별로 동시에 진행된다.
+ * 큐가 차면 색인 스레드가 기다리므로 대기중인 문서수는 큐 크기로 제한된다.
+ * flush 시점은 세그먼트의 IndexingMemoryBudget 이 memoryConsumers() 의 사용량을 보고 정한다.
+ * 분석 스레드를 사용하면 flush 요청을 받은 분석 스레드가 처리중인 문서 다음에 flush 한다.
+ * close 시 검색색인별 임시파일 머징은 서로 독립적이므로 merge-thread-size 만큼 동시에 수행하며, 큰 색인부터 시작한다.
+ * merge-io-limit 이 주어지면 모든 머징이 하나의 RateLimiter 를 공유한다.
+ * */
 public class SearchIndexesWriter {
 	private static Logger logger = LoggerFactory.getLogger(SearchIndexesWriter.class);
 
 	private List<IndexSetting> indexSettingList;
 	private SearchIndexWriter[] searchIndexWriterList;
 	private int indexSize;
-	
-	// limit memory use. if exeed this value, flush.
-	private long workMemoryLimit;
-	private int workMemoryCheck = 10000; //해당 갯수만큼 색인문서가 진행되면 정보를 출력한다. 
+	private String segmentId;
+	private int mergeThreadSize;
 
 	private int count;
+	
+	private AnalysisWorker[] workerList;
+	private IndexingStageMetrics dispatchMetrics;
 
 	public SearchIndexesWriter(Schema schema, File dir, RevisionInfo revisionInfo, IndexConfig indexConfig, AnalyzerPoolManager analyzerPoolManager) throws IOException, IRException {
 		this(schema, dir, revisionInfo, indexConfig, analyzerPoolManager, null);
@@ -67,9 +91,25 @@ public class SearchIndexesWriter {
 		
 		searchIndexWriterList = list.toArray(new SearchIndexWriter[0]);
 		indexSize = searchIndexWriterList.length;
+		segmentId = dir.getName();
 		
-		workMemoryLimit = indexConfig.getIndexWorkMemorySize();
+		mergeThreadSize = indexConfig.mergeThreadSize();
+		if (indexConfig.mergeIoLimit() > 0) {
+			RateLimiter rateLimiter = new RateLimiter.SimpleRateLimiter(indexConfig.mergeIoLimit());
+			for (int i = 0; i < indexSize; i++) {
+				searchIndexWriterList[i].setMergeRateLimiter(rateLimiter);
+			}
+		}
 		
+		int analysisQueueSize = indexConfig.analysisQueueSize();
+		if (analysisQueueSize > 0 && indexSize > 0) {
+			dispatchMetrics = new IndexingStageMetrics("analysis-dispatch");
+			workerList = new AnalysisWorker[indexSize];
+			for (int i = 0; i < indexSize; i++) {
+				workerList[i] = new AnalysisWorker(dir.getName(), searchIndexWriterList[i], analysisQueueSize);
+				workerList[i].start();
+			}
+		}
 	}
 
 	public void write(Document doc) throws IRException, IOException {
@@ -77,35 +117,41 @@ public class SearchIndexesWriter {
 	}
 
 	public void write(Document doc, int docNo) throws IRException, IOException {
-		for (int i = 0; i < indexSize; i++) {
-			searchIndexWriterList[i].write(doc, docNo);
+		if (workerList != null) {
+			dispatch(doc, docNo);
+			count++;
+			return;
 		}
 		
-		if ((count + 1) % workMemoryCheck == 0) {
-			int workingMemorySize = checkWorkingMemorySize();
-			logger.debug("SearchField Memory = {}, limit = {}", Formatter.getFormatSize(workingMemorySize), Formatter.getFormatSize(workMemoryLimit));
-			if (workingMemorySize > workMemoryLimit) {
-				logger.info("Write memory used = {}", count + 1, workingMemorySize);
-				flush();
-			}
-		}else if ((count + 1) % 1000 == 0) {
-			//1000개씩 확인해본다.
-			int workingMemorySize = checkWorkingMemorySize();
-			if (workingMemorySize > workMemoryLimit) {
-				logger.info("[{}] documents write memory used = {}", count + 1, workingMemorySize);
-				flush();
-			}
+		for (int i = 0; i < indexSize; i++) {
+			searchIndexWriterList[i].write(doc, docNo);
 		}
 		count++;
 	}
 
-	private int checkWorkingMemorySize() {
-		int totalMemorySize = 0;
+	/**
+	 * 검색색인별 메모리 사용량과 flush. 분석 스레드를 사용하면 flush 는 해당 스레드에 요청된다.
+	 * */
+	public List<IndexingMemoryConsumer> memoryConsumers() {
+		List<IndexingMemoryConsumer> list = new ArrayList<IndexingMemoryConsumer>();
 		for (int i = 0; i < indexSize; i++) {
-			totalMemorySize += searchIndexWriterList[i].checkWorkingMemorySize();
+			list.add(workerList != null ? workerList[i] : searchIndexWriterList[i]);
 		}
-//		logger.debug("SearchIndex Working Mem[{}]", Formatter.getFormatSize(totalMemorySize));
-		return totalMemorySize;
+		return list;
+	}
+
+	private void dispatch(Document doc, int docNo) throws IRException {
+		QueuedDocument queuedDocument = new QueuedDocument(doc, docNo);
+		long startTime = System.nanoTime();
+		try {
+			for (int i = 0; i < indexSize; i++) {
+				workerList[i].put(queuedDocument);
+			}
+		} catch (InterruptedException e) {
+			throw new IRException(e);
+		}
+		//분석 스레드가 밀리면 큐가 차서 여기서 기다리게 된다.
+		dispatchMetrics.add(0, System.nanoTime() - startTime);
 	}
 
 	private int checkStaticMemorySize() {
@@ -140,12 +186,221 @@ public class SearchIndexesWriter {
 
 	public void close() throws IRException, IOException {
 		
+		Throwable workerError = null;
+		if (workerList != null) {
+			//남은 문서를 모두 분석할때까지 기다린다.
+			for (int i = 0; i < indexSize; i++) {
+				workerList[i].finish();
+			}
+			for (int i = 0; i < indexSize; i++) {
+				try {
+					workerList[i].join();
+				} catch (InterruptedException e) {
+					workerError = e;
+				}
+				if (workerList[i].error != null) {
+					workerError = workerList[i].error;
+				}
+				logger.info("{}", workerList[i].metrics);
+			}
+			logger.info("{}", dispatchMetrics);
+		}
+		
+		if (mergeThreadSize > 1 && indexSize > 1) {
+			closeConcurrently();
+		} else {
+			for (int i = 0; i < indexSize; i++) {
+				if(searchIndexWriterList[i] != null){
+					searchIndexWriterList[i].close();
+				}
+			}
+		}
+		
+		if (indexSize > 0) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < indexSize; i++) {
+				if (i > 0) {
+					sb.append(", ");
+				}
+				sb.append(searchIndexWriterList[i]).append("=").append(Formatter.getFormatTime(searchIndexWriterList[i].mergeTime()));
+			}
+			logger.info("[{}] search index merge time : {}", segmentId, sb);
+		}
+		
+		if (workerError != null) {
+			throw new IRException(workerError);
+		}
+	}
+
+	/**
+	 * 머징 스레드풀에서 검색색인들을 닫는다. 에러가 나도 나머지 색인은 모두 닫은 후 에러를 던진다.
+	 * */
+	private void closeConcurrently() throws IRException, IOException {
+		SearchIndexWriter[] mergeList = searchIndexWriterList.clone();
+		final long[] mergeSize = new long[indexSize];
+		for (int i = 0; i < indexSize; i++) {
+			mergeSize[i] = mergeList[i].mergeSize();
+		}
+		//오래 걸리는 큰 색인을 먼저 시작해야 마지막에 하나만 남아 도는 시간이 줄어든다.
+		Integer[] order = new Integer[indexSize];
 		for (int i = 0; i < indexSize; i++) {
-			if(searchIndexWriterList[i] != null){
-				searchIndexWriterList[i].close();
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				long diff = mergeSize[o2] - mergeSize[o1];
+				return diff > 0 ? 1 : (diff < 0 ? -1 : 0);
+			}
+		});
+
+		int threadSize = Math.min(mergeThreadSize, indexSize);
+		logger.info("[{}] merge {} search indexes with {} threads", segmentId, indexSize, threadSize);
+		ExecutorService executor = Executors.newFixedThreadPool(threadSize, new ThreadFactory() {
+			private AtomicInteger sequence = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "index-merge-" + segmentId + "-" + sequence.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		Throwable mergeError = null;
+		try {
+			List<Future<Object>> futureList = new ArrayList<Future<Object>>();
+			for (Integer i : order) {
+				final SearchIndexWriter writer = mergeList[i];
+				futureList.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						writer.close();
+						return null;
+					}
+				}));
+			}
+			for (Future<Object> future : futureList) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					logger.error("search index merge error", e.getCause());
+					mergeError = e.getCause();
+				} catch (InterruptedException e) {
+					mergeError = e;
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		if (mergeError instanceof IOException) {
+			throw (IOException) mergeError;
+		} else if (mergeError instanceof IRException) {
+			throw (IRException) mergeError;
+		} else if (mergeError != null) {
+			throw new IRException(mergeError);
+		}
+	}
+
+	private static class QueuedDocument {
+		private Document document;
+		private int docNo;
+
+		public QueuedDocument(Document document, int docNo) {
+			this.document = document;
+			this.docNo = docNo;
+		}
+	}
+
+	/**
+	 * 검색색인 하나를 전담하여 큐의 문서를 순서대로 분석, 기록한다.
+	 * 에러가 나면 이후 문서는 버리고 큐만 비워서 색인 스레드가 멈추지 않게 하고, 에러는 다음 write 나 close 에서 던진다.
+	 * flush 요청이 처리되기 전까지는 사용량을 0 으로 알려 같은 색인이 다시 선택되지 않게 한다.
+	 * */
+	private static class AnalysisWorker extends Thread implements IndexingMemoryConsumer {
+		private static final QueuedDocument END = new QueuedDocument(null, -1);
+
+		private SearchIndexWriter writer;
+		private BlockingQueue<QueuedDocument> queue;
+		private IndexingStageMetrics metrics;
+		private volatile Throwable error;
+		private volatile boolean flushRequested;
+
+		public AnalysisWorker(String segmentId, SearchIndexWriter writer, int queueSize) {
+			this.writer = writer;
+			this.queue = new ArrayBlockingQueue<QueuedDocument>(queueSize);
+			this.metrics = new IndexingStageMetrics("analysis-" + writer.toString());
+			setName("index-analysis-" + segmentId + "-" + writer.toString());
+			setDaemon(true);
+		}
+
+		public void put(QueuedDocument queuedDocument) throws InterruptedException, IRException {
+			if (error != null) {
+				throw new IRException(error);
+			}
+			queue.put(queuedDocument);
+		}
+
+		public void finish() throws IRException {
+			try {
+				queue.put(END);
+			} catch (InterruptedException e) {
+				throw new IRException(e);
+			}
+		}
+
+		@Override
+		public long ramBytesUsed() {
+			return flushRequested ? 0 : writer.ramBytesUsed();
+		}
+
+		@Override
+		public void flush() {
+			flushRequested = true;
+		}
+
+		@Override
+		public int flushCount() {
+			return writer.flushCount();
+		}
+
+		@Override
+		public String toString() {
+			return writer.toString();
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				long waitStartTime = System.nanoTime();
+				QueuedDocument queuedDocument = null;
+				try {
+					queuedDocument = queue.take();
+				} catch (InterruptedException e) {
+					error = e;
+					break;
+				}
+				long startTime = System.nanoTime();
+				metrics.addWait(startTime - waitStartTime);
+				if (queuedDocument == END) {
+					break;
+				}
+				if (error != null) {
+					continue;
+				}
+				try {
+					writer.write(queuedDocument.document, queuedDocument.docNo);
+					if (flushRequested) {
+						writer.flush();
+						flushRequested = false;
+					}
+				} catch (Throwable e) {
+					logger.error("analysis error at " + writer, e);
+					error = e;
+				}
+				metrics.addBusy(System.nanoTime() - startTime);
 			}
 		}
-	
 	}
 
 }
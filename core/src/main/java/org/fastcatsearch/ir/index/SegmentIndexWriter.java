@@ -29,6 +29,7 @@ public class SegmentIndexWriter implements IndexWritable {
 	protected SearchIndexesWriter searchIndexesWriter;
 	protected FieldIndexesWriter fieldIndexesWriter;
 	protected GroupIndexesWriter groupIndexesWriter;
+	protected IndexingMemoryBudget memoryBudget;
 
 	protected String segmentId;
 	protected File targetDir;
@@ -77,6 +78,19 @@ public class SegmentIndexWriter implements IndexWritable {
 				groupIndexesWriter = new GroupIndexesWriter(schema, targetDir, revisionInfo, indexConfig, groupIndexList);
 
 			}
+			
+			// pk, 검색색인, 그룹키 메모리를 합산하여 work-memory-size 를 넘으면 큰 것부터 flush 한다.
+			int workMemorySize = indexConfig.getIndexWorkMemorySize();
+			if (workMemorySize <= 0) {
+				workMemorySize = IndexConfig.defaultConfig.getIndexWorkMemorySize();
+			}
+			memoryBudget = new IndexingMemoryBudget(segmentId, workMemorySize);
+			if (primaryKeyIndexesWriter != null) {
+				memoryBudget.add(primaryKeyIndexesWriter);
+			}
+			for (IndexingMemoryConsumer consumer : searchIndexesWriter.memoryConsumers()) {
+				memoryBudget.add(consumer);
+			}
 		} catch (IOException e) {
 			// writer생성시 에러가 발생하면(ex 토크나이저 발견못함) writer들이 안 닫힌채로 색인이 끝나서 다음번 색인시
 			// 파일들을 삭제못하게 되므로 close해준다.
@@ -115,6 +129,7 @@ public class SegmentIndexWriter implements IndexWritable {
 		if (groupIndexesWriter != null) {
 			groupIndexesWriter.write(document);
 		}
+		memoryBudget.check(groupIndexesWriter != null ? groupIndexesWriter.ramBytesUsed() : 0);
 
 		count++;
 		return docNo;
@@ -187,6 +202,7 @@ public class SegmentIndexWriter implements IndexWritable {
 
 			logger.info("Segment [{}] Indexed, elapsed = {}, mem = {}, {}", segmentId, Formatter.getFormatTime(System.currentTimeMillis() - startTime),
 					Formatter.getFormatSize(Runtime.getRuntime().totalMemory()), revisionInfo);
+			logger.info("{}", memoryBudget);
 
 		} catch (Exception e) {
 			File revisionDir = IndexFileNames.getRevisionDir(targetDir, revisionInfo.getId());
@@ -204,6 +220,9 @@ public class SegmentIndexWriter implements IndexWritable {
 	public void getIndexWriteInfo(IndexWriteInfoList list) {
 		fieldIndexesWriter.getIndexWriteInfo(list);
 		groupIndexesWriter.getIndexWriteInfo(list);
+		//여러 세그먼트를 동시에 색인하면 합산된다.
+		list.setPeakMemorySize(list.getPeakMemorySize() + memoryBudget.peakBytes());
+		list.setFlushCount(list.getFlushCount() + memoryBudget.flushCount());
 	}
 
 }
@@ -0,0 +1,93 @@
+package org.fastcatsearch.ir.index.merge;
+
+/**
+ * 컬렉션별 세그먼트 머징 통계. 관리도구에서 조회한다.
+ * */
+public class SegmentMergeStatistics {
+
+	private int mergeCount;
+	private long mergedSegmentCount;
+	private long mergedDocumentCount;
+	private long purgedDocumentCount;
+	private long totalElapsed;
+
+	private long lastMergeTime;
+	private long lastElapsed;
+	private int lastSegmentCount;
+	private int lastDocumentCount;
+	private int lastPurgeCount;
+
+	private volatile boolean running;
+
+	public synchronized void start() {
+		running = true;
+	}
+
+	public synchronized void finish(int segmentCount, int documentCount, int purgeCount, long elapsed) {
+		running = false;
+		mergeCount++;
+		mergedSegmentCount += segmentCount;
+		mergedDocumentCount += documentCount;
+		purgedDocumentCount += purgeCount;
+		totalElapsed += elapsed;
+		lastMergeTime = System.currentTimeMillis();
+		lastElapsed = elapsed;
+		lastSegmentCount = segmentCount;
+		lastDocumentCount = documentCount;
+		lastPurgeCount = purgeCount;
+	}
+
+	public synchronized void fail() {
+		running = false;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public synchronized int getMergeCount() {
+		return mergeCount;
+	}
+
+	public synchronized long getMergedSegmentCount() {
+		return mergedSegmentCount;
+	}
+
+	public synchronized long getMergedDocumentCount() {
+		return mergedDocumentCount;
+	}
+
+	public synchronized long getPurgedDocumentCount() {
+		return purgedDocumentCount;
+	}
+
+	public synchronized long getTotalElapsed() {
+		return totalElapsed;
+	}
+
+	public synchronized long getLastMergeTime() {
+		return lastMergeTime;
+	}
+
+	public synchronized long getLastElapsed() {
+		return lastElapsed;
+	}
+
+	public synchronized int getLastSegmentCount() {
+		return lastSegmentCount;
+	}
+
+	public synchronized int getLastDocumentCount() {
+		return lastDocumentCount;
+	}
+
+	public synchronized int getLastPurgeCount() {
+		return lastPurgeCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "[SegmentMergeStatistics] merges[" + mergeCount + "] segments[" + mergedSegmentCount + "] documents[" + mergedDocumentCount + "] purged["
+				+ purgedDocumentCount + "] elapsed[" + totalElapsed + "ms] running[" + running + "]";
+	}
+}
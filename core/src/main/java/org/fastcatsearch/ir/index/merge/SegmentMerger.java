@@ -0,0 +1,133 @@
+package org.fastcatsearch.ir.index.merge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.document.DocumentReader;
+import org.fastcatsearch.ir.index.SegmentWriter;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.GroupIndexSetting;
+import org.fastcatsearch.ir.settings.IndexRefSetting;
+import org.fastcatsearch.ir.settings.IndexSetting;
+import org.fastcatsearch.ir.settings.RefSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 여러 세그먼트의 삭제되지 않은 문서를 순서대로 읽어 새 세그먼트 하나로 색인한다.
+ * 문서, 검색색인, 필드색인, 그룹색인, pk 가 모두 새로 만들어지며 삭제문서는 제거된다.
+ *
+ * 저장된 문서로부터 다시 색인하므로(색인재생성과 동일) 색인에 사용되는 필드는 모두 store 되어 있어야 한다.
+ * */
+public class SegmentMerger {
+	private static Logger logger = LoggerFactory.getLogger(SegmentMerger.class);
+
+	private Schema schema;
+	private IndexConfig indexConfig;
+	private AnalyzerPoolManager analyzerPoolManager;
+
+	private int documentCount;
+	private int purgeCount;
+
+	public SegmentMerger(Schema schema, IndexConfig indexConfig, AnalyzerPoolManager analyzerPoolManager) {
+		this.schema = schema;
+		this.indexConfig = indexConfig;
+		this.analyzerPoolManager = analyzerPoolManager;
+	}
+
+	/**
+	 * @param segmentDirs 머징할 세그먼트 디렉토리. 순서대로 문서번호가 매겨진다.
+	 * @param deleteSets 세그먼트별 삭제문서 set.
+	 * @param targetDir 새 세그먼트 디렉토리. 디렉토리명이 세그먼트 id 가 된다.
+	 * @return 새 세그먼트의 0번 리비전 정보.
+	 * */
+	public RevisionInfo merge(File[] segmentDirs, BitSet[] deleteSets, File targetDir) throws IOException, IRException {
+		long st = System.currentTimeMillis();
+		documentCount = 0;
+		purgeCount = 0;
+		RevisionInfo revisionInfo = new RevisionInfo();
+		SegmentWriter writer = new SegmentWriter(schema, targetDir, revisionInfo, indexConfig, analyzerPoolManager);
+		try {
+			for (int i = 0; i < segmentDirs.length; i++) {
+				DocumentReader reader = new DocumentReader(schema.schemaSetting(), segmentDirs[i]);
+				try {
+					int count = reader.getDocumentCount();
+					for (int docNo = 0; docNo < count; docNo++) {
+						if (deleteSets[i] != null && deleteSets[i].isSet(docNo)) {
+							purgeCount++;
+							continue;
+						}
+						Document document = reader.readIndexableDocument(docNo);
+						writer.addDocument(document);
+						documentCount++;
+					}
+				} finally {
+					reader.close();
+				}
+			}
+		} finally {
+			writer.close();
+		}
+		logger.info("Segment merged {} => {}, documents[{}] purged[{}] elapsed[{}ms]", new Object[] { segmentDirs.length, targetDir.getAbsolutePath(), documentCount,
+				purgeCount, System.currentTimeMillis() - st });
+		return revisionInfo;
+	}
+
+	public int documentCount() {
+		return documentCount;
+	}
+
+	public int purgeCount() {
+		return purgeCount;
+	}
+
+	/**
+	 * 색인에 사용되지만 store 되지 않는 필드 id 리스트. 비어있지 않으면 머징하면 색인데이터가 유실된다.
+	 * */
+	public static List<String> unstoredIndexFields(Schema schema) {
+		SchemaSetting schemaSetting = schema.schemaSetting();
+		List<String> refList = new ArrayList<String>();
+		if (schemaSetting.getPrimaryKeySetting() != null) {
+			for (RefSetting refSetting : schemaSetting.getPrimaryKeySetting().getFieldList()) {
+				refList.add(refSetting.getRef());
+			}
+		}
+		if (schemaSetting.getIndexSettingList() != null) {
+			for (IndexSetting indexSetting : schemaSetting.getIndexSettingList()) {
+				for (IndexRefSetting refSetting : indexSetting.getFieldList()) {
+					refList.add(refSetting.getRef());
+				}
+			}
+		}
+		if (schemaSetting.getFieldIndexSettingList() != null) {
+			for (FieldIndexSetting fieldIndexSetting : schemaSetting.getFieldIndexSettingList()) {
+				refList.add(fieldIndexSetting.getRef());
+			}
+		}
+		if (schemaSetting.getGroupIndexSettingList() != null) {
+			for (GroupIndexSetting groupIndexSetting : schemaSetting.getGroupIndexSettingList()) {
+				refList.add(groupIndexSetting.getRef());
+			}
+		}
+
+		List<String> result = new ArrayList<String>();
+		for (String ref : refList) {
+			FieldSetting fieldSetting = schema.fieldSettingMap().get(ref.toUpperCase());
+			if (fieldSetting != null && !fieldSetting.isStore() && !result.contains(fieldSetting.getId())) {
+				result.add(fieldSetting.getId());
+			}
+		}
+		return result;
+	}
+}
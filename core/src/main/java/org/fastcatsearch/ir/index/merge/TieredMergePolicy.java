@@ -0,0 +1,81 @@
+package org.fastcatsearch.ir.index.merge;
+
+/**
+ * 증분색인으로 뒤쪽에 쌓이는 작은 세그먼트들을 크기 단계(tier)별로 머징할지 결정한다.
+ *
+ * 마지막 세그먼트부터 앞으로 가면서, 지금까지 모은 세그먼트들의 유효문서수 합의 TIER_RATIO 배보다 크지 않은 세그먼트를 같은 단계로 보고 모은다.
+ * 모은 세그먼트가 mergeFactor 개가 되거나, 모은 세그먼트들의 삭제문서 비율이 deleteRatio(%) 이상이면 머징대상이 된다.
+ *
+ * 세그먼트 id 는 0부터 연속되어야 하고 delete.set 은 마지막 세그먼트의 리비전에 기록되므로, 머징대상은 항상 마지막 세그먼트까지의 연속구간이다.
+ * */
+public class TieredMergePolicy {
+
+	//이 문서수보다 작은 세그먼트는 크기에 상관없이 같은 단계로 본다.
+	public static final int DEFAULT_FLOOR_DOCUMENTS = 10000;
+	private static final int TIER_RATIO = 2;
+
+	private int mergeFactor;
+	private int deleteRatio;
+	private int floorDocuments;
+
+	public TieredMergePolicy(int mergeFactor, int deleteRatio) {
+		this(mergeFactor, deleteRatio, DEFAULT_FLOOR_DOCUMENTS);
+	}
+
+	public TieredMergePolicy(int mergeFactor, int deleteRatio, int floorDocuments) {
+		this.mergeFactor = mergeFactor;
+		this.deleteRatio = deleteRatio;
+		this.floorDocuments = floorDocuments;
+	}
+
+	public boolean isEnabled() {
+		return mergeFactor > 1;
+	}
+
+	/**
+	 * @param documentCounts 세그먼트별 전체 문서수.
+	 * @param deleteCounts 세그먼트별 삭제문서수.
+	 * @return 머징을 시작할 세그먼트 index. 이 index 부터 마지막 세그먼트까지 머징한다. 머징할 필요가 없으면 -1.
+	 * */
+	public int findMerge(int[] documentCounts, int[] deleteCounts) {
+		if (!isEnabled()) {
+			return -1;
+		}
+		int size = documentCounts.length;
+		if (size == 0) {
+			return -1;
+		}
+
+		int fromIndex = -1;
+		long runLiveCount = 0;
+		long runDocumentCount = 0;
+		long runDeleteCount = 0;
+		for (int i = size - 1; i >= 0; i--) {
+			int liveCount = documentCounts[i] - deleteCounts[i];
+			if (i < size - 1 && liveCount > Math.max(floorDocuments, runLiveCount * TIER_RATIO)) {
+				//더 큰 단계의 세그먼트.
+				break;
+			}
+			runLiveCount += liveCount;
+			runDocumentCount += documentCounts[i];
+			runDeleteCount += deleteCounts[i];
+			fromIndex = i;
+			if (size - i >= mergeFactor) {
+				break;
+			}
+		}
+
+		if (size - fromIndex >= mergeFactor) {
+			return fromIndex;
+		}
+		if (deleteRatio > 0 && runDocumentCount > 0 && runDeleteCount * 100 >= runDocumentCount * deleteRatio) {
+			return fromIndex;
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return "[TieredMergePolicy] mergeFactor[" + mergeFactor + "] deleteRatio[" + deleteRatio + "] floor[" + floorDocuments + "]";
+	}
+}
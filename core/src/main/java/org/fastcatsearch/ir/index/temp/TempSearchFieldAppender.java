@@ -23,8 +23,10 @@ import java.util.List;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
@@ -33,6 +35,7 @@ import org.fastcatsearch.ir.io.IndexOutput;
 public class TempSearchFieldAppender extends TempSearchFieldMerger {
 
 	private byte[] buffer = new byte[1024 * 1024];
+	private BytesDataOutput mergeOutput = new BytesDataOutput(1024 * 1024);
 
 	private int oldIndexTermCount;
 	
@@ -40,7 +43,7 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 		super(indexId, flushPosition, tempFile);
 	}
 
-	public boolean mergeAndAppendIndex(File segmentDir1, File targetDir, int indexInterval, IndexFieldOption fieldIndexOption) throws IOException,
+	public boolean mergeAndAppendIndex(File segmentDir1, File targetDir, int indexInterval, IndexFieldOption fieldIndexOption, int postingBlockSize) throws IOException,
 			IRException {
 		IndexInput lexiconInput1 = new BufferedFileInput(segmentDir1, IndexFileNames.getSearchLexiconFileName(indexId));
 		IndexOutput lexiconOutput = new BufferedFileOutput(targetDir, IndexFileNames.getSearchLexiconFileName(indexId));
@@ -51,9 +54,12 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 		IndexOutput postingOutput = new BufferedFileOutput(targetDir, IndexFileNames.getSearchPostingFileName(indexId));
 
 		IndexFieldOption option1 = new IndexFieldOption(postingInput1.readInt());
-		if(!fieldIndexOption.equals(option1)){
+		if(fieldIndexOption.isStorePosition() != option1.isStorePosition()){
 			throw new IRException("Cannot append indexes. Index option is the same. new="+fieldIndexOption.value() +", old="+ option1.value());
 		}
+		//skip 블럭 포맷여부가 다르면 이전 세그먼트의 포스팅도 새 포맷으로 다시 기록한다.
+		boolean isSameFormat = fieldIndexOption.equals(option1);
+		PostingSkipList.Writer postingWriter = new PostingSkipList.Writer(fieldIndexOption, postingBlockSize);
 		
 		// 같은 텀이 있을때에 posting 문서번호를 다 읽어서 머징한다.
 		// 같은 텀이 없다면 포스팅데이터를 뚝 떼어서 새로운 포스팅에 붙이면 된다.
@@ -111,31 +117,24 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 					int count1 = postingInput1.readInt();
 					int lastDocNo1 = postingInput1.readInt();
 
-					int data1Length = (int) (len1 - IOUtil.SIZE_OF_INT * 2);
-					if (data1Length > buffer.length) {
-						buffer = new byte[data1Length];
-					}
-
-					postingInput1.readBytes(buffer, 0, data1Length);
+					int data1Length = readPostingData(postingInput1, option1, len1);
 
 					int count2 = totalCount;
 					int lastDocNo2 = prevDocNo;
 					int firstDocNo2 = IOUtil.readVInt(tempPostingOutput.array(), 0);
 					int sz2 = IOUtil.lenVariableByte(firstDocNo2);
 					int newFirstDocNo = firstDocNo2 - lastDocNo1 - 1;
-					int delta = IOUtil.lenVariableByte(newFirstDocNo) - sz2;
-					long newLen = len1 + len2 + delta;
-
-					position = postingOutput.position();
-					postingOutput.writeVLong(newLen);
-					postingOutput.writeInt(count1 + count2);
-					postingOutput.writeInt(lastDocNo2);
-					postingOutput.writeBytes(buffer, 0, data1Length);
 
 					len2 -= sz2;
 
-					postingOutput.writeVInt(newFirstDocNo);
-					postingOutput.writeBytes(tempPostingOutput.array(), sz2, len2);
+					//이전 포스팅 뒤에 새 포스팅을 이어붙인다. 새 포스팅의 첫 문서번호는 이전 포스팅의 마지막 문서번호와의 차이로 바꾼다.
+					mergeOutput.reset();
+					mergeOutput.writeBytes(buffer, 0, data1Length);
+					mergeOutput.writeVInt(newFirstDocNo);
+					mergeOutput.writeBytes(tempPostingOutput.array(), sz2, len2);
+
+					position = postingOutput.position();
+					postingWriter.writePosting(postingOutput, count1 + count2, lastDocNo2, mergeOutput.array(), 0, (int) mergeOutput.position());
 
 					lexiconOutput.writeUString(term.array(), term.start(), term.length());
 					lexiconOutput.writeLong(position);
@@ -146,17 +145,24 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 				} else if (cmp < 0) {
 
 					int len = postingInput1.readVInt();
-					if (len > buffer.length){
-						buffer = new byte[len];
-					}
-					
-					postingInput1.readBytes(buffer, 0, len);
-
 					position = postingOutput.position();
 
-					// write posting
-					postingOutput.writeVInt(len);
-					postingOutput.writeBytes(buffer, 0, len);
+					if (isSameFormat) {
+						if (len > buffer.length){
+							buffer = new byte[len];
+						}
+						
+						postingInput1.readBytes(buffer, 0, len);
+
+						// write posting
+						postingOutput.writeVInt(len);
+						postingOutput.writeBytes(buffer, 0, len);
+					} else {
+						int count = postingInput1.readInt();
+						int lastDocNo = postingInput1.readInt();
+						int dataLength = readPostingData(postingInput1, option1, len);
+						postingWriter.writePosting(postingOutput, count, lastDocNo, buffer, 0, dataLength);
+					}
 
 					// write lexicon
 					lexiconOutput.writeUString(term.array(), term.start(), term.length());
@@ -169,23 +175,12 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 					int len = (int) tempPostingOutput.position();
 					int count = totalCount;
 					int lastDocNo = prevDocNo;
-					int firstDocNo = IOUtil.readVInt(tempPostingOutput.array(), 0);
-					int sz = IOUtil.lenVariableByte(firstDocNo);
-
-					len -= sz;
-
-					int sz2 = IOUtil.lenVariableByte(firstDocNo);
 
 					position = postingOutput.position();
 
-					int len2 = IOUtil.SIZE_OF_INT * 2 + sz2 + len;
-					if (len2 < 8)
-						throw new IOException("Terrible Error!! " + len2);
-					postingOutput.writeVInt(len2);
-					postingOutput.writeInt(count);
-					postingOutput.writeInt(lastDocNo);
-					postingOutput.writeVInt(firstDocNo);
-					postingOutput.writeBytes(tempPostingOutput.array(), sz, len);
+					if (len <= 0)
+						throw new IOException("Terrible Error!! " + len);
+					postingWriter.writePosting(postingOutput, count, lastDocNo, tempPostingOutput.array(), 0, len);
 
 					// write term
 					lexiconOutput.writeUString(term.array(), term.start(), term.length());
@@ -202,6 +197,8 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 					indexTermCount++;
 				}
 				termCount++;
+
+				throttle(postingOutput.position() - position);
 			}// while
 
 			if (termCount > 0) {
@@ -264,6 +261,24 @@ public class TempSearchFieldAppender extends TempSearchFieldMerger {
 
 		return true;
 	}
+	/**
+	 * count, lastDocNo 다음 위치에서 문서데이터를 buffer로 읽는다. skip 리스트가 있다면 건너뛴다.
+	 * @return 문서데이터 길이.
+	 * */
+	private int readPostingData(IndexInput postingInput, IndexFieldOption option, int len) throws IOException {
+		int dataLength = len - IOUtil.SIZE_OF_INT * 2;
+		if (option.isSkipBlock()) {
+			long skipStart = postingInput.position();
+			PostingSkipList.skip(postingInput);
+			dataLength -= (int) (postingInput.position() - skipStart);
+		}
+		if (dataLength > buffer.length) {
+			buffer = new byte[dataLength];
+		}
+		postingInput.readBytes(buffer, 0, dataLength);
+		return dataLength;
+	}
+	
 	private CharVector readNextOldLexicon(IndexInput lexiconInput1) throws IOException {
 		CharVector term = null;
 		if (oldIndexTermCount > 0) {
@@ -20,9 +20,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.lucene.store.RateLimiter;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.CharVector;
@@ -31,8 +33,17 @@ import org.fastcatsearch.ir.io.IndexOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * flush 된 임시 포스팅 런들을 k-way 머징하여 검색색인 파일을 만든다.
+ * 런들은 동시에 순차로 읽으므로 런마다 큰 읽기버퍼를 두되, 버퍼 합계는 MAX_READ_BUFFER_TOTAL 을 넘지 않는다.
+ * RateLimiter 가 주어지면 기록한 포스팅 크기만큼 쉬어서 디스크 사용량을 제한한다.
+ * */
 public class TempSearchFieldMerger {
 	protected static Logger logger = LoggerFactory.getLogger(TempSearchFieldMerger.class);
+	
+	private static final int MAX_READ_BUFFER_SIZE = 256 * 1024;
+	private static final int MAX_READ_BUFFER_TOTAL = 16 * 1024 * 1024;
+	private static final int THROTTLE_CHECK_SIZE = 256 * 1024;
 
 	protected int[] heap;
 	protected TempSearchFieldReader[] reader;
@@ -46,13 +57,16 @@ public class TempSearchFieldMerger {
 	protected int totalCount;
 	protected int prevDocNo;
 	private BytesRef[] buffers;
+	private RateLimiter rateLimiter;
+	private long unthrottledBytes;
 
 	public TempSearchFieldMerger(String indexId, List<Long> flushPosition, File tempFile) throws IOException {
 		this.indexId = indexId;
 		this.flushCount = flushPosition.size();
 		reader = new TempSearchFieldReader[flushCount];
+		int readBufferSize = readBufferSize(flushCount);
 		for (int m = 0; m < flushCount; m++) {
-			reader[m] = new TempSearchFieldReader(m, indexId, tempFile, flushPosition.get(m));
+			reader[m] = new TempSearchFieldReader(m, indexId, tempFile, flushPosition.get(m), readBufferSize);
 			reader[m].next();
 		}
 
@@ -61,7 +75,34 @@ public class TempSearchFieldMerger {
 		buffers = new BytesRef[flushCount];
 	}
 
-	public void mergeAndMakeIndex(File baseDir, int indexInterval, IndexFieldOption fieldIndexOption) throws IOException {
+	protected static int readBufferSize(int runCount) {
+		if (runCount <= 0) {
+			return IOUtil.FILEBLOCKSIZE;
+		}
+		int size = MAX_READ_BUFFER_TOTAL / runCount;
+		size = Math.min(size, MAX_READ_BUFFER_SIZE);
+		return Math.max(size, IOUtil.FILEBLOCKSIZE);
+	}
+
+	/**
+	 * 여러 머징이 같은 limiter 를 공유하면 합계 속도가 제한된다.
+	 * */
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	protected void throttle(long bytes) {
+		if (rateLimiter == null) {
+			return;
+		}
+		unthrottledBytes += bytes;
+		if (unthrottledBytes >= THROTTLE_CHECK_SIZE) {
+			rateLimiter.pause(unthrottledBytes);
+			unthrottledBytes = 0;
+		}
+	}
+
+	public void mergeAndMakeIndex(File baseDir, int indexInterval, IndexFieldOption fieldIndexOption, int postingBlockSize) throws IOException {
 		logger.debug("**** mergeAndMakeIndex ****");
 		logger.debug("flushCount={}", flushCount);
 
@@ -89,31 +130,21 @@ public class TempSearchFieldMerger {
 			lexiconOutput.writeInt(termCount);// termCount
 			indexOutput.writeInt(indexTermCount);// indexTermCount
 
+			PostingSkipList.Writer postingWriter = new PostingSkipList.Writer(fieldIndexOption, postingBlockSize);
 			CharVector term = new CharVector();
 			while (readNextTempIndex(term)) {
 				int len = (int) tempPostingOutput.position();
 				int count = totalCount;
 				int lastDocNo = prevDocNo;
-				int firstDocNo = IOUtil.readVInt(tempPostingOutput.array(), 0);
-				int sz = IOUtil.lenVariableByte(firstDocNo);
-
-				len -= sz;
-
-				int sz2 = IOUtil.lenVariableByte(firstDocNo);
 
 				long postingPosition = postingOutput.position();
 
-				int len2 = IOUtil.SIZE_OF_INT * 2 + sz2 + len;
-				if (len2 < 8)
-					throw new IOException("Terrible Error!! " + len2);
+				if (len <= 0)
+					throw new IOException("Terrible Error!! " + len);
 				
 				
 				//1. Write Posting
-				postingOutput.writeVInt(len2);
-				postingOutput.writeInt(count);
-				postingOutput.writeInt(lastDocNo);
-				postingOutput.writeVInt(firstDocNo);
-				postingOutput.writeBytes(tempPostingOutput.array(), sz, len);
+				postingWriter.writePosting(postingOutput, count, lastDocNo, tempPostingOutput.array(), 0, len);
 
 				
 				//2. Write Lexicon
@@ -130,6 +161,7 @@ public class TempSearchFieldMerger {
 				}
 				termCount++;
 				
+				throttle(postingOutput.position() - postingPosition);
 			}
 
 
@@ -23,6 +23,7 @@ import java.io.IOException;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,9 +42,13 @@ public class TempSearchFieldReader {
 	private int left;
 	
 	public TempSearchFieldReader(int sequence, String indexId, File tempFile, long startPos) throws IOException{
+		this(sequence, indexId, tempFile, startPos, IOUtil.FILEBLOCKSIZE);
+	}
+	
+	public TempSearchFieldReader(int sequence, String indexId, File tempFile, long startPos, int bufferSize) throws IOException{
 		this.sequence = sequence;
 		this.indexId = indexId;
-		this.tempInput = new BufferedFileInput(tempFile);
+		this.tempInput = new BufferedFileInput(tempFile, bufferSize);
 		tempInput.seek(startPos);
 		logger.debug("{} - reader input position = {}", indexId, startPos);
 		logger.debug("{} - filesize = {}", indexId, tempFile.length());
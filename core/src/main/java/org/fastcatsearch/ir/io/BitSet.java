@@ -37,6 +37,14 @@ public class BitSet {
 	public BitSet(int size){
 		bitdata = new long[size];
 	}
+	/**
+	 * source 를 복사한다. 검색중인 delete.set 을 바꾸지 않고 메모리에서만 삭제표시를 더할때 사용하며, 복사본은 save 하지 않는다.
+	 * */
+	public BitSet(BitSet source){
+		this.file = source.file;
+		this.bitdata = source.bitdata.clone();
+	}
+	
 	public BitSet(File dir, String filename) throws IOException{
 		this(dir, filename, false);
 	}
@@ -117,6 +125,15 @@ public class BitSet {
 		bitdata[pos] |= mask;
 	}
 	
+	//set 된 bit 갯수. 삭제문서수를 셀때 사용한다.
+	public int cardinality(){
+		int count = 0;
+		for (int i = 0; i < bitdata.length; i++) {
+			count += Long.bitCount(bitdata[i]);
+		}
+		return count;
+	}
+	
 	public void save() throws IOException{
 		BufferedFileOutput out = new BufferedFileOutput(file);
 		int size = bitdata.length;
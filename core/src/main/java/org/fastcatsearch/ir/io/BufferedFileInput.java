@@ -59,6 +59,14 @@ public class BufferedFileInput extends IndexInput implements Cloneable {
 	}
 
 	public BufferedFileInput(File f) throws IOException {
+		this(f, IOUtil.FILEBLOCKSIZE);
+	}
+
+	/**
+	 * @param bufferSize 한번에 읽어오는 크기. 순차로 읽는 큰 파일은 크게 주어 읽기횟수를 줄인다.
+	 * */
+	public BufferedFileInput(File f, int bufferSize) throws IOException {
+		this.bufferSize = bufferSize;
 		off = 0L;
 		end = f.length();
 		this.f = f;
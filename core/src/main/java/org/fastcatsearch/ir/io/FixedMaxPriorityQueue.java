@@ -44,6 +44,8 @@ public abstract class FixedMaxPriorityQueue<T> {
 	protected int maxsize;
 	protected int size;
 	protected int totalSize;
+	//동일 번들키가 이미 있어서 버려진 원소갯수
+	protected int duplicateSize;
 	
 	public FixedMaxPriorityQueue(int maxsize){
 		this.maxsize = maxsize;
@@ -58,24 +60,35 @@ public abstract class FixedMaxPriorityQueue<T> {
 		return totalSize;
 	}
 	
+	public int duplicateSize(){
+		return duplicateSize;
+	}
+	
 	//
 	// one과 two는 heapify하면서 한번이상 사용될 것이므로 내부속성이 바뀌어서는 안된다.
 	//
 	protected abstract int compare(T one, T two);
 	
+	/**
+	 * 원소를 추가한다.
+	 * @return 큐에 들어갔으면 true, root보다 커서 reject되었으면 false.
+	 * false인 경우 큐가 원소를 참조하지 않으므로 호출자가 원소를 재사용해도 된다.
+	 * */
 	public boolean push(T e){
-		
+		boolean inserted = false;
 		if (size < maxsize) {
 			size++;
 			heap[size] = e;
 			upHeap();
+			inserted = true;
 		} else if (size > 0 && compare(peek(), e) > 0) {
 			heap[1] = e;
 			downHeap();
+			inserted = true;
 		}
 		//else reject
 		totalSize++;
-		return true;
+		return inserted;
 	}
 	
 	public T remove(T e) {
@@ -81,7 +81,8 @@ public class HybridHashSet {
                 return false;
             }
         } else {
-            if(memorySet.add(key)){
+            //호출자가 key 버퍼를 재사용할수 있으므로 새 key일때만 복사해서 보관한다.
+            if(!memorySet.contains(key) && memorySet.add(key.duplicate())){
                 count++;
                 return true;
             } else {
@@ -0,0 +1,57 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 색인파일 종류별로 BufferedFileInput 과 MMapIndexInput 중 어떤것으로 열지 결정한다.
+ * 컬렉션 설정의 mmap-file-types 에 콤마로 구분된 파일종류를 적으면 해당 파일들은 MMapIndexInput 으로 연다.
+ * 예) posting,lexicon,field-index
+ * */
+public class IndexInputFactory {
+
+	public static final String POSTING = "posting";
+	public static final String LEXICON = "lexicon";
+	public static final String FIELD_INDEX = "field-index";
+	public static final String GROUP_INDEX = "group-index";
+	public static final String DOCUMENT = "document";
+
+	//모든 파일을 BufferedFileInput 으로 연다.
+	public static final IndexInputFactory DEFAULT = new IndexInputFactory(null);
+
+	private Set<String> mmapFileTypes;
+
+	public IndexInputFactory(String mmapFileTypes) {
+		this.mmapFileTypes = new HashSet<String>();
+		if (mmapFileTypes != null) {
+			for (String type : mmapFileTypes.split(",")) {
+				type = type.trim().toLowerCase();
+				if (type.length() > 0) {
+					this.mmapFileTypes.add(type);
+				}
+			}
+		}
+	}
+
+	public boolean isMMap(String fileType) {
+		return mmapFileTypes.contains(fileType);
+	}
+
+	public IndexInput open(String fileType, File dir, String filename) throws IOException {
+		return open(fileType, new File(dir, filename));
+	}
+
+	public IndexInput open(String fileType, File file) throws IOException {
+		if (isMMap(fileType)) {
+			return new MMapIndexInput(file);
+		}
+		return new BufferedFileInput(file);
+	}
+
+	@Override
+	public String toString() {
+		return "mmap=" + mmapFileTypes;
+	}
+}
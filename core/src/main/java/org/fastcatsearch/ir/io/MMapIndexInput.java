@@ -0,0 +1,213 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.lucene.store.AlreadyClosedException;
+
+/**
+ * 파일을 MappedByteBuffer 로 매핑하여 읽는 IndexInput.
+ * BufferedFileInput 과 달리 seek 후 읽을때 시스템콜이나 힙버퍼 복사가 없으므로 docNo 별로 seek 하는 필드/그룹색인 읽기에 유리하다.
+ *
+ * 2GB 이상의 파일을 위해 chunk 단위(기본 1GB)로 나누어 매핑한다.
+ * clone 은 매핑된 버퍼를 duplicate 하여 위치만 따로 가지므로 비용이 적다.
+ *
+ * close 하면 해당 instance 만 더이상 읽을수 없게 되고(AlreadyClosedException) 버퍼 참조를 놓는다.
+ * 매핑은 강제로 해제하지 않고, 원본과 clone 이 모두 GC 될때 해제된다.
+ * 기존 세그먼트 reader 를 교체하면서 close 해도 아직 수행중인 검색의 clone 은 끝까지 읽을수 있으며, 해제된 메모리를 읽는 일(SIGSEGV)이 없다.
+ * 검색용 clone 은 close 하지 않고 버리는 경우가 많으므로 참조수를 세어 해제하는 방식은 쓰지 않는다.
+ * 삭제된 세그먼트 파일의 디스크 공간은 매핑이 GC 로 해제된 뒤에 반환된다.
+ * */
+public class MMapIndexInput extends IndexInput implements Cloneable {
+	public static final int DEFAULT_CHUNK_SIZE_POWER = 30;
+
+	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+	private final File f;
+	private final long length;
+	private final int chunkSizePower;
+	private final long chunkSizeMask;
+
+	private ByteBuffer[] buffers;
+	private ByteBuffer current;
+	private int currentIndex;
+
+	private boolean closed;
+
+	public MMapIndexInput(File dir, String filename) throws IOException {
+		this(new File(dir, filename));
+	}
+
+	public MMapIndexInput(File f) throws IOException {
+		this(f, DEFAULT_CHUNK_SIZE_POWER);
+	}
+
+	public MMapIndexInput(File f, int chunkSizePower) throws IOException {
+		this.f = f;
+		this.chunkSizePower = chunkSizePower;
+		this.chunkSizeMask = (1L << chunkSizePower) - 1L;
+		RandomAccessFile file = new RandomAccessFile(f, "r");
+		try {
+			length = file.length();
+			buffers = map(file.getChannel(), length, chunkSizePower);
+		} finally {
+			//매핑후에는 파일을 닫아도 매핑은 유지된다.
+			file.close();
+		}
+		setChunk(0);
+	}
+
+	private static ByteBuffer[] map(FileChannel channel, long length, int chunkSizePower) throws IOException {
+		long chunkSize = 1L << chunkSizePower;
+		int chunkCount = (int) (length >>> chunkSizePower) + 1;
+		ByteBuffer[] buffers = new ByteBuffer[chunkCount];
+		long offset = 0;
+		for (int i = 0; i < chunkCount; i++) {
+			long size = Math.min(chunkSize, length - offset);
+			buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+			offset += size;
+		}
+		return buffers;
+	}
+
+	private void setChunk(int index) {
+		currentIndex = index;
+		current = buffers[index];
+		current.position(0);
+	}
+
+	private boolean nextChunk() {
+		ensureOpen();
+		if (currentIndex + 1 >= buffers.length) {
+			return false;
+		}
+		setChunk(currentIndex + 1);
+		return true;
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw new AlreadyClosedException("Already closed: " + this);
+		}
+	}
+
+	@Override
+	public final byte readByte() throws IOException {
+		if (!current.hasRemaining()) {
+			//chunk 경계
+			do {
+				if (!nextChunk()) {
+					throw new EOFException("read past EOF: " + this);
+				}
+			} while (!current.hasRemaining());
+		}
+		return current.get();
+	}
+
+	@Override
+	public void readBytes(byte[] b, int offset, int len) throws IOException {
+		int remaining = current.remaining();
+		while (len > remaining) {
+			current.get(b, offset, remaining);
+			offset += remaining;
+			len -= remaining;
+			if (!nextChunk()) {
+				throw new EOFException("read past EOF: " + this);
+			}
+			remaining = current.remaining();
+		}
+		current.get(b, offset, len);
+	}
+
+	@Override
+	public final short readShort() throws IOException {
+		try {
+			return current.getShort();
+		} catch (BufferUnderflowException e) {
+			return super.readShort();
+		}
+	}
+
+	@Override
+	public final int readInt() throws IOException {
+		try {
+			return current.getInt();
+		} catch (BufferUnderflowException e) {
+			return super.readInt();
+		}
+	}
+
+	@Override
+	public final long readLong() throws IOException {
+		try {
+			return current.getLong();
+		} catch (BufferUnderflowException e) {
+			return super.readLong();
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		return readByte() & 0xff;
+	}
+
+	@Override
+	public long position() {
+		return (((long) currentIndex) << chunkSizePower) + current.position();
+	}
+
+	@Override
+	public void seek(long pos) throws IOException {
+		ensureOpen();
+		if (pos < 0 || pos > length) {
+			throw new EOFException("seek past EOF: pos=" + pos + ", " + this);
+		}
+		int index = (int) (pos >>> chunkSizePower);
+		if (index != currentIndex) {
+			currentIndex = index;
+			current = buffers[index];
+		}
+		current.position((int) (pos & chunkSizeMask));
+	}
+
+	@Override
+	public final long length() {
+		return length;
+	}
+
+	@Override
+	public void reset() throws IOException {
+	}
+
+	@Override
+	public MMapIndexInput clone() {
+		ensureOpen();
+		MMapIndexInput clone = (MMapIndexInput) super.clone();
+		clone.buffers = new ByteBuffer[buffers.length];
+		for (int i = 0; i < buffers.length; i++) {
+			clone.buffers[i] = buffers[i].duplicate();
+		}
+		clone.currentIndex = currentIndex;
+		clone.current = clone.buffers[currentIndex];
+		clone.current.position(current.position());
+		return clone;
+	}
+
+	@Override
+	public void close() throws IOException {
+		//매핑은 참조하는 버퍼가 모두 GC 될때 해제된다.
+		closed = true;
+		buffers = null;
+		current = EMPTY_BUFFER;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + getClass().getName() + "]" + f.getName() + ", length=" + length;
+	}
+}
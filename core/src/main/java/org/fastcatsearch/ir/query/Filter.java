@@ -16,6 +16,8 @@
 
 package org.fastcatsearch.ir.query;
 
+import java.util.Arrays;
+
 import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.filter.FilterFunction;
 import org.fastcatsearch.ir.filter.NotSupportedFilterFunctionException;
@@ -168,6 +170,25 @@ public class Filter {
 		return str + ":" + boostScore;
 	}
 
+	/**
+	 * 세그먼트 필터캐시에 넣을수 있는지 여부.
+	 * boost 와 geo 필터는 문서마다 점수나 거리를 rankInfo 에 기록하므로 캐시하지 않는다.
+	 * */
+	public boolean isCacheable() {
+		if (functionParams != null) {
+			return false;
+		}
+		return function == MATCH || function == SECTION || function == PREFIX || function == SUFFIX || function == EXCLUDE;
+	}
+
+	/**
+	 * 필터캐시 키. 필드, 기능, 모든 파라미터를 포함한다.
+	 * */
+	public String cacheKey() {
+		String fieldKey = fieldIndexId instanceof String[] ? Arrays.toString((String[]) fieldIndexId) : String.valueOf(fieldIndexId);
+		return fieldKey + ":" + function + ":" + Arrays.toString(functionParamList) + ":" + Arrays.toString(paramList) + ":" + Arrays.toString(endParamList);
+	}
+
     public void setFunctionParams(Object functionParams) {
         this.functionParams = functionParams;
     }
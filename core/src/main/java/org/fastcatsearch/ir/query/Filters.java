@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.search.FieldIndexesReader;
+import org.fastcatsearch.ir.search.SegmentFilterCache;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.Schema;
 
@@ -59,4 +60,8 @@ public class Filters {
 	public HitFilter getHitFilter(Schema schema, FieldIndexesReader fieldIndexesReader, int bulkSize) throws IOException, IRException {
 		return new HitFilter(filterList, schema, fieldIndexesReader, bulkSize);
 	}
+	
+	public HitFilter getHitFilter(Schema schema, FieldIndexesReader fieldIndexesReader, int bulkSize, SegmentFilterCache filterCache, String revisionUUID) throws IOException, IRException {
+		return new HitFilter(filterList, schema, fieldIndexesReader, bulkSize, filterCache, revisionUUID);
+	}
 }
@@ -23,10 +23,14 @@ import java.util.Map;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.filter.FilterFunction;
+import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.ir.search.FieldIndexReader;
 import org.fastcatsearch.ir.search.FieldIndexesReader;
 import org.fastcatsearch.ir.search.IndexRef;
+import org.fastcatsearch.ir.search.SegmentFilterCache;
+import org.fastcatsearch.ir.search.SegmentFilterCache.DocSet;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.Schema;
@@ -48,6 +52,70 @@ public class HitFilter {
 	private IndexRef<FieldIndexReader> fieldIndexRef;
 	private List<DataRef> dataRefList;
 	
+	//필터캐시에서 가져온 문서집합. 캐시되지 않은 필터는 null.
+	private DocSet[] cachedDocSets;
+	//컬럼캐시의 값으로 바로 비교하는 필터의 컬럼. 그외 필터는 null.
+	private ColumnCache[] columnCaches;
+	//캐시되지 않은 필터가 있어 필드데이터를 읽어야 하는지 여부.
+	private boolean readFieldData = true;
+	
+	/**
+	 * 세그먼트 필터캐시를 사용한다. 캐시 가능한 필터는 캐시된 문서집합으로 확인하고, 자주 사용되는 필터는 세그먼트 전체에 대해 캐시를 만든다.
+	 * */
+	public HitFilter(List<Filter> filterList, Schema schema, FieldIndexesReader fieldIndexesReader, int bulkSize, SegmentFilterCache filterCache, String revisionUUID) throws IOException, IRException {
+		this(filterList, schema, fieldIndexesReader, bulkSize);
+		if (filterCache == null) {
+			return;
+		}
+		cachedDocSets = new DocSet[filterFunctions.length];
+		boolean allCached = true;
+		for (int i = 0; i < filterFunctions.length; i++) {
+			Filter filter = this.filterList[i];
+			if (!filter.isCacheable()) {
+				if (columnCaches[i] == null) {
+					allCached = false;
+				}
+				continue;
+			}
+			String key = filter.cacheKey();
+			DocSet docSet = filterCache.get(key, revisionUUID);
+			if (docSet == null && filterCache.countAndCheck(key)) {
+				docSet = makeDocSet(i, fieldIndexesReader, filterCache.docCount());
+				filterCache.put(key, revisionUUID, docSet);
+			}
+			cachedDocSets[i] = docSet;
+			if (docSet == null && columnCaches[i] == null) {
+				allCached = false;
+			}
+		}
+		readFieldData = !allCached;
+	}
+	
+	/**
+	 * 세그먼트의 모든 문서에 대해 i번째 필터를 수행하여 부합하는 문서집합을 만든다.
+	 * */
+	private DocSet makeDocSet(int i, FieldIndexesReader fieldIndexesReader, int docCount) throws IOException, FilterException {
+		IndexRef<FieldIndexReader> indexRef = fieldIndexesReader.selectIndexRef(new Object[] { filterList[i].fieldIndexId() });
+		DataRef dataRef = indexRef.getDataRefList().get(0);
+		BitSet bitSet = new BitSet(docCount / 64 + 1);
+		RankInfo rankInfo = new RankInfo();
+		for (int docNo = 0; docNo < docCount; docNo++) {
+			rankInfo.init(docNo, 0);
+			boolean isMatched;
+			if (columnCaches[i] != null) {
+				isMatched = filterFunctions[i].filtering(rankInfo, columnCaches[i]);
+			} else {
+				indexRef.read(docNo);
+				isMatched = filterFunctions[i].filtering(rankInfo, dataRef);
+			}
+			if (isMatched) {
+				bitSet.set(docNo);
+			}
+		}
+		DocSet docSet = DocSet.create(bitSet, docCount);
+		logger.debug("filter cache created {} docs[{}/{}]", new Object[] { filterList[i], docSet.cardinality(), docCount });
+		return docSet;
+	}
 	
 	public HitFilter(List<Filter> filterList, Schema schema, FieldIndexesReader fieldIndexesReader, int bulkSize) throws IOException, IRException {
 		int size = filterList.size();
@@ -93,6 +161,22 @@ public class HitFilter {
 
 			logger.debug("FilterFunction[{}] > {}", i, filterFunctions[i]);
 		}
+		
+		//숫자형 컬럼캐시 필드는 byte 로 읽지 않고 값으로 바로 비교한다. 모든 필터가 그렇다면 필드데이터를 읽지 않는다.
+		columnCaches = new ColumnCache[size];
+		readFieldData = false;
+		for (int i = 0; i < size; i++) {
+			ColumnCache columnCache = null;
+			if (this.filterList[i].fieldIndexId() instanceof String) {
+				FieldIndexReader reader = fieldIndexRef.getReader(i);
+				columnCache = reader != null ? reader.columnCache() : null;
+			}
+			if (filterFunctions[i].isColumnFilter(columnCache)) {
+				columnCaches[i] = columnCache;
+			} else {
+				readFieldData = true;
+			}
+		}
 	}
 
 	private void checkFieldIndexId(Schema schema, String fieldIndexId) throws IRException {
@@ -114,14 +198,24 @@ public class HitFilter {
 			
 			//내부적으로 reader들과 ref를 연결하여 읽어들일수 있도록 한다.
 			//검색할 모든 필드에 대해서 read를 수행한다. 
-			fieldIndexRef.read(rankInfo.docNo());
+			//모두 캐시된 필터라면 읽지 않는다.
+			if(readFieldData){
+				fieldIndexRef.read(rankInfo.docNo());
+			}
 			
 			boolean isInclude = true;
 			
 			for (int i = 0; i < filterFunctions.length; i++) {
-				DataRef dataRef = dataRefList.get(i);
+				boolean isMatched;
+				if(cachedDocSets != null && cachedDocSets[i] != null){
+					isMatched = cachedDocSets[i].contains(rankInfo.docNo());
+				}else if(columnCaches[i] != null){
+					isMatched = filterFunctions[i].filtering(rankInfo, columnCaches[i]);
+				}else{
+					isMatched = filterFunctions[i].filtering(rankInfo, dataRefList.get(i));
+				}
 				//이미 제외된 거라면 더이상 확인하지 않는다.
-				if(filterFunctions[i].filtering(rankInfo, dataRef)){
+				if(isMatched){
 					//부합한다면 다음조건으로 계속진행한다. 
 					//필터조건끼리는 AND관계이므로 모든 조건이 부합할때까지는 아직 break하면 안된다.
 				}else{
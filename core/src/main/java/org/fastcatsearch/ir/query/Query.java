@@ -55,6 +55,8 @@ public class Query {
 	private Metadata meta;
 	private Query boostQuery;
 	private Bundle bundle;
+	//단계별 소요시간 추적. 추적하지 않으면 null.
+	private QueryTrace trace;
 	
 	public Query(){ 
 		meta = new Metadata();
@@ -148,5 +150,13 @@ public class Query {
 	public void setBundle(Bundle bundle) {
 		this.bundle = bundle;
 	}
+
+	public QueryTrace getTrace() {
+		return trace;
+	}
+
+	public void setTrace(QueryTrace trace) {
+		this.trace = trace;
+	}
 	
 }
@@ -0,0 +1,47 @@
+package org.fastcatsearch.ir.query;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 검색 단계별 소요시간(ns)을 누적한다.
+ * 세그먼트 병렬검색시 여러 쓰레드에서 더하므로 단계별 값은 쓰레드별 소요시간의 합이다.
+ * 추적을 하지 않는 검색은 Query 에 trace 가 없으며(null), 단계별 시간측정도 하지 않는다.
+ * */
+public class QueryTrace {
+
+	public static enum Phase {
+		PARSE, CLAUSE, POSTING, FILTER, GROUP, RANK, MERGE, FETCH, HIGHLIGHT, SERIALIZE
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+
+	private final AtomicLongArray times = new AtomicLongArray(PHASES.length);
+
+	public void add(Phase phase, long nanoTime) {
+		times.addAndGet(phase.ordinal(), nanoTime);
+	}
+
+	public long time(Phase phase) {
+		return times.get(phase.ordinal());
+	}
+
+	/**
+	 * 다른 노드나 작업에서 받은 단계별 시간을 더한다.
+	 * */
+	public void merge(QueryTrace other) {
+		if (other == null) {
+			return;
+		}
+		for (int i = 0; i < PHASES.length; i++) {
+			times.addAndGet(i, other.times.get(i));
+		}
+	}
+
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[QueryTrace]");
+		for (Phase phase : PHASES) {
+			sb.append(" ").append(phase.name().toLowerCase()).append("=").append(time(phase) / 1000).append("us");
+		}
+		return sb.toString();
+	}
+}
@@ -201,4 +201,18 @@ public class RankInfo {
             termOccurrencesList.clear();
         }
     }
+
+    /**
+     * 다음 문서를 읽기 위해 재사용할때 호출한다.
+     * rowExplanations 리스트는 HitElement가 계속 참조할수 있으므로 비우지 않고 연결만 끊는다.
+     */
+    public void clear() {
+        this.docNo = -1;
+        this.score = 0;
+        this.hit = 0;
+        this.matchFlag = 0;
+        this.distance = 0;
+        this.rowExplanations = null;
+        clearOccurrence();
+    }
 }
@@ -85,6 +85,10 @@ public abstract class AbstractHitElement<T> implements Comparable<T> {
 		return rankData;
 	}
 	
+	public void setRankData(BytesRef[] rankData){
+		this.rankData = rankData;
+	}
+	
 	public BytesRef rankData(int i){
 		return rankData[i];
 	}
@@ -16,6 +16,29 @@ public abstract class AbstractPostingReader implements PostingReader {
 		this.documentCount = documentCount;
 	}
 
+	@Override
+	public boolean next(PostingDoc postingDoc) {
+		if (hasNext()) {
+			PostingDoc next = next();
+			postingDoc.init(next.docNo(), next.tf(), next.positions());
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * 기본구현은 순차적으로 읽어가며 찾는다.
+	 * */
+	@Override
+	public boolean advance(int target, PostingDoc postingDoc) {
+		while (next(postingDoc)) {
+			if (postingDoc.docNo() >= target) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public int weight() {
 		return weight;
@@ -3,6 +3,7 @@ package org.fastcatsearch.ir.search;
 import java.io.IOException;
 
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IndexInput;
 
@@ -30,6 +31,9 @@ public class BufferedPostingReader extends AbstractPostingReader {
 			int len = postingInput.readVInt();
 			this.postingCount = postingInput.readInt();
 			int lastDocNo = postingInput.readInt();
+			if (indexFieldOption.isSkipBlock()) {
+				PostingSkipList.skip(postingInput);
+			}
 		} catch (IOException e) {
 
 		}
@@ -67,8 +67,16 @@ public class BundleSortGenerator extends SortGenerator {
 			RankInfo ri = rankInfoList[i];
 			bundleIndexRef.read(ri.docNo());
 			if(!isBundleKeyEmpty(data)) {
-				BytesRef bundleKey = data.duplicate();
+				//재사용하는 원소는 기존 bundleKey 버퍼에 복사한다.
+				BytesRef bundleKey = result[i].getBundleKey();
+				if(bundleKey == null) {
+					bundleKey = new BytesRef(data.length);
+				}
+				bundleKey.offset = 0;
+				bundleKey.copyBytes(data);
 				result[i].setBundleKey(bundleKey);
+			} else {
+				result[i].setBundleKey(null);
 			}
 		}
 	}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.lucene.util.BytesRef;
@@ -14,17 +15,23 @@ import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.common.SettingException;
+import org.fastcatsearch.ir.config.CollectionConfig;
 import org.fastcatsearch.ir.config.CollectionContext;
 import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
 import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
 import org.fastcatsearch.ir.config.DataPlanConfig;
+import org.fastcatsearch.ir.document.Document;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexBulkReader;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
 import org.fastcatsearch.ir.document.merge.PrimaryKeyIndexMerger;
 import org.fastcatsearch.ir.index.DeleteIdSet;
 import org.fastcatsearch.ir.index.PrimaryKeys;
+import org.fastcatsearch.ir.index.merge.SegmentMergeStatistics;
+import org.fastcatsearch.ir.index.merge.SegmentMerger;
+import org.fastcatsearch.ir.index.merge.TieredMergePolicy;
 import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.settings.AnalyzerSetting;
 import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.ir.util.Counter;
@@ -38,7 +45,8 @@ public class CollectionHandler {
 	private String collectionId;
 	private CollectionContext collectionContext;
 	private CollectionSearcher collectionSearcher;
-	private List<SegmentReader> segmentReaderList;
+	//머징시 새 리스트로 교체된다.
+	private volatile List<SegmentReader> segmentReaderList;
 	private Schema schema;
 	private long startedTime;
 	private boolean isLoaded;
@@ -49,6 +57,14 @@ public class CollectionHandler {
 
 	private Counter queryCounter;
 
+	private SegmentMergeStatistics mergeStatistics = new SegmentMergeStatistics();
+
+	//push 된 문서. 세그먼트에 반영되면 drop 된다.
+	private MemorySegment memorySegment;
+
+	//머징시 새 세그먼트를 만드는 임시 디렉토리. 색인 디렉토리 하위에 만든다.
+	private static final String MERGE_DIR_NAME = ".merge";
+
 	public CollectionHandler(CollectionContext collectionContext, AnalyzerFactoryManager analyzerFactoryManager) throws IRException, SettingException {
 		this.collectionContext = collectionContext;
 		this.collectionId = collectionContext.collectionId();
@@ -60,6 +76,11 @@ public class CollectionHandler {
 
 	public CollectionHandler load() throws IRException {
 		loadSearcherAndReader();
+		try {
+			memorySegment = new MemorySegment(schema, analyzerPoolManager, collectionContext.indexConfig());
+		} catch (IOException e) {
+			throw new IRException(e);
+		}
 		this.collectionSearcher = new CollectionSearcher(this);
 		startedTime = System.currentTimeMillis();
 		isLoaded = true;
@@ -100,6 +121,21 @@ public class CollectionHandler {
 		return isLoaded;
 	}
 
+	public MemorySegment memorySegment() {
+		return memorySegment;
+	}
+
+	/*
+	 * 컬렉션 설정에 따라 색인파일 종류별로 mmap 사용여부를 정한다.
+	 * */
+	private IndexInputFactory indexInputFactory() {
+		CollectionConfig collectionConfig = collectionContext.collectionConfig();
+		if (collectionConfig == null) {
+			return IndexInputFactory.DEFAULT;
+		}
+		return new IndexInputFactory(collectionConfig.getMmapFileTypes());
+	}
+
 	private void loadSearcherAndReader() throws IRException {
 
 		analyzerPoolManager = new AnalyzerPoolManager();
@@ -132,7 +168,7 @@ public class CollectionHandler {
 					File segmentDir = dataPaths.segmentFile(dataSequence, segmentInfo.getId());
 					// 삭제문서는 마지막 세그먼트의 마지막 리비전에 최신 업데이트 파일이 있으므로, 그것을 로딩한다.
 					BitSet deleteSet = new BitSet(lastRevisionDir, IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, segmentInfo.getId()));
-					segmentReaderList.add(new SegmentReader(segmentInfo, schema, segmentDir, deleteSet, analyzerPoolManager));
+					segmentReaderList.add(new SegmentReader(segmentInfo, schema, segmentDir, deleteSet, analyzerPoolManager, indexInputFactory()));
 					logger.debug("{}", segmentInfo);
 				}
 			} catch (IOException e) {
@@ -287,7 +323,7 @@ public class CollectionHandler {
 				segmentReaderList.get(i).setDeleteSet(deleteSetList[i]);
 			}
 			// 새로생성된 세그먼트는 로딩하여 리스트에 추가해준다.
-			addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager));
+			addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputFactory()));
 		} else {
 			/*
 			 * 리비전이 증가한경우.
@@ -327,10 +363,11 @@ public class CollectionHandler {
 				prevSegmentReaderList.get(i).setDeleteSet(deleteSetList[i]);
 			}
 			// 새 revison을 읽는 segmentReader를 만들어서 기존것과 바꾼다.
-			updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager), oldSegmentReader);
+			updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputFactory()), oldSegmentReader);
 			// 기존 reader는 닫는다.
 			oldSegmentReader.close();
 		}
+		applyMemorySegment();
 	}
 
 	// 색인되어있는 세그먼트를 단순히 추가만한다. delete.set파일은 이미 수정되어있다고 가정한다.
@@ -342,7 +379,8 @@ public class CollectionHandler {
 			BitSet deleteSet = new BitSet(lastRevisionDir, IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, prevSegmentInfo.getId()));
 			segmentReaderList.get(i).setDeleteSet(deleteSet);
 		}
-		addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager));
+		addSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputFactory()));
+		applyMemorySegment();
 	}
 
 	// 단순 update. delete.set파일은 이미 수정되어있다고 가정한다.
@@ -361,9 +399,10 @@ public class CollectionHandler {
 			prevSegmentReaderList.get(i).setDeleteSet(deleteSet);
 		}
 		// 새 revison을 읽는 segmentReader를 만들어서 기존것과 바꾼다.
-		updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager), oldSegmentReader);
+		updateSegmentReader(new SegmentReader(segmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputFactory()), oldSegmentReader);
 		// 기존 reader는 닫는다.
 		oldSegmentReader.close();
+		applyMemorySegment();
 	}
 
 	// 이전 세그먼트가 존재하면 delete.set을 업데이트하여 segment reader 에 적용시켜준다.
@@ -580,6 +619,237 @@ public class CollectionHandler {
 		return deleteDocumentSize;
 	}
 
+	public SegmentMergeStatistics mergeStatistics() {
+		return mergeStatistics;
+	}
+
+	/**
+	 * 컬렉션 설정의 data-plan 에 따른 머징정책.
+	 * */
+	public TieredMergePolicy mergePolicy() {
+		DataPlanConfig dataPlanConfig = collectionContext.collectionConfig().getDataPlanConfig();
+		return new TieredMergePolicy(dataPlanConfig.getSegmentMergeFactor(), dataPlanConfig.getSegmentMergeDeleteRatio());
+	}
+
+	/**
+	 * @return 머징을 시작할 세그먼트 index. 머징할 필요가 없으면 -1.
+	 * */
+	public int findMergeSegment(TieredMergePolicy mergePolicy) {
+		List<SegmentReader> readerList = segmentReaderList;
+		int size = readerList.size();
+		int[] documentCounts = new int[size];
+		int[] deleteCounts = new int[size];
+		for (int i = 0; i < size; i++) {
+			SegmentReader segmentReader = readerList.get(i);
+			documentCounts[i] = segmentReader.docCount();
+			deleteCounts[i] = segmentReader.deleteSet().cardinality();
+		}
+		return mergePolicy.findMerge(documentCounts, deleteCounts);
+	}
+
+	/**
+	 * fromIndex 세그먼트부터 마지막 세그먼트까지를 하나의 세그먼트로 머징하고 삭제문서를 제거한다.
+	 * 머징된 세그먼트는 fromIndex 세그먼트의 id와 base를 가지며, segmentReaderList 를 새 리스트로 교체하여 한번에 적용한다.
+	 * 색인작업과 동시에 수행되면 안된다.
+	 * 
+	 * @return 머징된 세그먼트 정보.
+	 * */
+	public synchronized SegmentInfo mergeSegments(int fromIndex) throws IOException, IRException {
+		List<SegmentReader> readerList = segmentReaderList;
+		int size = readerList.size();
+		if (fromIndex < 0 || fromIndex >= size) {
+			throw new IRException("Invalid merge segment index = " + fromIndex + ", segment size = " + size);
+		}
+		List<String> unstoredFields = SegmentMerger.unstoredIndexFields(schema);
+		if (unstoredFields.size() > 0) {
+			throw new IRException("Cannot merge segments. Index fields are not stored. " + unstoredFields);
+		}
+
+		List<SegmentReader> mergeReaderList = new ArrayList<SegmentReader>(readerList.subList(fromIndex, size));
+		List<SegmentReader> prevReaderList = readerList.subList(0, fromIndex);
+		SegmentReader lastSegmentReader = mergeReaderList.get(mergeReaderList.size() - 1);
+		SegmentInfo firstSegmentInfo = mergeReaderList.get(0).segmentInfo();
+		String segmentId = firstSegmentInfo.getId();
+
+		File indexDir = lastSegmentReader.segmentDir().getParentFile();
+		File mergeDir = new File(indexDir, MERGE_DIR_NAME);
+		if (mergeDir.exists()) {
+			FileUtils.deleteDirectory(mergeDir);
+		}
+		File targetDir = new File(mergeDir, segmentId);
+
+		logger.info("[{}] Merge segments {} ~ {}", new Object[] { collectionId, segmentId, lastSegmentReader.segmentInfo().getId() });
+		long st = System.currentTimeMillis();
+		mergeStatistics.start();
+		try {
+			File[] segmentDirs = new File[mergeReaderList.size()];
+			BitSet[] deleteSets = new BitSet[mergeReaderList.size()];
+			for (int i = 0; i < mergeReaderList.size(); i++) {
+				segmentDirs[i] = mergeReaderList.get(i).segmentDir();
+				// push 문서로 가려진 문서는 지우지 않도록 파일의 삭제문서만 사용한다.
+				deleteSets[i] = new BitSet(lastSegmentReader.revisionDir(), IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, mergeReaderList.get(i).segmentInfo().getId()));
+			}
+			SegmentMerger segmentMerger = new SegmentMerger(schema, collectionContext.indexConfig(), analyzerPoolManager);
+			RevisionInfo revisionInfo = segmentMerger.merge(segmentDirs, deleteSets, targetDir);
+			//모든 노드에서 같은 머징을 하면 같은 uuid를 가지도록 한다.
+			revisionInfo.setUuid(mergedRevisionUUID(mergeReaderList));
+
+			// 이전 세그먼트들의 delete.set.#은 마지막 세그먼트의 리비전에 있으므로 새 세그먼트의 리비전으로 복사한다.
+			File targetRevisionDir = new File(targetDir, Integer.toString(revisionInfo.getId()));
+			copyDeleteSet(prevReaderList, lastSegmentReader.revisionDir(), targetRevisionDir);
+
+			SegmentInfo mergedSegmentInfo = new SegmentInfo(segmentId, firstSegmentInfo.getBaseNumber());
+			mergedSegmentInfo.setRevisionInfo(revisionInfo);
+
+			// 기존 세그먼트 디렉토리를 옮기고 새 세그먼트를 제자리에 놓는다.
+			File segmentDir = new File(indexDir, segmentId);
+			File oldDir = new File(mergeDir, "old");
+			oldDir.mkdirs();
+			List<File[]> movedList = new ArrayList<File[]>();
+			try {
+				for (SegmentReader segmentReader : mergeReaderList) {
+					File dir = segmentReader.segmentDir();
+					File movedDir = new File(oldDir, dir.getName());
+					rename(dir, movedDir);
+					movedList.add(new File[] { dir, movedDir });
+				}
+				rename(targetDir, segmentDir);
+			} catch (IOException e) {
+				for (File[] moved : movedList) {
+					moved[1].renameTo(moved[0]);
+				}
+				throw e;
+			}
+
+			SegmentReader mergedSegmentReader = new SegmentReader(mergedSegmentInfo, schema, segmentDir, null, analyzerPoolManager, indexInputFactory());
+			List<SegmentReader> newReaderList = new ArrayList<SegmentReader>(prevReaderList);
+			for (SegmentReader segmentReader : newReaderList) {
+				BitSet deleteSet = new BitSet(mergedSegmentReader.revisionDir(), IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, segmentReader.segmentInfo().getId()));
+				segmentReader.setDeleteSet(deleteSet);
+			}
+			newReaderList.add(mergedSegmentReader);
+			segmentReaderList = newReaderList;
+			collectionContext.dataInfo().mergeSegmentInfo(fromIndex, mergedSegmentInfo);
+			applyMemorySegment();
+
+			for (SegmentReader segmentReader : mergeReaderList) {
+				segmentReader.close();
+			}
+			try {
+				FileUtils.deleteDirectory(mergeDir);
+			} catch (IOException e) {
+				logger.error("Error while delete merged segment directory = " + mergeDir.getAbsolutePath(), e);
+			}
+
+			long elapsed = System.currentTimeMillis() - st;
+			mergeStatistics.finish(mergeReaderList.size(), segmentMerger.documentCount(), segmentMerger.purgeCount(), elapsed);
+			logger.info("[{}] Merged {}, elapsed = {}ms", new Object[] { collectionId, mergedSegmentInfo, elapsed });
+			return mergedSegmentInfo;
+		} catch (IOException e) {
+			mergeStatistics.fail();
+			throw e;
+		} catch (IRException e) {
+			mergeStatistics.fail();
+			throw e;
+		}
+	}
+
+	/**
+	 * push 된 문서를 메모리 세그먼트에 넣고, 같은 pk 의 세그먼트 문서를 가린다.
+	 * @param generation push 로그의 순번. 이 순번까지 세그먼트에 반영되면 dropPushedDocuments 로 버린다.
+	 * */
+	public void pushDocuments(List<Document> documentList, List<PrimaryKeys> deleteList, int generation) throws IOException, IRException {
+		synchronized (memorySegment) {
+			List<BytesRef> keyList = new ArrayList<BytesRef>();
+			if (documentList != null) {
+				for (Document document : documentList) {
+					BytesRef key = memorySegment.add(document, generation);
+					if (key != null) {
+						keyList.add(key);
+					}
+				}
+			}
+			if (deleteList != null) {
+				for (PrimaryKeys primaryKeys : deleteList) {
+					BytesRef key = memorySegment.delete(primaryKeys, generation);
+					if (key != null) {
+						keyList.add(key);
+					}
+				}
+			}
+			hideDocuments(segmentReaderList, keyList, false);
+		}
+	}
+
+	/**
+	 * generation 까지의 push 문서가 세그먼트에 반영되었으므로 메모리에서 버리고, 남은 문서로 세그먼트 문서를 다시 가린다.
+	 * */
+	public void dropPushedDocuments(int generation) throws IOException, IRException {
+		synchronized (memorySegment) {
+			memorySegment.drop(generation);
+			hideDocuments(segmentReaderList, memorySegment.keys(), true);
+		}
+	}
+
+	/*
+	 * 세그먼트별 삭제문서를 파일에서 다시 읽고 메모리 세그먼트의 pk 로 가린다.
+	 * 세그먼트가 바뀌면 호출한다.
+	 * */
+	private void applyMemorySegment() throws IOException {
+		if (memorySegment == null) {
+			return;
+		}
+		synchronized (memorySegment) {
+			if (memorySegment.isEmpty()) {
+				return;
+			}
+			hideDocuments(segmentReaderList, memorySegment.keys(), true);
+		}
+	}
+
+	/*
+	 * 세그먼트 삭제문서를 복사하여 pk 가 같은 문서를 표시한 후 교체한다. 검색중인 세그먼트는 이전 삭제문서를 계속 사용한다.
+	 * reload 이면 파일의 삭제문서부터 다시 시작한다.
+	 * */
+	private void hideDocuments(List<SegmentReader> readerList, List<BytesRef> keyList, boolean reload) throws IOException {
+		if (readerList.size() == 0 || (keyList.size() == 0 && !reload)) {
+			return;
+		}
+		File lastRevisionDir = readerList.get(readerList.size() - 1).revisionDir();
+		for (SegmentReader segmentReader : readerList) {
+			BitSet deleteSet = null;
+			if (reload) {
+				deleteSet = new BitSet(lastRevisionDir, IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, segmentReader.segmentInfo().getId()));
+			} else {
+				deleteSet = new BitSet(segmentReader.deleteSet());
+			}
+			PrimaryKeyIndexesReader pkReader = segmentReader.newSearchIndexesReader().getPrimaryKeyIndexesReader();
+			if (pkReader != null) {
+				for (BytesRef key : keyList) {
+					int docNo = pkReader.getDocNo(key);
+					if (docNo >= 0) {
+						deleteSet.set(docNo);
+					}
+				}
+			}
+			segmentReader.hideDocuments(deleteSet);
+		}
+	}
+
+	private static void rename(File source, File target) throws IOException {
+		if (!source.renameTo(target)) {
+			throw new IOException("Cannot rename " + source.getAbsolutePath() + " to " + target.getAbsolutePath());
+		}
+	}
+
+	private static String mergedRevisionUUID(List<SegmentReader> mergeReaderList) {
+		StringBuilder sb = new StringBuilder();
+		for (SegmentReader segmentReader : mergeReaderList) {
+			sb.append(segmentReader.segmentInfo().getId()).append(':').append(segmentReader.segmentInfo().getRevisionInfo().getUuid()).append(',');
+		}
+		return UUID.nameUUIDFromBytes(sb.toString().getBytes()).toString().replaceAll("-", "");
+	}
+
 	public int segmentSize() {
 		if (segmentReaderList == null) {
 			return 0;
@@ -7,7 +7,9 @@ import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.ir.analysis.AnalyzerPool;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.SettingException;
+import org.fastcatsearch.ir.config.CollectionConfig;
 import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.document.LazyDocument;
 import org.fastcatsearch.ir.field.DocNoField;
 import org.fastcatsearch.ir.field.Field;
 import org.fastcatsearch.ir.field.ScoreField;
@@ -19,7 +21,6 @@ import org.fastcatsearch.ir.group.GroupsData;
 import org.fastcatsearch.ir.io.*;
 import org.fastcatsearch.ir.query.*;
 import org.fastcatsearch.ir.query.Term.Option;
-import org.fastcatsearch.ir.search.clause.Clause;
 import org.fastcatsearch.ir.search.clause.ClauseException;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.FieldSetting.Type;
@@ -35,6 +36,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CollectionSearcher {
 	private static Logger logger = LoggerFactory.getLogger(CollectionSearcher.class);
@@ -138,6 +142,54 @@ public class CollectionSearcher {
 		return null;
 	}
 
+	/**
+	 * 세그먼트 순서, 문서번호 순서로 start 번째부터 rows 개의 문서를 리턴한다. 저장된 모든 필드를 보여주며, 삭제된 문서는 Row 에 삭제표시를 한다.
+	 * 문서는 LazyDocument 로 읽는다.
+	 * */
+	public Result listDocument(int start, int rows) throws IOException {
+		List<FieldSetting> fieldSettingList = collectionHandler.schema().schemaSetting().getFieldSettingList();
+		int fieldSize = fieldSettingList.size();
+		String[] fieldNameList = new String[fieldSize];
+		for (int i = 0; i < fieldSize; i++) {
+			fieldNameList[i] = fieldSettingList.get(i).getId();
+		}
+
+		int segmentSize = collectionHandler.segmentSize();
+		int totalCount = 0;
+		for (int m = 0; m < segmentSize; m++) {
+			totalCount += collectionHandler.segmentReader(m).docCount();
+		}
+
+		List<Row> rowList = new ArrayList<Row>(rows);
+		int skip = start;
+		for (int m = 0; m < segmentSize && rowList.size() < rows; m++) {
+			SegmentReader segmentReader = collectionHandler.segmentReader(m);
+			int docCount = segmentReader.docCount();
+			if (skip >= docCount) {
+				skip -= docCount;
+				continue;
+			}
+			SegmentSearcher segmentSearcher = segmentReader.segmentSearcher();
+			BitSet deleteSet = segmentReader.deleteSet();
+			for (int docNo = skip; docNo < docCount && rowList.size() < rows; docNo++) {
+				LazyDocument document = segmentSearcher.getLazyDocument(docNo, null);
+				Row row = new Row(fieldSize);
+				for (int i = 0; i < fieldSize; i++) {
+					Field field = document.get(i);
+					if (field != null) {
+						String text = field.toString();
+						row.put(i, text != null ? text.toCharArray() : null);
+					}
+				}
+				row.setDeleted(deleteSet != null && deleteSet.isSet(docNo));
+				rowList.add(row);
+			}
+			skip = 0;
+		}
+		Row[] rowArray = rowList.toArray(new Row[rowList.size()]);
+		return new Result(rowArray, null, null, null, fieldNameList, rowArray.length, totalCount, start, null, null);
+	}
+
 	public InternalSearchResult searchInternal(Query q) throws IRException, IOException, SettingException {
 		return searchInternal(q, false, null);
 	}
@@ -178,18 +230,7 @@ public class CollectionSearcher {
 
 		Sorts sorts = q.getSorts();
 //		FixedMinHeap<FixedHitReader> hitMerger = null;
-		FixedMaxPriorityQueue<HitElement> ranker = null;
-		if (sorts == null) {
-//			hitMerger = sorts.createMerger(schema, segmentSize);
-			//TODO 
-			//BundleDefaultRanker (fieldIndexesReader, bundle)
-			ranker = new DefaultRanker(sortMaxSize);
-		} else {
-//			hitMerger = new FixedMinHeap<FixedHitReader>(segmentSize);
-			// ranker에 정렬 로직이 담겨있다.
-			// ranker 안에는 필드타입과 정렬옵션을 확인하여 적합한 byte[] 비교를 수행한다.
-			ranker = sorts.createRanker(schema, sortMaxSize);
-		}
+		FixedMaxPriorityQueue<HitElement> ranker = newRanker(schema, sorts, sortMaxSize);
 
 		GroupDataMerger dataMerger = null;
 		if (groups != null) {
@@ -204,58 +245,66 @@ public class CollectionSearcher {
         // 32byte의 key를 HashSet에 넣었을때 100만개에 100MB, 1000만개에 1G 정도 메모리 소요.
         // 대부분 100만개 이하일 것이므로, 메모리에서 수행하도록 한다.
 //		Set<BytesRef> bundleKeySet = new HashSet<BytesRef>();
-        int keySize = 0;
-        HybridHashSet bundleKeySet = new HybridHashSet(bundleMemMaxCountLimit, bundleHashBucketSize, keySize);
+        BundleKeyCounter bundleKeyCounter = new BundleKeyCounter(new HybridHashSet(bundleMemMaxCountLimit, bundleHashBucketSize, 0));
 		List<Explanation> explanationList = null;
 		BitSet[] segmentDocHitSetList = null;
 		try {
 			segmentDocHitSetList = new BitSet[segmentSize];
+			SegmentHitCollector[] collectorList = new SegmentHitCollector[segmentSize];
+			boolean isParallel = segmentSize > 1 && isParallelSegmentSearch();
 			for (int i = 0; i < segmentSize; i++) {
-				// segment 의 모든 결과를 보아야 중복체크가 가능하므로 reader를 받아오도록 한다.
-				HitReader hitReader = collectionHandler.segmentSearcher(i).searchHitReader(q, boostList);
-				//
+				segmentDocHitSetList[i] = new BitSet();
+				// 병렬검색시에는 세그먼트별로 top-N heap을 따로 가지고 있다가 마지막에 머징한다.
+				FixedMaxPriorityQueue<HitElement> segmentRanker = isParallel ? newRanker(schema, sorts, sortMaxSize) : ranker;
+				collectorList[i] = new SegmentHitCollector(collectionHandler.segmentSearcher(i), q, boostList, segmentRanker, bundleKeyCounter, segmentDocHitSetList[i]);
+			}
+
+			if (isParallel) {
+				collectParallel(collectorList);
+			} else {
+				for (int i = 0; i < segmentSize; i++) {
+					collectorList[i].collect();
+				}
+			}
+
+			//세그먼트 순서대로 결과를 합친다.
+			for (int i = 0; i < segmentSize; i++) {
+				SegmentHitCollector collector = collectorList[i];
 				//
 				//FIXME highlightInfo 계속 덮어쓰나?
 				//
 				if (highlightInfo == null) {
-					highlightInfo = hitReader.highlightInfo();
+					highlightInfo = collector.highlightInfo();
 				}
+				totalSize += collector.totalSize();
 
-				segmentDocHitSetList[i] = new BitSet();
-				// posting data
-				HitElement e = null;
-				while ((e = hitReader.next()) != null) {
-					if (e.getBundleKey() != null) {
-                        if(keySize == 0) {
-                            keySize = e.getBundleKey().length();
-                            bundleKeySet.setKeySize(keySize);
-                        }
-						segmentDocHitSetList[i].set(e.docNo());
-						if(bundleKeySet.add(e.getBundleKey())) {
-							totalSize++;
-						}
-					} else {
-						totalSize++;
+				if (isParallel) {
+					FixedMaxPriorityQueue<HitElement> segmentRanker = collector.ranker();
+					HitElement e = null;
+					while ((e = segmentRanker.pop()) != null) {
+						ranker.push(e);
 					}
-					ranker.push(e);
-//					logger.debug("heap insert hit > {}", e.docNo());
 				}
-				
+
 				// Put GroupResult
 				if (dataMerger != null) {
-					dataMerger.put(hitReader.makeGroupData());
+					dataMerger.put(collector.groupData());
 				}
-				
-				if(hitReader.explanation() != null){
+
+				Explanation explanation = collector.explanation();
+				if(explanation != null){
 					if(explanationList == null){
 						explanationList = new ArrayList<Explanation>();
 					}
-					hitReader.explanation().setSegmentId(i);
-					hitReader.explanation().setCollectionId(collectionId);
-					explanationList.add(hitReader.explanation());
+					explanation.setSegmentId(i);
+					explanation.setCollectionId(collectionId);
+					explanationList.add(explanation);
 				}
 			}
-			
+
+			//세그먼트에 반영되기 전의 push 문서.
+			totalSize += collectionHandler.memorySegment().search(q, ranker);
+
 		} catch (IOException e) {
 			throw new IRException(e);
         } catch (FilterException e) {
@@ -263,12 +312,12 @@ public class CollectionSearcher {
 		} catch (ClauseException e) {
 			throw new IRException(e);
 		} finally {
-            if(bundleKeySet != null) {
-                bundleKeySet.clean();
-            }
+            bundleKeyCounter.clean();
         }
 
 
+		QueryTrace trace = q.getTrace();
+		long st = trace != null ? System.nanoTime() : 0;
 		int rankerSize = ranker.size();
 //		logger.debug("PAGE start={}, size={}", start, rankerSize);
 		
@@ -298,10 +347,18 @@ public class CollectionSearcher {
 		}
 		
 
+		if (trace != null) {
+			trace.add(QueryTrace.Phase.RANK, System.nanoTime() - st);
+			st = System.nanoTime();
+		}
+
 		GroupsData groupData = null;
 		if (dataMerger != null) {
 			groupData = dataMerger.merge();
 		}
+		if (trace != null) {
+			trace.add(QueryTrace.Phase.GROUP, System.nanoTime() - st);
+		}
 		
 		HitElement[] hitElementList = totalHit.getHitElementList();
 		int realSize = totalHit.size();
@@ -316,6 +373,168 @@ public class CollectionSearcher {
 		return new InternalSearchResult(collectionId, hitElementList, realSize, totalSize, groupData, highlightInfo, explanationList);
 	}
 	
+	private FixedMaxPriorityQueue<HitElement> newRanker(Schema schema, Sorts sorts, int sortMaxSize) throws IOException {
+		if (sorts == null) {
+			//TODO 
+			//BundleDefaultRanker (fieldIndexesReader, bundle)
+			return new DefaultRanker(sortMaxSize);
+		} else {
+			// ranker에 정렬 로직이 담겨있다.
+			// ranker 안에는 필드타입과 정렬옵션을 확인하여 적합한 byte[] 비교를 수행한다.
+			return sorts.createRanker(schema, sortMaxSize);
+		}
+	}
+
+	private boolean isParallelSegmentSearch() {
+		CollectionConfig collectionConfig = collectionHandler.collectionContext().collectionConfig();
+		return collectionConfig != null && collectionConfig.getParallelSegmentSearch();
+	}
+
+	/*
+	 * 세그먼트별 검색을 SegmentSearchExecutor에서 동시에 수행한다.
+	 * 하나라도 실패하면 아직 시작하지 않은 나머지는 취소하고 예외를 던진다.
+	 * */
+	private void collectParallel(SegmentHitCollector[] collectorList) throws IRException {
+		SegmentSearchExecutor executor = SegmentSearchExecutor.getInstance();
+		List<Future<SegmentHitCollector>> futureList = new ArrayList<Future<SegmentHitCollector>>(collectorList.length);
+		try {
+			for (int i = 0; i < collectorList.length; i++) {
+				futureList.add(executor.submit(collectorList[i]));
+			}
+			for (Future<SegmentHitCollector> future : futureList) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IRException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IRException) {
+				throw (IRException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IRException(cause);
+		} finally {
+			//인터럽트하면 공유하는 FileChannel 이 닫히므로(ClosedByInterruptException) 아직 시작하지 않은 작업만 취소한다.
+			for (Future<SegmentHitCollector> future : futureList) {
+				if (!future.isDone()) {
+					future.cancel(false);
+				}
+			}
+		}
+	}
+
+	/*
+	 * 하나의 세그먼트에서 hit를 읽어서 ranker에 넣는다.
+	 * 순차검색시에는 모든 세그먼트가 하나의 ranker를 공유하고, 병렬검색시에는 세그먼트별 ranker를 사용한다.
+	 * */
+	static class SegmentHitCollector implements Callable<SegmentHitCollector> {
+		private SegmentSearcher segmentSearcher;
+		private Query q;
+		private PkScoreList boostList;
+		private FixedMaxPriorityQueue<HitElement> ranker;
+		private BundleKeyCounter bundleKeyCounter;
+		private BitSet docHitSet;
+
+		private int totalSize;
+		private GroupsData groupData;
+		private HighlightInfo highlightInfo;
+		private Explanation explanation;
+
+		public SegmentHitCollector(SegmentSearcher segmentSearcher, Query q, PkScoreList boostList, FixedMaxPriorityQueue<HitElement> ranker, BundleKeyCounter bundleKeyCounter,
+				BitSet docHitSet) {
+			this.segmentSearcher = segmentSearcher;
+			this.q = q;
+			this.boostList = boostList;
+			this.ranker = ranker;
+			this.bundleKeyCounter = bundleKeyCounter;
+			this.docHitSet = docHitSet;
+		}
+
+		@Override
+		public SegmentHitCollector call() throws Exception {
+			collect();
+			return this;
+		}
+
+		public void collect() throws IOException, FilterException, ClauseException, IRException {
+			// segment 의 모든 결과를 보아야 중복체크가 가능하므로 reader를 받아오도록 한다.
+			HitReader hitReader = segmentSearcher.searchHitReader(q, boostList);
+			highlightInfo = hitReader.highlightInfo();
+			QueryTrace trace = q.getTrace();
+			long st = trace != null ? System.nanoTime() : 0;
+			// posting data
+			HitElement e = null;
+			while ((e = hitReader.next()) != null) {
+				if (e.getBundleKey() != null) {
+					docHitSet.set(e.docNo());
+					if(bundleKeyCounter.add(e.getBundleKey())) {
+						totalSize++;
+					}
+				} else {
+					totalSize++;
+				}
+				if (ranker.push(e)) {
+					//랭커에 들어간 원소는 reader가 재사용하지 않도록 한다.
+					hitReader.retain();
+				}
+//				logger.debug("heap insert hit > {}", e.docNo());
+			}
+			if (trace != null) {
+				//reader 가 측정한 시간을 뺀 나머지는 heap 에 넣는 시간이다.
+				trace.add(QueryTrace.Phase.RANK, System.nanoTime() - st - hitReader.tracedTime());
+			}
+			groupData = hitReader.makeGroupData();
+			explanation = hitReader.explanation();
+		}
+
+		public FixedMaxPriorityQueue<HitElement> ranker() {
+			return ranker;
+		}
+
+		public int totalSize() {
+			return totalSize;
+		}
+
+		public GroupsData groupData() {
+			return groupData;
+		}
+
+		public HighlightInfo highlightInfo() {
+			return highlightInfo;
+		}
+
+		public Explanation explanation() {
+			return explanation;
+		}
+	}
+
+	/*
+	 * 세그먼트를 넘나드는 묶음키 중복제거용.
+	 * HybridHashSet은 thread-safe하지 않으므로 병렬검색시에도 사용할수 있도록 동기화해준다.
+	 * */
+	static class BundleKeyCounter {
+		private HybridHashSet bundleKeySet;
+		private int keySize;
+
+		public BundleKeyCounter(HybridHashSet bundleKeySet) {
+			this.bundleKeySet = bundleKeySet;
+		}
+
+		public synchronized boolean add(BytesRef bundleKey) {
+			if(keySize == 0) {
+				keySize = bundleKey.length();
+				bundleKeySet.setKeySize(keySize);
+			}
+			return bundleKeySet.add(bundleKey);
+		}
+
+		public synchronized void clean() {
+			bundleKeySet.clean();
+		}
+	}
+	
 	/*
 	 * 번들 문서를 찾아온다.
 	 * */
@@ -335,41 +554,44 @@ public class CollectionSearcher {
 		Type bundleFieldType = bundleFieldSetting.getType();
 		
 		try {
+			//페이지의 모든 묶음키를 모아서 세그먼트별로 한번에 검색한다.
+			String[] bundleKeyList = new String[size];
 			for (int k = 0; k < size; k++) {
-				int totalSize = 0;
-				//bundleKey로 clause생성한다.
-                int mainDocNo = hitElementList[k].docNo();
 				BytesRef bundleKey = hitElementList[k].getBundleKey();
-				if(bundleKey == null) {
-					continue;
+				if(bundleKey != null) {
+					bundleKeyList[k] = Formatter.getContentString(bundleKey, bundleFieldType);
 				}
-				String bundleStringKey = Formatter.getContentString(bundleKey, bundleFieldType);
-				
-				if(bundleStringKey == null) {
+			}
+			
+			//[segment][key]
+			Hit[][] segmentHitList = new Hit[segmentSize][];
+			for (int i = 0; i < segmentSize; i++) {
+				segmentHitList[i] = collectionHandler.segmentSearcher(i).searchBundleIndex(fieldIndexId, bundleKeyList, bundleSorts, bundleRows, segmentDocFilterList[i]);
+			}
+			
+			//모든 묶음키가 하나의 heap 을 재사용한다.
+			FixedMinHeap<FixedHitReader> hitMerger = null;
+			if (bundleSorts != null) {
+				hitMerger = bundleSorts.createMerger(schema, segmentSize);
+			} else {
+				hitMerger = new FixedMinHeap<FixedHitReader>(segmentSize);
+			}
+			
+			for (int k = 0; k < size; k++) {
+				if(bundleKeyList[k] == null) {
 					continue;
 				}
-				
-				Clause bundleClause = new Clause(new Term(fieldIndexId, bundleStringKey));
-				Hit[] segmentHitList = new Hit[segmentSize];
-				
+				int totalSize = 0;
+                int mainDocNo = hitElementList[k].docNo();
 				for (int i = 0; i < segmentSize; i++) {
-					//bundle key 별로 결과를 모은다.
-					segmentHitList[i] = collectionHandler.segmentSearcher(i).searchIndex(bundleClause, bundleSorts, bundleStart, bundleRows, segmentDocFilterList[i]);
-					totalSize += segmentHitList[i].totalCount();
+					totalSize += segmentHitList[i][k].totalCount();
 				}
 				
 				//2이상이어야만 번들이 유효하다.
 				if(totalSize > 1) {
 					
-					FixedMinHeap<FixedHitReader> hitMerger = null;
-					if (bundleSorts != null) {
-						hitMerger = bundleSorts.createMerger(schema, segmentSize);
-					} else {
-						hitMerger = new FixedMinHeap<FixedHitReader>(segmentSize);
-					}
-					
 					for (int i = 0; i < segmentSize; i++) {
-						FixedHitReader hitReader = segmentHitList[i].hitStack().getReader();
+						FixedHitReader hitReader = segmentHitList[i][k].hitStack().getReader();
 	//					// posting data
 						if (hitReader.next()) {
 							hitMerger.push(hitReader);
@@ -407,6 +629,10 @@ public class CollectionSearcher {
 						}
 						hitMerger.heapify();
 					}
+					//다음 묶음키에서 재사용하도록 비운다.
+					while (hitMerger.size() > 0) {
+						hitMerger.pop();
+					}
 
                     //대표가 포함되지 않으면, 갯수를 줄인다.
                     if(!isParentInclude) {
@@ -428,6 +654,15 @@ public class CollectionSearcher {
 	}
 
 	public DocumentResult searchDocument(DocIdList list, ViewContainer views, String[] tags, HighlightInfo highlightInfo) throws IOException {
+		return searchDocument(list, views, tags, highlightInfo, null);
+	}
+
+	/**
+	 * 문서 갯수가 parallel-document-fetch-size 의 두배 이상이면 구간을 나누어 문서읽기와 하이라이팅을 SegmentSearchExecutor 에서 동시에 수행한다.
+	 * 각 작업은 자기 구간의 row 만 채우므로 결과 순서는 순차수행과 같다.
+	 * @param trace null 이 아니면 문서읽기(FETCH)와 하이라이팅(HIGHLIGHT) 시간을 더한다.
+	 * */
+	public DocumentResult searchDocument(DocIdList list, ViewContainer views, String[] tags, HighlightInfo highlightInfo, QueryTrace trace) throws IOException {
 		int realSize = list.size();
 		Row[] row = new Row[realSize];
 		Row[][] bundleRow = null;
@@ -456,78 +691,201 @@ public class CollectionSearcher {
 			fieldSequenceList[i] = sequence;
 		}
 
-		Document[] eachDocList = new Document[realSize];
-		Document[][] eachBundleDocList = null;
-		
+		//묶음문서가 하나라도 있으면 미리 만들어둔다. 병렬로 row를 채울때 배열을 공유하기 때문이다.
+		for (int i = 0; i < realSize; i++) {
+			if (list.bundleDocIdList(i) != null) {
+				bundleRow = new Row[realSize][];
+				break;
+			}
+		}
+
+		int taskSize = parallelFetchTaskSize(realSize);
+		if (taskSize > 1) {
+			int chunkSize = (realSize + taskSize - 1) / taskSize;
+			DocumentFetcher[] fetcherList = new DocumentFetcher[taskSize];
+			for (int i = 0; i < taskSize; i++) {
+				int from = i * chunkSize;
+				int to = Math.min(from + chunkSize, realSize);
+				fetcherList[i] = new DocumentFetcher(list, from, to, row, bundleRow, views, fieldSequenceList, fieldSelectOption, tags, highlightInfo, trace);
+			}
+			fetchParallel(fetcherList);
+		} else {
+			new DocumentFetcher(list, 0, realSize, row, bundleRow, views, fieldSequenceList, fieldSelectOption, tags, highlightInfo, trace).call();
+		}
+		return new DocumentResult(row, bundleRow, fieldIdList);
+	}
+
+	/*
+	 * 문서조회를 몇개의 작업으로 나눌지 정한다. 1 이하이면 순차수행한다.
+	 * 작업당 최소 parallel-document-fetch-size 개의 문서를 맡도록 하고, 쓰레드 갯수를 넘지 않게 한다.
+	 * */
+	private int parallelFetchTaskSize(int documentSize) {
+		CollectionConfig collectionConfig = collectionHandler.collectionContext().collectionConfig();
+		if (collectionConfig == null) {
+			return 1;
+		}
+		int fetchSize = collectionConfig.getParallelDocumentFetchSize();
+		if (fetchSize <= 0 || documentSize < fetchSize * 2) {
+			return 1;
+		}
+		return Math.min(documentSize / fetchSize, SegmentSearchExecutor.getInstance().threadSize());
+	}
+
+	/*
+	 * 구간별 문서조회를 SegmentSearchExecutor에서 동시에 수행한다.
+	 * 하나라도 실패하면 아직 시작하지 않은 나머지는 취소하고 예외를 던진다.
+	 * */
+	private void fetchParallel(DocumentFetcher[] fetcherList) throws IOException {
+		SegmentSearchExecutor executor = SegmentSearchExecutor.getInstance();
+		List<Future<DocumentFetcher>> futureList = new ArrayList<Future<DocumentFetcher>>(fetcherList.length);
+		try {
+			//마지막 구간은 요청한 쓰레드에서 직접 수행한다.
+			for (int i = 0; i < fetcherList.length - 1; i++) {
+				futureList.add(executor.submit(fetcherList[i]));
+			}
+			fetcherList[fetcherList.length - 1].call();
+			for (Future<DocumentFetcher> future : futureList) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		} finally {
+			//인터럽트하면 공유하는 FileChannel 이 닫히므로 아직 시작하지 않은 작업만 취소한다.
+			for (Future<DocumentFetcher> future : futureList) {
+				if (!future.isDone()) {
+					future.cancel(false);
+				}
+			}
+		}
+	}
+
+	/*
+	 * DocIdList 의 [from, to) 구간 문서를 읽어 row를 만든다.
+	 * SegmentSearcher 는 작업마다 따로 만들며, SegmentSearcher 가 쓰는 DocumentReader 는 쓰레드별로 복제된 것이다.
+	 * 문서는 LazyDocument 로 읽으므로 view에 있는 필드만 row를 만들때 읽는다.
+	 * 하이라이팅용 분석기는 매번 pool에서 가져와 돌려준다.
+	 * */
+	class DocumentFetcher implements Callable<DocumentFetcher> {
+		private DocIdList list;
+		private int from;
+		private int to;
+		private Row[] row;
+		private Row[][] bundleRow;
+		private ViewContainer views;
+		private int[] fieldSequenceList;
+		private boolean[] fieldSelectOption;
+		private String[] tags;
+		private HighlightInfo highlightInfo;
+		private QueryTrace trace;
+
 		//SegmentSearcher를 재사용하기 위한 array. Lazy-loading되며, segmentSequence가 array 첨자가 된다.
 		//처음에는 길이 5로 만들어놓고 나중에 더 필요하면, grow시킨다.
-		SegmentSearcher[] segmentSearcherList = new SegmentSearcher[5];
-		
-		int idx = 0;
-		for (int i = 0; i < list.size(); i++) {
-			int segmentSequence = list.segmentSequence(i);
-			int docNo = list.docNo(i);
-			DocIdList bundleDocIdList = list.bundleDocIdList(i);
+		private SegmentSearcher[] segmentSearcherList = new SegmentSearcher[5];
+
+		public DocumentFetcher(DocIdList list, int from, int to, Row[] row, Row[][] bundleRow, ViewContainer views, int[] fieldSequenceList,
+				boolean[] fieldSelectOption, String[] tags, HighlightInfo highlightInfo, QueryTrace trace) {
+			this.list = list;
+			this.from = from;
+			this.to = to;
+			this.row = row;
+			this.bundleRow = bundleRow;
+			this.views = views;
+			this.fieldSequenceList = fieldSequenceList;
+			this.fieldSelectOption = fieldSelectOption;
+			this.tags = tags;
+			this.highlightInfo = highlightInfo;
+			this.trace = trace;
+		}
+
+		@Override
+		public DocumentFetcher call() throws IOException {
+			long st = trace != null ? System.nanoTime() : 0;
+			LazyDocument[] eachDocList = new LazyDocument[to - from];
+			LazyDocument[][] eachBundleDocList = null;
+			for (int i = from; i < to; i++) {
+				eachDocList[i - from] = getDocument(list.segmentSequence(i), list.docNo(i));
+
+				DocIdList bundleDocIdList = list.bundleDocIdList(i);
+				if (bundleDocIdList != null) {
+					//묶음문서 존재시에만 생성한다.
+					if (eachBundleDocList == null) {
+						eachBundleDocList = new LazyDocument[to - from][];
+					}
+					LazyDocument[] bundleDoclist = new LazyDocument[bundleDocIdList.size()];
+					for (int j = 0; j < bundleDocIdList.size(); j++) {
+						bundleDoclist[j] = getDocument(bundleDocIdList.segmentSequence(j), bundleDocIdList.docNo(j));
+					}
+					eachBundleDocList[i - from] = bundleDoclist;
+				}
+			}
+			if (trace != null) {
+				trace.add(QueryTrace.Phase.FETCH, System.nanoTime() - st);
+			}
+
+			for (int i = from; i < to; i++) {
+				row[i] = makeRowFromDocument(eachDocList[i - from], views, fieldSequenceList, tags, highlightInfo, trace);
+
+				//bundle document
+				if (eachBundleDocList != null) {
+					LazyDocument[] bundleDocList = eachBundleDocList[i - from];
+					if (bundleDocList != null) {
+						bundleRow[i] = new Row[bundleDocList.length];
+						for (int j = 0; j < bundleDocList.length; j++) {
+							bundleRow[i][j] = makeRowFromDocument(bundleDocList[j], views, fieldSequenceList, tags, highlightInfo, trace);
+						}
+					}
+				}
+			}
+			return this;
+		}
+
+		private LazyDocument getDocument(int segmentSequence, int docNo) throws IOException {
+			if (segmentSequence == MemorySegment.SEQUENCE) {
+				return getMemoryDocument(docNo);
+			}
 			int size = segmentSearcherList.length;
-			
-			//기존 범위를 벗어나는 세그먼트 요청이 있을 때 grow한다. 
-			if(segmentSequence >= size){
-				while(segmentSequence >= size){
+			//기존 범위를 벗어나는 세그먼트 요청이 있을 때 grow한다.
+			if (segmentSequence >= size) {
+				while (segmentSequence >= size) {
 					size += 5;
 				}
 				SegmentSearcher[] newSegmentSearcherList = new SegmentSearcher[size];
 				System.arraycopy(segmentSearcherList, 0, newSegmentSearcherList, 0, segmentSearcherList.length);
 				segmentSearcherList = newSegmentSearcherList;
 			}
-			
-			if(segmentSearcherList[segmentSequence] == null) {
+			if (segmentSearcherList[segmentSequence] == null) {
 				segmentSearcherList[segmentSequence] = collectionHandler.segmentReader(segmentSequence).segmentSearcher();
 			}
-			Document doc = segmentSearcherList[segmentSequence].getDocument(docNo, fieldSelectOption);
-			eachDocList[idx] = doc;
-			
-			if(bundleDocIdList != null) {
-				//묶음문서 존재시에만 생성한다.
-				if(eachBundleDocList == null) {
-					eachBundleDocList = new Document[realSize][];
-				}
-				Document[] bundleDoclist = new Document[bundleDocIdList.size()];
-				for (int j = 0; j < bundleDocIdList.size(); j++) {
-					int bundleSegmentSequence = bundleDocIdList.segmentSequence(j);
-					int bundleDocNo = bundleDocIdList.docNo(j);
-					Document bundleDoc = collectionHandler.segmentReader(bundleSegmentSequence).segmentSearcher().getDocument(bundleDocNo, fieldSelectOption);
-					bundleDoclist[j] = bundleDoc;
-				}
-				eachBundleDocList[idx] = bundleDoclist;
-			}
-			
-			idx++;
+			return segmentSearcherList[segmentSequence].getLazyDocument(docNo, fieldSelectOption);
 		}
-		
-		
-		for (int i = 0; i < realSize; i++) {
-			row[i] = makeRowFromDocument(eachDocList[i], views, fieldSequenceList, tags, highlightInfo);
-			
-			//bundle document
-			if(eachBundleDocList != null) {
-				Document[] bundleDocList = eachBundleDocList[i];
-				if(bundleDocList != null) {
-					///묶음문서 존재시에만 bundleRow를 생성한다.
-					if(bundleRow == null) {
-						bundleRow = new Row[realSize][];
-					}
-					bundleRow[i] = new Row[bundleDocList.length];
-					for (int j = 0; j < bundleDocList.length; j++) {
-						bundleRow[i][j] = makeRowFromDocument(bundleDocList[j], views, fieldSequenceList, tags, highlightInfo);
-					}
+
+		/*
+		 * 검색후 세그먼트에 반영되어 메모리에서 버려진 문서는 빈 문서로 보여준다.
+		 * */
+		private LazyDocument getMemoryDocument(int docNo) {
+			Document document = collectionHandler.memorySegment().document(docNo);
+			if (document == null) {
+				List<FieldSetting> fieldSettingList = collectionHandler.schema().schemaSetting().getFieldSettingList();
+				document = new Document(fieldSettingList.size());
+				for (FieldSetting fieldSetting : fieldSettingList) {
+					document.add(fieldSetting.createEmptyField());
 				}
+				document.setDocId(docNo);
 			}
-			
+			return new LazyDocument(document);
 		}
-		return new DocumentResult(row, bundleRow, fieldIdList);
 	}
 
-	private Row makeRowFromDocument(Document document, ViewContainer views, int[] fieldSequenceList, String[] tags, HighlightInfo highlightInfo) throws IOException {
+	private Row makeRowFromDocument(LazyDocument document, ViewContainer views, int[] fieldSequenceList, String[] tags, HighlightInfo highlightInfo, QueryTrace trace) throws IOException {
 		Row rows = new Row(views.size());
 		for (int j = 0; j < views.size(); j++) {
 			View view = views.get(j);
@@ -559,9 +917,11 @@ public class CollectionSearcher {
 						String queryAnalyzerId = highlightInfo.getQueryAnalyzerId(fieldId);
 						String queryTerm = highlightInfo.getQueryTerm(fieldId);
 						if (indexAnalyzerId != null && queryAnalyzerId != null && queryTerm != null) {
-//							a = System.nanoTime();
+							long st = trace != null ? System.nanoTime() : 0;
 							text = getHighlightedSnippet(fieldId, text, indexAnalyzerId, queryAnalyzerId, queryTerm, tags, view, searchOption);
-//							b += (System.nanoTime() - a);
+							if (trace != null) {
+								trace.add(QueryTrace.Phase.HIGHLIGHT, System.nanoTime() - st);
+							}
 							isHighlightSummary = true;
 						}
 					}
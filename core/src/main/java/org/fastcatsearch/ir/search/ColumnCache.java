@@ -0,0 +1,204 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fastcatsearch.ir.io.IndexInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * single-value 고정길이 필드/그룹 색인 데이터를 통째로 메모리에 올려둔 컬럼.
+ * 매칭문서마다 seek 후 readBytes 하는 대신 배열에서 바로 읽는다.
+ *
+ * 4byte 데이터(int, float, 그룹번호)는 int[], 8byte 데이터(long, double, datetime)는 long[], 그외 길이는 byte[] 에 담는다.
+ * offheap 모드는 direct ByteBuffer 에 담아 힙을 사용하지 않는다. 데이터가 2GB 를 넘으면 적재하지 않는다.
+ *
+ * 사용량은 heapMemorySize(), offHeapMemorySize() 로 전체 합계를 알수 있다.
+ * clone 된 reader 들이 같은 컬럼을 공유하므로 release() 는 원본 reader 만 호출한다.
+ * release 후에도 수행중인 검색이 있을수 있으므로 배열은 비우지 않고 GC 에 맡긴다.
+ * */
+public class ColumnCache {
+	private static Logger logger = LoggerFactory.getLogger(ColumnCache.class);
+
+	public static final String HEAP = "heap";
+	public static final String OFFHEAP = "offheap";
+
+	private static final AtomicLong heapMemorySize = new AtomicLong();
+	private static final AtomicLong offHeapMemorySize = new AtomicLong();
+
+	private final String indexId;
+	private final int dataSize;
+	private final int docCount;
+	private final boolean offHeap;
+
+	private int[] intData;
+	private long[] longData;
+	private byte[] byteData;
+	private ByteBuffer buffer;
+
+	private final AtomicBoolean released = new AtomicBoolean();
+
+	/**
+	 * @param mode heap 또는 offheap. 그외 값이면 null 을 리턴한다.
+	 * @return 적재할수 없으면 null.
+	 * */
+	public static ColumnCache load(String indexId, IndexInput input, int dataSize, String mode) throws IOException {
+		if (mode == null) {
+			return null;
+		}
+		boolean offHeap;
+		if (HEAP.equalsIgnoreCase(mode)) {
+			offHeap = false;
+		} else if (OFFHEAP.equalsIgnoreCase(mode)) {
+			offHeap = true;
+		} else {
+			logger.warn("unknown column cache mode [{}] for {}", mode, indexId);
+			return null;
+		}
+		long length = input.length();
+		if (length > Integer.MAX_VALUE) {
+			logger.warn("{} is too large to cache column. size={}", indexId, length);
+			return null;
+		}
+		return new ColumnCache(indexId, input, dataSize, (int) (length / dataSize), offHeap);
+	}
+
+	private ColumnCache(String indexId, IndexInput input, int dataSize, int docCount, boolean offHeap) throws IOException {
+		this.indexId = indexId;
+		this.dataSize = dataSize;
+		this.docCount = docCount;
+		this.offHeap = offHeap;
+
+		long st = System.currentTimeMillis();
+		input.seek(0);
+		if (offHeap) {
+			buffer = ByteBuffer.allocateDirect(dataSize * docCount);
+			byte[] buf = new byte[dataSize * 1024];
+			int remain = dataSize * docCount;
+			while (remain > 0) {
+				int n = Math.min(buf.length, remain);
+				input.readBytes(buf, 0, n);
+				buffer.put(buf, 0, n);
+				remain -= n;
+			}
+		} else if (dataSize == 4) {
+			intData = new int[docCount];
+			for (int i = 0; i < docCount; i++) {
+				intData[i] = input.readInt();
+			}
+		} else if (dataSize == 8) {
+			longData = new long[docCount];
+			for (int i = 0; i < docCount; i++) {
+				longData[i] = input.readLong();
+			}
+		} else {
+			byteData = new byte[dataSize * docCount];
+			input.readBytes(byteData, 0, byteData.length);
+		}
+		(offHeap ? offHeapMemorySize : heapMemorySize).addAndGet(memorySize());
+		logger.info("column cache loaded {} docs={} size={}KB offheap={} time={}ms", indexId, docCount, memorySize() / 1024, offHeap,
+				System.currentTimeMillis() - st);
+	}
+
+	/**
+	 * 색인파일과 같은 big-endian 으로 dst 에 기록한다.
+	 * */
+	public void read(int docNo, byte[] dst) {
+		if (intData != null) {
+			int v = intData[docNo];
+			dst[0] = (byte) (v >>> 24);
+			dst[1] = (byte) (v >>> 16);
+			dst[2] = (byte) (v >>> 8);
+			dst[3] = (byte) v;
+		} else if (longData != null) {
+			long v = longData[docNo];
+			for (int i = 7; i >= 0; i--) {
+				dst[i] = (byte) v;
+				v >>>= 8;
+			}
+		} else if (byteData != null) {
+			System.arraycopy(byteData, docNo * dataSize, dst, 0, dataSize);
+		} else {
+			//position 을 움직이지 않도록 절대위치로 읽는다.
+			int pos = docNo * dataSize;
+			for (int i = 0; i < dataSize; i++) {
+				dst[i] = buffer.get(pos + i);
+			}
+		}
+	}
+
+	public int getInt(int docNo) {
+		if (intData != null) {
+			return intData[docNo];
+		}
+		if (buffer != null && dataSize == 4) {
+			return buffer.getInt(docNo * 4);
+		}
+		throw new UnsupportedOperationException(indexId + " is not int column. dataSize=" + dataSize);
+	}
+
+	public long getLong(int docNo) {
+		if (longData != null) {
+			return longData[docNo];
+		}
+		if (buffer != null && dataSize == 8) {
+			return buffer.getLong(docNo * 8);
+		}
+		throw new UnsupportedOperationException(indexId + " is not long column. dataSize=" + dataSize);
+	}
+
+	public float getFloat(int docNo) {
+		return Float.intBitsToFloat(getInt(docNo));
+	}
+
+	public double getDouble(int docNo) {
+		return Double.longBitsToDouble(getLong(docNo));
+	}
+
+	/**
+	 * getInt, getLong 등으로 값을 바로 읽을수 있는 4byte, 8byte 컬럼인지 여부.
+	 * */
+	public boolean isTyped() {
+		return dataSize == 4 || dataSize == 8;
+	}
+
+	public int dataSize() {
+		return dataSize;
+	}
+
+	public int docCount() {
+		return docCount;
+	}
+
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	public long memorySize() {
+		return (long) dataSize * docCount;
+	}
+
+	public void release() {
+		if (released.compareAndSet(false, true)) {
+			(offHeap ? offHeapMemorySize : heapMemorySize).addAndGet(-memorySize());
+		}
+	}
+
+	//모든 컬럼 캐시가 사용하는 힙 메모리 byte 수.
+	public static long heapMemorySize() {
+		return heapMemorySize.get();
+	}
+
+	//모든 컬럼 캐시가 사용하는 off-heap 메모리 byte 수.
+	public static long offHeapMemorySize() {
+		return offHeapMemorySize.get();
+	}
+
+	@Override
+	public String toString() {
+		return "[ColumnCache]" + indexId + " docs=" + docCount + " dataSize=" + dataSize + " offheap=" + offHeap;
+	}
+}
@@ -49,6 +49,7 @@ public class DefaultRanker extends FixedMaxPriorityQueue<HitElement>{
                     }
 
                     // logger.debug("Do no push > {}", e.docNo());
+                    duplicateSize++;
                     return false;
                 }
             }
@@ -23,6 +23,7 @@ import java.util.Map;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.io.StreamInputRef;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
@@ -35,6 +36,10 @@ public class FieldIndexReader extends ReferenceableIndexReader {
 	
 	
 	public FieldIndexReader(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir) throws IOException, IRException{
+		this(fieldIndexSetting, fieldSettingMap, dir, IndexInputFactory.DEFAULT);
+	}
+	
+	public FieldIndexReader(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir, IndexInputFactory indexInputFactory) throws IOException, IRException{
 		String id = fieldIndexSetting.getId();
 		String refId = fieldIndexSetting.getRef();
 		FieldSetting refFieldSetting = fieldSettingMap.get(refId);
@@ -48,7 +53,7 @@ public class FieldIndexReader extends ReferenceableIndexReader {
 			throw new IRException("필드색인은 고정길이필드이거나 field index size를 정해야 합니다.");
 		}
 			
-		init(id, refFieldSetting, dataFile, multiValueFile, dataSize);
+		init(id, refFieldSetting, dataFile, multiValueFile, dataSize, indexInputFactory, IndexInputFactory.FIELD_INDEX, fieldIndexSetting.getColumnCache());
 		
 	}
 	
@@ -63,6 +68,7 @@ public class FieldIndexReader extends ReferenceableIndexReader {
 			reader.dataRef = new StreamInputRef(reader.multiValueInput, dataSize);
 		}else{
 			reader.dataRef = new DataRef(dataSize);
+			reader.columnCache = columnCache;
 		}
 		reader.dataSize = dataSize;
 		reader.isMultiValue = isMultiValue;
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.Schema;
 
@@ -14,6 +15,10 @@ public class FieldIndexesReader extends SelectableIndexesReader<FieldIndexReader
 	}
 
 	public FieldIndexesReader(Schema schema, File dir) throws IOException, IRException {
+		this(schema, dir, IndexInputFactory.DEFAULT);
+	}
+	
+	public FieldIndexesReader(Schema schema, File dir, IndexInputFactory indexInputFactory) throws IOException, IRException {
 		indexSettingList = schema.schemaSetting().getFieldIndexSettingList();
 		int indexCount = indexSettingList == null ? 0 : indexSettingList.size();
 
@@ -23,7 +28,7 @@ public class FieldIndexesReader extends SelectableIndexesReader<FieldIndexReader
 			FieldIndexSetting setting = indexSettingList.get(i);
 			FieldIndexReader reader = null;
 			try {
-				reader = new FieldIndexReader(setting, schema.fieldSettingMap(), dir);
+				reader = new FieldIndexReader(setting, schema.fieldSettingMap(), dir, indexInputFactory);
 			} catch (Exception e) {
 				logger.error("필드색인 {}로딩중 에러 >> {}", setting.getId(), e);
 			}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.settings.GroupIndexSetting;
 import org.fastcatsearch.ir.settings.Schema;
 
@@ -13,6 +14,10 @@ public class GroupIndexesReader extends SelectableIndexesReader<GroupIndexReader
 	public GroupIndexesReader(){ }
 	
 	public GroupIndexesReader(Schema schema, File dir, int revision) throws IOException, IRException{
+		this(schema, dir, revision, IndexInputFactory.DEFAULT);
+	}
+	
+	public GroupIndexesReader(Schema schema, File dir, int revision, IndexInputFactory indexInputFactory) throws IOException, IRException{
 		indexSettingList = schema.schemaSetting().getGroupIndexSettingList();
 		int indexCount = indexSettingList == null ? 0 : indexSettingList.size();
 		
@@ -22,7 +27,7 @@ public class GroupIndexesReader extends SelectableIndexesReader<GroupIndexReader
 			GroupIndexSetting setting = indexSettingList.get(i);
 			GroupIndexReader reader = null;
 			try{
-				reader = new GroupIndexReader(setting, schema.fieldSettingMap(), dir, revision);
+				reader = new GroupIndexReader(setting, schema.fieldSettingMap(), dir, revision, indexInputFactory);
 			}catch(Exception e){
 				logger.error("그룹색인 {}로딩중 에러 >> {}", setting.getId(), e);
 			}
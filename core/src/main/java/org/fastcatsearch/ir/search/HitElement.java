@@ -60,6 +60,22 @@ public class HitElement extends AbstractHitElement<HitElement> {
 		this.bundleKey = bundleKey;
 	}
 
+	/**
+	 * 재사용하는 HitElement를 다른 문서로 초기화한다.
+	 * rankData 와 bundleKey 버퍼는 SortGenerator가 다시 채우므로 그대로 둔다.
+	 * */
+	public void init(int docNo, int score, int hit, List<RowExplanation> list){
+		this.collectionId = null;
+		this.segmentSequence = -1;
+		this.docNo = docNo;
+		this.score = score;
+		this.hit = hit;
+		this.list = list;
+		this.distance = 0;
+		this.bundleDocIdList = null;
+		this.totalBundleSize = 0;
+	}
+
     public float distance() {
         return distance;
     }
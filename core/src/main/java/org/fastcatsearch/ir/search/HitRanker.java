@@ -95,6 +95,7 @@ public class HitRanker extends FixedMaxPriorityQueue<HitElement>{
 					}
 
 					// logger.debug("Do no push > {}", e.docNo());
+					duplicateSize++;
 					return false;
 				}
 			}
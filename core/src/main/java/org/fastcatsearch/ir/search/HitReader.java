@@ -43,10 +43,16 @@ public class HitReader {
 	BitSet localDeleteSet;
 	boolean exausted;
 	RankInfo[] rankInfoList;
+	//rankInfoList 는 필터링시 원소가 앞으로 당겨지므로 재사용할 RankInfo 는 별도로 보관한다.
+	RankInfo[] rankInfoPool;
 	HitElement[] hitElementBuffer;
 	int nread;
 	int totalCount;
 	
+	private QueryTrace trace;
+	//trace 에 더한 시간의 합. 호출자가 랭킹 시간을 구할때 뺀다.
+	private long tracedTime;
+	
 	
 	public HitReader(SegmentReader segmentReader, Metadata meta, Clause clause, Filters filters, Groups groups, Filters groupFilters, Sorts sorts, Bundle bundle, PkScoreList boostList) throws IOException, ClauseException, IRException {
 		
@@ -79,7 +85,7 @@ public class HitReader {
 				fieldIndexesReader = segmentReader.newFieldIndexesReader();
 			}
 			//schema를 통해 field index setting을 알아야 필터링시 ignorecase등의 정보를 활용가능하다.
-			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE, segmentReader.filterCache(), segmentReader.segmentInfo().getRevisionInfo().getUuid());
 		}
 		
 		//group
@@ -101,6 +107,9 @@ public class HitReader {
 					fieldIndexesReader = segmentReader.newFieldIndexesReader();
 				}
                 sortGenerator = Sorts.DEFAULT_SORTS.getSortGenerator(schema, fieldIndexesReader, bundle);
+			} else {
+				//정렬데이터 없이 HitElement만 만든다.
+				sortGenerator = new SortGenerator();
 			}
 		} else {
 			if(fieldIndexesReader == null){
@@ -135,9 +144,18 @@ public class HitReader {
 		operatedClause.init(clauseExplanation);
 		
 		rankInfoList = new RankInfo[BULK_SIZE];
+		rankInfoPool = new RankInfo[BULK_SIZE];
+		for (int i = 0; i < BULK_SIZE; i++) {
+			rankInfoPool[i] = new RankInfo(isExplain);
+		}
 		hitElementBuffer = new HitElement[BULK_SIZE];
 	}
 	
+	/**
+	 * 다음 HitElement 를 리턴한다.
+	 * 리턴되는 원소는 내부 버퍼를 재사용하므로 다음 fill 에서 덮어쓰여진다.
+	 * 원소를 계속 보관해야 한다면(랭커에 들어간 경우 등) 다음 next() 호출전에 retain() 을 호출해야 한다.
+	 * */
 	public HitElement next() throws IOException, FilterException {
 		while (nread == 0) {
 			if(exausted) {
@@ -151,14 +169,43 @@ public class HitReader {
 		return e;
 	}
 	
+	/**
+	 * 마지막으로 next() 로 받은 원소를 호출자가 보관하므로 더이상 재사용하지 않는다.
+	 * 해당 칸은 다음 fill 에서 새 원소로 채워진다.
+	 * */
+	public void retain() {
+		hitElementBuffer[nread] = null;
+	}
+	
 	
+	/**
+	 * 단계별 소요시간을 trace 에 더하도록 한다.
+	 * */
+	public void setTrace(QueryTrace trace) {
+		this.trace = trace;
+	}
+	
+	public long tracedTime() {
+		return tracedTime;
+	}
+	
+	/**
+	 * trace 가 있으면 단계별 시간을 측정한다. 측정은 BULK_SIZE 단위로 하므로 부담이 적다.
+	 * */
 	private void fill() throws IOException, FilterException {
+		long st = 0;
+		long start = 0;
+		if (trace != null) {
+			st = System.nanoTime();
+			start = st;
+		}
 		nread = 0;
 		while (!exausted) {
 			
 			// search and check delete documents
 			while (nread < BULK_SIZE) {
-				RankInfo rankInfo = new RankInfo(isExplain);
+				RankInfo rankInfo = rankInfoPool[nread];
+				rankInfo.clear();
 				if (operatedClause.next(rankInfo)) {
 					if (!localDeleteSet.isSet(rankInfo.docNo())) {
 						rankInfoList[nread] = rankInfo;
@@ -171,6 +218,9 @@ public class HitReader {
 			}
 			if (exausted) {
 				if(nread == 0) {
+					if (trace != null) {
+						tracedTime += lap(QueryTrace.Phase.POSTING, st) - start;
+					}
 					return;
 				}else{
 					//fill 루프탈출.
@@ -182,9 +232,15 @@ public class HitReader {
 				break;
 			}
 		}
+		if (trace != null) {
+			st = lap(QueryTrace.Phase.POSTING, st);
+		}
 			
 		if (filters != null && filters.size() > 0 && hitFilter != null) {
 			nread = hitFilter.filtering(rankInfoList, nread);
+			if (trace != null) {
+				st = lap(QueryTrace.Phase.FILTER, st);
+			}
 		}
 		
 		// group
@@ -195,27 +251,27 @@ public class HitReader {
 			if (groupFilters != null) {
 				nread = groupHitFilter.filtering(rankInfoList, nread);
 			}
-		}
-		
-		if (sorts == null || sorts == Sorts.DEFAULT_SORTS) {
-			//정렬없는 묶음검색의 경우.
-			if(sortGenerator != null) {
-				sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
-			} else {
-				for (int i = 0; i < nread; i++) {
-					hitElementBuffer[i] = new HitElement(rankInfoList[i].docNo(), rankInfoList[i].score(), rankInfoList[i].hit(), rankInfoList[i].rowExplanations());
-                    hitElementBuffer[i].setDistance(rankInfoList[i].distance());
-				}
+			if (trace != null) {
+				st = lap(QueryTrace.Phase.GROUP, st);
 			}
-		} else {
-			sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
 		}
 		
+		sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
+		if (trace != null) {
+			st = lap(QueryTrace.Phase.RANK, st);
+			tracedTime += st - start;
+		}
 		
 		totalCount += nread;
 		
 	}
 	
+	private long lap(QueryTrace.Phase phase, long st) {
+		long et = System.nanoTime();
+		trace.add(phase, et - st);
+		return et;
+	}
+	
 	public int totalCount() { 
 		return totalCount;
 	}
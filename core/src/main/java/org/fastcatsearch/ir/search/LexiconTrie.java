@@ -0,0 +1,261 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LexiconTrieWriter 가 기록한 trie 사전을 메모리에 올려 사용한다.
+ * 텀 검색은 lexicon 파일을 읽지 않고 텀 길이만큼 trie 를 따라가며, 결과는 정렬순서상 텀 번호(ordinal)로 돌려준다.
+ * 포스팅은 텀 정렬순서대로 기록되어 있으므로 prefix, range 검색결과는 연속된 포스팅이다.
+ * 읽기전용이므로 reader clone 간에 공유한다.
+ * */
+public class LexiconTrie {
+	private static Logger logger = LoggerFactory.getLogger(LexiconTrie.class);
+
+	private int termCount;
+	private long[] postingPositions;
+	private Trie forward;
+	private Trie reversed;
+	private int[] reversedOrdinals; //역방향 정렬순서별 term ordinal
+
+	/**
+	 * trie 파일이 없으면 null 을 리턴한다. 이전 버전으로 색인된 세그먼트는 기존 lexicon 검색을 사용한다.
+	 * */
+	public static LexiconTrie load(File dir, String indexId) throws IOException {
+		File file = new File(dir, IndexFileNames.getSearchTrieFileName(indexId));
+		if (!file.exists()) {
+			return null;
+		}
+		LexiconTrie trie = new LexiconTrie();
+		IndexInput input = new BufferedFileInput(file);
+		try {
+			int termCount = input.readInt();
+			trie.termCount = termCount;
+			trie.postingPositions = new long[termCount];
+			for (int i = 0; i < termCount; i++) {
+				trie.postingPositions[i] = input.readLong();
+			}
+			trie.forward = new Trie(input);
+			trie.reversed = new Trie(input);
+			trie.reversedOrdinals = new int[termCount];
+			for (int i = 0; i < termCount; i++) {
+				trie.reversedOrdinals[i] = input.readInt();
+			}
+		} finally {
+			input.close();
+		}
+		logger.debug("load lexicon trie [{}] termCount[{}] memory[{}]", new Object[] { indexId, trie.termCount, trie.memorySize() });
+		return trie;
+	}
+
+	public int termCount() {
+		return termCount;
+	}
+
+	public long postingPosition(int ordinal) {
+		return postingPositions[ordinal];
+	}
+
+	/**
+	 * @return 텀의 ordinal. 없으면 -1.
+	 * */
+	public int find(CharVector term) {
+		int node = forward.findNode(term, false);
+		if (node >= 0 && forward.terminal[node]) {
+			return forward.minOrd[node];
+		}
+		return -1;
+	}
+
+	/**
+	 * @return term 보다 크거나 같은 첫번째 텀의 ordinal. 모든 텀이 작으면 termCount.
+	 * */
+	public int ceiling(CharVector term) {
+		return forward.ceiling(term);
+	}
+
+	/**
+	 * prefix 로 시작하는 텀의 ordinal 구간 [range[0], range[1]) 을 구한다.
+	 * */
+	public boolean prefixRange(CharVector prefix, int[] range) {
+		int node = forward.findNode(prefix, false);
+		if (node < 0) {
+			return false;
+		}
+		range[0] = forward.minOrd[node];
+		range[1] = forward.maxOrd[node];
+		return true;
+	}
+
+	/**
+	 * suffix 로 끝나는 텀들의 ordinal 을 오름차순으로 돌려준다.
+	 * */
+	public int[] suffixOrdinals(CharVector suffix) {
+		int node = reversed.findNode(suffix, true);
+		if (node < 0) {
+			return new int[0];
+		}
+		int from = reversed.minOrd[node];
+		int to = reversed.maxOrd[node];
+		int[] result = new int[to - from];
+		for (int i = from; i < to; i++) {
+			result[i - from] = reversedOrdinals[i];
+		}
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * infix 를 포함하는 텀들의 ordinal 을 오름차순으로 돌려준다.
+	 * 정방향 trie 를 KMP 상태와 함께 순회하며, infix 가 완성된 노드의 하위텀은 모두 일치하므로 더 내려가지 않는다.
+	 * */
+	public int[] infixOrdinals(CharVector infix) {
+		int m = infix.length();
+		if (m == 0) {
+			int[] result = new int[termCount];
+			for (int i = 0; i < termCount; i++) {
+				result[i] = i;
+			}
+			return result;
+		}
+		char[] pattern = new char[m];
+		for (int i = 0; i < m; i++) {
+			pattern[i] = infix.charAt(i);
+		}
+		int[] fail = new int[m];
+		for (int i = 1, k = 0; i < m; i++) {
+			while (k > 0 && pattern[i] != pattern[k]) {
+				k = fail[k - 1];
+			}
+			if (pattern[i] == pattern[k]) {
+				k++;
+			}
+			fail[i] = k;
+		}
+
+		int[] result = new int[16];
+		int resultSize = 0;
+		int[] stackNode = new int[64];
+		int[] stackState = new int[64];
+		int stackSize = 1;
+		stackNode[0] = 0;
+		stackState[0] = 0;
+		while (stackSize > 0) {
+			stackSize--;
+			int node = stackNode[stackSize];
+			int state = stackState[stackSize];
+			int edgeEnd = forward.edgeStart[node + 1];
+			for (int e = forward.edgeStart[node]; e < edgeEnd; e++) {
+				char c = forward.labels[e];
+				int k = state;
+				while (k > 0 && c != pattern[k]) {
+					k = fail[k - 1];
+				}
+				if (c == pattern[k]) {
+					k++;
+				}
+				int child = forward.targets[e];
+				if (k == m) {
+					int from = forward.minOrd[child];
+					int to = forward.maxOrd[child];
+					if (resultSize + to - from > result.length) {
+						result = Arrays.copyOf(result, Math.max(result.length * 2, resultSize + to - from));
+					}
+					for (int i = from; i < to; i++) {
+						result[resultSize++] = i;
+					}
+				} else {
+					if (stackSize == stackNode.length) {
+						stackNode = Arrays.copyOf(stackNode, stackSize * 2);
+						stackState = Arrays.copyOf(stackState, stackSize * 2);
+					}
+					stackNode[stackSize] = child;
+					stackState[stackSize] = k;
+					stackSize++;
+				}
+			}
+		}
+		result = Arrays.copyOf(result, resultSize);
+		Arrays.sort(result);
+		return result;
+	}
+
+	public long memorySize() {
+		return termCount * 12L + forward.memorySize() + reversed.memorySize();
+	}
+
+	static class Trie {
+		int[] minOrd;
+		int[] maxOrd;
+		boolean[] terminal;
+		int[] edgeStart; //nodeCount + 1
+		char[] labels;
+		int[] targets;
+
+		Trie(IndexInput input) throws IOException {
+			int nodeCount = input.readInt();
+			minOrd = new int[nodeCount];
+			maxOrd = new int[nodeCount];
+			terminal = new boolean[nodeCount];
+			edgeStart = new int[nodeCount + 1];
+			for (int i = 0; i < nodeCount; i++) {
+				minOrd[i] = input.readInt();
+				maxOrd[i] = input.readInt();
+				terminal[i] = input.readByte() != 0;
+				edgeStart[i + 1] = edgeStart[i] + input.readVInt();
+			}
+			int edgeCount = input.readInt();
+			labels = new char[edgeCount];
+			targets = new int[edgeCount];
+			for (int i = 0; i < edgeCount; i++) {
+				labels[i] = input.readUChar();
+				targets[i] = input.readInt();
+			}
+		}
+
+		int findNode(CharVector term, boolean reverse) {
+			int node = 0;
+			int length = term.length();
+			for (int i = 0; i < length; i++) {
+				char c = reverse ? term.charAt(length - 1 - i) : term.charAt(i);
+				int e = Arrays.binarySearch(labels, edgeStart[node], edgeStart[node + 1], c);
+				if (e < 0) {
+					return -1;
+				}
+				node = targets[e];
+			}
+			return node;
+		}
+
+		int ceiling(CharVector term) {
+			int node = 0;
+			int length = term.length();
+			for (int i = 0; i < length; i++) {
+				int end = edgeStart[node + 1];
+				int e = Arrays.binarySearch(labels, edgeStart[node], end, term.charAt(i));
+				if (e < 0) {
+					int insertion = -e - 1;
+					if (insertion < end) {
+						//term 보다 큰 첫번째 하위노드.
+						return minOrd[targets[insertion]];
+					}
+					return maxOrd[node];
+				}
+				node = targets[e];
+			}
+			return minOrd[node];
+		}
+
+		long memorySize() {
+			return minOrd.length * 13L + edgeStart.length * 4L + labels.length * 6L;
+		}
+	}
+}
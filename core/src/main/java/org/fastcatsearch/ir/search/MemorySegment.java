@@ -0,0 +1,726 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.AnalyzerOption;
+import org.apache.lucene.analysis.tokenattributes.AdditionalTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharsRefTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.StopwordAttribute;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CharsRef;
+import org.fastcatsearch.error.CoreErrorCode;
+import org.fastcatsearch.error.SearchError;
+import org.fastcatsearch.ir.analysis.AnalyzerPool;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.document.MemoryPrimaryKeyIndex;
+import org.fastcatsearch.ir.field.DistanceField;
+import org.fastcatsearch.ir.field.Field;
+import org.fastcatsearch.ir.field.HitField;
+import org.fastcatsearch.ir.field.ScoreField;
+import org.fastcatsearch.ir.filter.FilterException;
+import org.fastcatsearch.ir.filter.FilterFunction;
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.MemoryPosting;
+import org.fastcatsearch.ir.index.MemoryPostingWithPosition;
+import org.fastcatsearch.ir.index.PostingBuffer;
+import org.fastcatsearch.ir.index.PrimaryKeys;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.io.FixedMaxPriorityQueue;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.query.Filters;
+import org.fastcatsearch.ir.query.HighlightInfo;
+import org.fastcatsearch.ir.query.Query;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.query.Sort;
+import org.fastcatsearch.ir.query.Sorts;
+import org.fastcatsearch.ir.query.Term;
+import org.fastcatsearch.ir.search.clause.AllDocumentOperatedClause;
+import org.fastcatsearch.ir.search.clause.Clause;
+import org.fastcatsearch.ir.search.clause.ClauseException;
+import org.fastcatsearch.ir.search.clause.OperatedClause;
+import org.fastcatsearch.ir.search.clause.OrOperatedClause;
+import org.fastcatsearch.ir.search.clause.TermOperatedClause;
+import org.fastcatsearch.ir.search.method.AbstractSearchMethod;
+import org.fastcatsearch.ir.search.method.SearchMethod;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.IndexRefSetting;
+import org.fastcatsearch.ir.settings.IndexSetting;
+import org.fastcatsearch.ir.settings.PrimaryKeySetting;
+import org.fastcatsearch.ir.settings.RefSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * push 된 문서를 세그먼트로 반영하기 전까지 검색하기 위한 메모리 세그먼트.
+ * 검색색인은 SearchIndexWriter 와 같은 방식으로 MemoryPosting 에 넣고, pk 는 MemoryPrimaryKeyIndex 로 찾는다.
+ * 문서와 삭제요청은 push 로그의 generation 을 가지며, 해당 generation 까지 세그먼트에 반영되면 drop 으로 버린다.
+ * 검색결과의 세그먼트번호는 SEQUENCE 이며, 문서번호는 drop 후에도 바뀌지 않는다.
+ * 검색시 그룹, 묶음, explain 과 여러 필드에 대한 필터는 적용하지 않는다.
+ * 모든 메소드는 이 객체로 동기화한다.
+ * */
+public class MemorySegment {
+	private static Logger logger = LoggerFactory.getLogger(MemorySegment.class);
+
+	/**
+	 * 검색결과에서 메모리 세그먼트 문서를 나타내는 세그먼트번호.
+	 * */
+	public static final int SEQUENCE = Short.MAX_VALUE;
+
+	private Schema schema;
+	private AnalyzerPoolManager analyzerPoolManager;
+	private int bucketSize;
+	private List<IndexSetting> indexSettingList;
+	private List<FieldIndexSetting> fieldIndexSettingList;
+	private int[] primaryKeyFieldSequence; //pk 가 없으면 null.
+	private PrimaryKeysToBytesRef primaryKeysToBytesRef;
+	private AnalyzerOption indexingAnalyzerOption;
+
+	//추가, 삭제 요청을 들어온 순서대로 보관한다. generation 은 증가하는 순서이다.
+	private List<Entry> entryList;
+	//추가문서. 리스트 첨자가 내부 문서번호이다.
+	private List<Entry> documentList;
+	//drop 된 문서수. 검색결과의 문서번호는 base + 내부 문서번호이다.
+	private int base;
+	private MemoryPosting[] postingList;
+	private MemoryPrimaryKeyIndex primaryKeyIndex;
+	private BitSet deleteSet;
+
+	public MemorySegment(Schema schema, AnalyzerPoolManager analyzerPoolManager, IndexConfig indexConfig) throws IOException {
+		this.schema = schema;
+		this.analyzerPoolManager = analyzerPoolManager;
+		this.bucketSize = indexConfig.getIndexWorkBucketSize();
+		indexSettingList = schema.schemaSetting().getIndexSettingList();
+		if (indexSettingList == null) {
+			indexSettingList = new ArrayList<IndexSetting>();
+		}
+		fieldIndexSettingList = schema.schemaSetting().getFieldIndexSettingList();
+		if (fieldIndexSettingList == null) {
+			fieldIndexSettingList = new ArrayList<FieldIndexSetting>();
+		}
+		PrimaryKeySetting primaryKeySetting = schema.schemaSetting().getPrimaryKeySetting();
+		if (primaryKeySetting != null && primaryKeySetting.getFieldList() != null && primaryKeySetting.getFieldList().size() > 0) {
+			List<RefSetting> refList = primaryKeySetting.getFieldList();
+			primaryKeyFieldSequence = new int[refList.size()];
+			for (int i = 0; i < refList.size(); i++) {
+				primaryKeyFieldSequence[i] = schema.getFieldSequence(refList.get(i).getRef());
+			}
+			primaryKeysToBytesRef = new PrimaryKeysToBytesRef(schema);
+		}
+		//색인시는 stopword만 본다.
+		indexingAnalyzerOption = new AnalyzerOption();
+		indexingAnalyzerOption.useStopword(true);
+		indexingAnalyzerOption.setForDocument();
+
+		entryList = new ArrayList<Entry>();
+		clear();
+	}
+
+	private void clear() throws IOException {
+		documentList = new ArrayList<Entry>();
+		postingList = new MemoryPosting[indexSettingList.size()];
+		for (int i = 0; i < postingList.length; i++) {
+			IndexSetting indexSetting = indexSettingList.get(i);
+			if (indexSetting.isStorePosition()) {
+				postingList[i] = new MemoryPostingWithPosition(bucketSize, indexSetting.isIgnoreCase());
+			} else {
+				postingList[i] = new MemoryPosting(bucketSize, indexSetting.isIgnoreCase());
+			}
+		}
+		primaryKeyIndex = new MemoryPrimaryKeyIndex(bucketSize);
+		deleteSet = new BitSet();
+	}
+
+	/**
+	 * 문서를 추가한다. 같은 pk 의 이전 메모리 문서는 삭제된다.
+	 * @return 문서의 pk. pk 가 없는 컬렉션이면 null.
+	 * */
+	public synchronized BytesRef add(Document document, int generation) throws IOException, IRException {
+		byte[] key = null;
+		if (primaryKeyFieldSequence != null) {
+			BytesDataOutput output = new BytesDataOutput();
+			for (int sequence : primaryKeyFieldSequence) {
+				Field field = document.get(sequence);
+				if (field == null || field.isNull()) {
+					throw new IRException("PK field value cannot be null. field=" + field);
+				}
+				field.writeFixedDataTo(output);
+			}
+			key = Arrays.copyOf(output.array(), (int) output.position());
+		}
+		byte[][] fieldIndexData = new byte[fieldIndexSettingList.size()][];
+		int[] fieldIndexCount = new int[fieldIndexSettingList.size()];
+		readFieldIndexData(document, fieldIndexData, fieldIndexCount);
+		Entry entry = new Entry(document, key, generation, fieldIndexData, fieldIndexCount);
+		apply(entry);
+		entryList.add(entry);
+		return key != null ? new BytesRef(key) : null;
+	}
+
+	/**
+	 * pk 로 메모리 문서를 삭제한다. 세그먼트 문서는 CollectionHandler 가 리턴된 pk 로 가린다.
+	 * @return 삭제할 pk. pk 가 없는 컬렉션이면 null.
+	 * */
+	public synchronized BytesRef delete(PrimaryKeys primaryKeys, int generation) throws IOException, IRException {
+		if (primaryKeyFieldSequence == null) {
+			return null;
+		}
+		BytesRef bytesRef = primaryKeysToBytesRef.getBytesRef(primaryKeys);
+		byte[] key = Arrays.copyOfRange(bytesRef.bytes, bytesRef.offset, bytesRef.offset + bytesRef.length);
+		Entry entry = new Entry(null, key, generation, null, null);
+		apply(entry);
+		entryList.add(entry);
+		return new BytesRef(key);
+	}
+
+	private void apply(Entry entry) throws IOException, IRException {
+		int docNo = -1;
+		if (entry.document != null) {
+			docNo = documentList.size();
+			for (int i = 0; i < postingList.length; i++) {
+				index(i, entry.document, docNo);
+			}
+			documentList.add(entry);
+		}
+		if (entry.key != null) {
+			int prevDocNo = primaryKeyIndex.put(entry.key, 0, entry.key.length, docNo);
+			if (prevDocNo >= 0) {
+				deleteSet.set(prevDocNo);
+			}
+		}
+	}
+
+	/**
+	 * generation 이하의 요청을 버린다. 세그먼트에 반영된 후 호출한다.
+	 * 남은 문서로 색인을 다시 만들며, 남은 문서의 검색결과 문서번호는 그대로이다.
+	 * */
+	public synchronized void drop(int generation) throws IOException, IRException {
+		int size = 0;
+		int documentSize = 0;
+		while (size < entryList.size() && entryList.get(size).generation <= generation) {
+			if (entryList.get(size).document != null) {
+				documentSize++;
+			}
+			size++;
+		}
+		if (size == 0) {
+			return;
+		}
+		List<Entry> remainList = new ArrayList<Entry>(entryList.subList(size, entryList.size()));
+		base += documentSize;
+		entryList = remainList;
+		clear();
+		for (Entry entry : entryList) {
+			apply(entry);
+		}
+		logger.debug("drop memory segment generation <= {}, dropped docs = {}, remain docs = {}", new Object[] { generation, documentSize, documentList.size() });
+	}
+
+	/**
+	 * 세그먼트 문서를 가려야 하는 pk 목록. 추가와 삭제요청의 pk 를 모두 포함한다.
+	 * */
+	public synchronized List<BytesRef> keys() {
+		List<BytesRef> keyList = new ArrayList<BytesRef>(entryList.size());
+		for (Entry entry : entryList) {
+			if (entry.key != null) {
+				keyList.add(new BytesRef(entry.key));
+			}
+		}
+		return keyList;
+	}
+
+	/**
+	 * 검색결과의 문서번호로 문서를 읽는다. 이미 drop 되었거나 없는 문서이면 null.
+	 * */
+	public synchronized Document document(int docNo) {
+		int localDocNo = docNo - base;
+		if (localDocNo < 0 || localDocNo >= documentList.size()) {
+			return null;
+		}
+		Document source = documentList.get(localDocNo).document;
+		//문서객체는 다른 handler 와 공유할수 있으므로 복사해서 문서번호를 넣는다.
+		Document document = new Document(source.size());
+		for (int i = 0; i < source.size(); i++) {
+			document.add(source.get(i));
+		}
+		document.setDocId(docNo);
+		return document;
+	}
+
+	public synchronized int size() {
+		return documentList.size();
+	}
+
+	public synchronized boolean isEmpty() {
+		return entryList.isEmpty();
+	}
+
+	/**
+	 * 쿼리에 부합하는 문서를 ranker 에 넣는다. 세그먼트 검색과 같이 필터, 삭제문서, 정렬을 적용한다.
+	 * @return 검색된 문서수.
+	 * */
+	public synchronized int search(Query q, FixedMaxPriorityQueue<HitElement> ranker) throws ClauseException, FilterException, IOException, IRException {
+		int docCount = documentList.size();
+		if (docCount == 0) {
+			return 0;
+		}
+
+		FilterFunction[] filterFunctions = null;
+		int[] filterFieldIndexSequence = null;
+		ValueDataRef[] filterDataRefs = null;
+		Filters filters = q.getFilters();
+		if (filters != null && filters.size() > 0) {
+			List<Filter> filterList = filters.getFilterList();
+			filterFunctions = new FilterFunction[filterList.size()];
+			filterFieldIndexSequence = new int[filterList.size()];
+			filterDataRefs = new ValueDataRef[filterList.size()];
+			for (int i = 0; i < filterList.size(); i++) {
+				Filter filter = filterList.get(i);
+				if (!(filter.fieldIndexId() instanceof String)) {
+					//여러 필드에 대한 필터는 지원하지 않으므로 메모리 문서는 결과에서 뺀다.
+					return 0;
+				}
+				String fieldIndexId = (String) filter.fieldIndexId();
+				FieldIndexSetting fieldIndexSetting = schema.getFieldIndexSetting(fieldIndexId);
+				if (fieldIndexSetting == null) {
+					throw new IRException("\"" + fieldIndexId + "\" is not a field index or not indexed.");
+				}
+				FieldSetting fieldSetting = schema.getFieldSetting(fieldIndexSetting.getRef());
+				filterFunctions[i] = filter.createFilterFunction(fieldIndexSetting, fieldSetting);
+				filterFieldIndexSequence[i] = schema.getFieldIndexSequence(fieldIndexId);
+				filterDataRefs[i] = new ValueDataRef(fieldSetting.getByteSize(fieldIndexSetting.getSize()));
+				filterDataRefs[i].setType(fieldSetting.getType());
+			}
+		}
+
+		int[] sortFieldIndexSequence = null;
+		Sorts sorts = q.getSorts();
+		if (sorts != null && sorts.size() > 0) {
+			List<Sort> sortList = sorts.getSortList();
+			sortFieldIndexSequence = new int[sortList.size()];
+			for (int i = 0; i < sortList.size(); i++) {
+				String fieldId = sortList.get(i).fieldIndexId();
+				int sequence = schema.getFieldIndexSequence(fieldId);
+				if (sequence == -1) {
+					if (fieldId.equalsIgnoreCase(ScoreField.fieldName)) {
+						sequence = ScoreField.fieldNumber;
+					} else if (fieldId.equalsIgnoreCase(HitField.fieldName)) {
+						sequence = HitField.fieldNumber;
+					} else if (fieldId.equalsIgnoreCase(DistanceField.fieldName)) {
+						sequence = DistanceField.fieldNumber;
+					} else {
+						throw new IOException("Unknown sort field name = " + fieldId);
+					}
+				}
+				sortFieldIndexSequence[i] = sequence;
+			}
+		}
+
+		Clause clause = q.getClause();
+		OperatedClause operatedClause = null;
+		if (clause == null) {
+			operatedClause = new AllDocumentOperatedClause(docCount);
+		} else {
+			operatedClause = clause.getOperatedClause(docCount, new MemorySearchIndexesReader(), null);
+		}
+		if (operatedClause == null) {
+			return 0;
+		}
+
+		int count = 0;
+		RankInfo rankInfo = new RankInfo();
+		operatedClause.init();
+		try {
+			while (operatedClause.next(rankInfo)) {
+				int docNo = rankInfo.docNo();
+				if (deleteSet.isSet(docNo)) {
+					continue;
+				}
+				Entry entry = documentList.get(docNo);
+				if (filterFunctions != null) {
+					boolean isInclude = true;
+					for (int i = 0; i < filterFunctions.length; i++) {
+						int sequence = filterFieldIndexSequence[i];
+						filterDataRefs[i].set(entry.fieldIndexData[sequence], entry.fieldIndexCount[sequence]);
+						if (!filterFunctions[i].filtering(rankInfo, filterDataRefs[i])) {
+							isInclude = false;
+							break;
+						}
+					}
+					if (!isInclude) {
+						continue;
+					}
+				}
+
+				BytesRef[] rankData = null;
+				if (sortFieldIndexSequence != null) {
+					rankData = new BytesRef[sortFieldIndexSequence.length];
+					for (int i = 0; i < sortFieldIndexSequence.length; i++) {
+						rankData[i] = readRankData(rankInfo, entry, sortFieldIndexSequence[i]);
+					}
+				}
+				HitElement e = new HitElement(SEQUENCE, base + docNo, rankInfo.score(), rankInfo.hit(), rankData, null);
+				e.setDistance(rankInfo.distance());
+				ranker.push(e);
+				count++;
+			}
+		} finally {
+			operatedClause.close();
+		}
+		return count;
+	}
+
+	/*
+	 * SortGenerator 와 같은 형식의 정렬데이터.
+	 * */
+	private BytesRef readRankData(RankInfo rankInfo, Entry entry, int sequence) {
+		BytesRef bytesRef = null;
+		if (sequence == ScoreField.fieldNumber) {
+			bytesRef = new BytesRef(ScoreField.fieldSize);
+			IOUtil.writeInt(bytesRef, Float.floatToIntBits(rankInfo.score()));
+			bytesRef.flip();
+		} else if (sequence == HitField.fieldNumber) {
+			bytesRef = new BytesRef(HitField.fieldSize);
+			IOUtil.writeInt(bytesRef, rankInfo.hit());
+			bytesRef.flip();
+		} else if (sequence == DistanceField.fieldNumber) {
+			bytesRef = new BytesRef(DistanceField.fieldSize);
+			IOUtil.writeInt(bytesRef, Float.floatToIntBits(rankInfo.distance()));
+			bytesRef.flip();
+		} else {
+			//정렬은 멀티밸류를 지원하지 않으므로 첫번째 값을 사용한다.
+			FieldIndexSetting fieldIndexSetting = fieldIndexSettingList.get(sequence);
+			int dataSize = schema.getFieldSetting(fieldIndexSetting.getRef()).getByteSize(fieldIndexSetting.getSize());
+			byte[] data = new byte[dataSize];
+			byte[] fieldIndexData = entry.fieldIndexData[sequence];
+			if (fieldIndexData != null) {
+				System.arraycopy(fieldIndexData, 0, data, 0, Math.min(dataSize, fieldIndexData.length));
+			}
+			bytesRef = new BytesRef(data);
+		}
+		return bytesRef;
+	}
+
+	/*
+	 * FieldIndexWriter 와 같은 형식으로 필드색인 데이터를 만든다.
+	 * */
+	private void readFieldIndexData(Document document, byte[][] dataList, int[] countList) throws IOException {
+		for (int i = 0; i < dataList.length; i++) {
+			FieldIndexSetting fieldIndexSetting = fieldIndexSettingList.get(i);
+			Field field = document.get(schema.getFieldSequence(fieldIndexSetting.getRef()));
+			if (field == null) {
+				continue;
+			}
+			int count = field.isMultiValue() ? field.getMultiValueCount() : 1;
+			if (count <= 0) {
+				continue;
+			}
+			BytesDataOutput output = new BytesDataOutput();
+			field.writeFixedDataTo(output, fieldIndexSetting.getSize(), fieldIndexSetting.isIgnoreCase());
+			dataList[i] = Arrays.copyOf(output.array(), (int) output.position());
+			countList[i] = count;
+		}
+	}
+
+	/*
+	 * SearchIndexWriter 와 같은 방식으로 문서의 필드를 분석하여 색인한다.
+	 * */
+	private void index(int indexSequence, Document document, int docNo) throws IOException, IRException {
+		IndexSetting indexSetting = indexSettingList.get(indexSequence);
+		List<IndexRefSetting> refList = indexSetting.getFieldList();
+		int positionIncrementGap = indexSetting.getPositionIncrementGap();
+		for (IndexRefSetting refSetting : refList) {
+			int sequence = schema.getFieldSequence(refSetting.getRef());
+			if (sequence < 0) {
+				continue;
+			}
+			AnalyzerPool analyzerPool = analyzerPoolManager.getPool(refSetting.getIndexAnalyzer());
+			if (analyzerPool == null) {
+				throw new IRException("분석기를 찾을 수 없습니다. " + refSetting.getIndexAnalyzer());
+			}
+			Analyzer analyzer = analyzerPool.getFromPool();
+			try {
+				Field field = document.get(sequence);
+				if (field != null) {
+					if (field.isMultiValue()) {
+						Iterator<Object> iterator = field.getMultiValueIterator();
+						if (iterator != null) {
+							while (iterator.hasNext()) {
+								indexValue(indexSequence, analyzer, docNo, iterator.next(), positionIncrementGap);
+								positionIncrementGap += positionIncrementGap;
+							}
+						}
+					} else {
+						indexValue(indexSequence, analyzer, docNo, field.getValue(), positionIncrementGap);
+					}
+				}
+			} finally {
+				analyzerPool.releaseToPool(analyzer);
+			}
+			positionIncrementGap += positionIncrementGap;
+		}
+	}
+
+	private void indexValue(int indexSequence, Analyzer analyzer, int docNo, Object value, int positionIncrementGap) throws IOException, IRException {
+		if (value == null) {
+			return;
+		}
+		MemoryPosting memoryPosting = postingList[indexSequence];
+		String indexId = indexSettingList.get(indexSequence).getId();
+		TokenStream tokenStream = analyzer.tokenStream(indexId, new CharArrayReader(value.toString().toCharArray()), indexingAnalyzerOption);
+		tokenStream.reset();
+		CharsRefTermAttribute termAttribute = null;
+		PositionIncrementAttribute positionAttribute = null;
+		StopwordAttribute stopwordAttribute = null;
+		AdditionalTermAttribute additionalTermAttribute = null;
+		CharTermAttribute charTermAttribute = null;
+		if (tokenStream.hasAttribute(CharsRefTermAttribute.class)) {
+			termAttribute = tokenStream.getAttribute(CharsRefTermAttribute.class);
+		}
+		if (tokenStream.hasAttribute(PositionIncrementAttribute.class)) {
+			positionAttribute = tokenStream.getAttribute(PositionIncrementAttribute.class);
+		}
+		if (tokenStream.hasAttribute(AdditionalTermAttribute.class)) {
+			additionalTermAttribute = tokenStream.getAttribute(AdditionalTermAttribute.class);
+		}
+		if (tokenStream.hasAttribute(StopwordAttribute.class)) {
+			stopwordAttribute = tokenStream.getAttribute(StopwordAttribute.class);
+		}
+		if (tokenStream.hasAttribute(CharTermAttribute.class)) {
+			charTermAttribute = tokenStream.getAttribute(CharTermAttribute.class);
+		}
+
+		int lastPosition = 0;
+		int pos = 0;
+		while (tokenStream.incrementToken()) {
+			CharVector key = null;
+			if (termAttribute != null) {
+				CharsRef charRef = termAttribute.charsRef();
+				char[] buffer = new char[charRef.length()];
+				System.arraycopy(charRef.chars, charRef.offset, buffer, 0, charRef.length);
+				key = new CharVector(buffer, 0, buffer.length);
+			} else {
+				key = new CharVector(charTermAttribute.buffer(), 0, charTermAttribute.length());
+			}
+
+			int position = -1;
+			if (positionAttribute != null) {
+				position = pos++ + positionIncrementGap;
+				lastPosition = position;
+			}
+			if (stopwordAttribute == null || !stopwordAttribute.isStopword()) {
+				memoryPosting.add(key, docNo, position);
+			}
+			if (additionalTermAttribute != null && additionalTermAttribute.size() > 0) {
+				Iterator<String> iter = additionalTermAttribute.iterateAdditionalTerms();
+				while (iter.hasNext()) {
+					memoryPosting.add(new CharVector(iter.next().toCharArray()), docNo, lastPosition);
+				}
+			}
+		}
+	}
+
+	/*
+	 * pk 검색. PrimaryKeyIndexesReader 와 같이 공백으로 여러 pk 를, ';' 로 결합 pk 를 구분한다.
+	 * */
+	private OperatedClause getPrimaryKeyOperatedClause(Term term) throws IOException {
+		if (primaryKeyFieldSequence == null) {
+			return null;
+		}
+		String termString = term.termString();
+		String[] list = termString.split(" ");
+		int[] docNoList = new int[list.length];
+		int m = 0;
+		for (String pkValue : list) {
+			String[] pkValues = primaryKeyFieldSequence.length > 1 ? pkValue.split(";") : new String[] { pkValue };
+			BytesRef bytesRef = primaryKeysToBytesRef.getBytesRef(new PrimaryKeys(pkValues));
+			int docNo = primaryKeyIndex.get(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+			if (docNo >= 0) {
+				docNoList[m++] = docNo;
+			}
+		}
+		if (m == 0) {
+			return null;
+		}
+		//중복을 제거하고 문서번호 순서로 넣는다.
+		Arrays.sort(docNoList, 0, m);
+		PostingDoc[] termDocList = new PostingDoc[m];
+		int size = 0;
+		for (int i = 0; i < m; i++) {
+			if (size == 0 || termDocList[size - 1].docNo() != docNoList[i]) {
+				termDocList[size++] = new PostingDoc(docNoList[i], 1);
+			}
+		}
+		return new TermOperatedClause("_PK", "", new DataPostingReader(new CharVector(termString), 0, term.weight(), termDocList, size));
+	}
+
+	/*
+	 * 추가 또는 삭제요청 하나.
+	 * */
+	private static class Entry {
+		private Document document; //삭제요청이면 null.
+		private byte[] key;
+		private int generation;
+		private byte[][] fieldIndexData;
+		private int[] fieldIndexCount;
+
+		public Entry(Document document, byte[] key, int generation, byte[][] fieldIndexData, int[] fieldIndexCount) {
+			this.document = document;
+			this.key = key;
+			this.generation = generation;
+			this.fieldIndexData = fieldIndexData;
+			this.fieldIndexCount = fieldIndexCount;
+		}
+	}
+
+	/*
+	 * 메모리의 필드색인 데이터를 값 하나씩 읽는다.
+	 * */
+	private static class ValueDataRef extends DataRef {
+		private int dataSize;
+		private byte[] data;
+
+		public ValueDataRef(int dataSize) {
+			super(dataSize);
+			this.dataSize = dataSize;
+		}
+
+		public void set(byte[] data, int count) {
+			this.data = data;
+			init(data == null ? 0 : count);
+		}
+
+		@Override
+		public boolean next() throws IOException {
+			if (read >= count) {
+				return false;
+			}
+			System.arraycopy(data, read * dataSize, bytesRef.bytes, 0, dataSize);
+			read++;
+			return true;
+		}
+
+		@Override
+		public void skip() throws IOException {
+			read++;
+		}
+	}
+
+	/*
+	 * 메모리 색인으로 clause 를 만든다.
+	 * */
+	private class MemorySearchIndexesReader extends SearchIndexesReader {
+
+		@Override
+		public OperatedClause getOperatedClause(Term term, HighlightInfo highlightInfo) throws IOException, IRException {
+			OperatedClause totalClause = null;
+			for (String indexFieldId : term.indexFieldId()) {
+				OperatedClause oneFieldClause = null;
+				int indexSequence = schema.getSearchIndexSequence(indexFieldId);
+				if (indexSequence < 0) {
+					if (indexFieldId.equalsIgnoreCase(schema.schemaSetting().getPrimaryKeySetting().getId())) {
+						oneFieldClause = getPrimaryKeyOperatedClause(term);
+					} else {
+						throw new SearchError(CoreErrorCode.SEARCH_INDEX_NOT_EXIST, indexFieldId);
+					}
+				} else {
+					oneFieldClause = term.createOperatedClause(new MemorySearchIndexReader(indexSequence), null);
+				}
+				if (oneFieldClause != null) {
+					totalClause = totalClause == null ? oneFieldClause : new OrOperatedClause(totalClause, oneFieldClause);
+				}
+			}
+			return totalClause;
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	/*
+	 * 메모리 색인 하나를 SearchIndexReader 로 보여준다. clause 는 지금까지 추가된 posting 을 읽는다.
+	 * */
+	private class MemorySearchIndexReader extends SearchIndexReader {
+		private int indexSequence;
+		private IndexSetting indexSetting;
+		private AnalyzerPool queryAnalyzerPool;
+		private IndexFieldOption indexFieldOption;
+
+		public MemorySearchIndexReader(int indexSequence) throws IRException {
+			this.indexSequence = indexSequence;
+			indexSetting = indexSettingList.get(indexSequence);
+			queryAnalyzerPool = analyzerPoolManager.getPool(indexSetting.getQueryAnalyzer());
+			if (queryAnalyzerPool == null) {
+				throw new IRException("Query analyzer not found >> " + indexSetting.getId() + " : " + indexSetting.getQueryAnalyzer());
+			}
+			indexFieldOption = new IndexFieldOption();
+			if (indexSetting.isStorePosition()) {
+				indexFieldOption.setStorePosition();
+			}
+		}
+
+		@Override
+		public String indexId() {
+			return indexSetting.getId();
+		}
+
+		@Override
+		public IndexSetting indexSetting() {
+			return indexSetting;
+		}
+
+		@Override
+		public IndexFieldOption indexFieldOption() {
+			return indexFieldOption;
+		}
+
+		@Override
+		public Analyzer getQueryAnalyzerFromPool() {
+			return queryAnalyzerPool.getFromPool();
+		}
+
+		@Override
+		public void releaseQueryAnalyzerToPool(Analyzer analyzer) {
+			queryAnalyzerPool.releaseToPool(analyzer);
+		}
+
+		@Override
+		public SearchMethod createSearchMethod(AbstractSearchMethod searchMethod) {
+			return new SearchMethod() {
+				@Override
+				public PostingReader search(String indexId, CharVector term, int termPosition, int weight) {
+					PostingBuffer postingBuffer = postingList[indexSequence].get(term);
+					PostingDoc[] docs = postingBuffer != null ? postingBuffer.readPostingDocs() : null;
+					return new DataPostingReader(term, termPosition, weight, docs, docs != null ? docs.length : 0, documentList.size());
+				}
+			};
+		}
+
+		@Override
+		public MemorySearchIndexReader clone() {
+			return this;
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+}
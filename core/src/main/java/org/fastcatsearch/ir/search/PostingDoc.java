@@ -14,6 +14,12 @@ public class PostingDoc {
 		this.positions = positions;
 	}
 	
+	public void init(int docNo, int tf, int[] positions){
+		this.docNo = docNo;
+		this.tf = tf;
+		this.positions = positions;
+	}
+	
 	public int docNo(){
 		return docNo;
 	}
@@ -17,6 +17,19 @@ public interface PostingReader {
 	public boolean hasNext();
 
 	public PostingDoc next();
+	
+	/**
+	 * 다음 포스팅을 주어진 postingDoc에 채운다. 새 객체를 만들지 않으므로 검색루프에서 사용한다.
+	 * 채워진 위치배열은 다음 호출시 재사용될수 있다.
+	 * @return 읽었는지 여부. 더이상 없으면 false.
+	 * */
+	public boolean next(PostingDoc postingDoc);
+	
+	/**
+	 * 현재 위치 이후에서 문서번호가 target 이상인 첫 포스팅으로 이동하여 postingDoc에 채운다.
+	 * @return 찾았는지 여부. 더이상 없으면 false.
+	 * */
+	public boolean advance(int target, PostingDoc postingDoc);
 
 	public void close();
 
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
@@ -150,6 +151,13 @@ public class PrimaryKeyIndexesReader implements Cloneable {
 	}
 	
 	
+	/**
+	 * PrimaryKeysToBytesRef 로 만든 pk 의 문서번호. 없으면 -1.
+	 * */
+	public int getDocNo(BytesRef primaryKey) throws IOException {
+		return pkReader.get(primaryKey);
+	}
+	
 	public void close() throws IOException {
 		pkReader.close();
 	}
@@ -4,10 +4,10 @@ import java.io.File;
 import java.io.IOException;
 
 import org.fastcatsearch.ir.common.IRException;
-import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.io.StreamInputRef;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.slf4j.Logger;
@@ -24,19 +24,39 @@ public abstract class ReferenceableIndexReader implements ReferenceableReader {
 
 	protected boolean isMultiValue;
 	
+	//single-value 데이터를 메모리에 올려둔 컬럼. clone 들과 공유한다.
+	protected ColumnCache columnCache;
+	private boolean columnCacheOwner;
+	
 	public ReferenceableIndexReader() {}
 	
 	public void init(String indexId, FieldSetting refFieldSetting, File dataFile, File multiValueFile, int dataSize) throws IOException, IRException{
+		init(indexId, refFieldSetting, dataFile, multiValueFile, dataSize, IndexInputFactory.DEFAULT, null);
+	}
+	
+	/**
+	 * @param fileType 파일을 어떤 IndexInput으로 열지 indexInputFactory에서 구분하기 위한 파일종류.
+	 * */
+	public void init(String indexId, FieldSetting refFieldSetting, File dataFile, File multiValueFile, int dataSize, IndexInputFactory indexInputFactory, String fileType) throws IOException, IRException{
+		init(indexId, refFieldSetting, dataFile, multiValueFile, dataSize, indexInputFactory, fileType, null);
+	}
+	
+	/**
+	 * @param columnCacheMode heap 또는 offheap 이면 single-value 데이터를 ColumnCache 로 메모리에 올린다. null 이면 올리지 않는다.
+	 * */
+	public void init(String indexId, FieldSetting refFieldSetting, File dataFile, File multiValueFile, int dataSize, IndexInputFactory indexInputFactory, String fileType, String columnCacheMode) throws IOException, IRException{
 		this.indexId = indexId;
 		this.dataSize = dataSize;
-		dataInput = new BufferedFileInput(dataFile);
+		dataInput = indexInputFactory.open(fileType, dataFile);
     	
     	isMultiValue = refFieldSetting.isMultiValue();
     	if(isMultiValue){
-    		multiValueInput = new BufferedFileInput(multiValueFile);
+    		multiValueInput = indexInputFactory.open(fileType, multiValueFile);
     		dataRef = new StreamInputRef(multiValueInput, dataSize);
     	}else{
     		dataRef = new DataRef(dataSize);
+    		columnCache = ColumnCache.load(indexId, dataInput, dataSize, columnCacheMode);
+    		columnCacheOwner = columnCache != null;
     	}
 //    	logger.debug("index reader init {}, {}, {}", indexId, dataSize, isMultiValue);
 	}
@@ -61,6 +81,9 @@ public abstract class ReferenceableIndexReader implements ReferenceableReader {
 			}else{
 				dataRef.init(0);
 			}
+		}else if(columnCache != null){
+			columnCache.read(docNo, dataRef.bytesRef().bytes);
+			dataRef.init(1);
 		}else{
 			long pos = ((long) dataSize) * docNo;
             dataInput.seek(pos);
@@ -71,12 +94,23 @@ public abstract class ReferenceableIndexReader implements ReferenceableReader {
 		}
 	}
 	
+	/**
+	 * 컬럼캐시를 사용하지 않으면 null.
+	 * */
+	public ColumnCache columnCache() {
+		return columnCache;
+	}
+	
 	public abstract ReferenceableIndexReader clone();
 	
 	@Override
     public void close() throws IOException {
 		dataInput.close();
 		
+		if(columnCacheOwner){
+			columnCache.release();
+		}
+		
 		if(isMultiValue && multiValueInput != null){
 			multiValueInput.close();
 		}
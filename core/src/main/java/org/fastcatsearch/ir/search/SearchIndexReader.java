@@ -26,15 +26,15 @@ import org.fastcatsearch.ir.analysis.AnalyzerPool;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
 import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.io.CharVector;
-import org.fastcatsearch.ir.io.FixedMinHeap;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
 import org.fastcatsearch.ir.search.method.AbstractSearchMethod;
 import org.fastcatsearch.ir.search.method.SearchMethod;
 import org.fastcatsearch.ir.search.posting.PostingDocsMerger;
-import org.fastcatsearch.ir.search.posting.PostingDocsReader;
 import org.fastcatsearch.ir.settings.IndexSetting;
 import org.fastcatsearch.ir.settings.Schema;
 import org.slf4j.Logger;
@@ -51,6 +51,7 @@ public class SearchIndexReader implements Cloneable {
 	private IndexInput lexiconInput;
 	private Schema schema;
 	private MemoryLexicon memoryLexicon;
+	private LexiconTrie lexiconTrie; //trie 사전이 없는 이전 세그먼트는 null.
 	private long fileLimit;
 	private IndexFieldOption indexFieldOption;
 
@@ -66,6 +67,10 @@ public class SearchIndexReader implements Cloneable {
 	}
 
 	public SearchIndexReader(IndexSetting indexSetting, Schema schema, File dir, int revision, AnalyzerPool queryAnalyzerPool, int segmentDocumentCount) throws IOException, IRException {
+		this(indexSetting, schema, dir, revision, queryAnalyzerPool, segmentDocumentCount, IndexInputFactory.DEFAULT);
+	}
+	
+	public SearchIndexReader(IndexSetting indexSetting, Schema schema, File dir, int revision, AnalyzerPool queryAnalyzerPool, int segmentDocumentCount, IndexInputFactory indexInputFactory) throws IOException, IRException {
 		this.schema = schema;
 		this.indexSetting = indexSetting;
 		String id = indexSetting.getId();
@@ -75,8 +80,8 @@ public class SearchIndexReader implements Cloneable {
 		
 		logger.debug("Search Index [{}] Dir = {}", indexId, dir.getAbsolutePath());
 		try {
-			postingInput = new BufferedFileInput(IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchPostingFileName(id));
-			lexiconInput = new BufferedFileInput(IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchLexiconFileName(id));
+			postingInput = indexInputFactory.open(IndexInputFactory.POSTING, IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchPostingFileName(id));
+			lexiconInput = indexInputFactory.open(IndexInputFactory.LEXICON, IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchLexiconFileName(id));
 			
 			fileLimit = lexiconInput.length();
 			
@@ -114,7 +119,7 @@ public class SearchIndexReader implements Cloneable {
 			}
 		}
 		
-		
+		lexiconTrie = LexiconTrie.load(IndexFileNames.getRevisionDir(dir, revision), id);
 	}
 
 	public String indexId(){
@@ -135,6 +140,7 @@ public class SearchIndexReader implements Cloneable {
 		reader.postingInput = postingInput.clone();
 		reader.lexiconInput = lexiconInput.clone();
 		reader.memoryLexicon = memoryLexicon;
+		reader.lexiconTrie = lexiconTrie;
 		reader.fileLimit = fileLimit;
 		reader.queryAnalyzerPool = queryAnalyzerPool;
 		reader.indexSetting = indexSetting;
@@ -153,6 +159,14 @@ public class SearchIndexReader implements Cloneable {
 			return null;
 		}
 
+		if (lexiconTrie != null) {
+			int ordinal = lexiconTrie.find(singleTerm);
+			if (ordinal < 0) {
+				return null;
+			}
+			return getTermDocs(singleTerm, lexiconTrie.postingPosition(ordinal));
+		}
+		
 		long[] posInfo = new long[2];
 		boolean found = memoryLexicon.binsearch(singleTerm, posInfo);
 
@@ -202,6 +216,9 @@ public class SearchIndexReader implements Cloneable {
 		int len = postingInput.readVInt();
 		int count = postingInput.readInt();
 		int lastDocNo = postingInput.readInt();
+		if (indexFieldOption.isSkipBlock()) {
+			PostingSkipList.skip(postingInput);
+		}
 
 		PostingDoc[] termDocList = new PostingDoc[count];
 		logger.debug(">>>>> create PostingDoc array size {} = {} / {}MB", singleTerm, count, Runtime.getRuntime().totalMemory() / (1024 * 1024));
@@ -288,6 +305,14 @@ public class SearchIndexReader implements Cloneable {
 		if (memoryLexicon.size() == 0)
 			return null;
 
+		if (lexiconTrie != null) {
+			int[] range = new int[2];
+			if (!lexiconTrie.prefixRange(singleTerm, range) || range[1] <= range[0]) {
+				return null;
+			}
+			return makeTermDocs(singleTerm, lexiconTrie.postingPosition(range[0]), range[1] - range[0]);
+		}
+
 		long[] posInfo = new long[2];
 		boolean found = memoryLexicon.binsearch(singleTerm, posInfo);
 
@@ -330,6 +355,18 @@ public class SearchIndexReader implements Cloneable {
 		if (memoryLexicon.size() == 0)
 			return null;
 
+		if (lexiconTrie != null) {
+			// 역방향 trie 로 suffix 를, 정방향 trie 순회로 포함(*term*)검색을 하므로 lexicon 파일을 읽지 않는다.
+			int[] ordinals = null;
+			if (singleTerm.charAt(singleTerm.length() - 1) == '*') {
+				singleTerm.setLength(singleTerm.length() - 1);
+				ordinals = lexiconTrie.infixOrdinals(singleTerm);
+			} else {
+				ordinals = lexiconTrie.suffixOrdinals(singleTerm);
+			}
+			return makeTermDocs(singleTerm, ordinals);
+		}
+
 		long[] posInfo = new long[2];
 		boolean found = memoryLexicon.binsearch(singleTerm, posInfo);
 
@@ -389,6 +426,13 @@ public class SearchIndexReader implements Cloneable {
 			return new PostingDocs(startTerm, 0);
 		}
 
+		if (lexiconTrie != null) {
+			int fromOrdinal = lexiconTrie.ceiling(startTerm);
+			int toOrdinal = lexiconTrie.find(endTerm);
+			toOrdinal = toOrdinal >= 0 ? toOrdinal + 1 : lexiconTrie.ceiling(endTerm);
+			return makeTermDocs(startTerm, fromOrdinal < lexiconTrie.termCount() ? lexiconTrie.postingPosition(fromOrdinal) : -1, toOrdinal - fromOrdinal);
+		}
+
 		/*
 		 * 1. find startTerm
 		 */
@@ -494,7 +538,6 @@ public class SearchIndexReader implements Cloneable {
 	private PostingDocs makeTermDocs(CharVector term, long startPos, int foundCount) throws IOException {
 
 		if (foundCount > 0) {
-			FixedMinHeap<PostingDocsReader> heap = new FixedMinHeap<PostingDocsReader>(foundCount);
 			mpseq++;
 
 			long pos = startPos;
@@ -503,63 +546,77 @@ public class SearchIndexReader implements Cloneable {
 			List<PostingDocs> termDocsList = new ArrayList<PostingDocs>(foundCount);
 
 			for (int c = 0; c < foundCount; c++) {
-				int prevId = -1;
-				// 위치정보를 가지고 포스팅을 읽는다.
-				int len = postingInput.readVInt();
-				int count = postingInput.readInt();
-				int lastDocNo = postingInput.readInt();
+				termDocsList.add(readPostingDocs(term));
+			}// for
 
-				// logger.debug("prefix posting {} / {}", c, foundCount);
-				// logger.debug("prefix posting len = {}", len);
-				// logger.debug("prefix posting count = {}", count);
-				// logger.debug("prefix posting lastDocNo = {}", lastDocNo);
+			return new PostingDocsMerger(termDocsList).merge(term, 1024);
+		}
+		return null;
+	}
 
-				PostingDoc[] termDocList = new PostingDoc[count];
+	// 연속되지 않은 텀들의 포스팅을 읽어 머징한다. ordinals 는 오름차순이어야 포스팅 파일을 앞으로만 읽는다.
+	private PostingDocs makeTermDocs(CharVector term, int[] ordinals) throws IOException {
 
-				int docId = -1;
+		if (ordinals.length > 0) {
+			mpseq++;
 
-				for (int i = 0; i < count; i++) {
-					if (prevId >= 0) {
-						docId = postingInput.readVInt() + prevId + 1;
-					} else {
-						docId = postingInput.readVInt();
-					}
+			List<PostingDocs> termDocsList = new ArrayList<PostingDocs>(ordinals.length);
 
-					int tf = postingInput.readVInt();
-
-					int[] positions = null;
-					if (indexFieldOption.isStorePosition()) {
-						int prevPosition = -1;
-						positions = new int[tf];
-						for (int j = 0; j < tf; j++) {
-							if (prevPosition >= 0) {
-								positions[j] = postingInput.readVInt() + prevPosition + 1;
-							} else {
-								positions[j] = postingInput.readVInt();
-							}
-							prevPosition = positions[j];
-						}
+			for (int c = 0; c < ordinals.length; c++) {
+				postingInput.seek(lexiconTrie.postingPosition(ordinals[c]));
+				termDocsList.add(readPostingDocs(term));
+			}
 
-					}
+			return new PostingDocsMerger(termDocsList).merge(term, 1024);
+		}
+		return null;
+	}
 
-					termDocList[i] = new PostingDoc(docId, tf, positions);
+	// 현재 위치의 포스팅 하나를 읽는다.
+	private PostingDocs readPostingDocs(CharVector term) throws IOException {
+		int prevId = -1;
+		// 위치정보를 가지고 포스팅을 읽는다.
+		int len = postingInput.readVInt();
+		int count = postingInput.readInt();
+		int lastDocNo = postingInput.readInt();
+		if (indexFieldOption.isSkipBlock()) {
+			PostingSkipList.skip(postingInput);
+		}
+
+		PostingDoc[] termDocList = new PostingDoc[count];
+
+		int docId = -1;
+
+		for (int i = 0; i < count; i++) {
+			if (prevId >= 0) {
+				docId = postingInput.readVInt() + prevId + 1;
+			} else {
+				docId = postingInput.readVInt();
+			}
 
-					prevId = docId;
+			int tf = postingInput.readVInt();
 
+			int[] positions = null;
+			if (indexFieldOption.isStorePosition()) {
+				int prevPosition = -1;
+				positions = new int[tf];
+				for (int j = 0; j < tf; j++) {
+					if (prevPosition >= 0) {
+						positions[j] = postingInput.readVInt() + prevPosition + 1;
+					} else {
+						positions[j] = postingInput.readVInt();
+					}
+					prevPosition = positions[j];
 				}
 
-				// TermDocsReader r = new TermDocsReader(new TermDocs(indexFieldSequence, term, termDocList, count));
+			}
 
-				termDocsList.add(new PostingDocs(term, termDocList, count));
-				// if (r.next()) {
-				// heap.push(r);
-				// }
+			termDocList[i] = new PostingDoc(docId, tf, positions);
 
-			}// for
+			prevId = docId;
 
-			return new PostingDocsMerger(termDocsList).merge(term, 1024);
 		}
-		return null;
+		return new PostingDocs(term, termDocList, count);
 	}
 
 
@@ -663,7 +720,7 @@ public class SearchIndexReader implements Cloneable {
 	}
 	public SearchMethod createSearchMethod(AbstractSearchMethod searchMethod){
 		//index input은 clone하여 각자 사용한다. 
-		searchMethod.init(this.memoryLexicon, this.lexiconInput.clone(), this.postingInput.clone(), this.indexFieldOption, this.segmentDocumentCount);
+		searchMethod.init(this.memoryLexicon, this.lexiconTrie, this.lexiconInput.clone(), this.postingInput.clone(), this.indexFieldOption, this.segmentDocumentCount);
 		return searchMethod;
 	}
 	
@@ -21,6 +21,7 @@ import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.ir.analysis.AnalyzerPool;
 import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.query.HighlightInfo;
 import org.fastcatsearch.ir.query.Term;
 import org.fastcatsearch.ir.search.clause.OperatedClause;
@@ -56,6 +57,10 @@ public class SearchIndexesReader implements Cloneable {
 	}
 
 	public SearchIndexesReader(Schema schema, File dir, int revision, AnalyzerPoolManager analyzerPoolManager, int segmentDocumentCount) throws IOException, IRException {
+		this(schema, dir, revision, analyzerPoolManager, segmentDocumentCount, IndexInputFactory.DEFAULT);
+	}
+	
+	public SearchIndexesReader(Schema schema, File dir, int revision, AnalyzerPoolManager analyzerPoolManager, int segmentDocumentCount, IndexInputFactory indexInputFactory) throws IOException, IRException {
 		this.schema = schema;
 		this.segmentDocumentCount = segmentDocumentCount;
 //		logger.debug("schema > {}", schema);
@@ -79,7 +84,7 @@ public class SearchIndexesReader implements Cloneable {
 					throw new IRException("Query analyzer not found >> " + setting.getId() + " : " + queryAnalyzerName);
 				}
 				
-				reader = new SearchIndexReader(setting, schema, dir, revision, queryAnalyzerPool, segmentDocumentCount);
+				reader = new SearchIndexReader(setting, schema, dir, revision, queryAnalyzerPool, segmentDocumentCount, indexInputFactory);
 			} catch (Exception e) {
 				logger.error("색인Reader {}로딩중 에러 >> {}", setting.getId(), e);
 				if (reader != null) {
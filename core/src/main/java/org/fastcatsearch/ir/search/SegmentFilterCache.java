@@ -0,0 +1,175 @@
+package org.fastcatsearch.ir.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fastcatsearch.ir.io.BitSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 세그먼트별 필터결과 캐시. 필터정의(Filter.cacheKey)별로 조건에 부합하는 문서를 bitset 또는 문서번호 배열로 저장한다.
+ * 같은 필터가 minFrequency 번 이상 사용되면 그때 세그먼트 전체 문서에 대해 만든다.
+ * 세그먼트 리비전이 바뀌거나 delete set 이 바뀌면 비운다.
+ * 여러 검색 thread 에서 공유하므로 map 접근은 동기화한다.
+ * */
+public class SegmentFilterCache {
+	private static final Logger logger = LoggerFactory.getLogger(SegmentFilterCache.class);
+
+	//세그먼트당 캐시할 필터 갯수. 0이면 사용하지 않는다.
+	public static final int MAX_SIZE = Integer.parseInt(System.getProperty("filterCacheSize", "64"));
+	//이 횟수만큼 사용된 필터만 캐시를 만든다.
+	public static final int MIN_FREQUENCY = Integer.parseInt(System.getProperty("filterCacheMinFrequency", "2"));
+	//요청수를 기록할 필터 갯수.
+	private static final int MAX_FREQUENCY_SIZE = 1024;
+
+	private final int docCount;
+	private String revisionUUID;
+	private Map<String, DocSet> cache;
+	private Map<String, Integer> frequencyMap;
+
+	private long hitCount;
+	private long missCount;
+
+	public SegmentFilterCache(int docCount, String revisionUUID) {
+		this.docCount = docCount;
+		this.revisionUUID = revisionUUID;
+		cache = new LinkedHashMap<String, DocSet>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, DocSet> eldest) {
+				return size() > MAX_SIZE;
+			}
+		};
+		frequencyMap = new HashMap<String, Integer>();
+	}
+
+	public static boolean isEnabled() {
+		return MAX_SIZE > 0;
+	}
+
+	public int docCount() {
+		return docCount;
+	}
+
+	/**
+	 * 캐시된 결과를 리턴한다. 없으면 null 을 리턴한다.
+	 * @param revisionUUID 현재 세그먼트 리비전. 캐시를 만든 리비전과 다르면 모두 지운다.
+	 * */
+	public synchronized DocSet get(String key, String revisionUUID) {
+		if (!equals(this.revisionUUID, revisionUUID)) {
+			clear();
+			this.revisionUUID = revisionUUID;
+		}
+		DocSet docSet = cache.get(key);
+		if (docSet != null) {
+			hitCount++;
+		} else {
+			missCount++;
+		}
+		return docSet;
+	}
+
+	/**
+	 * 사용횟수를 증가시키고 캐시를 만들어야 하는지 리턴한다.
+	 * */
+	public synchronized boolean countAndCheck(String key) {
+		Integer frequency = frequencyMap.get(key);
+		int count = frequency == null ? 1 : frequency + 1;
+		if (count >= MIN_FREQUENCY) {
+			frequencyMap.remove(key);
+			return true;
+		}
+		if (frequencyMap.size() >= MAX_FREQUENCY_SIZE) {
+			frequencyMap.clear();
+		}
+		frequencyMap.put(key, count);
+		return false;
+	}
+
+	public synchronized void put(String key, String revisionUUID, DocSet docSet) {
+		if (equals(this.revisionUUID, revisionUUID)) {
+			cache.put(key, docSet);
+		}
+	}
+
+	public synchronized void clear() {
+		if (cache.size() > 0) {
+			logger.debug("clear filter cache size[{}] hit[{}] miss[{}]", new Object[] { cache.size(), hitCount, missCount });
+		}
+		cache.clear();
+		frequencyMap.clear();
+	}
+
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	public synchronized long memorySize() {
+		long size = 0;
+		for (DocSet docSet : cache.values()) {
+			size += docSet.memorySize();
+		}
+		return size;
+	}
+
+	private static boolean equals(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * 필터에 부합하는 문서집합. 부합문서가 적으면 정렬된 문서번호 배열로, 많으면 bitset 으로 저장한다.
+	 * bitset 은 docCount / 8 바이트, 배열은 문서당 4바이트이므로 docCount / 32 개를 기준으로 나눈다.
+	 * */
+	public static class DocSet {
+		private BitSet bitSet;
+		private int[] docs;
+		private int cardinality;
+		private int docCount;
+
+		public static DocSet create(BitSet bitSet, int docCount) {
+			DocSet docSet = new DocSet();
+			int cardinality = bitSet.cardinality();
+			docSet.cardinality = cardinality;
+			docSet.docCount = docCount;
+			if (cardinality < docCount / 32) {
+				int[] docs = new int[cardinality];
+				int n = 0;
+				for (int i = 0; i < docCount && n < cardinality; i++) {
+					if (bitSet.isSet(i)) {
+						docs[n++] = i;
+					}
+				}
+				docSet.docs = docs;
+			} else {
+				docSet.bitSet = bitSet;
+			}
+			return docSet;
+		}
+
+		public boolean contains(int docNo) {
+			if (bitSet != null) {
+				return bitSet.isSet(docNo);
+			}
+			return Arrays.binarySearch(docs, docNo) >= 0;
+		}
+
+		public int cardinality() {
+			return cardinality;
+		}
+
+		public boolean isSparse() {
+			return docs != null;
+		}
+
+		public long memorySize() {
+			if (docs != null) {
+				return docs.length * 4L;
+			}
+			return docCount / 8 + 8;
+		}
+	}
+}
@@ -25,6 +25,7 @@ import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
 import org.fastcatsearch.ir.document.DocumentReader;
 import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.ir.util.CloseableThreadLocal;
 import org.slf4j.Logger;
@@ -51,6 +52,7 @@ public class SegmentReader {
 	private BitSet deleteSet;
 	private SegmentInfo segmentInfo;
 	private File segmentDir;
+	private SegmentFilterCache filterCache;
 
 	final CloseableThreadLocal<DocumentReader> documentReaderLocal = new CloseableThreadLocal<DocumentReader>() {
 		@Override
@@ -85,6 +87,13 @@ public class SegmentReader {
 	}
 			
 	public SegmentReader(SegmentInfo segmentInfo, Schema schema, File segmentDir, BitSet bitset, AnalyzerPoolManager analyzerPoolManager) throws IOException, IRException {
+		this(segmentInfo, schema, segmentDir, bitset, analyzerPoolManager, IndexInputFactory.DEFAULT);
+	}
+	
+	/**
+	 * @param indexInputFactory 색인파일 종류별로 mmap 사용여부를 결정한다.
+	 * */
+	public SegmentReader(SegmentInfo segmentInfo, Schema schema, File segmentDir, BitSet bitset, AnalyzerPoolManager analyzerPoolManager, IndexInputFactory indexInputFactory) throws IOException, IRException {
 		this.segmentSequence = segmentInfo.getIntId();
 		this.schema = schema;
 		this.segmentDir = segmentDir;
@@ -92,17 +101,17 @@ public class SegmentReader {
 		int revision = segmentInfo.getRevisionInfo().getId();
 		int ref = segmentInfo.getRevisionInfo().getRef();
 		
-		this.documentReader = new DocumentReader(schema.schemaSetting(), segmentDir, segmentInfo.getBaseNumber());
+		this.documentReader = new DocumentReader(schema.schemaSetting(), segmentDir, segmentInfo.getBaseNumber(), indexInputFactory);
 		int documentCount = documentReader.getDocumentCount();
 		
 		// reader들은 thread-safe하지 않다. clone해서 사용됨.
-		this.searchIndexesReader = new SearchIndexesReader(schema, segmentDir, ref, analyzerPoolManager, documentCount);
+		this.searchIndexesReader = new SearchIndexesReader(schema, segmentDir, ref, analyzerPoolManager, documentCount, indexInputFactory);
 		
 		//field index
-		this.fieldIndexesReader = new FieldIndexesReader(schema, segmentDir);
+		this.fieldIndexesReader = new FieldIndexesReader(schema, segmentDir, indexInputFactory);
 		
 //		// group index
-		this.groupIndexesReader = new GroupIndexesReader(schema, segmentDir, ref);
+		this.groupIndexesReader = new GroupIndexesReader(schema, segmentDir, ref, indexInputFactory);
 
 		
 		
@@ -111,6 +120,10 @@ public class SegmentReader {
 		} else {
 			deleteSet = new BitSet(IndexFileNames.getRevisionDir(segmentDir, revision), IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, segmentInfo.getId()));
 		}
+		
+		if (SegmentFilterCache.isEnabled()) {
+			filterCache = new SegmentFilterCache(documentCount, segmentInfo.getRevisionInfo().getUuid());
+		}
 	}
 
 	public SegmentSearcher segmentSearcher(){
@@ -165,8 +178,23 @@ public class SegmentReader {
 		return documentReaderLocal.get();
 	}
 	
+	public SegmentFilterCache filterCache(){
+		return filterCache;
+	}
+	
 	public void setDeleteSet(BitSet deleteSet) {
 		this.deleteSet = deleteSet;
+		if (filterCache != null) {
+			filterCache.clear();
+		}
+	}
+
+	/**
+	 * push 된 문서에 가려지는 문서를 삭제문서로 보이게 한다.
+	 * 세그먼트 파일은 바뀌지 않았으므로 필드데이터만으로 만든 필터캐시는 그대로 둔다.
+	 * */
+	void hideDocuments(BitSet deleteSet) {
+		this.deleteSet = deleteSet;
 	}
 
 	public void close() throws IOException {
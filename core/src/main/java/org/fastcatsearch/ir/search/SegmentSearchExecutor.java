@@ -0,0 +1,81 @@
+package org.fastcatsearch.ir.search;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 세그먼트 병렬검색에 사용되는 공용 쓰레드풀.
+ * 쓰레드 갯수와 대기큐 크기가 제한되어 있으며, 큐가 가득차면 요청한 쓰레드에서 직접 수행하므로 쓰레드가 무한정 늘어나지 않는다.
+ *
+ * 쓰레드 갯수는 -DsegmentSearchThreadSize, 대기큐 크기는 -DsegmentSearchQueueSize 로 설정한다.
+ * */
+public class SegmentSearchExecutor {
+	private static Logger logger = LoggerFactory.getLogger(SegmentSearchExecutor.class);
+
+	private static SegmentSearchExecutor instance;
+
+	private ThreadPoolExecutor executor;
+
+	public static synchronized SegmentSearchExecutor getInstance() {
+		if (instance == null) {
+			int threadSize = Runtime.getRuntime().availableProcessors();
+			int queueSize = threadSize * 64;
+			String threadSizeProperty = System.getProperty("segmentSearchThreadSize");
+			String queueSizeProperty = System.getProperty("segmentSearchQueueSize");
+			if (threadSizeProperty != null) {
+				threadSize = Integer.parseInt(threadSizeProperty);
+			}
+			if (queueSizeProperty != null) {
+				queueSize = Integer.parseInt(queueSizeProperty);
+			}
+			instance = new SegmentSearchExecutor(threadSize, queueSize);
+		}
+		return instance;
+	}
+
+	public SegmentSearchExecutor(int threadSize, int queueSize) {
+		executor = new ThreadPoolExecutor(threadSize, threadSize, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+				new SegmentSearchThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		logger.info("Segment search executor started. thread={}, queue={}", threadSize, queueSize);
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		return executor.submit(task);
+	}
+
+	public int threadSize() {
+		return executor.getMaximumPoolSize();
+	}
+
+	public int activeCount() {
+		return executor.getActiveCount();
+	}
+
+	public int queueSize() {
+		return executor.getQueue().size();
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	static class SegmentSearchThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "segment-search-" + threadNumber.getAndIncrement());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+}
@@ -1,16 +1,28 @@
 package org.fastcatsearch.ir.search;
 
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.AnalyzerOption;
+import org.apache.lucene.analysis.tokenattributes.AdditionalTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharsRefTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.StopwordAttribute;
+import org.apache.lucene.analysis.tokenattributes.SynonymAttribute;
+import org.apache.lucene.util.CharsRef;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.document.LazyDocument;
 import org.fastcatsearch.ir.document.DocumentReader;
 import org.fastcatsearch.ir.group.GroupDataGenerator;
 import org.fastcatsearch.ir.group.GroupHit;
 import org.fastcatsearch.ir.group.GroupsData;
 import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.FixedHitStack;
 import org.fastcatsearch.ir.io.FixedMaxPriorityQueue;
 import org.fastcatsearch.ir.query.*;
 import org.fastcatsearch.ir.search.clause.*;
+import org.fastcatsearch.ir.search.method.NormalSearchMethod;
 import org.fastcatsearch.ir.settings.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +31,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.StringWriter;
+import java.util.TreeMap;
 
 /**
  * Single Thread로 동작한다.
@@ -62,6 +75,14 @@ public class SegmentSearcher {
 		Document document = documentReader.readDocument(docNo, fieldSelectOption);
 		return document;
 	}
+	
+	//필드는 get 할때 읽는다. 필드길이 표가 없는 예전 포맷이면 fieldSelectOption 의 필드를 미리 읽는다.
+	public LazyDocument getLazyDocument(int docNo, boolean[] fieldSelectOption) throws IOException {
+		if (documentReader == null) {
+			documentReader = segmentReader.newDocumentReader();
+		}
+		return documentReader.readLazyDocument(docNo, fieldSelectOption);
+	}
 
 //	public Hit searchHit(Query query) throws ClauseException, IOException, IRException {
 //		return searchHit(query, null);
@@ -79,7 +100,16 @@ public class SegmentSearcher {
 //		if(queryModifier != null){
 //			query = queryModifier.modify(query);
 //		}
-		return searchHitReader(query.getMeta(), query.getClause(), query.getFilters(), query.getGroups(), query.getGroupFilters(), query.getSorts(), query.getBundle(), boostList);
+		QueryTrace trace = query.getTrace();
+		if (trace == null) {
+			return searchHitReader(query.getMeta(), query.getClause(), query.getFilters(), query.getGroups(), query.getGroupFilters(), query.getSorts(), query.getBundle(), boostList);
+		}
+		//reader 생성시 clause, 필터, 그룹, 정렬 reader 를 모두 만든다.
+		long st = System.nanoTime();
+		HitReader hitReader = searchHitReader(query.getMeta(), query.getClause(), query.getFilters(), query.getGroups(), query.getGroupFilters(), query.getSorts(), query.getBundle(), boostList);
+		trace.add(QueryTrace.Phase.CLAUSE, System.nanoTime() - st);
+		hitReader.setTrace(trace);
+		return hitReader;
 	}
 	
 
@@ -115,7 +145,7 @@ public class SegmentSearcher {
 				fieldIndexesReader = segmentReader.newFieldIndexesReader();
 			}
 			//schema를 통해 field index setting을 알아야 필터링시 ignorecase등의 정보를 활용가능하다.
-			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE, segmentReader.filterCache(), segmentReader.segmentInfo().getRevisionInfo().getUuid());
 		}
 
 		//group
@@ -146,6 +176,8 @@ public class SegmentSearcher {
 		}
 
 		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
+		RankInfo[] rankInfoPool = new RankInfo[BULK_SIZE];
+		HitElement[] hitElementBuffer = new HitElement[BULK_SIZE];
 		boolean exausted = false;
 		BitSet localDeleteSet = segmentReader.deleteSet();
 
@@ -159,6 +191,9 @@ public class SegmentSearcher {
 			explanation = new Explanation();
 			clauseExplanation = explanation.createClauseExplanation();
 		}
+		for (int i = 0; i < BULK_SIZE; i++) {
+			rankInfoPool[i] = new RankInfo(isExplain);
+		}
 		
 		if (logger.isTraceEnabled() && operatedClause != null) {
             StringWriter writer = new StringWriter();
@@ -175,7 +210,8 @@ public class SegmentSearcher {
 //			long st = System.nanoTime();
 			// search
 			for (nread = 0; nread < BULK_SIZE; nread++) {
-				RankInfo rankInfo = new RankInfo(isExplain);
+				RankInfo rankInfo = rankInfoPool[nread];
+				rankInfo.clear();
 				if (operatedClause.next(rankInfo)) {
 					rankInfoList[nread] = rankInfo;
 				} else {
@@ -218,12 +254,16 @@ public class SegmentSearcher {
 				}
 			}
 
-            HitElement[] e = sortGenerator.getHitElement(rankInfoList, nread);
+            sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
+            int duplicateSize = ranker.duplicateSize();
             for (int i = 0; i < nread; i++) {
-                if(ranker.push(e[i])) {
-                    totalCount++;
+                if(ranker.push(hitElementBuffer[i])) {
+                    //랭커에 들어간 원소는 다음 묶음에서 재사용하지 않는다.
+                    hitElementBuffer[i] = null;
                 }
             }
+            //매칭된 문서는 모두 결과수에 포함하고, 동일 번들키가 이미 있어서 버려진 문서만 뺀다.
+            totalCount += nread - (ranker.duplicateSize() - duplicateSize);
 			
 			
 //			sortTime += (System.nanoTime() - st);
@@ -252,29 +292,137 @@ public class SegmentSearcher {
 	public Hit searchIndex(Clause clause, Sorts sorts, int start, int length, BitSet docFilter) throws ClauseException,
 		IOException, IRException {
 		
-		int totalCount = 0;
-		FieldIndexesReader fieldIndexesReader = null;
 		int sortMaxSize = start + length - 1;
 		
 		OperatedClause operatedClause = clause.getOperatedClause(0, segmentReader.newSearchIndexesReader(), null);
-		// sort
-		FixedMaxPriorityQueue<HitElement> ranker = null;
-		 SortGenerator sortGenerator = null;
-		if (sorts == null || sorts == Sorts.DEFAULT_SORTS) {
-			ranker = new DefaultRanker(sortMaxSize);
-			sortGenerator = new SortGenerator();
-		} else {
-			if(fieldIndexesReader == null){
-				fieldIndexesReader = segmentReader.newFieldIndexesReader();
+		return collectHit(operatedClause, newRanker(sorts, sortMaxSize), newSortGenerator(sorts), docFilter);
+	}
+	
+	/**
+	 * 여러 묶음키의 하위문서들을 한번에 검색한다. 묶음키별로 searchIndex(new Clause(new Term(indexId, key)), ...) 를 수행한 것과 같은 결과를 리턴한다.
+	 * 세그먼트의 reader, 정렬생성기는 한번만 만들고, 단어들을 정렬하여 lexicon 을 한번만 읽어 포스팅위치를 찾는다.
+	 * 같은 키는 한번만 검색한다.
+	 * 분석결과 단어가 하나가 아닌 키는 기존 방식으로 검색한다.
+	 * @return keys 와 같은 순서의 결과. null 키는 null.
+	 * */
+	public Hit[] searchBundleIndex(String indexId, String[] keys, Sorts sorts, int length, BitSet docFilter) throws ClauseException, IOException, IRException {
+		Hit[] hitList = new Hit[keys.length];
+		SearchIndexReader searchIndexReader = segmentReader.newSearchIndexesReader().getSearchIndexReader(indexId);
+		CharVector[] tokenList = new CharVector[keys.length];
+		if (searchIndexReader != null) {
+			Analyzer analyzer = searchIndexReader.getQueryAnalyzerFromPool();
+			try {
+				for (int k = 0; k < keys.length; k++) {
+					if (keys[k] != null) {
+						tokenList[k] = analyzeBundleKey(searchIndexReader, analyzer, keys[k]);
+					}
+				}
+			} finally {
+				searchIndexReader.releaseQueryAnalyzerToPool(analyzer);
+			}
+		}
+		
+		//단어를 정렬하고 중복을 제거하여 포스팅 위치를 한번에 찾는다.
+		TreeMap<CharVector, Integer> termMap = new TreeMap<CharVector, Integer>();
+		for (CharVector token : tokenList) {
+			if (token != null) {
+				termMap.put(token, null);
+			}
+		}
+		int sortMaxSize = length;
+		SortGenerator sortGenerator = newSortGenerator(sorts);
+		Hit[] termHitList = null;
+		if (termMap.size() > 0) {
+			CharVector[] sortedTerms = termMap.keySet().toArray(new CharVector[0]);
+			NormalSearchMethod searchMethod = new NormalSearchMethod();
+			searchIndexReader.createSearchMethod(searchMethod);
+			long[] positions = searchMethod.findPostingPositions(sortedTerms);
+			//포스팅도 단어순서로 기록되어 있으므로 정렬된 순서로 읽는다. 
+			//reader 들이 같은 posting input 을 사용하므로 한 단어의 결과를 다 모은 다음에 다음 reader 를 만든다.
+			termHitList = new Hit[sortedTerms.length];
+			for (int i = 0; i < sortedTerms.length; i++) {
+				termMap.put(sortedTerms[i], i);
+				PostingReader postingReader = searchMethod.postingReader(sortedTerms[i], 0, -1, positions[i]);
+				OperatedClause operatedClause = new TermOperatedClause(indexId, sortedTerms[i].toString(), postingReader);
+				termHitList[i] = collectHit(operatedClause, newRanker(sorts, sortMaxSize), sortGenerator, docFilter);
 			}
-
-			// ranker에 정렬 로직이 담겨있다.
-			// ranker 안에는 필드타입과 정렬옵션을 확인하여 적합한 byte[] 비교를 수행한다.
-			ranker = sorts.createRanker(schema, sortMaxSize);
-			sortGenerator = sorts.getSortGenerator(schema, fieldIndexesReader, null);
 		}
-        
 		
+		for (int k = 0; k < keys.length; k++) {
+			if (keys[k] == null) {
+				continue;
+			}
+			CharVector token = tokenList[k];
+			if (token != null) {
+				hitList[k] = termHitList[termMap.get(token)];
+			} else {
+				hitList[k] = searchIndex(new Clause(new Term(indexId, keys[k])), sorts, 1, length, docFilter);
+			}
+		}
+		return hitList;
+	}
+	
+	/**
+	 * BooleanClause 와 같은 방법으로 묶음키를 분석한다. 유사어, 추가단어가 없는 단어 하나가 나올때만 리턴한다.
+	 * */
+	private CharVector analyzeBundleKey(SearchIndexReader searchIndexReader, Analyzer analyzer, String key) throws IOException {
+		AnalyzerOption analyzerOption = new AnalyzerOption();
+		analyzerOption.useStopword(Term.OPTION_DEFAULT.useStopword());
+		analyzerOption.useSynonym(Term.OPTION_DEFAULT.useSynonym());
+		analyzerOption.setForQuery();
+		
+		boolean isIgnoreCase = searchIndexReader.indexSetting().isIgnoreCase();
+		TokenStream tokenStream = analyzer.tokenStream(searchIndexReader.indexId(), new CharVector(key).getReader(), analyzerOption);
+		tokenStream.reset();
+		CharTermAttribute termAttribute = tokenStream.hasAttribute(CharTermAttribute.class) ? tokenStream.getAttribute(CharTermAttribute.class) : null;
+		CharsRefTermAttribute refTermAttribute = tokenStream.hasAttribute(CharsRefTermAttribute.class) ? tokenStream.getAttribute(CharsRefTermAttribute.class) : null;
+		StopwordAttribute stopwordAttribute = tokenStream.hasAttribute(StopwordAttribute.class) ? tokenStream.getAttribute(StopwordAttribute.class) : null;
+		SynonymAttribute synonymAttribute = tokenStream.hasAttribute(SynonymAttribute.class) ? tokenStream.getAttribute(SynonymAttribute.class) : null;
+		AdditionalTermAttribute additionalTermAttribute = tokenStream.hasAttribute(AdditionalTermAttribute.class) ? tokenStream.getAttribute(AdditionalTermAttribute.class) : null;
+		
+		CharVector token = null;
+		while (tokenStream.incrementToken()) {
+			if (token != null || (stopwordAttribute != null && stopwordAttribute.isStopword())) {
+				return null;
+			}
+			if (synonymAttribute != null && synonymAttribute.getSynonyms() != null && synonymAttribute.getSynonyms().size() > 0) {
+				return null;
+			}
+			if (additionalTermAttribute != null && additionalTermAttribute.size() > 0) {
+				return null;
+			}
+			CharsRef charRef = refTermAttribute != null ? refTermAttribute.charsRef() : null;
+			if (charRef != null) {
+				char[] buffer = new char[charRef.length()];
+				System.arraycopy(charRef.chars, charRef.offset, buffer, 0, charRef.length);
+				token = new CharVector(buffer, 0, buffer.length, isIgnoreCase);
+			} else if (termAttribute != null && termAttribute.buffer() != null) {
+				token = new CharVector(termAttribute.buffer(), 0, termAttribute.length(), isIgnoreCase);
+			} else {
+				return null;
+			}
+		}
+		return token;
+	}
+	
+	private FixedMaxPriorityQueue<HitElement> newRanker(Sorts sorts, int sortMaxSize) throws IOException {
+		if (sorts == null || sorts == Sorts.DEFAULT_SORTS) {
+			return new DefaultRanker(sortMaxSize);
+		}
+		// ranker에 정렬 로직이 담겨있다.
+		// ranker 안에는 필드타입과 정렬옵션을 확인하여 적합한 byte[] 비교를 수행한다.
+		return sorts.createRanker(schema, sortMaxSize);
+	}
+	
+	private SortGenerator newSortGenerator(Sorts sorts) throws IOException {
+		if (sorts == null || sorts == Sorts.DEFAULT_SORTS) {
+			return new SortGenerator();
+		}
+		return sorts.getSortGenerator(schema, segmentReader.newFieldIndexesReader(), null);
+	}
+	
+	private Hit collectHit(OperatedClause operatedClause, FixedMaxPriorityQueue<HitElement> ranker, SortGenerator sortGenerator, BitSet docFilter) throws IOException {
+		int totalCount = 0;
 		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
 		boolean exausted = false;
 		BitSet localDeleteSet = segmentReader.deleteSet();
@@ -48,6 +48,10 @@ public class SortGenerator {
 	private IndexRef<FieldIndexReader> indexRef;
 	private BytesRef[] dataList;
 	private int sortSize;//다중정렬갯수.
+	//숫자형 컬럼캐시에서 값을 바로 읽는 정렬필드. 그외 필드는 null.
+	private ColumnCache[] columnCaches;
+	//컬럼캐시에 없는 정렬필드가 있어 indexRef 로 읽어야 하는지 여부.
+	private boolean readFieldData;
 	
 	public SortGenerator() throws IOException{
 	}
@@ -92,10 +96,19 @@ public class SortGenerator {
             }
 
             indexRef = fieldIndexesReader.selectIndexRef(fieldIdList.toArray(new String[0]));
+            columnCaches = new ColumnCache[sortSize];
             for (int sequence = 0; sequence < sortSize; sequence++) {
                 //데이터와 연결되어 있는 필드만 추가해준다.
                 if (fieldIndex[sequence] >= 0) {
                     dataList[sequence] = indexRef.getDataRef(sequence).bytesRef();
+                    FieldIndexReader reader = indexRef.getReader(sequence);
+                    ColumnCache columnCache = reader != null ? reader.columnCache() : null;
+                    if (columnCache != null && columnCache.isTyped()) {
+                        //정렬데이터 버퍼에 값을 바로 기록한다.
+                        columnCaches[sequence] = columnCache;
+                    } else {
+                        readFieldData = true;
+                    }
                 }
                 //score, hit 필드등은 여기서는 null이며, 아래 getHitElement 에서 읽을때 객체를 생성한다.
             }
@@ -107,7 +120,9 @@ public class SortGenerator {
 		if(sortSize > 0) {
             for (int i = 0; i < n; i++) {
                 RankInfo ri = rankInfoList[i];
-                indexRef.read(ri.docNo());
+                if (readFieldData) {
+                    indexRef.read(ri.docNo());
+                }
 
                 BytesRef[] rankData = readRankData(ri);
                 result[i] = new HitElement(ri.docNo(), ri.score(), ri.hit(), rankData, rankInfoList[i].rowExplanations());
@@ -123,24 +138,29 @@ public class SortGenerator {
 		return result;
 	}
 	
+	/**
+	 * result 의 HitElement 를 재사용하여 채운다. 비어있는(null) 칸만 새로 생성한다.
+	 * 정렬데이터는 각 원소가 가진 버퍼에 복사되므로 다음 호출시 덮어쓰여진다.
+	 * 원소를 계속 보관해야 하는 경우 호출자가 해당 칸을 null 로 비워서 다음 호출에서 새로 만들어지도록 한다.
+	 * */
 	public void getHitElement(RankInfo[] rankInfoList, HitElement[] result, int n) throws IOException{
-
-        if(sortSize > 0) {
-            for (int i = 0; i < n; i++) {
-                RankInfo ri = rankInfoList[i];
-                indexRef.read(ri.docNo());
-
-                BytesRef[] rankData = readRankData(ri);
-                result[i] = new HitElement(ri.docNo(), ri.score(), ri.hit(), rankData, rankInfoList[i].rowExplanations());
-                result[i].setDistance(ri.distance());
-            }
-        } else {
-            for (int i = 0; i < n; i++) {
-                RankInfo ri = rankInfoList[i];
-                result[i] = new HitElement(ri.docNo(), ri.score(), ri.hit(), null, rankInfoList[i].rowExplanations());
-                result[i].setDistance(ri.distance());
-            }
-        }
+		for (int i = 0; i < n; i++) {
+			RankInfo ri = rankInfoList[i];
+			HitElement e = result[i];
+			if (e == null) {
+				e = new HitElement(ri.docNo(), ri.score(), ri.hit(), sortSize > 0 ? new BytesRef[sortSize] : null, ri.rowExplanations());
+				result[i] = e;
+			} else {
+				e.init(ri.docNo(), ri.score(), ri.hit(), ri.rowExplanations());
+			}
+			e.setDistance(ri.distance());
+			if (sortSize > 0) {
+				if (readFieldData) {
+					indexRef.read(ri.docNo());
+				}
+				readRankData(ri, e.rankData());
+			}
+		}
 	}
 	
 	protected BytesRef[] readRankData(RankInfo ri) {
@@ -159,6 +179,8 @@ public class SortGenerator {
                 rankData[j] = new BytesRef(DistanceField.fieldSize);
                 IOUtil.writeInt(rankData[j], Float.floatToIntBits(ri.distance()));
                 rankData[j].flip();
+			}else if(columnCaches[j] != null){
+				rankData[j] = writeColumn(null, columnCaches[j], ri.docNo());
 			}else{
 //				BytesRef bytesRef = indexRef.getDataRef(j).bytesRef();
 //				rankData[j] = bytesRef.duplicate();
@@ -169,6 +191,57 @@ public class SortGenerator {
 		
 		return rankData;
 	}
+	
+	/**
+	 * rankData 의 기존 BytesRef 버퍼에 정렬데이터를 복사한다. 버퍼가 없을때만 생성한다.
+	 * */
+	protected void readRankData(RankInfo ri, BytesRef[] rankData) {
+		for (int j = 0; j < sortSize; j++) {
+			if(fieldIndex[j] == ScoreField.fieldNumber){
+				rankData[j] = writeInt(rankData[j], ScoreField.fieldSize, Float.floatToIntBits(ri.score()));
+			}else if(fieldIndex[j] == HitField.fieldNumber){
+				rankData[j] = writeInt(rankData[j], HitField.fieldSize, ri.hit());
+			}else if(fieldIndex[j] == DistanceField.fieldNumber){
+				rankData[j] = writeInt(rankData[j], DistanceField.fieldSize, Float.floatToIntBits(ri.distance()));
+			}else if(columnCaches[j] != null){
+				rankData[j] = writeColumn(rankData[j], columnCaches[j], ri.docNo());
+			}else{
+				BytesRef data = rankData[j];
+				if(data == null){
+					data = new BytesRef(dataList[j].length);
+					rankData[j] = data;
+				}
+				data.offset = 0;
+				data.copyBytes(dataList[j]);
+			}
+		}
+	}
+	
+	/**
+	 * 컬럼캐시의 값을 색인데이터와 같은 big-endian 으로 기록한다.
+	 * */
+	private BytesRef writeColumn(BytesRef data, ColumnCache columnCache, int docNo) {
+		if(columnCache.dataSize() == 4){
+			return writeInt(data, 4, columnCache.getInt(docNo));
+		}
+		if(data == null || data.bytes.length < 8){
+			data = new BytesRef(8);
+		}
+		data.offset = 0;
+		IOUtil.writeLong(data, columnCache.getLong(docNo));
+		data.flip();
+		return data;
+	}
+	
+	private BytesRef writeInt(BytesRef data, int size, int value) {
+		if(data == null || data.bytes.length < size){
+			data = new BytesRef(size);
+		}
+		data.offset = 0;
+		IOUtil.writeInt(data, value);
+		data.flip();
+		return data;
+	}
 }
 
 
@@ -0,0 +1,163 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInput;
+
+/**
+ * 포스팅을 버퍼에 쌓지 않고 IndexInput에서 한 문서씩 바로 디코딩한다.
+ * next(PostingDoc)로 읽으면 PostingDoc과 위치배열을 재사용하므로 포스팅 길이와 상관없이 메모리 사용량이 일정하다.
+ *
+ * skip 블럭 포맷이면 advance시 skip 리스트로 target 이 포함된 블럭으로 바로 이동하고,
+ * skip 리스트가 없는 예전 포맷은 순차적으로 읽어서 찾는다.
+ * */
+public class StreamPostingReader extends AbstractPostingReader {
+
+	// 이 크기 이하의 tf는 위치배열을 tf별로 재사용한다.
+	private static final int POSITION_CACHE_SIZE = 64;
+
+	private IndexInput postingInput;
+	private boolean isStorePosition;
+
+	private int postingCount;
+	private int postingRemain;
+	private int prevId;
+
+	private PostingSkipList skipList;
+	private long dataPosition;
+
+	private int[][] positionCache;
+
+	public StreamPostingReader(CharVector term, int termPosition, int weight, int documentCount, IndexFieldOption indexFieldOption, IndexInput postingInput, long inputOffset) {
+		super(term, termPosition, weight, documentCount);
+		this.postingInput = postingInput;
+		this.isStorePosition = indexFieldOption.isStorePosition();
+
+		try {
+			postingInput.seek(inputOffset);
+			int len = postingInput.readVInt();
+			this.postingCount = postingInput.readInt();
+			int lastDocNo = postingInput.readInt();
+			if (indexFieldOption.isSkipBlock()) {
+				skipList = PostingSkipList.read(postingInput);
+			}
+			dataPosition = postingInput.position();
+		} catch (IOException e) {
+			logger.error("error while read posting header", e);
+		}
+		postingRemain = postingCount;
+		prevId = -1;
+	}
+
+	@Override
+	public int size() {
+		return postingCount;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return postingRemain > 0;
+	}
+
+	/**
+	 * 호출할때마다 새 PostingDoc을 만든다. 리턴한 객체를 보관해야 하는 경우에 사용한다.
+	 * */
+	@Override
+	public PostingDoc next() {
+		PostingDoc postingDoc = new PostingDoc(-1, 0);
+		if (read(postingDoc, false)) {
+			return postingDoc;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean next(PostingDoc postingDoc) {
+		return read(postingDoc, true);
+	}
+
+	@Override
+	public boolean advance(int target, PostingDoc postingDoc) {
+		if (skipList != null && skipList.size() > 0 && postingRemain > 0) {
+			int blockSize = skipList.blockSize();
+			int currentBlock = (postingCount - postingRemain) / blockSize;
+			int block = skipList.findBlock(currentBlock, target);
+			if (block > currentBlock) {
+				try {
+					postingInput.seek(dataPosition + skipList.nextBlockOffset(block - 1));
+				} catch (IOException e) {
+					logger.error("error while skip posting block", e);
+					postingRemain = 0;
+					return false;
+				}
+				prevId = skipList.lastDocNo(block - 1);
+				postingRemain = postingCount - block * blockSize;
+			}
+		}
+
+		while (read(postingDoc, true)) {
+			if (postingDoc.docNo() >= target) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean read(PostingDoc postingDoc, boolean reusePositions) {
+		if (postingRemain <= 0) {
+			return false;
+		}
+		try {
+			// 첫 문서는 prevId가 -1 이므로 절대값이 된다.
+			int docId = postingInput.readVInt() + prevId + 1;
+			int tf = postingInput.readVInt();
+			int[] positions = null;
+			if (tf > 0 && isStorePosition) {
+				positions = reusePositions ? positionBuffer(tf) : new int[tf];
+				int prevPosition = -1;
+				for (int j = 0; j < tf; j++) {
+					positions[j] = postingInput.readVInt() + prevPosition + 1;
+					prevPosition = positions[j];
+				}
+			}
+			postingDoc.init(docId, tf, positions);
+			postingRemain--;
+			prevId = docId;
+			return true;
+		} catch (IOException e) {
+			logger.error("error while read posting", e);
+			postingRemain = 0;
+			return false;
+		}
+	}
+
+	private int[] positionBuffer(int tf) {
+		if (tf > POSITION_CACHE_SIZE) {
+			return new int[tf];
+		}
+		if (positionCache == null) {
+			positionCache = new int[POSITION_CACHE_SIZE + 1][];
+		}
+		int[] positions = positionCache[tf];
+		if (positions == null) {
+			positions = new int[tf];
+			positionCache[tf] = positions;
+		}
+		return positions;
+	}
+
+	@Override
+	public void close() {
+		if (postingInput != null) {
+			try {
+				postingInput.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			positionCache = null;
+		}
+	}
+}
@@ -49,53 +49,69 @@ public class AndOperatedClause extends OperatedClause {
     }
 
 	protected boolean nextDoc(RankInfo rankInfo) {
-        while(true) {
-            if(needsPositions) {
-                docInfo1.clearOccurrence();
-                docInfo2.clearOccurrence();
-            }
-            hasNext1 = clause1.next(docInfo1);
-            hasNext2 = clause2.next(docInfo2);
-
-            if (hasNext1 && hasNext2) {
-                int doc1 = docInfo1.docNo();
-                int doc2 = docInfo2.docNo();
-                while (hasNext1 && hasNext2 && (doc1 != doc2)) {
-                    while (hasNext1 && (doc1 < doc2)) {
-                        if(needsPositions) {
-                            docInfo1.clearOccurrence();
-                        }
-                        hasNext1 = clause1.next(docInfo1);
-                        doc1 = docInfo1.docNo();
-                    }
-                    while (hasNext2 && (doc1 > doc2)) {
-                        if(needsPositions) {
-                            docInfo2.clearOccurrence();
-                        }
-                        hasNext2 = clause2.next(docInfo2);
-                        doc2 = docInfo2.docNo();
-                    }
-                }
+        if(needsPositions) {
+            docInfo1.clearOccurrence();
+        }
+        hasNext1 = clause1.next(docInfo1);
+        return leapfrog(rankInfo);
+    }
 
-                if (hasNext1 && hasNext2 && (doc1 == doc2)) {
-
-                    rankInfo.explain(docInfo1);
-                    rankInfo.explain(docInfo2);
-                    if (needsPositions) {
-                        rankInfo.addTermOccurrencesList(docInfo1.getTermOccurrencesList());
-                        rankInfo.addTermOccurrencesList(docInfo2.getTermOccurrencesList());
-                    }
-                    //positions는 doc2(나중 텀)의 것 을 넣어준다.
-                    rankInfo.init(doc1, docInfo1.score() + docInfo2.score(), docInfo1.hit() + docInfo2.hit());
-                    return true;
+    @Override
+    protected boolean advanceDoc(int target, RankInfo rankInfo) {
+        if(needsPositions) {
+            docInfo1.clearOccurrence();
+        }
+        hasNext1 = clause1.advance(target, docInfo1);
+        return leapfrog(rankInfo);
+    }
+
+    /*
+     * 절1이 위치한 문서부터 시작해서 서로 상대방의 문서번호로 advance하며 공통문서를 찾는다.
+     * 희소한 절과 흔한 절의 AND는 흔한 절의 포스팅을 skip 블럭단위로 건너뛰게 된다.
+     * */
+    private boolean leapfrog(RankInfo rankInfo) {
+        if (!hasNext1) {
+            //절1과 절2중 하나라도 끝나면 AND 집합도 더이상 없는것이다.
+            return false;
+        }
+        if(needsPositions) {
+            docInfo2.clearOccurrence();
+        }
+        hasNext2 = clause2.advance(docInfo1.docNo(), docInfo2);
+
+        while (hasNext2) {
+            int doc1 = docInfo1.docNo();
+            int doc2 = docInfo2.docNo();
+            if (doc1 == doc2) {
+                rankInfo.explain(docInfo1);
+                rankInfo.explain(docInfo2);
+                if (needsPositions) {
+                    rankInfo.addTermOccurrencesList(docInfo1.getTermOccurrencesList());
+                    rankInfo.addTermOccurrencesList(docInfo2.getTermOccurrencesList());
                 }
+                //positions는 doc2(나중 텀)의 것 을 넣어준다.
+                rankInfo.init(doc1, docInfo1.score() + docInfo2.score(), docInfo1.hit() + docInfo2.hit());
+                return true;
+            }
 
+            //절2가 앞서 있으므로 절1을 doc2까지 이동한다.
+            if(needsPositions) {
+                docInfo1.clearOccurrence();
+            }
+            hasNext1 = clause1.advance(doc2, docInfo1);
+            if (!hasNext1) {
                 return false;
-            } else {
-                //절1과 절2중 하나라도 끝나면 AND 집합도 더이상 없는것이다.
-                return false;
             }
+            if (docInfo1.docNo() == doc2) {
+                continue;
+            }
+
+            if(needsPositions) {
+                docInfo2.clearOccurrence();
+            }
+            hasNext2 = clause2.advance(docInfo1.docNo(), docInfo2);
         }
+        return false;
     }
 
 
@@ -366,6 +366,14 @@ public class BooleanClause extends OperatedClause {
 		}
 		return operatedClause.next(rankInfo);
 	}
+	
+	@Override
+	protected boolean advanceDoc(int target, RankInfo rankInfo) {
+		if (operatedClause == null) {
+			return false;
+		}
+		return operatedClause.advance(target, rankInfo);
+	}
 
 	@Override
 	public void close() {
@@ -56,8 +56,9 @@ public class NotOperatedClause extends OperatedClause {
 				score1 = docInfo1.score();
 			}
 			
-			while(hasNext2 && (doc1 > doc2)){
-				hasNext2 = clause2.next(docInfo2);
+			//제외할 절2를 doc1 위치까지 건너뛴다.
+			if(hasNext2 && (doc1 > doc2)){
+				hasNext2 = clause2.advance(doc1, docInfo2);
 				doc2 = docInfo2.docNo();
 			}
 			
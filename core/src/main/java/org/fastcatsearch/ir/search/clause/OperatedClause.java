@@ -102,6 +102,48 @@ public abstract class OperatedClause {
 	
 	protected abstract boolean nextDoc(RankInfo docInfo);
 	
+	/**
+	 * 현재 위치 이후에서 문서번호가 target 이상인 첫 문서로 이동한다.
+	 * 항상 한 문서 이상 전진하므로, target 은 현재 문서번호보다 커야 한다.
+	 * @param target
+	 * @param rankInfo
+	 * @return RankInfo를 올바로 읽었는지 여부.
+	 */
+	public boolean advance(int target, RankInfo rankInfo) {
+		if(explanation != null){
+			rankInfo.reset();
+			long start = System.nanoTime();
+			if(advanceDoc(target, rankInfo)){
+				explanation.addTime(System.nanoTime() - start);
+				explanation.addRow();
+				return true;
+			}else{
+				explanation.addTime(System.nanoTime() - start);
+				return false;
+			}
+		}else{
+			return advanceDoc(target, rankInfo);
+		}
+	}
+	
+	/**
+	 * 기본구현은 target 에 도달할때까지 nextDoc 을 반복한다.
+	 * 포스팅을 건너뛸수 있는 절은 이 메소드를 재정의한다.
+	 */
+	protected boolean advanceDoc(int target, RankInfo rankInfo) {
+		while(nextDoc(rankInfo)) {
+			if(rankInfo.docNo() >= target) {
+				return true;
+			}
+			//건너뛴 문서의 출현정보와 explain 정보는 버린다.
+			rankInfo.clearOccurrence();
+			if(explanation != null) {
+				rankInfo.reset();
+			}
+		}
+		return false;
+	}
+	
 	public abstract void close();
 	
 	public String id(){
@@ -167,22 +167,40 @@ public class PhraseClause extends OperatedClause {
 
         localRankInfo.clearOccurrence();
         if(operatedClause.next(localRankInfo)) {
-            //TODO 여기서 단어출현 위치에 따른 점수계산 로직수행.
+            scorePhrase(rankInfo);
+            return true;
+        } else {
+            return false;
+        }
 
+//        return operatedClause.next(rankInfo);
+    }
 
-            int adjDistance = 5;
-            List<TermOccurrences> termOccurrencesList = localRankInfo.getTermOccurrencesList();
+    @Override
+    protected boolean advanceDoc(int target, RankInfo rankInfo) {
+        if (operatedClause == null) {
+            return false;
+        }
 
-            int score = TermOccurrenceScorer.calculateScore(termOccurrencesList, tokenSize, adjDistance, weight);
-            logger.debug("=[{}] {} >> Occur[{}]========", count++, termString, termOccurrencesList.size());
-            localRankInfo.score(localRankInfo.score() + score);
-            rankInfo.init(localRankInfo);
+        localRankInfo.clearOccurrence();
+        if(operatedClause.advance(target, localRankInfo)) {
+            scorePhrase(rankInfo);
             return true;
         } else {
             return false;
         }
+    }
 
-//        return operatedClause.next(rankInfo);
+    private void scorePhrase(RankInfo rankInfo) {
+        //TODO 여기서 단어출현 위치에 따른 점수계산 로직수행.
+
+        int adjDistance = 5;
+        List<TermOccurrences> termOccurrencesList = localRankInfo.getTermOccurrencesList();
+
+        int score = TermOccurrenceScorer.calculateScore(termOccurrencesList, tokenSize, adjDistance, weight);
+        logger.debug("=[{}] {} >> Occur[{}]========", count++, termString, termOccurrencesList.size());
+        localRankInfo.score(localRankInfo.score() + score);
+        rankInfo.init(localRankInfo);
     }
 
     @Override
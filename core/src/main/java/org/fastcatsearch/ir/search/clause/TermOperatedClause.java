@@ -34,6 +34,8 @@ public class TermOperatedClause extends OperatedClause {
     private String synonymOf;
 
     private TermOccurrences termOccurrence;
+    // 포스팅을 읽을때 재사용한다.
+    private PostingDoc postingDoc = new PostingDoc(-1, 0);
 
 	public TermOperatedClause(String indexId, String termString, PostingReader postingReader) throws IOException {
 		this(indexId, termString, postingReader, 0, null);
@@ -64,33 +66,51 @@ public class TermOperatedClause extends OperatedClause {
 			rankInfo.setEmpty();
 			return false;
 		}
-		if (postingReader.hasNext()) {
-			PostingDoc postingDoc = postingReader.next();
-			int score = 0;
-			
-			if(postingReader.weight() > 0) {
-				score = postingReader.weight();
-			} else if(postingReader.weight() == -1) {
-				float tf = 2.2f * postingDoc.tf() / (2.0f + postingDoc.tf());
-				float idf = (float) Math.log(documentCount / segmentDF);
-				score = (int) (tf * idf * SCORE_BASE);
-			}
-//            logger.debug("TermOP >> {} doc[{}] score[{}] hit[{}] pos[{}]", termString, postingDoc.docNo(), score, termString.length(), postingDoc.positions());
-//			rankInfo.init(postingDoc.docNo(), score, postingDoc.tf(), postingDoc.positions());
-            rankInfo.init(postingDoc.docNo(), score, termString.length() * 3);
-			rankInfo.addMatchSequence(termSequence);
-            if(postingDoc.positions() != null) {
-                rankInfo.addTermOccurrences(termOccurrence.withPosition(postingDoc.positions()));
-            }
-			if(isExplain()){
-				rankInfo.explain(id, score, postingReader.term().toString());
-			}
+		if (postingReader.next(postingDoc)) {
+			readPostingDoc(postingDoc, rankInfo);
+			return true;
+		} else {
+			rankInfo.setEmpty();
+			return false;
+		}
+	}
+	
+	@Override
+	protected boolean advanceDoc(int target, RankInfo rankInfo) {
+		if (postingReader == null) {
+			rankInfo.setEmpty();
+			return false;
+		}
+		if (postingReader.advance(target, postingDoc)) {
+			readPostingDoc(postingDoc, rankInfo);
 			return true;
 		} else {
 			rankInfo.setEmpty();
 			return false;
 		}
 	}
+	
+	private void readPostingDoc(PostingDoc postingDoc, RankInfo rankInfo) {
+		int score = 0;
+		
+		if(postingReader.weight() > 0) {
+			score = postingReader.weight();
+		} else if(postingReader.weight() == -1) {
+			float tf = 2.2f * postingDoc.tf() / (2.0f + postingDoc.tf());
+			float idf = (float) Math.log(documentCount / segmentDF);
+			score = (int) (tf * idf * SCORE_BASE);
+		}
+//            logger.debug("TermOP >> {} doc[{}] score[{}] hit[{}] pos[{}]", termString, postingDoc.docNo(), score, termString.length(), postingDoc.positions());
+//			rankInfo.init(postingDoc.docNo(), score, postingDoc.tf(), postingDoc.positions());
+		rankInfo.init(postingDoc.docNo(), score, termString.length() * 3);
+		rankInfo.addMatchSequence(termSequence);
+		if(postingDoc.positions() != null) {
+			rankInfo.addTermOccurrences(termOccurrence.withPosition(postingDoc.positions()));
+		}
+		if(isExplain()){
+			rankInfo.explain(id, score, postingReader.term().toString());
+		}
+	}
 
 	@Override
 	public String toString() {
@@ -3,6 +3,7 @@ package org.fastcatsearch.ir.search.method;
 import org.fastcatsearch.ir.index.IndexFieldOption;
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.search.LexiconTrie;
 import org.fastcatsearch.ir.search.MemoryLexicon;
 import org.fastcatsearch.ir.search.PostingReader;
 import org.slf4j.Logger;
@@ -17,6 +18,8 @@ public abstract class AbstractSearchMethod implements SearchMethod {
 	protected IndexInput postingInput;
 	
 	protected MemoryLexicon memoryLexicon;
+	
+	protected LexiconTrie lexiconTrie;
 
 	protected IndexFieldOption indexFieldOption;
 	
@@ -28,7 +31,12 @@ public abstract class AbstractSearchMethod implements SearchMethod {
 	}
 
 	public void init(MemoryLexicon memoryLexicon, IndexInput lexiconInput, IndexInput postingInput, IndexFieldOption indexFieldOption, int segmentDocumentCount) {
+		init(memoryLexicon, null, lexiconInput, postingInput, indexFieldOption, segmentDocumentCount);
+	}
+	
+	public void init(MemoryLexicon memoryLexicon, LexiconTrie lexiconTrie, IndexInput lexiconInput, IndexInput postingInput, IndexFieldOption indexFieldOption, int segmentDocumentCount) {
 		this.memoryLexicon = memoryLexicon;
+		this.lexiconTrie = lexiconTrie;
 		this.lexiconInput = lexiconInput;
 		this.postingInput = postingInput;
 		this.indexFieldOption = indexFieldOption;
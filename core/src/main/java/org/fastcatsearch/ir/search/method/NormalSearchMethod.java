@@ -1,11 +1,12 @@
 package org.fastcatsearch.ir.search.method;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IOUtil;
-import org.fastcatsearch.ir.search.BufferedPostingReader;
 import org.fastcatsearch.ir.search.PostingReader;
+import org.fastcatsearch.ir.search.StreamPostingReader;
 
 public class NormalSearchMethod extends AbstractSearchMethod {
 
@@ -20,6 +21,14 @@ public class NormalSearchMethod extends AbstractSearchMethod {
 			return null;
 		}
 
+		if (lexiconTrie != null) {
+			int ordinal = lexiconTrie.find(term);
+			if (ordinal < 0) {
+				return null;
+			}
+			return new StreamPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, lexiconTrie.postingPosition(ordinal));
+		}
+		
 		long[] posInfo = new long[2];
 		boolean found = memoryLexicon.binsearch(term, posInfo);
 
@@ -58,10 +67,77 @@ public class NormalSearchMethod extends AbstractSearchMethod {
 			return null;
 		}
 		if (inputOffset >= 0) {
-			return new BufferedPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, inputOffset);
+			return new StreamPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, inputOffset);
 		}
 
 		return null;
 	}
 
+
+	/**
+	 * 정렬된 여러 단어의 포스팅 위치를 lexicon 을 한번만 순방향으로 읽어서 찾는다.
+	 * 이전 단어를 찾으면서 읽은 위치 이후부터 다음 단어를 찾으므로 파일을 다시 거슬러 읽지 않는다.
+	 * @param sortedTerms 오름차순으로 정렬되고 중복이 없는 단어들.
+	 * @return 단어별 포스팅 위치. 없으면 -1.
+	 * */
+	public long[] findPostingPositions(CharVector[] sortedTerms) {
+		long[] positions = new long[sortedTerms.length];
+		Arrays.fill(positions, -1L);
+		if (memoryLexicon.size() == 0) {
+			return positions;
+		}
+		long[] posInfo = new long[2];
+		//다음에 확인할 lexicon 엔트리의 시작위치. 그 이전 엔트리는 모두 이전 단어보다 작거나 같다.
+		long scanPosition = 0;
+		try {
+			for (int i = 0; i < sortedTerms.length; i++) {
+				CharVector term = sortedTerms[i];
+				if (term.length() == 0) {
+					continue;
+				}
+				if (lexiconTrie != null) {
+					int ordinal = lexiconTrie.find(term);
+					if (ordinal >= 0) {
+						positions[i] = lexiconTrie.postingPosition(ordinal);
+					}
+					continue;
+				}
+				if (memoryLexicon.binsearch(term, posInfo)) {
+					positions[i] = posInfo[1];
+					continue;
+				}
+				lexiconInput.seek(Math.max(posInfo[0], scanPosition));
+				while (lexiconInput.position() < lexiconFileLimit) {
+					long entryPosition = lexiconInput.position();
+					char[] term2 = lexiconInput.readUString();
+					int cmp = compareKey(term2, term);
+					if (cmp == 0) {
+						positions[i] = lexiconInput.readLong();
+						scanPosition = lexiconInput.position();
+						break;
+					} else if (cmp > 0) {
+						scanPosition = entryPosition;
+						break;
+					} else {
+						lexiconInput.seek(lexiconInput.position() + IOUtil.SIZE_OF_LONG);
+						scanPosition = lexiconInput.position();
+					}
+				}
+			}
+		} catch (IOException e) {
+			logger.error("error while search index", e);
+		}
+		return positions;
+	}
+
+	/**
+	 * findPostingPositions 로 찾은 위치의 포스팅을 읽는다.
+	 * */
+	public PostingReader postingReader(CharVector term, int termPosition, int weight, long position) {
+		if (position < 0) {
+			return null;
+		}
+		return new StreamPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, position);
+	}
+
 }
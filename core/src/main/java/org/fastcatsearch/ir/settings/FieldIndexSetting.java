@@ -22,7 +22,7 @@ import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 @XmlRootElement(name = "field-index")
-@XmlType(propOrder = { "ignoreCase", "size", "ref", "name", "id" })
+@XmlType(propOrder = { "columnCache", "ignoreCase", "size", "ref", "name", "id" })
 public class FieldIndexSetting implements ReferencableFieldSetting {
 	
 	private String id;
@@ -30,6 +30,7 @@ public class FieldIndexSetting implements ReferencableFieldSetting {
 	private String ref;
 	private int size;
 	private boolean ignoreCase;
+	private String columnCache; //heap, offheap. 없으면 컬럼캐시를 사용하지 않는다.
 	
 	public FieldIndexSetting() {}
 	
@@ -98,5 +99,14 @@ public class FieldIndexSetting implements ReferencableFieldSetting {
 		return "[FieldIndex="+id+":"+name+":"+ref+":"+size+":"+ignoreCase+"]";
 	}
 
-	
+	@XmlAttribute
+	@XmlJavaTypeAdapter(OptionalStringAdapter.class)
+	public String getColumnCache() {
+		return columnCache;
+	}
+
+	public void setColumnCache(String columnCache) {
+		this.columnCache = columnCache;
+	}
+
 }
@@ -20,13 +20,14 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
-@XmlType(propOrder = { "ignoreCase", "ref", "name", "id"})
+@XmlType(propOrder = { "columnCache", "ignoreCase", "ref", "name", "id"})
 public class GroupIndexSetting implements ReferencableFieldSetting {
 	
 	private String id;
 	private String name;
 	private String ref;
 	private boolean ignoreCase;
+	private String columnCache; //heap, offheap. 없으면 컬럼캐시를 사용하지 않는다.
 	
 	public GroupIndexSetting() {}
 	
@@ -77,6 +78,14 @@ public class GroupIndexSetting implements ReferencableFieldSetting {
 		this.ignoreCase = ignoreCase;
 	}
 
-	
+	@XmlAttribute
+	@XmlJavaTypeAdapter(OptionalStringAdapter.class)
+	public String getColumnCache() {
+		return columnCache;
+	}
+
+	public void setColumnCache(String columnCache) {
+		this.columnCache = columnCache;
+	}
 
 }
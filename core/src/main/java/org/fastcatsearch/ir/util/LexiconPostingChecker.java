@@ -18,6 +18,7 @@ package org.fastcatsearch.ir.util;
 
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 
 import java.io.File;
@@ -99,6 +100,9 @@ public class LexiconPostingChecker {
 				len = clone.readVInt();
 				postingCount = clone.readInt();
 				lastDocNo = clone.readInt();
+				if (indexFieldOption.isSkipBlock()) {
+					PostingSkipList.skip(clone);
+				}
 				
 				int postingRemain = postingCount;
 				
@@ -0,0 +1,240 @@
+package org.fastcatsearch.ir.document;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.field.AStringField;
+import org.fastcatsearch.ir.field.DatetimeField;
+import org.fastcatsearch.ir.field.IntField;
+import org.fastcatsearch.ir.field.LongField;
+import org.fastcatsearch.ir.field.UStringField;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.junit.Test;
+
+public class DocumentBlockFormatTest {
+
+	private Document createDocument(int i) throws Exception {
+		return createDocument(i, true);
+	}
+
+	private Document createDocument(int i, boolean hasTitle) throws Exception {
+		Document document = new Document(6);
+		document.add(new LongField("id", Integer.toString(i)).parseIndexable());
+		//값이 없는 필드.
+		document.add(hasTitle ? new UStringField("title", "블럭 압축 문서 제목 " + i).parseIndexable() : new UStringField("title"));
+		document.add(new IntField("price", Integer.toString(i * 10)).parseIndexable());
+		document.add(new AStringField("category", "category" + (i % 7)).parseIndexable());
+		document.add(new AStringField("tags", "tag" + i + ",common").parseIndexable());
+		document.add(new DatetimeField("regdate", "2013-06-13 12:15:00").parseIndexable());
+		return document;
+	}
+
+	private void writeAndRead(String compressionType, int blockSize, int count) throws Exception {
+		File dir = new File("temp/block-" + compressionType + "-" + blockSize);
+		FileUtils.deleteQuietly(dir);
+		dir.mkdirs();
+		try {
+			SchemaSetting schemaSetting = new DocumentWriteReadTest().createSchemaSetting();
+			IndexConfig indexConfig = new DocumentWriteReadTest().createIndexConfig();
+			indexConfig.setDocumentBlockSize(blockSize);
+			indexConfig.setCompressionType(compressionType);
+
+			DocumentWriter writer = new DocumentWriter(schemaSetting, dir, new RevisionInfo(), indexConfig);
+			for (int i = 0; i < count; i++) {
+				assertEquals(i, writer.write(createDocument(i)));
+			}
+			writer.close();
+
+			//이어쓰기는 기존 파일의 포맷을 따른다.
+			writer = new DocumentWriter(schemaSetting, dir, new RevisionInfo(1, "append", count, 0, 0, 0, null), indexConfig);
+			for (int i = count; i < count + 10; i++) {
+				assertEquals(i, writer.write(createDocument(i)));
+			}
+			writer.close();
+
+			DocumentReader reader = new DocumentReader(schemaSetting, dir);
+			assertEquals(count + 10, reader.getDocumentCount());
+			DocumentReader clone = reader.clone();
+			//역순으로 읽어도 같은 문서가 나와야 한다.
+			for (int i = count + 9; i >= 0; i--) {
+				Document document = (i % 2 == 0 ? reader : clone).readDocument(i);
+				assertEquals(Integer.toString(i), document.get(0).rawString());
+				assertEquals("블럭 압축 문서 제목 " + i, document.get(1).rawString());
+				assertEquals("category" + (i % 7), document.get(3).rawString());
+				assertEquals("tag" + i + ",common", document.get(4).rawString());
+			}
+			reader.close();
+		} finally {
+			FileUtils.deleteQuietly(dir);
+		}
+	}
+
+	@Test
+	public void testBlockFormat() throws Exception {
+		writeAndRead("fast", 16, 100);
+		writeAndRead("best", 5, 33);
+		writeAndRead("lz4", 64, 200);
+	}
+
+	@Test
+	public void testLegacyFormat() throws Exception {
+		writeAndRead("fast", 0, 20);
+	}
+
+	@Test
+	public void testLazyDocument() throws Exception {
+		File dir = new File("temp/lazy");
+		FileUtils.deleteQuietly(dir);
+		dir.mkdirs();
+		try {
+			SchemaSetting schemaSetting = new DocumentWriteReadTest().createSchemaSetting();
+			IndexConfig indexConfig = new DocumentWriteReadTest().createIndexConfig();
+			DocumentWriter writer = new DocumentWriter(schemaSetting, dir, new RevisionInfo(), indexConfig);
+			for (int i = 0; i < 10; i++) {
+				writer.write(createDocument(i, i != 3));
+			}
+			writer.close();
+
+			DocumentReader reader = new DocumentReader(schemaSetting, dir, 100);
+			LazyDocument lazyDocument = reader.readLazyDocument(3, null);
+			assertEquals(103, lazyDocument.getDocId());
+			assertEquals(6, lazyDocument.size());
+			assertFalse(lazyDocument.hasValue(1));
+			assertNull(lazyDocument.get(1).rawString());
+			assertEquals("category3", lazyDocument.get(3).rawString());
+			//다른 문서를 읽어도 먼저 읽은 문서는 그대로 사용할 수 있다.
+			reader.readLazyDocument(9, null);
+			assertEquals("3", lazyDocument.get(0).rawString());
+			assertTrue(lazyDocument.get(3) == lazyDocument.get(3));
+			assertNull(reader.readLazyDocument(10, null));
+
+			//선택하지 않은 필드는 null, 값이 없는 필드는 빈 필드이다.
+			boolean[] fieldSelectOption = new boolean[] { true, false, false, true, false, false };
+			Document document = reader.readDocument(5, fieldSelectOption);
+			assertEquals("5", document.get(0).rawString());
+			assertNull(document.get(2));
+			assertEquals("category5", document.get(3).rawString());
+			assertNotNull(reader.readDocument(3, fieldSelectOption).get(1));
+			reader.close();
+		} finally {
+			FileUtils.deleteQuietly(dir);
+		}
+	}
+
+	private void assertRoundTrip(DocumentCodec codec, byte[] data) throws IOException {
+		BytesDataOutput output = new BytesDataOutput();
+		codec.compress(data, 0, data.length, output);
+		byte[] actual = new byte[data.length];
+		codec.decompress(output.array(), 0, (int) output.position(), actual, actual.length);
+		assertArrayEquals(data, actual);
+	}
+
+	@Test
+	public void testCodec() throws IOException, IRException {
+		Random r = new Random(1);
+		byte[] random = new byte[20000];
+		r.nextBytes(random);
+		byte[] repeat = new byte[50000];
+		for (int i = 0; i < repeat.length; i++) {
+			repeat[i] = (byte) ("fastcatsearch".charAt(i % 13) + (i / 1000 % 3));
+		}
+		byte[] same = new byte[1000];
+
+		for (int id = DocumentCodec.DEFLATE_FAST; id <= DocumentCodec.LZ4; id++) {
+			DocumentCodec codec = DocumentCodec.create(id);
+			assertEquals(id, codec.id());
+			assertRoundTrip(codec, new byte[0]);
+			assertRoundTrip(codec, "abc".getBytes());
+			assertRoundTrip(codec, random);
+			assertRoundTrip(codec, repeat);
+			assertRoundTrip(codec, same);
+			codec.close();
+		}
+
+		//lz4 는 반복데이터를 충분히 줄여야 한다.
+		BytesDataOutput output = new BytesDataOutput();
+		new LZ4DocumentCodec().compress(repeat, 0, repeat.length, output);
+		assertTrue(output.position() < repeat.length / 10);
+	}
+
+	@Test
+	public void testBlockCache() {
+		DocumentBlockCache cache = new DocumentBlockCache(1000, 1);
+		DocumentBlockCache.DocumentBlock block = new DocumentBlockCache.DocumentBlock(0, new int[] { 0, 100, 200 }, new byte[200]);
+		cache.put(1, 0L, block);
+		cache.put(1, 500L, block);
+		cache.put(2, 0L, block);
+		//용량을 넘으면 오래된 것부터 지운다.
+		assertEquals(3, cache.size());
+		cache.put(2, 500L, block);
+		assertEquals(3, cache.size());
+		assertEquals(null, cache.get(1, 0L));
+		assertEquals(block, cache.get(2, 500L));
+		cache.remove(2);
+		assertEquals(1, cache.size());
+		assertEquals(block, cache.get(1, 500L));
+	}
+
+	@Test
+	public void testStripedBlockCacheRemove() {
+		DocumentBlockCache cache = new DocumentBlockCache(100000, 4);
+		DocumentBlockCache.DocumentBlock block = new DocumentBlockCache.DocumentBlock(0, new int[] { 0, 100, 200 }, new byte[200]);
+		for (int i = 0; i < 20; i++) {
+			cache.put(1, i * 1000L, block);
+			cache.put(2, i * 1000L, block);
+		}
+		assertEquals(40, cache.size());
+		//다른 reader의 블럭은 남는다.
+		cache.remove(1);
+		assertEquals(20, cache.size());
+		assertEquals(20 * block.memorySize(), cache.memorySize());
+		assertNull(cache.get(1, 0L));
+		assertEquals(block, cache.get(2, 19000L));
+		cache.remove(2);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.memorySize());
+	}
+
+	@Test
+	public void testCloneCloseKeepsBlocks() throws Exception {
+		File dir = new File("temp/block-clone");
+		FileUtils.deleteQuietly(dir);
+		dir.mkdirs();
+		try {
+			SchemaSetting schemaSetting = new DocumentWriteReadTest().createSchemaSetting();
+			IndexConfig indexConfig = new DocumentWriteReadTest().createIndexConfig();
+			indexConfig.setDocumentBlockSize(16);
+			DocumentWriter writer = new DocumentWriter(schemaSetting, dir, new RevisionInfo(), indexConfig);
+			for (int i = 0; i < 32; i++) {
+				writer.write(createDocument(i));
+			}
+			writer.close();
+
+			DocumentBlockCache cache = DocumentBlockCache.getInstance();
+			DocumentReader reader = new DocumentReader(schemaSetting, dir);
+			DocumentReader clone = reader.clone();
+			assertEquals("0", clone.readDocument(0).get(0).rawString());
+			clone.close();
+			//clone을 닫아도 원본 reader가 캐시한 블럭은 그대로 사용한다.
+			long hitCount = cache.hitCount();
+			assertEquals("1", reader.readDocument(1).get(0).rawString());
+			assertEquals(hitCount + 1, cache.hitCount());
+			reader.close();
+		} finally {
+			FileUtils.deleteQuietly(dir);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package org.fastcatsearch.ir.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.CharVector;
+import org.junit.Test;
+
+public class IndexingMemoryBudgetTest {
+
+	class TestConsumer implements IndexingMemoryConsumer {
+		String name;
+		long used;
+		int flushCount;
+
+		public TestConsumer(String name, long used) {
+			this.name = name;
+			this.used = used;
+		}
+
+		@Override
+		public long ramBytesUsed() {
+			return used;
+		}
+
+		@Override
+		public void flush() throws IRException, IOException {
+			used = 0;
+			flushCount++;
+		}
+
+		@Override
+		public int flushCount() {
+			return flushCount;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Test
+	public void testFlushLargestFirst() throws Exception {
+		IndexingMemoryBudget budget = new IndexingMemoryBudget("test", 6400);
+		TestConsumer a = new TestConsumer("a", 3000);
+		TestConsumer b = new TestConsumer("b", 2000);
+		TestConsumer c = new TestConsumer("c", 50);
+		budget.add(a);
+		budget.add(b);
+		budget.add(c);
+
+		assertEquals(5050, budget.check(0));
+		assertEquals(0, budget.flushCount());
+
+		//한도를 넘으면 가장 큰 a 만 flush 한다.
+		assertEquals(4050, budget.check(2000));
+		assertEquals(1, a.flushCount);
+		assertEquals(0, b.flushCount);
+		assertEquals(7050, budget.peakBytes());
+
+		//한도의 1/64 보다 작은 c 는 flush 하지 않는다.
+		a.used = 3000;
+		assertEquals(6450, budget.check(6400));
+		assertEquals(2, a.flushCount);
+		assertEquals(1, b.flushCount);
+		assertEquals(0, c.flushCount);
+		assertEquals(3, budget.flushCount());
+	}
+
+	@Test
+	public void testMemoryPostingRamBytesUsed() throws IRException {
+		MemoryPosting mp = new MemoryPostingWithPosition(1024);
+		long initial = mp.ramBytesUsed();
+		assertEquals(1024 * 4, initial);
+
+		for (int docNo = 0; docNo < 10000; docNo++) {
+			mp.add(new CharVector("term" + (docNo % 100)), docNo, docNo % 7);
+		}
+		long used = mp.ramBytesUsed();
+		assertTrue(used > initial);
+
+		//누적값은 전체 포스팅의 실제 배열크기 합과 같다.
+		long expected = initial;
+		for (int i = 0; i < 100; i++) {
+			String term = "term" + i;
+			expected += term.length() * 2 + MemoryPosting.TERM_SLOT_BYTES + mp.get(new CharVector(term)).ramBytesUsed();
+		}
+		assertEquals(expected, used);
+
+		mp.clear();
+		assertEquals(initial, mp.ramBytesUsed());
+	}
+}
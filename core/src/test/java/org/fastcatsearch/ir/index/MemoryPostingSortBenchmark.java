@@ -0,0 +1,110 @@
+package org.fastcatsearch.ir.index;
+
+import java.util.Random;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.CharVector;
+
+/**
+ * MemoryPosting flush 시 텀정렬 성능비교. 예전 quickSort 와 sortTerms(multikey quicksort)의 시간을 출력한다.
+ * 텀분포는 자주 쓰이는 음절이 앞쪽에 몰리도록 치우치게 만든 영문, 한글, 대소문자/숫자가 섞인 텀이다.
+ *
+ * 사용법: MemoryPostingSortBenchmark [텀갯수(기본 1000000)] [반복횟수(기본 5)]
+ * */
+public class MemoryPostingSortBenchmark {
+
+	private static final String[] ENGLISH_SYLLABLES = new String[] { "e", "th", "in", "er", "an", "re", "on", "at", "en", "nd", "ti", "es", "or", "te", "of", "ed",
+			"is", "it", "al", "ar", "st", "to", "nt", "ng", "se", "ha", "as", "ou", "io", "le", "ve", "co", "me", "de", "hi", "ri", "ro", "ic", "ne", "ea", "ra",
+			"ce", "li", "ch", "ll", "be", "ma", "si", "om", "ur", "ing", "tion", "ment", "pro", "con", "able", "ness", "ly" };
+
+	private static final String KOREAN_SYLLABLES = "이의가는을에하고다지기사리서자대한국인정시수전보생부일상스로주도들어제아해요나장중개소관비발방신경문원동성공화연우전용"
+			+ "업자료무구계학회결실품제작모통영선여조물구성추최유명검색서울시장";
+
+	private static int skewed(Random r, int size) {
+		// 앞쪽 원소가 자주 나오도록 치우친 분포.
+		return r.nextInt(r.nextInt(size) + 1);
+	}
+
+	/**
+	 * @param termSet 0:영문, 1:한글, 2:대소문자, 숫자, 한글이 섞인 텀
+	 * */
+	public static String randomTerm(Random r, int termSet) {
+		StringBuilder sb = new StringBuilder();
+		int length = 1 + skewed(r, 6);
+		for (int i = 0; i < length; i++) {
+			if (termSet == 0) {
+				sb.append(ENGLISH_SYLLABLES[skewed(r, ENGLISH_SYLLABLES.length)]);
+			} else if (termSet == 1) {
+				if (r.nextInt(10) == 0) {
+					sb.append((char) ('가' + r.nextInt('힣' - '가' + 1)));
+				} else {
+					sb.append(KOREAN_SYLLABLES.charAt(skewed(r, KOREAN_SYLLABLES.length())));
+				}
+			} else {
+				int type = r.nextInt(4);
+				if (type == 0) {
+					sb.append(ENGLISH_SYLLABLES[skewed(r, ENGLISH_SYLLABLES.length)].toUpperCase());
+				} else if (type == 1) {
+					sb.append(ENGLISH_SYLLABLES[skewed(r, ENGLISH_SYLLABLES.length)]);
+				} else if (type == 2) {
+					sb.append(r.nextInt(2020));
+				} else {
+					sb.append(KOREAN_SYLLABLES.charAt(skewed(r, KOREAN_SYLLABLES.length())));
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	public static void main(String[] args) throws IRException {
+		int termCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		String[] termSetNames = new String[] { "english", "korean", "mixed" };
+
+		for (int termSet = 0; termSet < termSetNames.length; termSet++) {
+			Random r = new Random(termSet);
+			MemoryPosting memoryPosting = new MemoryPosting(64 * 1024, termSet == 2);
+			int docNo = 0;
+			int tries = 0;
+			while (memoryPosting.count() < termCount && tries++ < termCount * 20) {
+				memoryPosting.add(new CharVector(randomTerm(r, termSet)), docNo++);
+			}
+			int count = memoryPosting.count();
+
+			long quickSortTime = 0;
+			long sortTermsTime = 0;
+			// 첫 회는 JIT 준비용으로 측정에서 뺀다.
+			for (int round = 0; round <= rounds; round++) {
+				int[] ids1 = identity(count);
+				long st = System.nanoTime();
+				memoryPosting.quickSort(ids1, 0, count - 1);
+				long quickSortElapsed = System.nanoTime() - st;
+
+				int[] ids2 = identity(count);
+				st = System.nanoTime();
+				memoryPosting.sortTerms(ids2);
+				long sortTermsElapsed = System.nanoTime() - st;
+
+				for (int i = 0; i < count; i++) {
+					if (ids1[i] != ids2[i]) {
+						throw new IllegalStateException("order differs at " + i);
+					}
+				}
+				if (round > 0) {
+					quickSortTime += quickSortElapsed;
+					sortTermsTime += sortTermsElapsed;
+				}
+			}
+			System.out.println(String.format("%-8s terms=%d quickSort=%.1fms sortTerms=%.1fms speedup=%.2fx", termSetNames[termSet], count, quickSortTime / 1e6
+					/ rounds, sortTermsTime / 1e6 / rounds, (double) quickSortTime / sortTermsTime));
+		}
+	}
+
+	private static int[] identity(int count) {
+		int[] ids = new int[count];
+		for (int i = 0; i < count; i++) {
+			ids[i] = i;
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,51 @@
+package org.fastcatsearch.ir.index;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.CharVector;
+import org.junit.Test;
+
+public class MemoryPostingSortTest {
+
+	private void assertSameOrder(MemoryPosting memoryPosting) {
+		int count = memoryPosting.count();
+		int[] expected = new int[count];
+		int[] actual = new int[count];
+		for (int i = 0; i < count; i++) {
+			expected[i] = i;
+			actual[i] = i;
+		}
+		memoryPosting.quickSort(expected, 0, count - 1);
+		memoryPosting.sortTerms(actual);
+		assertArrayEquals(expected, actual);
+	}
+
+	@Test
+	public void testSameOrderAsQuickSort() throws IRException {
+		Random r = new Random(1);
+		for (int termSet = 0; termSet < 3; termSet++) {
+			MemoryPosting memoryPosting = new MemoryPosting(1024, termSet == 2);
+			for (int docNo = 0; docNo < 20000; docNo++) {
+				memoryPosting.add(new CharVector(MemoryPostingSortBenchmark.randomTerm(r, termSet)), docNo);
+			}
+			assertSameOrder(memoryPosting);
+		}
+	}
+
+	@Test
+	public void testPrefixAndSmallSet() throws IRException {
+		MemoryPosting memoryPosting = new MemoryPosting(16);
+		String[] terms = new String[] { "abc", "ab", "a", "abcd", "b", "가", "가각", "A", "0", "\uffff", "ab\u0000" };
+		for (int i = 0; i < terms.length; i++) {
+			memoryPosting.add(new CharVector(terms[i]), i);
+			assertSameOrder(memoryPosting);
+		}
+		for (int i = 0; i < 200; i++) {
+			memoryPosting.add(new CharVector("prefix" + Integer.toString(i, 2)), 100 + i);
+		}
+		assertSameOrder(memoryPosting);
+	}
+}
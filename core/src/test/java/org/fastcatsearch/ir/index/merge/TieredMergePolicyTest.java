@@ -0,0 +1,44 @@
+package org.fastcatsearch.ir.index.merge;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TieredMergePolicyTest {
+
+	private TieredMergePolicy policy = new TieredMergePolicy(4, 30, 100);
+
+	@Test
+	public void testDisabled() {
+		TieredMergePolicy disabled = new TieredMergePolicy(0, 30);
+		assertEquals(-1, disabled.findMerge(new int[] { 10, 10, 10, 10, 10 }, new int[] { 0, 0, 0, 0, 0 }));
+	}
+
+	@Test
+	public void testSmallTailSegments() {
+		//전체색인 세그먼트 뒤에 작은 증분 세그먼트가 4개 쌓이면 증분 세그먼트만 머징한다.
+		assertEquals(-1, policy.findMerge(new int[] { 100000, 50, 50, 50 }, new int[] { 0, 0, 0, 0 }));
+		assertEquals(1, policy.findMerge(new int[] { 100000, 50, 50, 50, 50 }, new int[] { 0, 0, 0, 0, 0 }));
+		//mergeFactor 개 까지만 머징한다.
+		assertEquals(2, policy.findMerge(new int[] { 100000, 50, 50, 50, 50, 50 }, new int[] { 0, 0, 0, 0, 0, 0 }));
+	}
+
+	@Test
+	public void testTier() {
+		//3000 은 뒤의 세그먼트 합의 2배보다 크므로 다른 단계이다.
+		assertEquals(-1, policy.findMerge(new int[] { 3000, 500, 400, 300 }, new int[] { 0, 0, 0, 0 }));
+		//1200 은 뒤의 합(1200)의 2배 이하이므로 같은 단계로 본다.
+		assertEquals(0, policy.findMerge(new int[] { 1200, 500, 400, 300 }, new int[] { 0, 0, 0, 0 }));
+		//유효문서로 비교한다.
+		assertEquals(0, policy.findMerge(new int[] { 3000, 500, 400, 300 }, new int[] { 1800, 0, 0, 0 }));
+	}
+
+	@Test
+	public void testDeleteRatio() {
+		assertEquals(-1, policy.findMerge(new int[] { 100000, 1000 }, new int[] { 0, 200 }));
+		//삭제비율이 높으면 갯수가 모자라도 머징한다.
+		assertEquals(1, policy.findMerge(new int[] { 100000, 1000 }, new int[] { 0, 300 }));
+		//마지막 세그먼트 하나만이라도 삭제문서 제거를 위해 머징한다.
+		assertEquals(0, policy.findMerge(new int[] { 1000 }, new int[] { 500 }));
+	}
+}
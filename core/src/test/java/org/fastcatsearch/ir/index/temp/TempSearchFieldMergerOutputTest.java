@@ -0,0 +1,96 @@
+package org.fastcatsearch.ir.index.temp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.store.RateLimiter;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.MemoryPosting;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.junit.Test;
+
+public class TempSearchFieldMergerOutputTest {
+
+	private static final String INDEX_ID = "title";
+	private static final int RUN_COUNT = 5;
+	private static final int TERM_COUNT = 300;
+
+	private List<Long> writeRuns(File tempFile) throws IOException, IRException {
+		List<Long> flushPosition = new ArrayList<Long>();
+		IndexOutput output = new BufferedFileOutput(tempFile, false);
+		try {
+			int docNo = 0;
+			for (int run = 0; run < RUN_COUNT; run++) {
+				MemoryPosting memoryPosting = new MemoryPosting(1024);
+				for (int i = 0; i < 1000; i++, docNo++) {
+					memoryPosting.add(new CharVector("term" + (docNo % TERM_COUNT)), docNo);
+					memoryPosting.add(new CharVector("run" + run), docNo);
+				}
+				flushPosition.add(memoryPosting.save(output));
+			}
+		} finally {
+			output.close();
+		}
+		return flushPosition;
+	}
+
+	private File merge(File tempFile, List<Long> flushPosition, String name, RateLimiter rateLimiter) throws IOException {
+		File baseDir = new File("temp/merge-output/" + name);
+		IndexFileNames.getRevisionDir(baseDir, 0).mkdirs();
+		TempSearchFieldMerger merger = new TempSearchFieldMerger(INDEX_ID, flushPosition, tempFile);
+		merger.setRateLimiter(rateLimiter);
+		try {
+			merger.mergeAndMakeIndex(baseDir, 16, new IndexFieldOption(), 128);
+		} finally {
+			merger.close();
+		}
+		return IndexFileNames.getRevisionDir(baseDir, 0);
+	}
+
+	@Test
+	public void testThrottledMergeWritesSameIndex() throws Exception {
+		File dir = new File("temp/merge-output");
+		FileUtils.deleteDirectory(dir);
+		dir.mkdirs();
+		File tempFile = new File(dir, "search.temp");
+		List<Long> flushPosition = writeRuns(tempFile);
+
+		File plainDir = merge(tempFile, flushPosition, "plain", null);
+		File throttledDir = merge(tempFile, flushPosition, "throttled", new RateLimiter.SimpleRateLimiter(100));
+
+		String[] fileNames = new String[] { IndexFileNames.getSearchPostingFileName(INDEX_ID), IndexFileNames.getSearchLexiconFileName(INDEX_ID),
+				IndexFileNames.getSearchIndexFileName(INDEX_ID) };
+		for (String fileName : fileNames) {
+			assertArrayEquals(fileName, FileUtils.readFileToByteArray(new File(plainDir, fileName)),
+					FileUtils.readFileToByteArray(new File(throttledDir, fileName)));
+		}
+
+		IndexInput lexiconInput = new BufferedFileInput(plainDir, IndexFileNames.getSearchLexiconFileName(INDEX_ID));
+		try {
+			assertEquals(TERM_COUNT + RUN_COUNT, lexiconInput.readInt());
+		} finally {
+			lexiconInput.close();
+		}
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@Test
+	public void testReadBufferSize() {
+		assertEquals(256 * 1024, TempSearchFieldMerger.readBufferSize(1));
+		assertEquals(16 * 1024 * 1024 / 256, TempSearchFieldMerger.readBufferSize(256));
+		//런이 아주 많아도 기본 블럭크기보다 작아지지 않는다.
+		assertEquals(4 * 1024, TempSearchFieldMerger.readBufferSize(100000));
+	}
+}
@@ -53,5 +53,33 @@ public class FixedMaxPriorityQueueTest extends TestCase{
 	}
 
 	
+	public void testPushResult(){
+		DefaultRanker queue = new DefaultRanker(2);
+		//최신 문서번호가 우선이다.
+		assertTrue(queue.push(new HitElement(1, 0, 1, null)));
+		assertTrue(queue.push(new HitElement(2, 0, 1, null)));
+		//큐가 가득찼고 root 보다 순위가 낮으면 reject.
+		assertFalse(queue.push(new HitElement(0, 0, 1, null)));
+		assertTrue(queue.push(new HitElement(3, 0, 1, null)));
+		assertEquals(2, queue.size());
+		assertEquals(4, queue.totalSize());
+		assertEquals(2, queue.pop().docNo());
+		assertEquals(3, queue.pop().docNo());
+	}
+	
+	public void testBundleDuplicateSize(){
+		DefaultRanker queue = new DefaultRanker(2);
+		BytesRef bundleKey = new BytesRef(new byte[]{1});
+		assertTrue(queue.push(new HitElement(2, 0, 1, null, null, bundleKey)));
+		//같은 번들의 더 최신 문서는 교체한다.
+		assertTrue(queue.push(new HitElement(3, 0, 1, null, null, bundleKey)));
+		//같은 번들의 예전 문서는 버린다.
+		assertFalse(queue.push(new HitElement(1, 0, 1, null, null, bundleKey)));
+		//순위가 낮아 reject 된 것은 중복이 아니다.
+		assertTrue(queue.push(new HitElement(5, 0, 1, null, null, new BytesRef(new byte[]{2}))));
+		assertFalse(queue.push(new HitElement(0, 0, 1, null, null, new BytesRef(new byte[]{3}))));
+		assertEquals(1, queue.duplicateSize());
+		assertEquals(2, queue.size());
+	}
 
 }
@@ -0,0 +1,140 @@
+package org.fastcatsearch.ir.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MMapIndexInputTest {
+
+	//chunk 경계를 자주 넘도록 16byte 단위로 매핑한다.
+	private static final int CHUNK_SIZE_POWER = 4;
+	private static final int COUNT = 1000;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("mmap", ".test");
+		BufferedFileOutput output = new BufferedFileOutput(file);
+		for (int i = 0; i < COUNT; i++) {
+			output.writeInt(i);
+			output.writeVInt(i * 31);
+			output.writeLong(i * 100000000L);
+			output.writeShort((short) i);
+			output.writeByte(i);
+		}
+		output.close();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testSequentialRead() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, CHUNK_SIZE_POWER);
+		assertEquals(file.length(), input.length());
+		for (int i = 0; i < COUNT; i++) {
+			assertEquals(i, input.readInt());
+			assertEquals(i * 31, input.readVInt());
+			assertEquals(i * 100000000L, input.readLong());
+			assertEquals((short) i, input.readShort());
+			assertEquals((byte) i, input.readByte());
+		}
+		assertEquals(file.length(), input.position());
+		input.close();
+	}
+
+	@Test
+	public void testSeekAndReadBytes() throws IOException {
+		BufferedFileInput expected = new BufferedFileInput(file);
+		MMapIndexInput input = new MMapIndexInput(file, CHUNK_SIZE_POWER);
+		Random r = new Random(0);
+		byte[] a = new byte[100];
+		byte[] b = new byte[100];
+		for (int i = 0; i < 1000; i++) {
+			int len = r.nextInt(a.length);
+			long pos = r.nextInt((int) file.length() - len);
+			expected.seek(pos);
+			input.seek(pos);
+			assertEquals(pos, input.position());
+			expected.readBytes(a, 0, len);
+			input.readBytes(b, 0, len);
+			for (int j = 0; j < len; j++) {
+				assertEquals(a[j], b[j]);
+			}
+			assertEquals(pos + len, input.position());
+		}
+		expected.close();
+		input.close();
+	}
+
+	@Test
+	public void testClone() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, CHUNK_SIZE_POWER);
+		input.readInt();
+		IndexInput clone = input.clone();
+		assertEquals(input.position(), clone.position());
+
+		//clone은 위치를 따로 가진다.
+		clone.seek(0);
+		assertEquals(0, clone.readInt());
+		assertEquals(31 * 0, input.readVInt());
+		assertEquals(0L, input.readLong());
+
+		//clone을 닫아도 원본은 계속 사용할수 있다.
+		clone.close();
+		input.seek(0);
+		assertEquals(0, input.readInt());
+		try {
+			clone.seek(0);
+			fail();
+		} catch (AlreadyClosedException expected) {
+		}
+		input.close();
+	}
+
+	@Test
+	public void testCloneReadableAfterClose() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, CHUNK_SIZE_POWER);
+		IndexInput clone = input.clone();
+
+		//원본을 닫아도 수행중인 clone 은 끝까지 읽을수 있다.
+		input.close();
+		for (int i = 0; i < COUNT; i++) {
+			assertEquals(i, clone.readInt());
+			assertEquals(i * 31, clone.readVInt());
+			assertEquals(i * 100000000L, clone.readLong());
+			assertEquals((short) i, clone.readShort());
+			assertEquals((byte) i, clone.readByte());
+		}
+		clone.seek(0);
+		assertEquals(0, clone.readInt());
+
+		try {
+			input.seek(0);
+			fail();
+		} catch (AlreadyClosedException expected) {
+		}
+		try {
+			input.readInt();
+			fail();
+		} catch (AlreadyClosedException expected) {
+		}
+		try {
+			input.clone();
+			fail();
+		} catch (AlreadyClosedException expected) {
+		}
+		clone.close();
+	}
+}
@@ -0,0 +1,229 @@
+package org.fastcatsearch.ir.perftest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.MemoryLexicon;
+import org.fastcatsearch.ir.search.PostingReader;
+import org.fastcatsearch.ir.search.clause.TermOperatedClause;
+import org.fastcatsearch.ir.search.method.NormalSearchMethod;
+
+/**
+ * 한 페이지(rows=50)의 묶음키 하위문서를 찾을때, 키마다 세그먼트별로 search method 를 만들어 lexicon 을 찾는 방법과
+ * 세그먼트별로 search method 를 하나만 만들고 정렬된 키를 한번에 찾는 방법(NormalSearchMethod.findPostingPositions)을 비교한다.
+ * search method 는 SearchIndexReader.createSearchMethod 와 같이 lexicon, posting input 을 clone 하여 만든다.
+ * 묶음크기는 대부분 1~5개이고 일부 키만 수백개인 분포로 만든다.
+ * 키 갯수는 -DbundleKeyCount, 세그먼트 수는 -DsegmentCount 로 바꿀수 있다.
+ * */
+public class BundleLookupSpeedTest extends TestCase {
+
+	private static final int ROWS = 50;
+	private static final int REPEAT = 20;
+	private static final int INDEX_INTERVAL = 64;
+
+	public void testBundleLookup() throws IOException {
+		int keyCount = Integer.parseInt(System.getProperty("bundleKeyCount", "200000"));
+		int segmentCount = Integer.parseInt(System.getProperty("segmentCount", "12"));
+		File lexiconFile = File.createTempFile("bundle-lexicon", ".test");
+		File postingFile = File.createTempFile("bundle-posting", ".test");
+		try {
+			IndexFieldOption option = new IndexFieldOption();
+			String[] keys = makeKeys(keyCount);
+			MemoryLexicon memoryLexicon = write(lexiconFile, postingFile, option, keys);
+			System.out.println("bundle keys = " + keyCount + ", segments = " + segmentCount + ", posting file = " + postingFile.length() / 1024 + "KB");
+
+			Segment[] segments = new Segment[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				segments[i] = new Segment(memoryLexicon, new BufferedFileInput(lexiconFile), new BufferedFileInput(postingFile), option, keyCount * 4);
+			}
+
+			Random random = new Random(0);
+			String[][] pages = new String[REPEAT][ROWS];
+			for (int r = 0; r < REPEAT; r++) {
+				for (int k = 0; k < ROWS; k++) {
+					pages[r][k] = keys[random.nextInt(keyCount)];
+				}
+			}
+			//같은 lexicon 블럭안의 키들도 같은 결과인지 확인한다.
+			String[] adjacentKeys = Arrays.copyOfRange(keys, keyCount / 2, keyCount / 2 + ROWS);
+			assertEquals(searchPerKey(segments, adjacentKeys), searchBatch(segments, adjacentKeys));
+			//warm up
+			for (int r = 0; r < REPEAT; r++) {
+				assertEquals(searchPerKey(segments, pages[r]), searchBatch(segments, pages[r]));
+			}
+			long perKeyTime = 0, batchTime = 0;
+			int docs = 0;
+			for (int r = 0; r < REPEAT; r++) {
+				long st = System.nanoTime();
+				docs += searchPerKey(segments, pages[r]);
+				perKeyTime += System.nanoTime() - st;
+				st = System.nanoTime();
+				searchBatch(segments, pages[r]);
+				batchTime += System.nanoTime() - st;
+			}
+			System.out.println("pages=" + REPEAT + " docs/page=" + docs / REPEAT + " perKey=" + (perKeyTime / REPEAT / 1000) + "us/page batch=" + (batchTime / REPEAT / 1000) + "us/page");
+			for (Segment segment : segments) {
+				segment.close();
+			}
+		} finally {
+			lexiconFile.delete();
+			postingFile.delete();
+		}
+	}
+
+	//기존 방식. 키 * 세그먼트 만큼 search method 를 만들고 lexicon 을 찾는다.
+	private int searchPerKey(Segment[] segments, String[] pageKeys) {
+		int count = 0;
+		for (String key : pageKeys) {
+			for (Segment segment : segments) {
+				count += read(segment.createSearchMethod().search("bundle", new CharVector(key), 0, -1));
+			}
+		}
+		return count;
+	}
+
+	//세그먼트별로 정렬된 키를 한번에 찾는다.
+	private int searchBatch(Segment[] segments, String[] pageKeys) {
+		CharVector[] sortedTerms = new CharVector[pageKeys.length];
+		for (int k = 0; k < pageKeys.length; k++) {
+			sortedTerms[k] = new CharVector(pageKeys[k]);
+		}
+		Arrays.sort(sortedTerms);
+		//중복키는 한번만 찾고 갯수만큼 센다.
+		int[] frequency = new int[sortedTerms.length];
+		int uniqueSize = 0;
+		for (int k = 0; k < sortedTerms.length; k++) {
+			if (uniqueSize == 0 || sortedTerms[uniqueSize - 1].compareTo(sortedTerms[k]) != 0) {
+				sortedTerms[uniqueSize++] = sortedTerms[k];
+			}
+			frequency[uniqueSize - 1]++;
+		}
+		CharVector[] uniqueTerms = Arrays.copyOf(sortedTerms, uniqueSize);
+		int count = 0;
+		for (Segment segment : segments) {
+			NormalSearchMethod searchMethod = segment.createSearchMethod();
+			long[] positions = searchMethod.findPostingPositions(uniqueTerms);
+			//포스팅도 단어순서대로 기록되어 있으므로 정렬된 순서로 읽으면 파일을 앞으로만 읽는다.
+			for (int i = 0; i < uniqueSize; i++) {
+				count += read(searchMethod.postingReader(uniqueTerms[i], 0, -1, positions[i])) * frequency[i];
+			}
+		}
+		return count;
+	}
+
+	private int read(PostingReader postingReader) {
+		if (postingReader == null) {
+			return 0;
+		}
+		try {
+			TermOperatedClause clause = new TermOperatedClause("bundle", postingReader.term().toString(), postingReader);
+			clause.init();
+			RankInfo rankInfo = new RankInfo();
+			int count = 0;
+			while (clause.next(rankInfo)) {
+				count++;
+			}
+			return count;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private String[] makeKeys(int keyCount) {
+		String[] keys = new String[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			keys[i] = String.format("G%08d", i);
+		}
+		return keys;
+	}
+
+	//70%는 1개, 20%는 2~5개, 9%는 6~50개, 1%는 51~500개.
+	private int bundleSize(Random random) {
+		int p = random.nextInt(100);
+		if (p < 70) {
+			return 1;
+		} else if (p < 90) {
+			return 2 + random.nextInt(4);
+		} else if (p < 99) {
+			return 6 + random.nextInt(45);
+		}
+		return 51 + random.nextInt(450);
+	}
+
+	//TempSearchFieldMerger 와 같은 형식의 lexicon, posting 을 기록하고 INDEX_INTERVAL 마다 메모리 lexicon 을 만든다.
+	private MemoryLexicon write(File lexiconFile, File postingFile, IndexFieldOption option, String[] keys) throws IOException {
+		Random random = new Random(0);
+		MemoryLexicon memoryLexicon = new MemoryLexicon((keys.length + INDEX_INTERVAL - 1) / INDEX_INTERVAL);
+		IndexOutput lexiconOutput = new BufferedFileOutput(lexiconFile);
+		IndexOutput postingOutput = new BufferedFileOutput(postingFile);
+		try {
+			lexiconOutput.writeInt(keys.length);
+			postingOutput.writeInt(option.value());
+			int docNo = 0;
+			for (int i = 0; i < keys.length; i++) {
+				int size = bundleSize(random);
+				BytesDataOutput data = new BytesDataOutput(size * 2 + 8);
+				int prevDocNo = -1;
+				for (int j = 0; j < size; j++) {
+					data.writeVInt(docNo - prevDocNo - 1);
+					data.writeVInt(1);
+					prevDocNo = docNo;
+					docNo += 1 + random.nextInt(3);
+				}
+				long postingPosition = postingOutput.position();
+				new PostingSkipList.Writer(option).writePosting(postingOutput, size, prevDocNo, data.array(), 0, (int) data.position());
+
+				char[] term = keys[i].toCharArray();
+				if (i % INDEX_INTERVAL == 0) {
+					memoryLexicon.put(i / INDEX_INTERVAL, term, lexiconOutput.position(), postingPosition);
+				}
+				lexiconOutput.writeUString(term, 0, term.length);
+				lexiconOutput.writeLong(postingPosition);
+			}
+		} finally {
+			lexiconOutput.close();
+			postingOutput.close();
+		}
+		return memoryLexicon;
+	}
+
+	private static class Segment {
+		private MemoryLexicon memoryLexicon;
+		private IndexInput lexiconInput;
+		private IndexInput postingInput;
+		private IndexFieldOption option;
+		private int documentCount;
+
+		public Segment(MemoryLexicon memoryLexicon, IndexInput lexiconInput, IndexInput postingInput, IndexFieldOption option, int documentCount) {
+			this.memoryLexicon = memoryLexicon;
+			this.lexiconInput = lexiconInput;
+			this.postingInput = postingInput;
+			this.option = option;
+			this.documentCount = documentCount;
+		}
+
+		public NormalSearchMethod createSearchMethod() {
+			NormalSearchMethod searchMethod = new NormalSearchMethod();
+			searchMethod.init(memoryLexicon, lexiconInput.clone(), postingInput.clone(), option, documentCount);
+			return searchMethod;
+		}
+
+		public void close() throws IOException {
+			lexiconInput.close();
+			postingInput.close();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package org.fastcatsearch.ir.perftest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInputFactory;
+import org.fastcatsearch.ir.search.ColumnCache;
+import org.fastcatsearch.ir.search.FieldIndexReader;
+import org.fastcatsearch.ir.settings.FieldSetting;
+
+/**
+ * 필드정렬 쿼리에서처럼 매칭된 문서마다 필드색인을 docNo로 읽을때 파일에서 읽는 경우와 ColumnCache(heap, offheap)에서 읽는 경우를 비교한다.
+ * 문서수(기본 1000만)는 -DdocCount, 쿼리당 매칭문서수(기본 100만)는 -DhitCount 로 바꿀수 있다.
+ * */
+public class ColumnCacheSortTest extends TestCase {
+
+	private static final int QUERY_COUNT = 10;
+
+	public void testSortFieldRead() throws IOException, IRException {
+		int docCount = Integer.parseInt(System.getProperty("docCount", "10000000"));
+		int hitCount = Integer.parseInt(System.getProperty("hitCount", "1000000"));
+		File dir = File.createTempFile("column-sort", "");
+		dir.delete();
+		dir.mkdirs();
+		File dataFile = new File(dir, "price.field");
+		try {
+			BufferedFileOutput output = new BufferedFileOutput(dataFile);
+			Random random = new Random(0);
+			for (int i = 0; i < docCount; i++) {
+				output.writeLong(random.nextLong());
+			}
+			output.close();
+			System.out.println("doc count = " + docCount + ", hit count = " + hitCount + ", file size = " + dataFile.length() / 1024 / 1024 + "MB");
+
+			for (int i = 0; i < 3; i++) {
+				run("buffered", dataFile, null, docCount, hitCount);
+				run("heap", dataFile, ColumnCache.HEAP, docCount, hitCount);
+				run("offheap", dataFile, ColumnCache.OFFHEAP, docCount, hitCount);
+			}
+		} finally {
+			dataFile.delete();
+			dir.delete();
+		}
+	}
+
+	private void run(String name, File dataFile, String columnCacheMode, int docCount, int hitCount) throws IOException, IRException {
+		FieldIndexReader reader = new FieldIndexReader();
+		reader.init("price", new FieldSetting("price", "price", FieldSetting.Type.LONG), dataFile, null, IOUtil.SIZE_OF_LONG, IndexInputFactory.DEFAULT,
+				IndexInputFactory.FIELD_INDEX, columnCacheMode);
+		FieldIndexReader searchReader = reader.clone();
+
+		Random random = new Random(1);
+		long checksum = 0;
+		long st = System.nanoTime();
+		for (int q = 0; q < QUERY_COUNT; q++) {
+			//매칭문서는 docNo 오름차순으로 나온다.
+			int step = docCount / hitCount;
+			int docNo = random.nextInt(step);
+			for (int i = 0; i < hitCount && docNo < docCount; i++) {
+				searchReader.read(docNo);
+				checksum += searchReader.getRef().bytesRef().bytes[0];
+				docNo += 1 + random.nextInt(step * 2 - 1);
+			}
+		}
+		long elapsed = System.nanoTime() - st;
+		reader.close();
+		System.out.println(name + " time/query=" + (elapsed / QUERY_COUNT / 1000000) + "ms checksum=" + checksum);
+	}
+}
@@ -0,0 +1,179 @@
+package org.fastcatsearch.ir.perftest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.fastcatsearch.ir.io.FixedMaxPriorityQueue;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.HitElement;
+import org.fastcatsearch.ir.search.SortGenerator;
+import org.fastcatsearch.ir.search.clause.OperatedClause;
+
+/**
+ * 세그먼트 결과 수집 루프의 쿼리당 할당량을 비교한다.
+ * old : 문서마다 RankInfo를 만들고 묶음마다 HitElement를 새로 만드는 기존 방식.
+ * pool : RankInfo와 HitElement를 재사용하고 랭커에 들어간 원소만 새로 만드는 방식.
+ *
+ * 문서수는 -DhitCount, 쿼리수는 -DqueryCount 로 바꿀수 있다.
+ * */
+public class HitCollectionAllocationTest extends TestCase {
+
+	private static final int BULK_SIZE = 100;
+	private static final int TOP_N = 10;
+
+	public void testAllocation() throws IOException {
+		int hitCount = Integer.parseInt(System.getProperty("hitCount", "100000"));
+		int queryCount = Integer.parseInt(System.getProperty("queryCount", "200"));
+		System.out.println("hit count = " + hitCount + ", query count = " + queryCount + ", top = " + TOP_N);
+
+		for (int i = 0; i < 3; i++) {
+			run("old", hitCount, queryCount, false);
+			run("pool", hitCount, queryCount, true);
+		}
+	}
+
+	private void run(String name, int hitCount, int queryCount, boolean pooled) throws IOException {
+		SortGenerator sortGenerator = new SortGenerator();
+		long allocatedBefore = allocatedBytes();
+		long st = System.nanoTime();
+		int total = 0;
+		for (int q = 0; q < queryCount; q++) {
+			OperatedClause clause = new RandomScoreClause(hitCount, q);
+			clause.init();
+			ScoreRanker ranker = new ScoreRanker(TOP_N);
+			if (pooled) {
+				total += collectPooled(clause, sortGenerator, ranker);
+			} else {
+				total += collectOld(clause, sortGenerator, ranker);
+			}
+			assertEquals(TOP_N, ranker.size());
+		}
+		long elapsed = System.nanoTime() - st;
+		long allocated = allocatedBytes() - allocatedBefore;
+		assertEquals(hitCount * queryCount, total);
+		System.out.println(name + " time=" + (elapsed / 1000000) + "ms allocated/query=" + (allocated / queryCount / 1024) + "KB");
+	}
+
+	private int collectOld(OperatedClause clause, SortGenerator sortGenerator, ScoreRanker ranker) throws IOException {
+		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
+		int total = 0;
+		boolean exausted = false;
+		while (!exausted) {
+			int nread = 0;
+			for (; nread < BULK_SIZE; nread++) {
+				RankInfo rankInfo = new RankInfo();
+				if (clause.next(rankInfo)) {
+					rankInfoList[nread] = rankInfo;
+				} else {
+					exausted = true;
+					break;
+				}
+			}
+			HitElement[] e = sortGenerator.getHitElement(rankInfoList, nread);
+			for (int i = 0; i < nread; i++) {
+				ranker.push(e[i]);
+			}
+			total += nread;
+		}
+		return total;
+	}
+
+	private int collectPooled(OperatedClause clause, SortGenerator sortGenerator, ScoreRanker ranker) throws IOException {
+		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
+		RankInfo[] rankInfoPool = new RankInfo[BULK_SIZE];
+		for (int i = 0; i < BULK_SIZE; i++) {
+			rankInfoPool[i] = new RankInfo();
+		}
+		HitElement[] hitElementBuffer = new HitElement[BULK_SIZE];
+		int total = 0;
+		boolean exausted = false;
+		while (!exausted) {
+			int nread = 0;
+			for (; nread < BULK_SIZE; nread++) {
+				RankInfo rankInfo = rankInfoPool[nread];
+				rankInfo.clear();
+				if (clause.next(rankInfo)) {
+					rankInfoList[nread] = rankInfo;
+				} else {
+					exausted = true;
+					break;
+				}
+			}
+			sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
+			for (int i = 0; i < nread; i++) {
+				if (ranker.push(hitElementBuffer[i])) {
+					hitElementBuffer[i] = null;
+				}
+			}
+			total += nread;
+		}
+		return total;
+	}
+
+	private long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/*
+	 * 점수 내림차순 랭커.
+	 * */
+	static class ScoreRanker extends FixedMaxPriorityQueue<HitElement> {
+		public ScoreRanker(int maxsize) {
+			super(maxsize);
+		}
+
+		@Override
+		protected int compare(HitElement one, HitElement two) {
+			if (one.score() != two.score()) {
+				return two.score() - one.score();
+			}
+			return one.compareTo(two);
+		}
+	}
+
+	/*
+	 * 모든 문서를 임의의 점수로 매칭한다.
+	 * */
+	static class RandomScoreClause extends OperatedClause {
+		private int docCount;
+		private int pos;
+		private Random random;
+
+		public RandomScoreClause(int docCount, long seed) {
+			super("RANDOM");
+			this.docCount = docCount;
+			random = new Random(seed);
+		}
+
+		@Override
+		protected boolean nextDoc(RankInfo rankInfo) {
+			if (pos < docCount) {
+				rankInfo.init(pos++, random.nextInt(100000));
+				return true;
+			}
+			rankInfo.init(-1, -1);
+			return false;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		protected void initClause(boolean explain) {
+		}
+
+		@Override
+		public void printTrace(Writer writer, int indent, int depth) throws IOException {
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package org.fastcatsearch.ir.perftest;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.BufferedPostingReader;
+import org.fastcatsearch.ir.search.PostingReader;
+import org.fastcatsearch.ir.search.StreamPostingReader;
+import org.fastcatsearch.ir.search.clause.TermOperatedClause;
+
+/**
+ * 흔한 단어 하나의 포스팅(기본 200만건)을 끝까지 읽을때의 할당량과 시간을 비교한다.
+ * 포스팅 건수는 -DpostingCount 로 바꿀수 있다.
+ * */
+public class PostingReaderAllocationTest extends TestCase {
+
+	private static final int REPEAT = 5;
+
+	public void testAllocation() throws IOException {
+		int postingCount = Integer.parseInt(System.getProperty("postingCount", "2000000"));
+		File file = File.createTempFile("posting-alloc", ".test");
+		try {
+			IndexFieldOption option = new IndexFieldOption();
+			option.setStorePosition();
+			option.setSkipBlock();
+			long offset = writePosting(file, option, postingCount);
+			System.out.println("posting count = " + postingCount + ", file size = " + file.length() / 1024 + "KB");
+
+			for (int i = 0; i < REPEAT; i++) {
+				run("buffered", file, option, offset, false);
+				run("stream", file, option, offset, true);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void run(String name, File file, IndexFieldOption option, long offset, boolean stream) throws IOException {
+		CharVector term = new CharVector("term");
+		PostingReader postingReader = null;
+		if (stream) {
+			postingReader = new StreamPostingReader(term, 0, 0, 100000000, option, new BufferedFileInput(file), offset);
+		} else {
+			postingReader = new BufferedPostingReader(term, 0, 0, 100000000, option, new BufferedFileInput(file), offset);
+		}
+		TermOperatedClause clause = new TermOperatedClause("test", "term", postingReader);
+		clause.init();
+		RankInfo rankInfo = new RankInfo();
+
+		long allocatedBefore = allocatedBytes();
+		long st = System.nanoTime();
+		int count = 0;
+		while (clause.next(rankInfo)) {
+			rankInfo.clearOccurrence();
+			count++;
+		}
+		long elapsed = System.nanoTime() - st;
+		long allocated = allocatedBytes() - allocatedBefore;
+		clause.close();
+
+		System.out.println(name + " docs=" + count + " time=" + (elapsed / 1000000) + "ms allocated=" + (allocated / 1024) + "KB ("
+				+ (count > 0 ? allocated / count : 0) + " bytes/doc)");
+	}
+
+	private long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private long writePosting(File file, IndexFieldOption option, int postingCount) throws IOException {
+		Random random = new Random(0);
+		BytesDataOutput data = new BytesDataOutput(postingCount * 4);
+		int prevDocNo = -1;
+		for (int i = 0; i < postingCount; i++) {
+			int docNo = prevDocNo + 1 + random.nextInt(3);
+			data.writeVInt(docNo - prevDocNo - 1);
+			int tf = 1 + random.nextInt(3);
+			data.writeVInt(tf);
+			for (int j = 0; j < tf; j++) {
+				data.writeVInt(random.nextInt(20));
+			}
+			prevDocNo = docNo;
+		}
+
+		IndexOutput output = new BufferedFileOutput(file);
+		try {
+			output.writeInt(option.value());
+			long offset = output.position();
+			new PostingSkipList.Writer(option).writePosting(output, postingCount, prevDocNo, data.array(), 0, (int) data.position());
+			return offset;
+		} finally {
+			output.close();
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.document.DocumentReader;
+import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
+import org.fastcatsearch.ir.index.PrimaryKeys;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CollectionHandlerMergeTest {
+
+	private SyntheticCollection collection;
+	private CollectionHandler collectionHandler;
+
+	@Before
+	public void setUp() throws Exception {
+		collection = new SyntheticCollection(new File("temp/collection_merge_test"));
+		collectionHandler = collection.collectionHandler();
+
+		//seg#0 : 0~99
+		collection.addSegment(SyntheticCollection.range(0, 100));
+		//seg#1 : 100~199, 5(seg#0) 와 150(seg#1) 삭제.
+		collection.addSegment(SyntheticCollection.range(100, 200), "5", "150");
+		//seg#2 : 180~259, 180~199 는 seg#1 의 문서를 업데이트. 120(seg#1) 과 210(seg#2) 삭제.
+		collection.addSegment(SyntheticCollection.range(180, 260), "120", "210");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		collection.close();
+	}
+
+	@Test
+	public void testMergeTailSegments() throws Exception {
+		assertEquals(3, collectionHandler.segmentSize());
+		assertEquals(1, collectionHandler.segmentReader(0).deleteSet().cardinality());
+		assertEquals(22, collectionHandler.segmentReader(1).deleteSet().cardinality());
+		assertEquals(1, collectionHandler.segmentReader(2).deleteSet().cardinality());
+		SegmentReader firstSegmentReader = collectionHandler.segmentReader(0);
+
+		SegmentInfo mergedSegmentInfo = collectionHandler.mergeSegments(1);
+
+		//세그먼트 리스트 교체.
+		assertEquals(2, collectionHandler.segmentSize());
+		assertTrue(firstSegmentReader == collectionHandler.segmentReader(0));
+		SegmentReader mergedSegmentReader = collectionHandler.segmentReader(1);
+		assertEquals("1", mergedSegmentInfo.getId());
+		assertEquals(100, mergedSegmentInfo.getBaseNumber());
+		assertEquals(2, collection.collectionContext().dataInfo().getSegmentSize());
+		assertTrue(mergedSegmentInfo == collection.collectionContext().dataInfo().getLastSegmentInfo());
+		assertTrue(mergedSegmentInfo == mergedSegmentReader.segmentInfo());
+		File indexDir = mergedSegmentReader.segmentDir().getParentFile();
+		assertFalse(new File(indexDir, "2").exists());
+		assertFalse(new File(indexDir, ".merge").exists());
+
+		//삭제문서 제거. seg#1 78개 + seg#2 79개.
+		assertEquals(157, mergedSegmentReader.docCount());
+		assertEquals(157, mergedSegmentInfo.getRevisionInfo().getDocumentCount());
+		assertEquals(0, mergedSegmentReader.deleteSet().cardinality());
+		assertEquals(23, collectionHandler.mergeStatistics().getLastPurgeCount());
+		assertEquals(157, collectionHandler.mergeStatistics().getLastDocumentCount());
+
+		assertMergedSegment(mergedSegmentReader);
+
+		//이전 세그먼트의 삭제문서는 유지된다.
+		assertDeleteSetCarried(collectionHandler);
+
+		//재로딩해도 머징된 세그먼트와 delete.set 이 그대로 읽혀야 한다.
+		CollectionHandler reloadedHandler = collection.newCollectionHandler();
+		try {
+			assertEquals(2, reloadedHandler.segmentSize());
+			assertEquals(157, reloadedHandler.segmentReader(1).docCount());
+			assertEquals(0, reloadedHandler.segmentReader(1).deleteSet().cardinality());
+			assertDeleteSetCarried(reloadedHandler);
+		} finally {
+			reloadedHandler.close();
+		}
+	}
+
+	@Test
+	public void testMergeThenAddSegment() throws Exception {
+		collectionHandler.mergeSegments(1);
+
+		//머징후 증분색인이 머징된 세그먼트의 문서를 업데이트하고 삭제할수 있어야 한다.
+		SegmentInfo segmentInfo = collection.addSegment(SyntheticCollection.range(250, 270), "110", "3");
+		assertEquals("2", segmentInfo.getId());
+		assertEquals(257, segmentInfo.getBaseNumber());
+		assertEquals(3, collectionHandler.segmentSize());
+
+		assertEquals(2, collectionHandler.segmentReader(0).deleteSet().cardinality());
+		assertTrue(collectionHandler.segmentReader(0).deleteSet().isSet(3));
+		//250~259 업데이트 10개와 110 삭제.
+		assertEquals(11, collectionHandler.segmentReader(1).deleteSet().cardinality());
+		assertEquals(0, collectionHandler.segmentReader(2).deleteSet().cardinality());
+	}
+
+	private void assertMergedSegment(SegmentReader mergedSegmentReader) throws Exception {
+		PrimaryKeysToBytesRef primaryKeysToBytesRef = new PrimaryKeysToBytesRef(collectionHandler.schema());
+		PrimaryKeyIndexReader pkReader = new PrimaryKeyIndexReader(mergedSegmentReader.revisionDir(), IndexFileNames.primaryKeyMap);
+		DocumentReader documentReader = mergedSegmentReader.newDocumentReader();
+		try {
+			for (int id = 100; id < 260; id++) {
+				int docNo = pkReader.get(primaryKeysToBytesRef.getBytesRef(new PrimaryKeys(Integer.toString(id))));
+				if (id == 120 || id == 150 || id == 210) {
+					assertEquals("deleted id " + id, -1, docNo);
+					continue;
+				}
+				assertTrue("id " + id, docNo >= 0 && docNo < 157);
+				Document document = documentReader.readDocument(docNo);
+				assertEquals(Integer.toString(id), document.get(0).toString());
+				assertEquals(SyntheticCollection.title(id), document.get(1).toString());
+			}
+			//업데이트된 180~199 는 seg#2 의 문서이므로 seg#1 의 남은 문서 뒤에 놓인다.
+			assertEquals(78, pkReader.get(primaryKeysToBytesRef.getBytesRef(new PrimaryKeys("180"))));
+		} finally {
+			pkReader.close();
+		}
+	}
+
+	private void assertDeleteSetCarried(CollectionHandler collectionHandler) throws Exception {
+		SegmentReader firstSegmentReader = collectionHandler.segmentReader(0);
+		assertEquals(1, firstSegmentReader.deleteSet().cardinality());
+		assertTrue(firstSegmentReader.deleteSet().isSet(5));
+		File deleteSetFile = new File(collectionHandler.segmentReader(1).revisionDir(), IndexFileNames.getSuffixFileName(IndexFileNames.docDeleteSet, "0"));
+		assertTrue(deleteSetFile.exists());
+	}
+}
@@ -0,0 +1,198 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.filter.FilterFunction;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
+import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnCacheTest {
+
+	private static final int COUNT = 1000;
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("column", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	private File write(String name, int dataSize) throws IOException {
+		File f = new File(dir, name);
+		BufferedFileOutput output = new BufferedFileOutput(f);
+		Random r = new Random(dataSize);
+		byte[] buf = new byte[dataSize];
+		for (int i = 0; i < COUNT; i++) {
+			r.nextBytes(buf);
+			output.writeBytes(buf, 0, dataSize);
+		}
+		output.close();
+		return f;
+	}
+
+	private FieldIndexReader open(File dataFile, int dataSize, String mode) throws IOException, IRException {
+		FieldIndexReader reader = new FieldIndexReader();
+		reader.init("F", new FieldSetting("F", "F", FieldSetting.Type.ASTRING), dataFile, null, dataSize, IndexInputFactory.DEFAULT,
+				IndexInputFactory.FIELD_INDEX, mode);
+		return reader;
+	}
+
+	@Test
+	public void testReadSameAsFile() throws IOException, IRException {
+		for (int dataSize : new int[] { 4, 8, 6 }) {
+			File dataFile = write("f" + dataSize, dataSize);
+			for (String mode : new String[] { ColumnCache.HEAP, ColumnCache.OFFHEAP }) {
+				FieldIndexReader expected = open(dataFile, dataSize, null);
+				FieldIndexReader reader = open(dataFile, dataSize, mode);
+				assertNull(expected.columnCache());
+				assertNotNull(reader.columnCache());
+				assertEquals(COUNT, reader.columnCache().docCount());
+
+				for (int docNo = COUNT - 1; docNo >= 0; docNo -= 7) {
+					expected.read(docNo);
+					reader.read(docNo);
+					assertTrue(mode + ":" + dataSize, Arrays.equals(expected.getRef().bytesRef().bytes, reader.getRef().bytesRef().bytes));
+				}
+				expected.close();
+				reader.close();
+			}
+		}
+	}
+
+	@Test
+	public void testTypedValue() throws IOException, IRException {
+		File f = new File(dir, "typed");
+		BufferedFileOutput output = new BufferedFileOutput(f);
+		for (int i = 0; i < COUNT; i++) {
+			output.writeLong(Double.doubleToLongBits(i * 0.5));
+		}
+		output.close();
+		for (String mode : Arrays.asList(ColumnCache.HEAP, ColumnCache.OFFHEAP)) {
+			FieldIndexReader reader = open(f, 8, mode);
+			ColumnCache column = reader.columnCache();
+			assertEquals(123 * 0.5, column.getDouble(123), 0);
+			assertEquals(Double.doubleToLongBits(999 * 0.5), column.getLong(999));
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testMemoryAccounting() throws IOException, IRException {
+		File dataFile = write("acc", 4);
+		long heap = ColumnCache.heapMemorySize();
+		long offHeap = ColumnCache.offHeapMemorySize();
+
+		FieldIndexReader heapReader = open(dataFile, 4, ColumnCache.HEAP);
+		FieldIndexReader offHeapReader = open(dataFile, 4, ColumnCache.OFFHEAP);
+		assertEquals(heap + COUNT * 4, ColumnCache.heapMemorySize());
+		assertEquals(offHeap + COUNT * 4, ColumnCache.offHeapMemorySize());
+
+		//clone 은 컬럼을 공유하고, close 해도 사용량이 줄지 않는다.
+		FieldIndexReader clone = heapReader.clone();
+		assertSame(heapReader.columnCache(), clone.columnCache());
+		clone.close();
+		assertEquals(heap + COUNT * 4, ColumnCache.heapMemorySize());
+
+		heapReader.close();
+		offHeapReader.close();
+		assertEquals(heap, ColumnCache.heapMemorySize());
+		assertEquals(offHeap, ColumnCache.offHeapMemorySize());
+	}
+
+	@Test
+	public void testColumnFilterSameAsBytes() throws Exception {
+		File intFile = new File(dir, "int");
+		File floatFile = new File(dir, "float");
+		BufferedFileOutput intOutput = new BufferedFileOutput(intFile);
+		BufferedFileOutput floatOutput = new BufferedFileOutput(floatFile);
+		for (int i = 0; i < COUNT; i++) {
+			intOutput.writeInt(i * 7 % 1000);
+			floatOutput.writeInt(Float.floatToIntBits(i * 0.25f));
+		}
+		intOutput.close();
+		floatOutput.close();
+
+		FieldSetting intSetting = new FieldSetting("F", "F", FieldSetting.Type.INT);
+		FieldSetting floatSetting = new FieldSetting("F", "F", FieldSetting.Type.FLOAT);
+		Filter[] intFilters = new Filter[] { new Filter("F", Filter.SECTION, "100", "500"), new Filter("F", Filter.MATCH, "301"),
+				new Filter("F", Filter.EXCLUDE, "301"), new Filter("F", Filter.SECTION_BOOST, "0", "10", 5) };
+		for (String mode : new String[] { ColumnCache.HEAP, ColumnCache.OFFHEAP }) {
+			assertSameFiltering(intFile, intSetting, intFilters, mode);
+
+			//실수는 값의 크기로 비교한다.
+			FieldIndexReader reader = new FieldIndexReader();
+			reader.init("F", floatSetting, floatFile, null, 4, IndexInputFactory.DEFAULT, IndexInputFactory.FIELD_INDEX, mode);
+			FilterFunction section = new Filter("F", Filter.SECTION, "10.5", "100.25").createFilterFunction(null, floatSetting);
+			FilterFunction match = new Filter("F", Filter.MATCH, "12.75").createFilterFunction(null, floatSetting);
+			assertTrue(section.isColumnFilter(reader.columnCache()));
+			for (int docNo = 0; docNo < COUNT; docNo++) {
+				RankInfo rankInfo = new RankInfo();
+				rankInfo.init(docNo, 0);
+				float value = docNo * 0.25f;
+				assertEquals(value >= 10.5f && value <= 100.25f, section.filtering(rankInfo, reader.columnCache()));
+				assertEquals(value == 12.75f, match.filtering(rankInfo, reader.columnCache()));
+			}
+			reader.close();
+		}
+	}
+
+	private void assertSameFiltering(File dataFile, FieldSetting fieldSetting, Filter[] filters, String mode) throws Exception {
+		FieldIndexReader expected = new FieldIndexReader();
+		expected.init("F", fieldSetting, dataFile, null, 4, IndexInputFactory.DEFAULT, IndexInputFactory.FIELD_INDEX, null);
+		FieldIndexReader reader = new FieldIndexReader();
+		reader.init("F", fieldSetting, dataFile, null, 4, IndexInputFactory.DEFAULT, IndexInputFactory.FIELD_INDEX, mode);
+		ColumnCache column = reader.columnCache();
+		for (Filter filter : filters) {
+			FilterFunction function = filter.createFilterFunction(null, fieldSetting);
+			assertTrue(function.isColumnFilter(column));
+			//boost 필터는 모두 통과시키고 점수만 더한다.
+			int matchCount = 0;
+			int boostCount = 0;
+			for (int docNo = 0; docNo < COUNT; docNo++) {
+				RankInfo expectedRankInfo = new RankInfo();
+				expectedRankInfo.init(docNo, 0);
+				expected.read(docNo);
+				boolean expectedMatch = function.filtering(expectedRankInfo, expected.getRef());
+				RankInfo rankInfo = new RankInfo();
+				rankInfo.init(docNo, 0);
+				assertEquals(mode + ":" + filter + ":" + docNo, expectedMatch, function.filtering(rankInfo, column));
+				assertEquals(expectedRankInfo.score(), rankInfo.score());
+				if (expectedMatch) {
+					matchCount++;
+				}
+				if (rankInfo.score() > 0) {
+					boostCount++;
+				}
+			}
+			assertTrue(matchCount > 0 && (matchCount < COUNT || (boostCount > 0 && boostCount < COUNT)));
+		}
+		expected.close();
+		reader.close();
+	}
+}
@@ -0,0 +1,139 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.index.LexiconTrieWriter;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LexiconTrieTest {
+
+	private static final String INDEX_ID = "title";
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("trie", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	//TempSearchFieldMerger 와 같은 형식으로 lexicon 을 기록하고 trie 를 만든다. posting 위치는 ordinal * 10 으로 기록한다.
+	private LexiconTrie build(String[] terms) throws IOException {
+		BufferedFileOutput lexiconOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchLexiconFileName(INDEX_ID));
+		lexiconOutput.writeInt(terms.length);
+		for (int i = 0; i < terms.length; i++) {
+			char[] term = terms[i].toCharArray();
+			lexiconOutput.writeUString(term, 0, term.length);
+			lexiconOutput.writeLong(i * 10L);
+		}
+		lexiconOutput.close();
+		new LexiconTrieWriter(INDEX_ID).write(dir);
+		return LexiconTrie.load(dir, INDEX_ID);
+	}
+
+	private int[] expected(String[] terms, String pattern, int type) {
+		List<Integer> list = new ArrayList<Integer>();
+		for (int i = 0; i < terms.length; i++) {
+			boolean match = type == 0 ? terms[i].startsWith(pattern) : type == 1 ? terms[i].endsWith(pattern) : terms[i].contains(pattern);
+			if (match) {
+				list.add(i);
+			}
+		}
+		int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+
+	@Test
+	public void testLookup() throws IOException {
+		String[] terms = new String[] { "A", "AB", "ABC", "ABD", "B", "BA", "CAB", "가나", "가나다" };
+		LexiconTrie trie = build(terms);
+		assertNotNull(trie);
+		assertEquals(terms.length, trie.termCount());
+		for (int i = 0; i < terms.length; i++) {
+			int ordinal = trie.find(new CharVector(terms[i]));
+			assertEquals(i, ordinal);
+			assertEquals(i * 10L, trie.postingPosition(ordinal));
+		}
+		assertEquals(-1, trie.find(new CharVector("AA")));
+		assertEquals(-1, trie.find(new CharVector("ABCD")));
+		assertEquals(-1, trie.find(new CharVector("가")));
+
+		assertEquals(0, trie.ceiling(new CharVector("")));
+		assertEquals(1, trie.ceiling(new CharVector("AA")));
+		assertEquals(4, trie.ceiling(new CharVector("ABE")));
+		assertEquals(6, trie.ceiling(new CharVector("C")));
+		assertEquals(terms.length, trie.ceiling(new CharVector("힣")));
+
+		int[] range = new int[2];
+		assertTrue(trie.prefixRange(new CharVector("AB"), range));
+		assertEquals(1, range[0]);
+		assertEquals(4, range[1]);
+		assertFalse(trie.prefixRange(new CharVector("D"), range));
+
+		assertTrue(Arrays.equals(new int[] { 1, 6 }, trie.suffixOrdinals(new CharVector("AB"))));
+		assertTrue(Arrays.equals(new int[] { 1, 2, 3, 6 }, trie.infixOrdinals(new CharVector("AB"))));
+		assertTrue(Arrays.equals(new int[] { 7, 8 }, trie.infixOrdinals(new CharVector("나"))));
+	}
+
+	@Test
+	public void testRandomTerms() throws IOException {
+		Random r = new Random(1);
+		TreeSet<String> set = new TreeSet<String>();
+		while (set.size() < 5000) {
+			int len = r.nextInt(8) + 1;
+			char[] term = new char[len];
+			for (int i = 0; i < len; i++) {
+				term[i] = (char) ('A' + r.nextInt(4));
+			}
+			set.add(new String(term));
+		}
+		String[] terms = set.toArray(new String[0]);
+		LexiconTrie trie = build(terms);
+		for (int i = 0; i < terms.length; i++) {
+			assertEquals(i, trie.find(new CharVector(terms[i])));
+		}
+		String[] patterns = new String[] { "A", "AB", "CDA", "DDDD", "BAC" };
+		for (String pattern : patterns) {
+			int[] prefix = expected(terms, pattern, 0);
+			int[] range = new int[2];
+			trie.prefixRange(new CharVector(pattern), range);
+			assertEquals(prefix.length, range[1] - range[0]);
+			assertTrue(Arrays.equals(expected(terms, pattern, 1), trie.suffixOrdinals(new CharVector(pattern))));
+			assertTrue(Arrays.equals(expected(terms, pattern, 2), trie.infixOrdinals(new CharVector(pattern))));
+		}
+	}
+
+	@Test
+	public void testNoTrieFile() throws IOException {
+		assertNull(LexiconTrie.load(dir, INDEX_ID));
+	}
+}
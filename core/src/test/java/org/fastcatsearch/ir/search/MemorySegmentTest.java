@@ -0,0 +1,189 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.PrimaryKeys;
+import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.Metadata;
+import org.fastcatsearch.ir.query.Query;
+import org.fastcatsearch.ir.query.Row;
+import org.fastcatsearch.ir.query.Sort;
+import org.fastcatsearch.ir.query.Sorts;
+import org.fastcatsearch.ir.query.Term;
+import org.fastcatsearch.ir.query.View;
+import org.fastcatsearch.ir.query.ViewContainer;
+import org.fastcatsearch.ir.search.clause.Clause;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * push 된 문서가 세그먼트 반영전에 메모리 세그먼트에서 검색되고, 세그먼트 문서를 가리는지 확인한다.
+ * */
+public class MemorySegmentTest {
+
+	private SyntheticCollection collection;
+	private CollectionHandler collectionHandler;
+
+	@Before
+	public void setUp() throws Exception {
+		collection = new SyntheticCollection(new File("temp/memory_segment_test"));
+		collectionHandler = collection.collectionHandler();
+		collection.addSegment(SyntheticCollection.range(0, 100));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		collection.close();
+	}
+
+	@Test
+	public void testPushedDocumentSearch() throws Exception {
+		//신규 200, 201 과 세그먼트 문서 7 업데이트, 14 삭제.
+		push(1, new int[] { 200, 201, 7 }, "14");
+
+		Set<String> idSet = searchIds(new Term("TITLE_INDEX", "apple"));
+		//7 과 14 는 apple 문서이다.
+		assertTrue(SyntheticCollection.title(7).contains("apple"));
+		assertTrue(SyntheticCollection.title(14).contains("apple"));
+		assertTrue(idSet.contains("7"));
+		assertFalse(idSet.contains("14"));
+		int expected = 0;
+		for (int id = 0; id < 100; id++) {
+			if (id != 14 && SyntheticCollection.title(id).contains("apple")) {
+				expected++;
+			}
+		}
+		for (int id : new int[] { 200, 201 }) {
+			if (SyntheticCollection.title(id).contains("apple")) {
+				assertTrue(idSet.contains(Integer.toString(id)));
+				expected++;
+			}
+		}
+		assertEquals(expected, idSet.size());
+
+		//pk 검색은 메모리 문서를 찾는다.
+		Query q = query(new Term("_PK", "201 7"));
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(q);
+		assertEquals(2, result.getTotalCount());
+		for (int i = 0; i < result.getCount(); i++) {
+			assertEquals(MemorySegment.SEQUENCE, result.getHitElementList()[i].segmentSequence());
+		}
+
+		//삭제문서는 세그먼트에서도 가려진다.
+		assertEquals(0, collectionHandler.searcher().searchInternal(query(new Term("_PK", "14"))).getTotalCount());
+	}
+
+	@Test
+	public void testSortAndFetch() throws Exception {
+		push(1, new int[] { 300, 301, 302 });
+
+		Query q = query(null);
+		q.setMeta(new Metadata(1, 103));
+		Sorts sorts = new Sorts();
+		sorts.add(new Sort("PRICE", false));
+		q.setSorts(sorts);
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(q);
+		assertEquals(103, result.getTotalCount());
+
+		DocIdList docIdList = new DocIdList();
+		for (int i = 0; i < result.getCount(); i++) {
+			HitElement e = result.getHitElementList()[i];
+			docIdList.add(e.segmentSequence(), e.docNo());
+		}
+		ViewContainer views = new ViewContainer();
+		views.add(new View("ID"));
+		views.add(new View("PRICE"));
+		DocumentResult documentResult = collectionHandler.searcher().searchDocument(docIdList, views, null, null);
+		Row[] rows = documentResult.rows();
+		int prevPrice = Integer.MAX_VALUE;
+		Set<String> idSet = new HashSet<String>();
+		for (Row row : rows) {
+			int id = Integer.parseInt(new String(row.get(0)));
+			int price = Integer.parseInt(new String(row.get(1)));
+			assertEquals(SyntheticCollection.price(id), price);
+			assertTrue(price <= prevPrice);
+			prevPrice = price;
+			idSet.add(Integer.toString(id));
+		}
+		assertTrue(idSet.contains("300"));
+		assertTrue(idSet.contains("301"));
+		assertTrue(idSet.contains("302"));
+	}
+
+	@Test
+	public void testDropAfterSegmentApplied() throws Exception {
+		push(1, new int[] { 7 }, "14");
+		push(2, new int[] { 400 });
+		assertTrue(collectionHandler.segmentReader(0).deleteSet().isSet(7));
+		assertTrue(collectionHandler.segmentReader(0).deleteSet().isSet(14));
+
+		//1번 push 를 색인한 세그먼트를 반영한다. 2번 push 는 아직 메모리에 남는다.
+		collection.addSegment(new int[] { 7 }, "14");
+		assertTrue(collectionHandler.segmentReader(0).deleteSet().isSet(7));
+		collectionHandler.dropPushedDocuments(1);
+		assertEquals(1, collectionHandler.memorySegment().size());
+
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(query(new Term("TITLE_INDEX", "doc7")));
+		assertEquals(1, result.getTotalCount());
+		assertEquals(1, result.getHitElementList()[0].segmentSequence());
+		assertEquals(0, collectionHandler.searcher().searchInternal(query(new Term("TITLE_INDEX", "doc14"))).getTotalCount());
+		result = collectionHandler.searcher().searchInternal(query(new Term("TITLE_INDEX", "doc400")));
+		assertEquals(1, result.getTotalCount());
+		assertEquals(MemorySegment.SEQUENCE, result.getHitElementList()[0].segmentSequence());
+
+		//메모리로만 가렸던 문서는 drop 후 다시 보인다.
+		push(3, new int[] { 20 });
+		assertTrue(collectionHandler.segmentReader(0).deleteSet().isSet(20));
+		collectionHandler.dropPushedDocuments(3);
+		assertFalse(collectionHandler.segmentReader(0).deleteSet().isSet(20));
+		assertEquals(1, collectionHandler.searcher().searchInternal(query(new Term("TITLE_INDEX", "doc20"))).getTotalCount());
+	}
+
+	private void push(int generation, int[] idList, String... deleteIdList) throws Exception {
+		List<Document> documentList = new ArrayList<Document>();
+		for (int id : idList) {
+			documentList.add(collection.document(id));
+		}
+		List<PrimaryKeys> deleteList = new ArrayList<PrimaryKeys>();
+		for (String deleteId : deleteIdList) {
+			deleteList.add(new PrimaryKeys(deleteId));
+		}
+		collectionHandler.pushDocuments(documentList, deleteList, generation);
+	}
+
+	private Query query(Term term) {
+		Query q = new Query();
+		q.setMeta(new Metadata(1, 200));
+		if (term != null) {
+			q.setClause(new Clause(term));
+		}
+		return q;
+	}
+
+	private Set<String> searchIds(Term term) throws Exception {
+		InternalSearchResult result = collectionHandler.searcher().searchInternal(query(term));
+		assertEquals(result.getTotalCount(), result.getCount());
+		DocIdList docIdList = new DocIdList();
+		for (int i = 0; i < result.getCount(); i++) {
+			HitElement e = result.getHitElementList()[i];
+			docIdList.add(e.segmentSequence(), e.docNo());
+		}
+		ViewContainer views = new ViewContainer();
+		views.add(new View("ID"));
+		Set<String> idSet = new HashSet<String>();
+		for (Row row : collectionHandler.searcher().searchDocument(docIdList, views, null, null).rows()) {
+			idSet.add(new String(row.get(0)));
+		}
+		return idSet;
+	}
+}
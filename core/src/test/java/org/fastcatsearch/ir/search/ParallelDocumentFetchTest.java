@@ -0,0 +1,165 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.fastcatsearch.ir.field.DocNoField;
+import org.fastcatsearch.ir.query.HighlightInfo;
+import org.fastcatsearch.ir.query.Row;
+import org.fastcatsearch.ir.query.Term;
+import org.fastcatsearch.ir.query.View;
+import org.fastcatsearch.ir.query.ViewContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * 같은 DocIdList 를 순차로 읽은 결과와 parallel-document-fetch-size 를 나누어 병렬로 읽은 결과가 같은지 확인한다.
+ * */
+public class ParallelDocumentFetchTest {
+
+	private static final int SEGMENT_DOC_SIZE = 100;
+	private static final int ROW_SIZE = 60;
+	private static final String[] TAGS = new String[] { "<b>", "</b>" };
+
+	private SyntheticCollection collection;
+	private CollectionHandler collectionHandler;
+
+	@BeforeClass
+	public static void setUpExecutor() {
+		//코어가 하나인 환경에서도 구간을 나누어 읽도록 쓰레드를 여러개 둔다.
+		if (System.getProperty("segmentSearchThreadSize") == null) {
+			System.setProperty("segmentSearchThreadSize", "4");
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		collection = new SyntheticCollection(new File("temp/parallel_document_fetch_test"));
+		collectionHandler = collection.collectionHandler();
+		for (int i = 0; i < 3; i++) {
+			collection.addSegment(SyntheticCollection.range(i * SEGMENT_DOC_SIZE, (i + 1) * SEGMENT_DOC_SIZE));
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		collection.close();
+	}
+
+	@Test
+	public void testParallelFetchSameAsSequential() throws Exception {
+		DocIdList docIdList = new DocIdList();
+		for (int i = 0; i < ROW_SIZE; i++) {
+			int segmentSequence = i % 3;
+			int docNo = (i * 37) % SEGMENT_DOC_SIZE;
+			DocIdList bundleDocIdList = null;
+			if (i % 5 == 0) {
+				//묶음문서는 다른 세그먼트의 문서로 채운다.
+				bundleDocIdList = new DocIdList();
+				for (int j = 1; j <= 3; j++) {
+					bundleDocIdList.add((segmentSequence + j) % 3, (docNo + j) % SEGMENT_DOC_SIZE);
+				}
+			}
+			docIdList.add(segmentSequence, docNo, bundleDocIdList);
+		}
+
+		ViewContainer views = new ViewContainer();
+		views.add(new View("ID"));
+		views.add(new View("TITLE"));
+		views.add(new View("PRICE"));
+		views.add(new View("CATEGORY"));
+		views.add(new View(DocNoField.fieldName));
+
+		HighlightInfo highlightInfo = new HighlightInfo();
+		highlightInfo.add("TITLE", SyntheticCollection.ANALYZER_ID, SyntheticCollection.ANALYZER_ID, "apple", Term.HIGHLIGHT);
+
+		collection.collectionConfig().setParallelDocumentFetchSize(0);
+		DocumentResult sequentialResult = collectionHandler.searcher().searchDocument(docIdList, views, TAGS, highlightInfo);
+
+		//작업당 4개씩, 여러 구간으로 나누어 읽는다.
+		collection.collectionConfig().setParallelDocumentFetchSize(4);
+		DocumentResult parallelResult = collectionHandler.searcher().searchDocument(docIdList, views, TAGS, highlightInfo);
+
+		Row[] sequentialRows = sequentialResult.rows();
+		Row[] parallelRows = parallelResult.rows();
+		assertEquals(ROW_SIZE, sequentialRows.length);
+		assertEquals(ROW_SIZE, parallelRows.length);
+		int highlightCount = 0;
+		for (int i = 0; i < ROW_SIZE; i++) {
+			assertRowEquals(sequentialRows[i], parallelRows[i]);
+			int id = docIdList.segmentSequence(i) * SEGMENT_DOC_SIZE + docIdList.docNo(i);
+			assertEquals(Integer.toString(id), new String(parallelRows[i].get(0)));
+			String title = new String(parallelRows[i].get(1));
+			if (SyntheticCollection.title(id).contains("apple")) {
+				assertTrue(title, title.contains("<b>apple</b>"));
+				highlightCount++;
+			} else {
+				assertEquals(SyntheticCollection.title(id), title);
+			}
+		}
+		assertTrue(highlightCount > 0);
+
+		Row[][] sequentialBundleRows = sequentialResult.bundleRows();
+		Row[][] parallelBundleRows = parallelResult.bundleRows();
+		assertNotNull(parallelBundleRows);
+		assertEquals(ROW_SIZE, parallelBundleRows.length);
+		for (int i = 0; i < ROW_SIZE; i++) {
+			DocIdList bundleDocIdList = docIdList.bundleDocIdList(i);
+			if (bundleDocIdList == null) {
+				assertNull(sequentialBundleRows[i]);
+				assertNull(parallelBundleRows[i]);
+				continue;
+			}
+			assertEquals(bundleDocIdList.size(), sequentialBundleRows[i].length);
+			assertEquals(bundleDocIdList.size(), parallelBundleRows[i].length);
+			for (int j = 0; j < bundleDocIdList.size(); j++) {
+				assertRowEquals(sequentialBundleRows[i][j], parallelBundleRows[i][j]);
+				int id = bundleDocIdList.segmentSequence(j) * SEGMENT_DOC_SIZE + bundleDocIdList.docNo(j);
+				assertEquals(Integer.toString(id), new String(parallelBundleRows[i][j].get(0)));
+			}
+		}
+	}
+
+	@Test
+	public void testParallelFetchWithoutBundle() throws Exception {
+		DocIdList docIdList = new DocIdList();
+		for (int i = 0; i < ROW_SIZE; i++) {
+			docIdList.add(2 - (i % 3), SEGMENT_DOC_SIZE - 1 - i);
+		}
+		ViewContainer views = new ViewContainer();
+		views.add(new View("ID"));
+		views.add(new View("TITLE"));
+
+		collection.collectionConfig().setParallelDocumentFetchSize(0);
+		DocumentResult sequentialResult = collectionHandler.searcher().searchDocument(docIdList, views, TAGS, null);
+		collection.collectionConfig().setParallelDocumentFetchSize(7);
+		DocumentResult parallelResult = collectionHandler.searcher().searchDocument(docIdList, views, TAGS, null);
+
+		assertNull(sequentialResult.bundleRows());
+		assertNull(parallelResult.bundleRows());
+		for (int i = 0; i < ROW_SIZE; i++) {
+			assertRowEquals(sequentialResult.rows()[i], parallelResult.rows()[i]);
+			int id = docIdList.segmentSequence(i) * SEGMENT_DOC_SIZE + docIdList.docNo(i);
+			assertEquals(Integer.toString(id), new String(parallelResult.rows()[i].get(0)));
+		}
+	}
+
+	private void assertRowEquals(Row expected, Row actual) {
+		assertEquals(expected.getFieldCount(), actual.getFieldCount());
+		for (int i = 0; i < expected.getFieldCount(); i++) {
+			char[] expectedData = expected.get(i);
+			char[] actualData = actual.get(i);
+			if (expectedData == null) {
+				assertNull(actualData);
+			} else {
+				assertEquals(new String(expectedData), new String(actualData));
+			}
+		}
+	}
+}
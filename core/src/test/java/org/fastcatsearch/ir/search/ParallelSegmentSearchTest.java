@@ -0,0 +1,152 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.fastcatsearch.ir.group.GroupEntryList;
+import org.fastcatsearch.ir.group.GroupFunction;
+import org.fastcatsearch.ir.group.GroupFunctionType;
+import org.fastcatsearch.ir.group.GroupsData;
+import org.fastcatsearch.ir.query.Group;
+import org.fastcatsearch.ir.query.Groups;
+import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.Metadata;
+import org.fastcatsearch.ir.query.Query;
+import org.fastcatsearch.ir.query.Sort;
+import org.fastcatsearch.ir.query.Sorts;
+import org.fastcatsearch.ir.query.Term;
+import org.fastcatsearch.ir.search.clause.Clause;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * 여러 세그먼트로 된 컬렉션을 임시 디렉토리에 만들고, 순차검색과 세그먼트 병렬검색의 결과와 응답시간을 비교한다.
+ * */
+public class ParallelSegmentSearchTest {
+
+	private static final int SEGMENT_SIZE = 4;
+	private static final int SEGMENT_DOC_SIZE = 500;
+	private static final int WARMUP = 20;
+	private static final int COUNT = 200;
+
+	private SyntheticCollection collection;
+	private CollectionHandler collectionHandler;
+
+	@BeforeClass
+	public static void setUpExecutor() {
+		//코어가 하나인 환경에서도 세그먼트를 동시에 검색하도록 쓰레드를 여러개 둔다.
+		if (System.getProperty("segmentSearchThreadSize") == null) {
+			System.setProperty("segmentSearchThreadSize", "4");
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		collection = new SyntheticCollection(new File("temp/parallel_segment_search_test"));
+		collectionHandler = collection.collectionHandler();
+		for (int i = 0; i < SEGMENT_SIZE; i++) {
+			int from = i * SEGMENT_DOC_SIZE;
+			if (i == 0) {
+				collection.addSegment(SyntheticCollection.range(from, from + SEGMENT_DOC_SIZE));
+			} else {
+				//이전 세그먼트 문서 일부를 업데이트하고 삭제하여 delete.set 을 채운다.
+				collection.addSegment(SyntheticCollection.range(from - 10, from + SEGMENT_DOC_SIZE), Integer.toString(from - 100), Integer.toString(from + 7));
+			}
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		collection.collectionConfig().setParallelSegmentSearch(false);
+		collection.close();
+	}
+
+	@Test
+	public void testAllDocumentsSortByPrice() throws Exception {
+		Query q = new Query();
+		q.setMeta(new Metadata(1, 50));
+		Sorts sorts = new Sorts();
+		sorts.add(new Sort("PRICE", false));
+		q.setSorts(sorts);
+		compare("all / price desc", q);
+	}
+
+	@Test
+	public void testTermSearchWithGroup() throws Exception {
+		Query q = new Query();
+		q.setMeta(new Metadata(1, 30));
+		q.setClause(new Clause(new Term("TITLE_INDEX", "apple")));
+		Sorts sorts = new Sorts();
+		sorts.add(new Sort("PRICE", true));
+		q.setSorts(sorts);
+		Groups groups = new Groups();
+		groups.add(new Group("CATEGORY", new GroupFunction[] { new GroupFunction(GroupFunctionType.COUNT, Group.SORT_VALUE_DESC, null) }, Group.SORT_KEY_ASC, 0));
+		q.setGroups(groups);
+		compare("apple / price asc / group", q);
+	}
+
+	@Test
+	public void testTermSearchByScore() throws Exception {
+		Query q = new Query();
+		q.setMeta(new Metadata(11, 40));
+		q.setClause(new Clause(new Term("TITLE_INDEX", "banana"), Clause.Operator.OR, new Term("TITLE_INDEX", "cherry")));
+		compare("banana or cherry / score", q);
+	}
+
+	private void compare(String name, Query q) throws Exception {
+		assertEquals(SEGMENT_SIZE, collectionHandler.segmentSize());
+
+		collection.collectionConfig().setParallelSegmentSearch(false);
+		InternalSearchResult sequentialResult = collectionHandler.searcher().searchInternal(q);
+		long sequentialTime = measure(q);
+
+		collection.collectionConfig().setParallelSegmentSearch(true);
+		InternalSearchResult parallelResult = collectionHandler.searcher().searchInternal(q);
+		long parallelTime = measure(q);
+
+		assertTrue(sequentialResult.getCount() > 0);
+		assertEquals(sequentialResult.getTotalCount(), parallelResult.getTotalCount());
+		assertEquals(sequentialResult.getCount(), parallelResult.getCount());
+		for (int i = 0; i < sequentialResult.getCount(); i++) {
+			HitElement e1 = sequentialResult.getHitElementList()[i];
+			HitElement e2 = parallelResult.getHitElementList()[i];
+			assertEquals(e1.segmentSequence(), e2.segmentSequence());
+			assertEquals(e1.docNo(), e2.docNo());
+			assertEquals(e1.score(), e2.score());
+		}
+
+		GroupsData sequentialGroups = sequentialResult.getGroupsData();
+		GroupsData parallelGroups = parallelResult.getGroupsData();
+		if (sequentialGroups != null) {
+			assertEquals(sequentialGroups.groupSize(), parallelGroups.groupSize());
+			assertEquals(sequentialGroups.totalSearchCount(), parallelGroups.totalSearchCount());
+			for (int i = 0; i < sequentialGroups.groupSize(); i++) {
+				GroupEntryList list1 = sequentialGroups.getGroupEntryList(i);
+				GroupEntryList list2 = parallelGroups.getGroupEntryList(i);
+				assertEquals(list1.size(), list2.size());
+				for (int j = 0; j < list1.size(); j++) {
+					assertEquals(list1.getEntry(j).toString(), list2.getEntry(j).toString());
+				}
+			}
+		}
+
+		System.out.println("[" + name + "] segment = " + collectionHandler.segmentSize() + ", total = " + sequentialResult.getTotalCount());
+		System.out.println("[" + name + "] sequential avg = " + (sequentialTime / COUNT / 1000) + "us");
+		System.out.println("[" + name + "] parallel   avg = " + (parallelTime / COUNT / 1000) + "us");
+	}
+
+	private long measure(Query q) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			collectionHandler.searcher().searchInternal(q);
+		}
+		long st = System.nanoTime();
+		for (int i = 0; i < COUNT; i++) {
+			collectionHandler.searcher().searchInternal(q);
+		}
+		return System.nanoTime() - st;
+	}
+}
@@ -0,0 +1,73 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.search.SegmentFilterCache.DocSet;
+import org.junit.Test;
+
+public class SegmentFilterCacheTest {
+
+	private BitSet makeBitSet(int docCount, int step) {
+		BitSet bitSet = new BitSet(docCount / 64 + 1);
+		for (int i = 0; i < docCount; i += step) {
+			bitSet.set(i);
+		}
+		return bitSet;
+	}
+
+	@Test
+	public void testDocSet() {
+		int docCount = 10000;
+		//부합문서가 적으면 배열로 저장한다.
+		DocSet sparse = DocSet.create(makeBitSet(docCount, 100), docCount);
+		assertTrue(sparse.isSparse());
+		assertEquals(100, sparse.cardinality());
+		assertTrue(sparse.contains(0));
+		assertTrue(sparse.contains(9900));
+		assertFalse(sparse.contains(9901));
+		assertEquals(400, sparse.memorySize());
+
+		DocSet dense = DocSet.create(makeBitSet(docCount, 2), docCount);
+		assertFalse(dense.isSparse());
+		assertEquals(5000, dense.cardinality());
+		assertTrue(dense.contains(9998));
+		assertFalse(dense.contains(9999));
+	}
+
+	@Test
+	public void testFrequencyAndRevision() {
+		SegmentFilterCache cache = new SegmentFilterCache(1000, "rev1");
+		String key = new Filter("code", Filter.MATCH, "A").cacheKey();
+		assertNull(cache.get(key, "rev1"));
+		for (int i = 1; i < SegmentFilterCache.MIN_FREQUENCY; i++) {
+			assertFalse(cache.countAndCheck(key));
+		}
+		assertTrue(cache.countAndCheck(key));
+		cache.put(key, "rev1", DocSet.create(makeBitSet(1000, 10), 1000));
+		assertNotNull(cache.get(key, "rev1"));
+		assertEquals(1, cache.size());
+
+		//리비전이 바뀌면 지운다.
+		assertNull(cache.get(key, "rev2"));
+		assertEquals(0, cache.size());
+		//이전 리비전으로 만든 결과는 넣지 않는다.
+		cache.put(key, "rev1", DocSet.create(makeBitSet(1000, 10), 1000));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testCacheKey() {
+		assertEquals(new Filter("code", Filter.MATCH, "A").cacheKey(), new Filter("CODE", Filter.MATCH, "A").cacheKey());
+		assertFalse(new Filter("code", Filter.MATCH, "A").cacheKey().equals(new Filter("code", Filter.MATCH, "B").cacheKey()));
+		assertFalse(new Filter("code", Filter.SECTION, "1", "5").cacheKey().equals(new Filter("code", Filter.SECTION, "1", "6").cacheKey()));
+		assertTrue(new Filter("code", Filter.SECTION, "1", "5").isCacheable());
+		assertFalse(new Filter("code", Filter.MATCH_BOOST, "A", 10).isCacheable());
+		assertFalse(new Filter("loc", Filter.GEO_RADIUS, "A").isCacheable());
+	}
+}
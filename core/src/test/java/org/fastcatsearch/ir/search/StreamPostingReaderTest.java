@@ -0,0 +1,229 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipList;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.clause.AndOperatedClause;
+import org.fastcatsearch.ir.search.clause.NotOperatedClause;
+import org.fastcatsearch.ir.search.clause.OperatedClause;
+import org.fastcatsearch.ir.search.clause.TermOperatedClause;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamPostingReaderTest {
+
+	private File file;
+	private Random random = new Random(1234);
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("block-posting", ".test");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testSequentialRead() throws IOException {
+		int[] docs = makeDocs(5000, 3);
+		IndexFieldOption option = skipBlockOption(true);
+		long[] offsets = write(option, 16, docs);
+
+		PostingReader reader = new StreamPostingReader(new CharVector("a"), 0, 0, 100000, option, new BufferedFileInput(file), offsets[0]);
+		PostingDoc postingDoc = new PostingDoc(-1, 0);
+		for (int i = 0; i < docs.length; i++) {
+			assertTrue(reader.hasNext());
+			if (i % 2 == 0) {
+				assertTrue(reader.next(postingDoc));
+			} else {
+				postingDoc = reader.next();
+			}
+			assertEquals(docs[i], postingDoc.docNo());
+			assertArrayEquals(positions(docs[i]), postingDoc.positions());
+		}
+		assertFalse(reader.hasNext());
+		assertFalse(reader.next(postingDoc));
+		reader.close();
+	}
+
+	@Test
+	public void testAdvance() throws IOException {
+		int[] docs = makeDocs(5000, 10);
+		IndexFieldOption option = skipBlockOption(true);
+		long[] offsets = write(option, 16, docs);
+
+		PostingReader reader = new StreamPostingReader(new CharVector("a"), 0, 0, 100000, option, new BufferedFileInput(file), offsets[0]);
+		PostingDoc postingDoc = new PostingDoc(-1, 0);
+		int current = -1;
+		int target = 0;
+		while (true) {
+			target = Math.max(target, current + 1) + random.nextInt(300);
+			boolean found = reader.advance(target, postingDoc);
+			int expected = firstAtLeast(docs, target);
+			if (expected < 0) {
+				assertFalse(found);
+				break;
+			}
+			assertTrue(found);
+			assertEquals(expected, postingDoc.docNo());
+			assertArrayEquals(positions(expected), postingDoc.positions());
+			current = postingDoc.docNo();
+			// advance 사이에 순차읽기가 섞여도 위치가 맞아야 한다.
+			if (random.nextBoolean() && reader.hasNext()) {
+				current = reader.next().docNo();
+				assertEquals(firstAtLeast(docs, postingDoc.docNo() + 1), current);
+			}
+		}
+		reader.close();
+	}
+
+	@Test
+	public void testAndNotWithCommonTerm() throws IOException {
+		int[] rare = makeDocs(50, 2000);
+		int[] common = makeDocs(50000, 2);
+		IndexFieldOption option = skipBlockOption(false);
+		long[] offsets = write(option, PostingSkipList.DEFAULT_BLOCK_SIZE, rare, common);
+
+		List<Integer> expectedAnd = new ArrayList<Integer>();
+		List<Integer> expectedNot = new ArrayList<Integer>();
+		for (int doc : rare) {
+			if (firstAtLeast(common, doc) == doc) {
+				expectedAnd.add(doc);
+			} else {
+				expectedNot.add(doc);
+			}
+		}
+
+		OperatedClause andClause = new AndOperatedClause(termClause(option, offsets[0]), termClause(option, offsets[1]));
+		assertEquals(expectedAnd, collect(andClause));
+		andClause = new AndOperatedClause(termClause(option, offsets[1]), termClause(option, offsets[0]));
+		assertEquals(expectedAnd, collect(andClause));
+
+		OperatedClause notClause = new NotOperatedClause(termClause(option, offsets[0]), termClause(option, offsets[1]));
+		assertEquals(expectedNot, collect(notClause));
+	}
+
+	@Test
+	public void testOldFormat() throws IOException {
+		int[] docs = makeDocs(1000, 5);
+		IndexFieldOption option = skipBlockOption(true);
+		option.removeSkipBlock();
+		long[] offsets = write(option, 16, docs);
+
+		PostingReader[] readers = new PostingReader[] {
+				new StreamPostingReader(new CharVector("a"), 0, 0, 100000, option, new BufferedFileInput(file), offsets[0]),
+				new BufferedPostingReader(new CharVector("a"), 0, 0, 100000, option, new BufferedFileInput(file), offsets[0]) };
+		for (PostingReader reader : readers) {
+			PostingDoc postingDoc = new PostingDoc(-1, 0);
+			assertTrue(reader.advance(docs[500], postingDoc));
+			assertEquals(docs[500], postingDoc.docNo());
+			assertArrayEquals(positions(docs[500]), postingDoc.positions());
+			assertEquals(docs[501], reader.next().docNo());
+			reader.close();
+		}
+	}
+
+	private IndexFieldOption skipBlockOption(boolean storePosition) {
+		IndexFieldOption option = new IndexFieldOption();
+		if (storePosition) {
+			option.setStorePosition();
+		}
+		option.setSkipBlock();
+		return option;
+	}
+
+	private TermOperatedClause termClause(IndexFieldOption option, long offset) throws IOException {
+		PostingReader reader = new StreamPostingReader(new CharVector("t"), 0, 1, 100000, option, new BufferedFileInput(file), offset);
+		return new TermOperatedClause("test", "t", reader);
+	}
+
+	private List<Integer> collect(OperatedClause clause) {
+		List<Integer> list = new ArrayList<Integer>();
+		RankInfo rankInfo = new RankInfo();
+		clause.init();
+		while (clause.next(rankInfo)) {
+			list.add(rankInfo.docNo());
+		}
+		clause.close();
+		return list;
+	}
+
+	private int[] makeDocs(int count, int maxGap) {
+		int[] docs = new int[count];
+		int doc = -1;
+		for (int i = 0; i < count; i++) {
+			doc += 1 + random.nextInt(maxGap);
+			docs[i] = doc;
+		}
+		return docs;
+	}
+
+	private int[] positions(int docNo) {
+		int tf = docNo % 3 + 1;
+		int[] positions = new int[tf];
+		for (int i = 0; i < tf; i++) {
+			positions[i] = i * 2 + docNo % 5;
+		}
+		return positions;
+	}
+
+	private int firstAtLeast(int[] docs, int target) {
+		for (int doc : docs) {
+			if (doc >= target) {
+				return doc;
+			}
+		}
+		return -1;
+	}
+
+	private long[] write(IndexFieldOption option, int blockSize, int[]... postings) throws IOException {
+		long[] offsets = new long[postings.length];
+		IndexOutput output = new BufferedFileOutput(file);
+		output.writeInt(option.value());
+		PostingSkipList.Writer writer = new PostingSkipList.Writer(option, blockSize);
+		BytesDataOutput data = new BytesDataOutput();
+		for (int k = 0; k < postings.length; k++) {
+			int[] docs = postings[k];
+			data.reset();
+			int prevDocNo = -1;
+			for (int docNo : docs) {
+				data.writeVInt(docNo - prevDocNo - 1);
+				if (option.isStorePosition()) {
+					int[] positions = positions(docNo);
+					data.writeVInt(positions.length);
+					int prevPosition = -1;
+					for (int position : positions) {
+						data.writeVInt(position - prevPosition - 1);
+						prevPosition = position;
+					}
+				} else {
+					data.writeVInt(1);
+				}
+				prevDocNo = docNo;
+			}
+			offsets[k] = output.position();
+			writer.writePosting(output, docs.length, prevDocNo, data.array(), 0, (int) data.position());
+		}
+		output.close();
+		return offsets;
+	}
+}
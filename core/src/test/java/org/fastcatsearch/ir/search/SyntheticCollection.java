@@ -0,0 +1,204 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.analysis.AnalyzerFactory;
+import org.fastcatsearch.ir.analysis.AnalyzerFactoryManager;
+import org.fastcatsearch.ir.analysis.DefaultAnalyzerFactory;
+import org.fastcatsearch.ir.analysis.PrimaryWordAnalyzer;
+import org.fastcatsearch.ir.config.CollectionConfig;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.CollectionIndexStatus;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
+import org.fastcatsearch.ir.config.DataPlanConfig;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.DeleteIdSet;
+import org.fastcatsearch.ir.index.SegmentWriter;
+import org.fastcatsearch.ir.settings.AnalyzerSetting;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.GroupIndexSetting;
+import org.fastcatsearch.ir.settings.IndexRefSetting;
+import org.fastcatsearch.ir.settings.IndexSetting;
+import org.fastcatsearch.ir.settings.PrimaryKeySetting;
+import org.fastcatsearch.ir.settings.RefSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.fastcatsearch.util.FilePaths;
+
+/**
+ * 테스트용 컬렉션을 임시 디렉토리에 만든다.
+ * 세그먼트를 하나씩 색인하여 증분색인과 같은 방식으로 CollectionHandler 에 적용한다.
+ * 필드는 id(pk), title(검색, TITLE_INDEX), price(정렬), category(그룹) 이다.
+ * */
+public class SyntheticCollection {
+
+	public static final String COLLECTION_ID = "synthetic";
+	public static final String ANALYZER_ID = "primary";
+	public static final String[] CATEGORIES = new String[] { "book", "music", "movie", "game" };
+	public static final String[] WORDS = new String[] { "apple", "banana", "cherry", "grape", "lemon", "mango", "peach" };
+
+	private File home;
+	private CollectionContext collectionContext;
+	private CollectionHandler collectionHandler;
+
+	public SyntheticCollection(File home) throws Exception {
+		this.home = home;
+		FileUtils.deleteDirectory(home);
+
+		SchemaSetting schemaSetting = createSchemaSetting();
+		CollectionConfig collectionConfig = new CollectionConfig();
+		collectionConfig.setDataPlanConfig(new DataPlanConfig(2, 100000, 2));
+		FilePaths collectionFilePaths = new FilePaths(home, COLLECTION_ID);
+		collectionContext = new CollectionContext(COLLECTION_ID, collectionFilePaths);
+		collectionContext.init(new Schema(schemaSetting), null, collectionConfig, createIndexConfig(), null, new CollectionIndexStatus(), new DataInfo(), null);
+		collectionHandler = newCollectionHandler();
+	}
+
+	/**
+	 * 현재 데이터 정보로 컬렉션을 새로 로딩한다. 재시작후 상태를 확인할때 사용한다.
+	 * */
+	public CollectionHandler newCollectionHandler() throws Exception {
+		return new CollectionHandler(collectionContext, new AnalyzerFactoryManager() {
+			@Override
+			public AnalyzerFactory getAnalyzerFactory(String analyzerId) {
+				return new DefaultAnalyzerFactory(PrimaryWordAnalyzer.class);
+			}
+		}).load();
+	}
+
+	public CollectionHandler collectionHandler() {
+		return collectionHandler;
+	}
+
+	public CollectionContext collectionContext() {
+		return collectionContext;
+	}
+
+	public CollectionConfig collectionConfig() {
+		return collectionContext.collectionConfig();
+	}
+
+	/**
+	 * idList 문서를 새 세그먼트로 색인한다. 이전 세그먼트의 같은 id 문서는 업데이트되고, deleteIdList 문서는 삭제된다.
+	 * */
+	public SegmentInfo addSegment(int[] idList, String... deleteIdList) throws Exception {
+		SegmentInfo lastSegmentInfo = collectionContext.dataInfo().getLastSegmentInfo();
+		SegmentInfo segmentInfo = lastSegmentInfo == null ? new SegmentInfo() : lastSegmentInfo.getNextSegmentInfo();
+		File segmentDir = collectionContext.collectionFilePaths().dataPaths().segmentFile(collectionContext.indexStatus().getSequence(), segmentInfo.getId());
+
+		SegmentWriter writer = new SegmentWriter(collectionContext.schema(), segmentDir, segmentInfo.getRevisionInfo(), collectionContext.indexConfig(),
+				collectionHandler.analyzerPoolManager());
+		try {
+			for (int id : idList) {
+				writer.addDocument(document(id));
+			}
+		} finally {
+			writer.close();
+		}
+
+		DeleteIdSet deleteIdSet = null;
+		if (deleteIdList.length > 0) {
+			deleteIdSet = new DeleteIdSet(1);
+			for (String deleteId : deleteIdList) {
+				deleteIdSet.add(deleteId);
+			}
+		}
+		collectionHandler.updateCollection(collectionContext, segmentInfo, segmentDir, deleteIdSet);
+		collectionContext.addSegmentInfo(segmentInfo);
+		return segmentInfo;
+	}
+
+	public static int[] range(int from, int to) {
+		int[] list = new int[to - from];
+		for (int i = 0; i < list.length; i++) {
+			list[i] = from + i;
+		}
+		return list;
+	}
+
+	public static String title(int id) {
+		return WORDS[id % WORDS.length] + " " + WORDS[(id / WORDS.length) % WORDS.length] + " doc" + id;
+	}
+
+	public static int price(int id) {
+		return (id * 7919) % 1000;
+	}
+
+	public static String category(int id) {
+		return CATEGORIES[id % CATEGORIES.length];
+	}
+
+	/**
+	 * 실제 색인과 같이 스키마 필드설정으로 필드를 만든다.
+	 * */
+	public Document document(int id) throws Exception {
+		String[] values = new String[] { Integer.toString(id), title(id), Integer.toString(price(id)), category(id) };
+		List<FieldSetting> fieldSettingList = collectionContext.schema().schemaSetting().getFieldSettingList();
+		Document document = new Document(fieldSettingList.size());
+		for (int i = 0; i < fieldSettingList.size(); i++) {
+			document.add(fieldSettingList.get(i).createIndexableField(values[i]));
+		}
+		return document;
+	}
+
+	public void close() throws Exception {
+		collectionHandler.close();
+		FileUtils.deleteDirectory(home);
+	}
+
+	private SchemaSetting createSchemaSetting() {
+		SchemaSetting setting = new SchemaSetting();
+
+		List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+		fieldSettingList.add(new FieldSetting("id", "아이디", FieldSetting.Type.LONG));
+		FieldSetting fieldSetting = new FieldSetting("title", "제목", FieldSetting.Type.STRING);
+		fieldSetting.setSize(40);
+		fieldSettingList.add(fieldSetting);
+		fieldSettingList.add(new FieldSetting("price", "가격", FieldSetting.Type.INT));
+		fieldSetting = new FieldSetting("category", "카테고리", FieldSetting.Type.ASTRING);
+		fieldSetting.setSize(10);
+		fieldSettingList.add(fieldSetting);
+		setting.setFieldSettingList(fieldSettingList);
+
+		PrimaryKeySetting primaryKeySetting = new PrimaryKeySetting("ID");
+		primaryKeySetting.setFieldList(new ArrayList<RefSetting>());
+		primaryKeySetting.getFieldList().add(new RefSetting("ID"));
+		setting.setPrimaryKeySetting(primaryKeySetting);
+
+		List<IndexSetting> indexSettingList = new ArrayList<IndexSetting>();
+		IndexSetting indexSetting = new IndexSetting("TITLE_INDEX", ANALYZER_ID);
+		indexSetting.setFieldList(new ArrayList<IndexRefSetting>());
+		indexSetting.getFieldList().add(new IndexRefSetting("TITLE", ANALYZER_ID));
+		indexSettingList.add(indexSetting);
+		setting.setIndexSettingList(indexSettingList);
+
+		List<FieldIndexSetting> fieldIndexSettingList = new ArrayList<FieldIndexSetting>();
+		fieldIndexSettingList.add(new FieldIndexSetting("PRICE", "가격 필드색인", "PRICE"));
+		setting.setFieldIndexSettingList(fieldIndexSettingList);
+
+		List<GroupIndexSetting> groupIndexSettingList = new ArrayList<GroupIndexSetting>();
+		groupIndexSettingList.add(new GroupIndexSetting("CATEGORY", "카테고리 그룹", "CATEGORY"));
+		setting.setGroupIndexSettingList(groupIndexSettingList);
+
+		List<AnalyzerSetting> analyzerSettingList = new ArrayList<AnalyzerSetting>();
+		analyzerSettingList.add(new AnalyzerSetting(ANALYZER_ID, ANALYZER_ID, 2, 10, PrimaryWordAnalyzer.class.getName()));
+		setting.setAnalyzerSettingList(analyzerSettingList);
+		return setting;
+	}
+
+	private IndexConfig createIndexConfig() {
+		IndexConfig config = new IndexConfig();
+		config.setIndexTermInterval(64);
+		config.setIndexWorkBucketSize(256);
+		config.setIndexWorkMemorySize(4 * 1024 * 1024);
+		config.setPkBucketSize(1024);
+		config.setPkTermInterval(64);
+		return config;
+	}
+}
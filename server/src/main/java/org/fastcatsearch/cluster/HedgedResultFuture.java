@@ -0,0 +1,93 @@
+package org.fastcatsearch.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.control.ResultFuture;
+
+/**
+ * 같은 요청을 여러 노드에 보냈을때 먼저 도착한 성공결과를 받는다.
+ * 모든 요청이 실패하면 마지막 실패결과를 받는다. 결과를 준 노드는 node()로 알수 있다.
+ * 시간초과나 인터럽트로 결과를 기다리지 않게 되면 노드별 요청도 모두 취소하여, 요청 map 에서 제거하고 실패로 완료통보되도록 한다.
+ * */
+public class HedgedResultFuture extends ResultFuture {
+	private Node node;
+	private int pendingCount;
+	private boolean isAnswered;
+	private boolean isCancelled;
+	private List<ResultFuture> resultFutureList = new ArrayList<ResultFuture>(2);
+
+	public HedgedResultFuture() {
+		super(-1, null);
+	}
+
+	public void addRequest(final Node node, ResultFuture resultFuture) {
+		synchronized (this) {
+			if (isCancelled) {
+				//이미 포기한 요청이다.
+				resultFuture.cancel();
+				return;
+			}
+			pendingCount++;
+			resultFutureList.add(resultFuture);
+		}
+		resultFuture.setListener(new ResultFuture.ResultListener() {
+			@Override
+			public void onResult(Object result, boolean isSuccess) {
+				receive(node, result, isSuccess);
+			}
+		}, null, 0);
+	}
+
+	private void receive(Node node, Object result, boolean isSuccess) {
+		synchronized (this) {
+			pendingCount--;
+			if (isAnswered || isCancelled) {
+				return;
+			}
+			if (!isSuccess && pendingCount > 0) {
+				//다른 노드의 결과를 기다린다.
+				return;
+			}
+			isAnswered = true;
+			this.node = node;
+		}
+		put(result, isSuccess);
+	}
+
+	@Override
+	public void cancel() {
+		List<ResultFuture> list = null;
+		synchronized (this) {
+			if (!isCancelled) {
+				isCancelled = true;
+				list = new ArrayList<ResultFuture>(resultFutureList);
+			}
+		}
+		super.cancel();
+		if (list != null) {
+			//이미 결과가 도착한 요청은 map 에서 제거되었고 완료통보도 되었으므로 영향이 없다.
+			for (ResultFuture resultFuture : list) {
+				resultFuture.cancel();
+			}
+		}
+	}
+
+	public synchronized boolean isAnswered() {
+		return isAnswered;
+	}
+
+	/**
+	 * 시간초과 등으로 결과를 더이상 기다리지 않으면 true.
+	 * */
+	public synchronized boolean isCancelled() {
+		return isCancelled;
+	}
+
+	/**
+	 * 결과를 준 노드. 결과가 도착하기 전에는 null 이다.
+	 * */
+	public synchronized Node node() {
+		return node;
+	}
+}
@@ -1,5 +1,6 @@
 package org.fastcatsearch.cluster;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -11,6 +12,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * id 마다 long값을 유지하여 round-robin방식으로 다음 노드를 선택해준다.
+ * adaptive 방식이면 노드별 평균응답시간과 처리중인 요청수(NodeLoadStat)로 가장 빨리 응답할 노드를 선택한다.
+ * 점수가 같으면 round-robin 순서를 따른다.
  * */
 public class NodeLoadBalancer {
 	protected static Logger logger = LoggerFactory.getLogger(NodeLoadBalancer.class);
@@ -18,9 +21,38 @@ public class NodeLoadBalancer {
 	private Map<String, List<Node>> map;
 	//컬렉션별로 seq를 유지하면 동일 노드에 여러 컬렉션을 한번에 검색하게 되므로, 이 방법은 사용하지 않는다.
 	private AtomicLong rrSequence; //round robin 시퀀스.
+	private boolean isAdaptive;
+	private ConcurrentHashMap<String, NodeLoadStat> statMap;
+	
 	public NodeLoadBalancer() {
+		this(false);
+	}
+	
+	public NodeLoadBalancer(boolean isAdaptive) {
 		map = new ConcurrentHashMap<String, List<Node>>();
 		rrSequence = new AtomicLong();
+		this.isAdaptive = isAdaptive;
+		statMap = new ConcurrentHashMap<String, NodeLoadStat>();
+	}
+	
+	public boolean isAdaptive() {
+		return isAdaptive;
+	}
+	
+	public NodeLoadStat getStat(Node node) {
+		NodeLoadStat stat = statMap.get(node.id());
+		if (stat == null) {
+			stat = new NodeLoadStat(node.id());
+			NodeLoadStat prev = statMap.putIfAbsent(node.id(), stat);
+			if (prev != null) {
+				stat = prev;
+			}
+		}
+		return stat;
+	}
+	
+	public Collection<NodeLoadStat> getStats() {
+		return statMap.values();
 	}
 
 	public void update(String id, List<Node> list) {
@@ -39,6 +71,9 @@ public class NodeLoadBalancer {
 	 * active한 노드가 없을 경우 null을 리턴한다.
 	 * */
 	public Node getBalancedNode(String id) {
+		if (isAdaptive) {
+			return getAdaptiveNode(id, null);
+		}
 		long seq = rrSequence.getAndIncrement();
 		List<Node> list = map.get(id);
 		Node node = null;
@@ -64,4 +99,37 @@ public class NodeLoadBalancer {
 
 	}
 
+	/**
+	 * exclude 를 제외한 active 노드중 점수가 가장 낮은 노드를 선택한다. 헤지요청을 보낼 다른 노드를 찾을때에도 사용한다.
+	 * exclude 외에 active 한 노드가 없으면 null 을 리턴한다.
+	 * */
+	public Node getAdaptiveNode(String id, Node exclude) {
+		long seq = rrSequence.getAndIncrement();
+		List<Node> list = map.get(id);
+		if(list == null){
+			logger.error("cannot find node list for {}", id);
+			return null;
+		}
+		int length = list.size();
+		Node selected = null;
+		double selectedScore = 0;
+		Node node = null;
+		for (int i = 0; i < length; i++) {
+			node = list.get((int) ((seq + i) % length));
+			if (!node.isActive() || node.equals(exclude)) {
+				continue;
+			}
+			double score = getStat(node).score();
+			if (selected == null || score < selectedScore) {
+				selected = node;
+				selectedScore = score;
+			}
+		}
+		if (selected == null && exclude == null) {
+			logger.warn("#Fail to select node for {}", id);
+			return node;
+		}
+		return selected;
+	}
+
 }
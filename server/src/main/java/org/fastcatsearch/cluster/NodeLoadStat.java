@@ -0,0 +1,108 @@
+package org.fastcatsearch.cluster;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fastcatsearch.control.ResultFuture;
+
+/**
+ * 노드별 요청 응답시간과 처리중인 요청수를 기록한다.
+ * 응답시간은 지수이동평균(EWMA)으로 유지하고, 헤지요청 지연시간 계산을 위해 최근 응답시간을 일정 갯수만큼 보관한다.
+ * */
+public class NodeLoadStat {
+	//최근 응답시간의 반영비율.
+	private static final double ALPHA = 0.3;
+	private static final int WINDOW_SIZE = 256;
+
+	private final String nodeId;
+	private final AtomicInteger outstandingCount = new AtomicInteger();
+	private volatile double averageTime = -1; //ms. 측정전이면 -1.
+
+	private final long[] recentTimes = new long[WINDOW_SIZE];
+	private int recentSize;
+	private int recentPosition;
+	private long requestCount;
+	private long failCount;
+
+	public NodeLoadStat(String nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public String nodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * 요청을 처리중으로 기록하고 완료시 응답시간을 반영하도록 한다.
+	 * */
+	public void track(ResultFuture resultFuture) {
+		start();
+		resultFuture.setCompletionListener(new ResultFuture.CompletionListener() {
+			@Override
+			public void onComplete(long elapsedTime, boolean isSuccess) {
+				complete(elapsedTime, isSuccess);
+			}
+		});
+	}
+
+	public void start() {
+		outstandingCount.incrementAndGet();
+	}
+
+	public synchronized void complete(long elapsedTime, boolean isSuccess) {
+		outstandingCount.decrementAndGet();
+		requestCount++;
+		if (!isSuccess) {
+			failCount++;
+		}
+		if (averageTime < 0) {
+			averageTime = elapsedTime;
+		} else {
+			averageTime = ALPHA * elapsedTime + (1 - ALPHA) * averageTime;
+		}
+		recentTimes[recentPosition] = elapsedTime;
+		recentPosition = (recentPosition + 1) % WINDOW_SIZE;
+		if (recentSize < WINDOW_SIZE) {
+			recentSize++;
+		}
+	}
+
+	/**
+	 * 선택 우선순위 점수. 낮을수록 먼저 선택된다.
+	 * 처리중인 요청이 모두 끝나야 새 요청이 처리된다고 보고 (처리중 요청수 + 1) * 평균응답시간 으로 계산한다.
+	 * 측정전인 노드는 평균응답시간을 0으로 보아 먼저 선택되도록 한다.
+	 * */
+	public double score() {
+		double time = averageTime < 0 ? 0 : averageTime;
+		return (outstandingCount.get() + 1) * (time + 1);
+	}
+
+	/**
+	 * 최근 응답시간의 백분위수(ms). 측정된 값이 없으면 -1 을 리턴한다.
+	 * */
+	public synchronized long percentileTime(int percentile) {
+		if (recentSize == 0) {
+			return -1;
+		}
+		long[] times = Arrays.copyOf(recentTimes, recentSize);
+		Arrays.sort(times);
+		int index = (int) Math.ceil(percentile / 100.0 * recentSize) - 1;
+		return times[Math.min(Math.max(index, 0), recentSize - 1)];
+	}
+
+	public int outstandingCount() {
+		return outstandingCount.get();
+	}
+
+	public double averageTime() {
+		return averageTime;
+	}
+
+	public synchronized long requestCount() {
+		return requestCount;
+	}
+
+	public synchronized long failCount() {
+		return failCount;
+	}
+}
@@ -10,6 +10,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import org.fastcatsearch.control.JobService;
 import org.fastcatsearch.control.ResultFuture;
@@ -34,6 +36,12 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 	private Node myNode;
 	private Node masterNode;
 	private Map<String, Node> nodeMap;
+	
+	//헤지요청 설정. 응답이 노드의 최근 응답시간 hedgePercentile 백분위수보다 늦어지면 다른 노드에도 요청한다.
+	private boolean isHedgeEnabled;
+	private int hedgePercentile;
+	private int hedgeMinDelay;
+	private Timer hedgeTimer;
 
 	public NodeService(Environment environment, Settings settings, ServiceManager serviceManager) {
 		super(environment, settings, serviceManager);
@@ -105,13 +113,22 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 			}
 		}
 
-		loadBalancer = new NodeLoadBalancer();
+		boolean isAdaptive = "adaptive".equalsIgnoreCase(settings.getString("load_balance", "adaptive"));
+		loadBalancer = new NodeLoadBalancer(isAdaptive);
+		isHedgeEnabled = settings.getBoolean("hedge.enabled", false);
+		hedgePercentile = settings.getInt("hedge.percentile", 95);
+		hedgeMinDelay = settings.getInt("hedge.min_delay", 10);
+		hedgeTimer = new Timer("NodeHedgeRequestTimer", true);
+		logger.info("Node load balance adaptive={} hedge={} percentile={} min_delay={}ms", new Object[] { isAdaptive, isHedgeEnabled, hedgePercentile, hedgeMinDelay });
 		
 		return true;
 	}
 
 	@Override
 	protected boolean doStop() throws FastcatSearchException {
+		if (hedgeTimer != null) {
+			hedgeTimer.cancel();
+		}
 		return transportModule.unload();
 	}
 
@@ -190,6 +207,59 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 		return null;
 	}
 
+	/**
+	 * 검색요청을 보내고 노드의 응답시간과 처리중인 요청수를 기록한다. 기록된 값은 adaptive 노드선택에 사용된다.
+	 * */
+	public ResultFuture sendSearchRequest(final Node node, final Job job) {
+		ResultFuture resultFuture = sendRequest(node, job);
+		if (resultFuture != null) {
+			loadBalancer.getStat(node).track(resultFuture);
+		}
+		return resultFuture;
+	}
+
+	/**
+	 * 검색요청을 보내고, hedge.enabled 이면 노드의 최근 응답시간 백분위수(hedge.percentile)만큼 기다려도 결과가 없을때
+	 * 같은 컬렉션의 다른 노드에 한번 더 요청한다. 먼저 도착한 결과를 사용하며 결과를 준 노드는 HedgedResultFuture.node()로 알수 있다.
+	 * 요청을 여러번 실행해도 되는 읽기전용 작업에만 사용한다.
+	 * */
+	public HedgedResultFuture sendHedgedSearchRequest(final String collectionId, final Node node, final Job job) {
+		ResultFuture resultFuture = sendSearchRequest(node, job);
+		if (resultFuture == null) {
+			return null;
+		}
+		final HedgedResultFuture hedgedResultFuture = new HedgedResultFuture();
+		hedgedResultFuture.addRequest(node, resultFuture);
+		if (isHedgeEnabled) {
+			long delay = loadBalancer.getStat(node).percentileTime(hedgePercentile);
+			//측정된 응답시간이 없으면 보내지 않는다.
+			if (delay >= 0) {
+				hedgeTimer.schedule(new TimerTask() {
+					@Override
+					public void run() {
+						if (hedgedResultFuture.isAnswered() || hedgedResultFuture.isCancelled()) {
+							return;
+						}
+						Node otherNode = loadBalancer.getAdaptiveNode(collectionId, node);
+						if (otherNode == null) {
+							return;
+						}
+						ResultFuture otherResultFuture = sendSearchRequest(otherNode, job);
+						if (otherResultFuture != null) {
+							logger.debug("#Hedged request [{}] {} >> {}", new Object[] { collectionId, node, otherNode });
+							hedgedResultFuture.addRequest(otherNode, otherResultFuture);
+						}
+					}
+				}, Math.max(delay, hedgeMinDelay));
+			}
+		}
+		return hedgedResultFuture;
+	}
+
+	public Collection<NodeLoadStat> getNodeLoadStats() {
+		return loadBalancer.getStats();
+	}
+
 	/*
 	 * 파일만 전송가능. 디렉토리는 전송불가. 
 	 * 동일노드로는 전송불가.
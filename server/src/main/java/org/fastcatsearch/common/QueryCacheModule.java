@@ -16,39 +16,149 @@ import org.fastcatsearch.module.AbstractModule;
 import org.fastcatsearch.module.ModuleException;
 import org.fastcatsearch.settings.Settings;
 import org.fastcatsearch.util.LRUCache;
+import org.fastcatsearch.util.OffHeapCache;
 
 /**
+ * 질의결과 캐시.
+ * serializer 가 주어지면 기본으로 값을 직렬화하여 힙 밖에 보관하는 OffHeapCache 를 사용하며, 크기는 query-cache-memory-size(MB)로 제한한다.
+ * query-cache-type=lru 이거나 serializer 가 없으면 건수로 제한되는 LRUCache 를 사용한다.
+ * 캐시는 하나의 volatile 필드로 공개하며, get/put 은 한번 읽은 값만 사용한다. 재시작(unload/load) 중에 호출되면 캐시가 없는 것으로 동작한다.
  * */
 public class QueryCacheModule<K, V> extends AbstractModule {
 
-	private LRUCache<K, V> lruCache;
+	private OffHeapCache.Serializer<V> serializer;
+	private volatile Cache<K, V> cache;
 	
 	public QueryCacheModule(Environment environment, Settings settings) {
+		this(environment, settings, null);
+	}
+
+	public QueryCacheModule(Environment environment, Settings settings, OffHeapCache.Serializer<V> serializer) {
 		super(environment, settings);
+		this.serializer = serializer;
 	}
 
 	@Override
 	protected boolean doLoad() throws ModuleException {
-		int maxCacheSize = settings.getInt("search-cache-size", 1000);
-		lruCache = new LRUCache<K, V>(maxCacheSize);
+		String cacheType = settings.getString("query-cache-type", "offheap");
+		if (serializer != null && "offheap".equalsIgnoreCase(cacheType)) {
+			//MB 단위.
+			long maxMemorySize = settings.getInt("query-cache-memory-size", 64) * 1024L * 1024L;
+			cache = new OffHeapQueryCache<K, V>(new OffHeapCache<K, V>(maxMemorySize, serializer));
+		} else {
+			int maxCacheSize = settings.getInt("search-cache-size", 1000);
+			cache = new LRUQueryCache<K, V>(new LRUCache<K, V>(maxCacheSize));
+		}
 		return true;
 	}
 
 	@Override
 	protected boolean doUnload() {
-		lruCache.close();
+		Cache<K, V> cache = this.cache;
+		this.cache = null;
+		if (cache != null) {
+			cache.close();
+		}
 		return true;
 	}
 
 	public void put(K key, V value) {
-		lruCache.put(key, value);
+		Cache<K, V> cache = this.cache;
+		if (cache != null) {
+			cache.put(key, value);
+		}
 	}
 
 	public V get(K key) {
-		return lruCache.get(key);
+		Cache<K, V> cache = this.cache;
+		if (cache != null) {
+			return cache.get(key);
+		}
+		return null;
 	}
 
 	public int size() {
-		return lruCache.size();
+		Cache<K, V> cache = this.cache;
+		if (cache != null) {
+			return cache.size();
+		}
+		return 0;
+	}
+
+	/**
+	 * off-heap 캐시를 사용중이면 리턴한다. 통계 조회용.
+	 * */
+	public OffHeapCache<K, V> offHeapCache() {
+		Cache<K, V> cache = this.cache;
+		if (cache instanceof OffHeapQueryCache) {
+			return ((OffHeapQueryCache<K, V>) cache).offHeapCache;
+		}
+		return null;
+	}
+
+	private static interface Cache<K, V> {
+		public void put(K key, V value);
+
+		public V get(K key);
+
+		public int size();
+
+		public void close();
+	}
+
+	private static class OffHeapQueryCache<K, V> implements Cache<K, V> {
+		private OffHeapCache<K, V> offHeapCache;
+
+		public OffHeapQueryCache(OffHeapCache<K, V> offHeapCache) {
+			this.offHeapCache = offHeapCache;
+		}
+
+		@Override
+		public void put(K key, V value) {
+			offHeapCache.put(key, value);
+		}
+
+		@Override
+		public V get(K key) {
+			return offHeapCache.get(key);
+		}
+
+		@Override
+		public int size() {
+			return offHeapCache.size();
+		}
+
+		@Override
+		public void close() {
+			offHeapCache.close();
+		}
+	}
+
+	private static class LRUQueryCache<K, V> implements Cache<K, V> {
+		private LRUCache<K, V> lruCache;
+
+		public LRUQueryCache(LRUCache<K, V> lruCache) {
+			this.lruCache = lruCache;
+		}
+
+		@Override
+		public void put(K key, V value) {
+			lruCache.put(key, value);
+		}
+
+		@Override
+		public V get(K key) {
+			return lruCache.get(key);
+		}
+
+		@Override
+		public int size() {
+			return lruCache.size();
+		}
+
+		@Override
+		public void close() {
+			lruCache.close();
+		}
 	}
 }
@@ -0,0 +1,278 @@
+package org.fastcatsearch.common;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fastcatsearch.env.Environment;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
+import org.fastcatsearch.ir.group.GroupEntry;
+import org.fastcatsearch.ir.group.GroupResult;
+import org.fastcatsearch.ir.group.GroupResults;
+import org.fastcatsearch.ir.query.Result;
+import org.fastcatsearch.ir.query.Row;
+import org.fastcatsearch.module.AbstractModule;
+import org.fastcatsearch.module.ModuleException;
+import org.fastcatsearch.settings.Settings;
+import org.fastcatsearch.util.ConcurrentLRUCache;
+
+/**
+ * 검색결과 캐시.
+ * 키는 컬렉션 id 와 정규화된 쿼리문자열이며, 검색을 시작할 때(begin) 읽은 컬렉션별 색인 리비전을 함께 기록한다.
+ * 조회시 리비전이 달라졌으면 버리고, 세그먼트가 갱신되면 invalidate(collectionId)로 해당 컬렉션의 결과만 지운다.
+ * 캐시 크기는 결과의 추정 메모리 크기로 제한한다.
+ * */
+public class SearchResultCacheModule extends AbstractModule {
+
+	private static final String KEY_SEPARATOR = "|";
+
+	private IRService irService;
+	private ConcurrentLRUCache<String, CachedResult> cache;
+	//컬렉션별 캐시키. 컬렉션 단위로 지울때 사용한다.
+	private ConcurrentMap<String, Set<String>> collectionKeyMap;
+
+	private final AtomicLong staleCount = new AtomicLong();
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	public SearchResultCacheModule(Environment environment, Settings settings, IRService irService) {
+		super(environment, settings);
+		this.irService = irService;
+	}
+
+	@Override
+	protected boolean doLoad() throws ModuleException {
+		//MB 단위.
+		long maxMemorySize = settings.getInt("search-cache-memory-size", 64) * 1024L * 1024L;
+		collectionKeyMap = new ConcurrentHashMap<String, Set<String>>();
+		cache = new ConcurrentLRUCache<String, CachedResult>(maxMemorySize, new ConcurrentLRUCache.Weigher<String, CachedResult>() {
+			@Override
+			public long weigh(String key, CachedResult value) {
+				return key.length() * 2L + value.weight;
+			}
+		});
+		cache.setEvictionListener(new ConcurrentLRUCache.EvictionListener<String, CachedResult>() {
+			@Override
+			public void onEvict(String key, CachedResult value) {
+				removeCollectionKey(key, value.collectionIdList);
+			}
+		});
+		return true;
+	}
+
+	@Override
+	protected boolean doUnload() {
+		cache.clear();
+		collectionKeyMap.clear();
+		return true;
+	}
+
+	public Result get(String collectionId, String queryString) {
+		if (cache == null) {
+			return null;
+		}
+		String key = cacheKey(collectionId, queryString);
+		CachedResult cachedResult = cache.get(key);
+		if (cachedResult == null) {
+			return null;
+		}
+		for (int i = 0; i < cachedResult.collectionIdList.length; i++) {
+			String revision = revision(cachedResult.collectionIdList[i]);
+			if (revision == null || !revision.equals(cachedResult.revisionList[i])) {
+				//색인이 갱신된 이전 결과.
+				if (cache.remove(key) != null) {
+					removeCollectionKey(key, cachedResult.collectionIdList);
+				}
+				staleCount.incrementAndGet();
+				return null;
+			}
+		}
+		return cachedResult.result;
+	}
+
+	/**
+	 * 검색을 시작하기 전에 컬렉션별 리비전을 읽어둔다. 결과를 넣을때 이 값을 put 에 넘겨야
+	 * 검색중에 색인이 갱신되어도 이전 색인의 결과가 새 리비전으로 기록되지 않는다.
+	 * 리비전을 알수 없는 컬렉션이 있으면 null 을 리턴한다.
+	 * */
+	public String[] begin(String collectionId) {
+		if (cache == null) {
+			return null;
+		}
+		String[] collectionIdList = collectionId.split(",");
+		String[] revisionList = new String[collectionIdList.length];
+		for (int i = 0; i < collectionIdList.length; i++) {
+			revisionList[i] = revision(collectionIdList[i]);
+			if (revisionList[i] == null) {
+				return null;
+			}
+		}
+		return revisionList;
+	}
+
+	/**
+	 * @param revisionList 검색전에 begin 으로 읽은 리비전.
+	 * */
+	public void put(String collectionId, String queryString, String[] revisionList, Result result) {
+		if (cache == null || result == null || revisionList == null) {
+			return;
+		}
+		String[] collectionIdList = collectionId.split(",");
+		if (collectionIdList.length != revisionList.length) {
+			return;
+		}
+		String key = cacheKey(collectionId, queryString);
+		for (String id : collectionIdList) {
+			Set<String> keySet = collectionKeyMap.get(id);
+			if (keySet == null) {
+				Set<String> newKeySet = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+				keySet = collectionKeyMap.putIfAbsent(id, newKeySet);
+				if (keySet == null) {
+					keySet = newKeySet;
+				}
+			}
+			keySet.add(key);
+		}
+		cache.put(key, new CachedResult(collectionIdList, revisionList, result));
+	}
+
+	/**
+	 * 컬렉션의 세그먼트가 갱신되면 해당 컬렉션이 포함된 결과만 지운다.
+	 * */
+	public void invalidate(String collectionId) {
+		if (cache == null) {
+			return;
+		}
+		Set<String> keySet = collectionKeyMap.remove(collectionId);
+		if (keySet != null) {
+			for (String key : keySet) {
+				CachedResult cachedResult = cache.remove(key);
+				if (cachedResult != null) {
+					removeCollectionKey(key, cachedResult.collectionIdList);
+				}
+			}
+		}
+		invalidationCount.incrementAndGet();
+		logger.debug("search cache invalidated [{}] removed[{}]", collectionId, keySet != null ? keySet.size() : 0);
+	}
+
+	private void removeCollectionKey(String key, String[] collectionIdList) {
+		for (String id : collectionIdList) {
+			Set<String> keySet = collectionKeyMap.get(id);
+			if (keySet != null) {
+				keySet.remove(key);
+			}
+		}
+	}
+
+	private String cacheKey(String collectionId, String queryString) {
+		return collectionId + KEY_SEPARATOR + queryString;
+	}
+
+	/**
+	 * 컬렉션의 현재 색인 리비전. 데이터 시퀀스, 세그먼트 수, 마지막 리비전 uuid 로 만든다.
+	 * */
+	private String revision(String collectionId) {
+		CollectionContext collectionContext = irService.collectionContext(collectionId);
+		if (collectionContext == null || collectionContext.dataInfo() == null) {
+			return null;
+		}
+		SegmentInfo lastSegmentInfo = collectionContext.dataInfo().getLastSegmentInfo();
+		String uuid = lastSegmentInfo != null && lastSegmentInfo.getRevisionInfo() != null ? lastSegmentInfo.getRevisionInfo().getUuid() : null;
+		return collectionContext.indexStatus().getSequence() + ":" + collectionContext.dataInfo().getSegmentSize() + ":" + uuid;
+	}
+
+	public int size() {
+		return cache != null ? cache.size() : 0;
+	}
+
+	public long memorySize() {
+		return cache != null ? cache.memorySize() : 0;
+	}
+
+	public long maxMemorySize() {
+		return cache != null ? cache.maxMemorySize() : 0;
+	}
+
+	public long hitCount() {
+		return cache != null ? cache.hitCount() : 0;
+	}
+
+	public long missCount() {
+		return cache != null ? cache.missCount() : 0;
+	}
+
+	public long evictionCount() {
+		return cache != null ? cache.evictionCount() : 0;
+	}
+
+	public long staleCount() {
+		return staleCount.get();
+	}
+
+	public long invalidationCount() {
+		return invalidationCount.get();
+	}
+
+	/**
+	 * 결과의 대략적인 메모리 크기. 필드데이터 char 배열을 기준으로 하고 객체 헤더등은 고정값으로 더한다.
+	 * */
+	public static long estimateSize(Result result) {
+		long size = 64;
+		size += estimateSize(result.getData());
+		Row[][] bundleData = result.getBundleData();
+		if (bundleData != null) {
+			for (Row[] rows : bundleData) {
+				size += estimateSize(rows);
+			}
+		}
+		GroupResults groupResults = result.getGroupResult();
+		if (groupResults != null) {
+			for (GroupResult groupResult : groupResults.groupResultList()) {
+				if (groupResult == null) {
+					continue;
+				}
+				for (int i = 0; i < groupResult.size(); i++) {
+					GroupEntry entry = groupResult.getEntry(i);
+					size += 48 + (entry != null && entry.key != null ? entry.key.length() * 2 : 0);
+				}
+			}
+		}
+		return size;
+	}
+
+	private static long estimateSize(Row[] rows) {
+		if (rows == null) {
+			return 0;
+		}
+		long size = 16 + rows.length * 8L;
+		for (Row row : rows) {
+			if (row == null) {
+				continue;
+			}
+			size += 48;
+			for (int i = 0; i < row.getFieldCount(); i++) {
+				char[] data = row.get(i);
+				size += 16 + (data != null ? data.length * 2 : 0);
+			}
+		}
+		return size;
+	}
+
+	private static class CachedResult {
+		private String[] collectionIdList;
+		private String[] revisionList;
+		private Result result;
+		private long weight;
+
+		public CachedResult(String[] collectionIdList, String[] revisionList, Result result) {
+			this.collectionIdList = collectionIdList;
+			this.revisionList = revisionList;
+			this.result = result;
+			this.weight = estimateSize(result) + collectionIdList.length * 64L;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package org.fastcatsearch.common;
 
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
@@ -29,6 +30,16 @@ public class ThreadPoolFactory {
                 60L, TimeUnit.SECONDS,
                 new SynchronousQueue<Runnable>(), new DefaultThreadFactory(poolName, true));
 	}
+	/**
+	 * 쓰레드수와 대기열 크기가 제한된 pool. 대기열이 가득차면 RejectedExecutionException 을 던진다.
+	 * */
+	public static ThreadPoolExecutor newBoundedDaemonThreadPool(String poolName, int poolSize, int queueSize){
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(queueSize), new DefaultThreadFactory(poolName, true), new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
 	public static ScheduledThreadPoolExecutor newScheduledThreadPool(String poolName){
 		return new ScheduledThreadPoolExecutor(0, new DefaultThreadFactory(poolName, false));
 	}
@@ -0,0 +1,155 @@
+package org.fastcatsearch.control;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fastcatsearch.common.ThreadPoolFactory;
+import org.fastcatsearch.job.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 작업종류별 실행기. 동시실행 쓰레드수와 대기열 크기가 제한되어 있다.
+ * 대기열이 가득 찼거나, 대기열의 가장 오래된 작업이 queueTimeout 이상 기다리고 있으면 새 작업은 바로 거부한다.
+ * 대기열에서 queueTimeout 이상 기다린 작업은 실행하지 않고 버린다.
+ * 거부된 작업은 ExecutorMaxCapacityExceedException 을 결과로 받는다.
+ * */
+public class BoundedJobExecutor {
+	private static Logger logger = LoggerFactory.getLogger(BoundedJobExecutor.class);
+
+	private final String name;
+	private final int poolSize;
+	private final int queueSize;
+	private final long queueTimeout;
+	private final JobExecutor resultExecutor;
+	private final ThreadPoolExecutor executor;
+
+	private final AtomicLong executedCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicLong totalWaitTime = new AtomicLong();
+	private final AtomicLong maxWaitTime = new AtomicLong();
+
+	/**
+	 * @param queueTimeout 대기열에서 기다릴수 있는 최대시간(ms). 0 이하면 제한하지 않는다.
+	 * @param resultExecutor 거부된 작업의 결과를 전달할 실행기.
+	 * */
+	public BoundedJobExecutor(String name, int poolSize, int queueSize, long queueTimeout, JobExecutor resultExecutor) {
+		this.name = name;
+		this.poolSize = poolSize;
+		this.queueSize = queueSize;
+		this.queueTimeout = queueTimeout;
+		this.resultExecutor = resultExecutor;
+		executor = ThreadPoolFactory.newBoundedDaemonThreadPool("JobService." + name, poolSize, queueSize);
+	}
+
+	/**
+	 * 작업을 대기열에 넣는다. 거부되면 false 를 리턴하고, 결과는 이미 전달된 상태이다.
+	 * */
+	public boolean execute(Job job) {
+		QueuedJob oldest = (QueuedJob) executor.getQueue().peek();
+		if (oldest != null && queueTimeout > 0 && oldest.waitTime() > queueTimeout) {
+			//대기열이 밀려있으므로 새 작업도 시간내에 실행될수 없다.
+			reject(job, "queue wait time exceeds " + queueTimeout + "ms");
+			return false;
+		}
+		try {
+			executor.execute(new QueuedJob(job));
+			return true;
+		} catch (RejectedExecutionException e) {
+			reject(job, "queue is full. size=" + queueSize);
+			return false;
+		}
+	}
+
+	private void reject(Job job, String reason) {
+		rejectedCount.incrementAndGet();
+		logger.warn("[{}] job rejected. {} job={}", name, reason, job);
+		resultExecutor.result(job, new ExecutorMaxCapacityExceedException("[" + name + "] 처리허용량을 초과하여 작업이 거부되었습니다. " + reason), false);
+	}
+
+	public void shutdownNow() {
+		executor.shutdownNow();
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public int poolSize() {
+		return poolSize;
+	}
+
+	public int activeCount() {
+		return executor.getActiveCount();
+	}
+
+	public int queueSize() {
+		return queueSize;
+	}
+
+	public int queueDepth() {
+		return executor.getQueue().size();
+	}
+
+	public long queueTimeout() {
+		return queueTimeout;
+	}
+
+	public long executedCount() {
+		return executedCount.get();
+	}
+
+	public long rejectedCount() {
+		return rejectedCount.get();
+	}
+
+	public long timeoutCount() {
+		return timeoutCount.get();
+	}
+
+	/**
+	 * 실행된 작업의 평균 대기시간(ms).
+	 * */
+	public long averageWaitTime() {
+		long count = executedCount.get() + timeoutCount.get();
+		return count > 0 ? totalWaitTime.get() / count : 0;
+	}
+
+	public long maxWaitTime() {
+		return maxWaitTime.get();
+	}
+
+	class QueuedJob implements Runnable {
+		private final Job job;
+		private final long queuedTime;
+
+		public QueuedJob(Job job) {
+			this.job = job;
+			this.queuedTime = System.currentTimeMillis();
+		}
+
+		public long waitTime() {
+			return System.currentTimeMillis() - queuedTime;
+		}
+
+		@Override
+		public void run() {
+			long waitTime = waitTime();
+			totalWaitTime.addAndGet(waitTime);
+			long max = maxWaitTime.get();
+			while (waitTime > max && !maxWaitTime.compareAndSet(max, waitTime)) {
+				max = maxWaitTime.get();
+			}
+			if (queueTimeout > 0 && waitTime > queueTimeout) {
+				//요청한 쪽은 이미 기다리지 않을 것이므로 실행하지 않는다.
+				timeoutCount.incrementAndGet();
+				reject(job, "waited " + waitTime + "ms in queue");
+				return;
+			}
+			executedCount.incrementAndGet();
+			job.run();
+		}
+	}
+}
@@ -53,7 +53,10 @@ public class IndexingMutex {
 	}
 
 	public synchronized boolean isLocked(IndexingJob job) {
-		String collectionId = job.getStringArgs();
+		return isLocked(job.getStringArgs());
+	}
+
+	public synchronized boolean isLocked(String collectionId) {
 		if(jobMonitorMap.get(collectionId) != null){
 			return true;
 		}
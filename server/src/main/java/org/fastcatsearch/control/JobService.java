@@ -11,10 +11,14 @@
 
 package org.fastcatsearch.control;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Timer;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -29,7 +33,16 @@ import org.fastcatsearch.job.Job;
 import org.fastcatsearch.job.PriorityScheduledJob;
 import org.fastcatsearch.job.ScheduledJob;
 import org.fastcatsearch.job.ScheduledJobEntry;
+import org.fastcatsearch.job.DocumentListJob;
 import org.fastcatsearch.job.indexing.IndexingJob;
+import org.fastcatsearch.job.internal.InternalDocumentRequestJob;
+import org.fastcatsearch.job.internal.InternalDocumentSearchJob;
+import org.fastcatsearch.job.internal.InternalGroupSearchJob;
+import org.fastcatsearch.job.internal.InternalSearchJob;
+import org.fastcatsearch.job.search.ClusterGroupSearchJob;
+import org.fastcatsearch.job.search.ClusterSearchJob;
+import org.fastcatsearch.job.search.DocumentSearchJob;
+import org.fastcatsearch.job.search.GroupSearchJob;
 import org.fastcatsearch.service.AbstractService;
 import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.settings.Settings;
@@ -53,6 +66,11 @@ public class JobService extends AbstractService implements JobExecutor {
 	private AtomicLong jobIdIncrement;
 
 	private ThreadPoolExecutor jobExecutor;
+	//검색관련 작업은 종류별로 크기가 제한된 실행기에서 수행한다. 그외 관리, 색인작업은 jobExecutor 에서 수행한다.
+	private List<BoundedJobExecutor> boundedExecutorList;
+	private Map<Class<? extends Job>, BoundedJobExecutor> boundedExecutorMap;
+	//비동기 결과요청의 시간초과 처리용.
+	private Timer resultTimeoutTimer;
 
 	private JobConsumer worker;
 	private SequencialJobWorker sequencialJobWorker;
@@ -90,6 +108,21 @@ public class JobService extends AbstractService implements JobExecutor {
 
 //		jobExecutor = ThreadPoolFactory.newCachedThreadPool("JobService.jobExecutor", executorMaxPoolSize);
 		jobExecutor = ThreadPoolFactory.newUnlimitedCachedDaemonThreadPool("JobService.jobExecutor");
+		
+		int processors = Runtime.getRuntime().availableProcessors();
+		boundedExecutorList = new ArrayList<BoundedJobExecutor>();
+		boundedExecutorMap = new HashMap<Class<? extends Job>, BoundedJobExecutor>();
+		//다른 노드의 결과를 기다리는 작업. 기다리는 작업과 같은 실행기를 쓰면 서로 쓰레드를 차지하여 진행되지 않을수 있으므로 따로 둔다.
+		BoundedJobExecutor requestExecutor = newBoundedExecutor("request", 200);
+		registerBoundedExecutor(requestExecutor, ClusterSearchJob.class, ClusterGroupSearchJob.class);
+		BoundedJobExecutor searchExecutor = newBoundedExecutor("search", processors * 2);
+		registerBoundedExecutor(searchExecutor, InternalSearchJob.class);
+		BoundedJobExecutor documentExecutor = newBoundedExecutor("document", processors * 2);
+		registerBoundedExecutor(documentExecutor, InternalDocumentSearchJob.class, InternalDocumentRequestJob.class, DocumentSearchJob.class, DocumentListJob.class);
+		BoundedJobExecutor groupExecutor = newBoundedExecutor("group", processors * 2);
+		registerBoundedExecutor(groupExecutor, InternalGroupSearchJob.class, GroupSearchJob.class);
+
+		resultTimeoutTimer = new Timer("JobResultTimeoutTimer", true);
 
 		worker = new JobConsumer();
 		worker.start();
@@ -110,6 +143,10 @@ public class JobService extends AbstractService implements JobExecutor {
 		sequencialJobQueue.clear();
 		runningJobList.clear();
 		jobExecutor.shutdownNow();
+		for(BoundedJobExecutor executor : boundedExecutorList){
+			executor.shutdownNow();
+		}
+		resultTimeoutTimer.cancel();
 		
 		for(ScheduledJob job : scheduleMap.values()){
 			job.cancel();
@@ -164,9 +201,36 @@ public class JobService extends AbstractService implements JobExecutor {
 		return indexingMutex.getIndexingList();
 	}
 
+	public boolean isIndexing(String collectionId) {
+		return indexingMutex.isLocked(collectionId);
+	}
+
 	public ThreadPoolExecutor getJobExecutor() {
 		return jobExecutor;
 	}
+	
+	public List<BoundedJobExecutor> getBoundedJobExecutors() {
+		return boundedExecutorList;
+	}
+	
+	/**
+	 * 설정 job.{name}.pool_size, job.{name}.queue_size, job.{name}.queue_timeout(ms) 로 실행기를 만든다.
+	 * */
+	private BoundedJobExecutor newBoundedExecutor(String name, int defaultPoolSize) {
+		int poolSize = settings.getInt(name + ".pool_size", defaultPoolSize);
+		int queueSize = settings.getInt(name + ".queue_size", 1000);
+		long queueTimeout = settings.getInt(name + ".queue_timeout", 3000);
+		logger.info("Job executor [{}] pool_size={} queue_size={} queue_timeout={}ms", new Object[] { name, poolSize, queueSize, queueTimeout });
+		BoundedJobExecutor executor = new BoundedJobExecutor(name, poolSize, queueSize, queueTimeout, this);
+		boundedExecutorList.add(executor);
+		return executor;
+	}
+	
+	private void registerBoundedExecutor(BoundedJobExecutor executor, Class<? extends Job>... jobClassList) {
+		for (Class<? extends Job> jobClass : jobClassList) {
+			boundedExecutorMap.put(jobClass, executor);
+		}
+	}
 
 	/**
 	 * 순차적인 작업을 실행할때 호출한다. 도착한 순서대로 앞의 작업이 모두 끝나야 다음작업이 실행된다.
@@ -187,6 +251,18 @@ public class JobService extends AbstractService implements JobExecutor {
 		return resultFuture;
 	}
 
+	/**
+	 * 작업을 실행하고 결과는 listener 로 받는다. 결과를 기다리는 쓰레드가 필요없다.
+	 * timeInSecond 안에 결과가 오지 않으면 listener 는 null 결과로 호출된다.
+	 * */
+	public ResultFuture offer(Job job, ResultFuture.ResultListener listener, int timeInSecond) {
+		ResultFuture resultFuture = offer(job);
+		if (resultFuture != null) {
+			resultFuture.setListener(listener, resultTimeoutTimer, timeInSecond);
+		}
+		return resultFuture;
+	}
+	
 	public ResultFuture offer(Job job) {
 		job.setEnvironment(environment);
 		job.setJobExecutor(this);
@@ -318,7 +394,13 @@ public class JobService extends AbstractService implements JobExecutor {
 				try {
 					job = jobQueue.take();
 					runningJobList.put(job.getId(), job);
-					jobExecutor.execute(job);
+					BoundedJobExecutor boundedExecutor = boundedExecutorMap.get(job.getClass());
+					if (boundedExecutor != null) {
+						//거부되면 실행기에서 결과를 전달한다.
+						boundedExecutor.execute(job);
+					} else {
+						jobExecutor.execute(job);
+					}
 				} catch (InterruptedException e) {
 					logger.debug(this.getClass().getName() + " is interrupted.");
 				} catch (RejectedExecutionException e) {
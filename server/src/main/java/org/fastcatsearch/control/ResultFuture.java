@@ -12,6 +12,8 @@
 package org.fastcatsearch.control;
 
 import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -31,6 +33,32 @@ public class ResultFuture {
 	
 	private static class NullResult { }
 	
+	//결과를 기다리지 않고 도착시 호출받을 listener. 설정되면 결과는 queue 에 넣지 않고 listener 로 바로 전달한다.
+	private ResultListener listener;
+	private TimerTask timeoutTask;
+	private boolean isDone;
+	//요청 통계용 listener. 결과가 도착하거나 기다리지 않게 되었을때 한번만 호출된다.
+	private CompletionListener completionListener;
+	private boolean isCompleted;
+	private boolean isCompletedSuccess;
+	private long completedTime;
+	
+	/**
+	 * 결과 도착시 호출된다. 결과를 전달한 쓰레드(작업 실행 쓰레드)에서 호출되므로 오래 걸리는 작업을 하지 않도록 한다.
+	 * 시간초과시에는 result 가 null, isSuccess 가 false 로 한번만 호출된다.
+	 * */
+	public static interface ResultListener {
+		public void onResult(Object result, boolean isSuccess);
+	}
+	
+	/**
+	 * 요청의 완료를 통보받는다. 결과를 소비하지 않으므로 take(), poll(), ResultListener 와 같이 사용할수 있다.
+	 * 결과를 기다리다 시간초과등으로 포기한 경우 isSuccess 는 false 이다.
+	 * */
+	public static interface CompletionListener {
+		public void onComplete(long elapsedTime, boolean isSuccess);
+	}
+	
 	/**
 	 * 실패 결과.
 	 * */
@@ -50,6 +78,7 @@ public class ResultFuture {
 		return System.currentTimeMillis() - startTime;
 	}
 	public void putNullFail() {
+		notifyComplete(false);
 		this.isSuccess = false;
 		try {
 			queue.put(NULL_RESULT);
@@ -57,14 +86,141 @@ public class ResultFuture {
 	}
 	
 	public void put(Object result, boolean isSuccess) {
-		this.isSuccess = isSuccess;
-		try {
-			if(result == null){
-				queue.put(NULL_RESULT);
-			}else{
-				queue.put(result);
+		notifyComplete(isSuccess);
+		ResultListener listener = null;
+		synchronized (this) {
+			this.isSuccess = isSuccess;
+			if (this.listener == null) {
+				try {
+					if(result == null){
+						queue.put(NULL_RESULT);
+					}else{
+						queue.put(result);
+					}
+				} catch (InterruptedException ignore) { }
+				return;
 			}
-		} catch (InterruptedException ignore) { }
+			if (isDone) {
+				//이미 시간초과로 응답한 경우.
+				return;
+			}
+			isDone = true;
+			listener = this.listener;
+			if (timeoutTask != null) {
+				timeoutTask.cancel();
+			}
+		}
+		fireResult(listener, result, isSuccess);
+	}
+	
+	/**
+	 * 결과를 기다리는 대신 listener 로 받는다. 이미 결과가 도착해 있으면 호출한 쓰레드에서 바로 listener 를 호출한다.
+	 * @param timer 시간초과 처리용 timer. null 이면 시간초과 처리를 하지 않는다.
+	 * @param timeInSecond 요청시작 시각부터 기다릴 최대시간(초). poll(timeInSecond) 와 같다.
+	 * */
+	public void setListener(ResultListener listener, Timer timer, int timeInSecond) {
+		Object result = null;
+		synchronized (this) {
+			this.listener = listener;
+			if (queue == null) {
+				//실패 결과.
+				isDone = true;
+			} else {
+				result = queue.poll();
+				if (result != null) {
+					isDone = true;
+				} else {
+					if (timer == null) {
+						return;
+					}
+					long remainMilisecondTime = timeInSecond * 1000L - (System.currentTimeMillis() - startTime);
+					timeoutTask = new TimerTask() {
+						@Override
+						public void run() {
+							expire();
+						}
+					};
+					timer.schedule(timeoutTask, Math.max(remainMilisecondTime, 0));
+					return;
+				}
+			}
+		}
+		fireResult(listener, result == NULL_RESULT ? null : result, isSuccess);
+	}
+	
+	private void expire() {
+		ResultListener listener = null;
+		synchronized (this) {
+			if (isDone) {
+				return;
+			}
+			isDone = true;
+			isSuccess = false;
+			listener = this.listener;
+		}
+		//결과가 나중에 도착하더라도 받지 않도록 map에서 제거한다.
+		cancel();
+		fireResult(listener, null, false);
+	}
+	
+	/**
+	 * 완료 통보를 받을 listener 를 설정한다. 이미 완료되었으면 바로 호출한다.
+	 * */
+	public void setCompletionListener(CompletionListener completionListener) {
+		synchronized (this) {
+			if (!isCompleted) {
+				this.completionListener = completionListener;
+				return;
+			}
+		}
+		completionListener.onComplete(completedTime, isCompletedSuccess);
+	}
+	
+	private void notifyComplete(boolean isSuccess) {
+		CompletionListener completionListener = null;
+		synchronized (this) {
+			if (isCompleted) {
+				return;
+			}
+			isCompleted = true;
+			isCompletedSuccess = isSuccess;
+			completedTime = getElapsedTimeMilis();
+			completionListener = this.completionListener;
+		}
+		if (completionListener != null) {
+			try {
+				completionListener.onComplete(completedTime, isSuccess);
+			} catch (Throwable e) {
+				logger.error("error while notifying completion of request " + requestId, e);
+			}
+		}
+	}
+	
+	/**
+	 * 결과를 더이상 기다리지 않는다. map 에서 제거하여 나중에 도착한 결과는 버려지도록 하고, 실패로 완료통보한다.
+	 * listener 가 설정되어 있으면 이후 도착한 결과는 listener 로 전달하지 않는다.
+	 * */
+	public void cancel() {
+		synchronized (this) {
+			if (listener != null) {
+				isDone = true;
+				if (timeoutTask != null) {
+					timeoutTask.cancel();
+				}
+			}
+		}
+		if (resultFutureMap != null) {
+			resultFutureMap.remove(requestId);
+		}
+		notifyComplete(false);
+	}
+	
+	private void fireResult(ResultListener listener, Object result, boolean isSuccess) {
+		try {
+			listener.onResult(result, isSuccess);
+		} catch (Throwable e) {
+			logger.error("error while handling result of request " + requestId, e);
+		}
 	}
 	
 	public boolean isSuccess(){
@@ -92,7 +248,7 @@ public class ResultFuture {
 			return result;
 		} catch (InterruptedException e) {
 			//결과를 받지 못할경우, map에서 제거해준다.
-			resultFutureMap.remove(requestId);
+			cancel();
 			return null;
 		}
 	}
@@ -111,7 +267,7 @@ public class ResultFuture {
 				Object result = queue.poll(remainMilisecondTime, TimeUnit.MILLISECONDS);
 				if(result == null){
 					//결과가 아직도착하지 않아서 받지못하거나, 네트워크 문제로 인해 전달이 안될수도 있으므로 불필요한 객체를 map에서 제거한다.
-					resultFutureMap.remove(requestId);
+					cancel();
 				}else if(result == NULL_RESULT){
 					return null;
 				}
@@ -120,14 +276,14 @@ public class ResultFuture {
 				Object result = queue.poll();
 				if(result == null){
 					//시간초과에 따른 제거일수도 있으므로, 
-					resultFutureMap.remove(requestId);
+					cancel();
 				}else if(result == NULL_RESULT){
 					return null;
 				}
 				return result;
 			}
 		} catch (InterruptedException e) {
-			resultFutureMap.remove(requestId);
+			cancel();
 			return null;
 		}
 	}
@@ -114,7 +114,15 @@ public abstract class AbstractDataSourceReader<DataType> implements DataSourceRe
 	}
 
 	public Document nextDocument() throws IRException {
-		return createDocument(currentReader.nextElement());
+		return createDocument(nextElement());
+	}
+
+	/**
+	 * 문서로 변환하기 전의 다음 데이터. source modifier 까지 적용된다.
+	 * ParallelDocumentReader 는 이 데이터를 읽어 createDocument 를 여러 스레드에서 수행한다.
+	 * */
+	protected DataType nextElement() throws IRException {
+		return currentReader.nextElement();
 	}
 
 	protected abstract Document createDocument(DataType nextElement) throws IRException;
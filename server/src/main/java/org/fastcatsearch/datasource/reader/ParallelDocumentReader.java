@@ -0,0 +1,217 @@
+package org.fastcatsearch.datasource.reader;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.DeleteIdSet;
+import org.fastcatsearch.ir.index.IndexingStageMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 수집과 문서변환을 색인과 동시에 수행하는 reader.
+ * 수집 스레드 하나가 원본데이터를 순서대로 읽어 변환작업을 스레드풀에 넘기고, 변환결과(Future)를 읽은 순서대로 큐에 넣는다.
+ * 색인 스레드는 큐에서 순서대로 문서를 꺼내므로 문서순서(같은 pk 는 나중 문서가 남는다)는 단일 스레드와 같다.
+ * 큐가 차면 수집 스레드가 기다리므로 메모리에 올라오는 문서는 큐 크기로 제한된다.
+ * 수집(read), 변환(parse) 단계와 색인 스레드가 문서를 기다린 시간(take)을 IndexingStageMetrics 로 기록한다.
+ * */
+public class ParallelDocumentReader<DataType> implements DataSourceReader {
+	protected static Logger logger = LoggerFactory.getLogger(ParallelDocumentReader.class);
+
+	private static final int QUEUE_SIZE_PER_THREAD = 64;
+
+	private final FutureTask<Document> END = new FutureTask<Document>(new Callable<Document>() {
+		@Override
+		public Document call() throws Exception {
+			return null;
+		}
+	});
+
+	private AbstractDataSourceReader<DataType> reader;
+	private ExecutorService parseExecutor;
+	private BlockingQueue<Future<Document>> documentQueue;
+	private Thread readThread;
+	private boolean isStarted;
+	private volatile boolean isClosed;
+	private Future<Document> nextFuture;
+
+	private IndexingStageMetrics readMetrics;
+	private IndexingStageMetrics parseMetrics;
+	private IndexingStageMetrics takeMetrics;
+
+	/**
+	 * threadSize 가 0 보다 크고 변환단계를 분리할수 있는 reader 이면 ParallelDocumentReader 로 감싸서 리턴한다.
+	 * */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static DataSourceReader wrap(DataSourceReader dataSourceReader, int threadSize) {
+		if (threadSize > 0 && dataSourceReader instanceof AbstractDataSourceReader) {
+			return new ParallelDocumentReader((AbstractDataSourceReader) dataSourceReader, threadSize);
+		}
+		return dataSourceReader;
+	}
+
+	public ParallelDocumentReader(AbstractDataSourceReader<DataType> reader, final int threadSize) {
+		this.reader = reader;
+		documentQueue = new ArrayBlockingQueue<Future<Document>>(threadSize * QUEUE_SIZE_PER_THREAD);
+		parseExecutor = Executors.newFixedThreadPool(threadSize, new ThreadFactory() {
+			private AtomicInteger sequence = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "document-parse-" + sequence.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		readMetrics = new IndexingStageMetrics("read");
+		parseMetrics = new IndexingStageMetrics("parse");
+		takeMetrics = new IndexingStageMetrics("take");
+		END.run();
+		readThread = new Thread(new ReadTask(), "document-read");
+		readThread.setDaemon(true);
+		logger.info("Parallel document reader. parse thread = {}, queue = {}", threadSize, threadSize * QUEUE_SIZE_PER_THREAD);
+	}
+
+	class ReadTask implements Runnable {
+		@Override
+		public void run() {
+			try {
+				while (!isClosed) {
+					long startTime = System.nanoTime();
+					if (!reader.hasNext()) {
+						break;
+					}
+					final DataType element = reader.nextElement();
+					long readTime = System.nanoTime();
+					Future<Document> future = parseExecutor.submit(new Callable<Document>() {
+						@Override
+						public Document call() throws Exception {
+							long parseStartTime = System.nanoTime();
+							Document document = reader.createDocument(element);
+							parseMetrics.addBusy(System.nanoTime() - parseStartTime);
+							return document;
+						}
+					});
+					documentQueue.put(future);
+					long endTime = System.nanoTime();
+					readMetrics.add(readTime - startTime, endTime - readTime);
+				}
+			} catch (final Throwable e) {
+				//에러는 색인 스레드가 해당 순서에서 받도록 큐에 넣는다.
+				FutureTask<Document> errorTask = new FutureTask<Document>(new Callable<Document>() {
+					@Override
+					public Document call() throws Exception {
+						if (e instanceof Exception) {
+							throw (Exception) e;
+						}
+						throw new IRException(e);
+					}
+				});
+				errorTask.run();
+				putQuietly(errorTask);
+				return;
+			}
+			putQuietly(END);
+		}
+
+		private void putQuietly(Future<Document> future) {
+			try {
+				while (!isClosed) {
+					if (documentQueue.offer(future, 500, TimeUnit.MILLISECONDS)) {
+						return;
+					}
+				}
+			} catch (InterruptedException ignore) {
+			}
+		}
+	}
+
+	@Override
+	public DeleteIdSet getDeleteList() {
+		return reader.getDeleteList();
+	}
+
+	@Override
+	public boolean hasNext() throws IRException {
+		if (!isStarted) {
+			//색인준비중 에러가 나면 수집을 시작하지 않도록 처음 읽을때 시작한다.
+			isStarted = true;
+			readThread.start();
+		}
+		if (nextFuture == null) {
+			long startTime = System.nanoTime();
+			try {
+				nextFuture = documentQueue.take();
+			} catch (InterruptedException e) {
+				throw new IRException(e);
+			}
+			takeMetrics.addWait(System.nanoTime() - startTime);
+		}
+		return nextFuture != END;
+	}
+
+	@Override
+	public Document nextDocument() throws IRException {
+		if (!hasNext()) {
+			return null;
+		}
+		long startTime = System.nanoTime();
+		Future<Document> future = nextFuture;
+		nextFuture = null;
+		try {
+			Document document = future.get();
+			takeMetrics.add(0, System.nanoTime() - startTime);
+			return document;
+		} catch (InterruptedException e) {
+			throw new IRException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IRException) {
+				throw (IRException) cause;
+			}
+			throw new IRException(cause);
+		}
+	}
+
+	@Override
+	public void close() {
+		isClosed = true;
+		//수집 스레드가 큐에서 기다리고 있다면 풀어준다.
+		documentQueue.clear();
+		if (isStarted) {
+			try {
+				readThread.join();
+			} catch (InterruptedException e) {
+				logger.error("", e);
+			}
+		}
+		parseExecutor.shutdownNow();
+		reader.close();
+		logger.info("{}", readMetrics);
+		logger.info("{}", parseMetrics);
+		logger.info("{}", takeMetrics);
+	}
+
+	public IndexingStageMetrics readMetrics() {
+		return readMetrics;
+	}
+
+	public IndexingStageMetrics parseMetrics() {
+		return parseMetrics;
+	}
+
+	public IndexingStageMetrics takeMetrics() {
+		return takeMetrics;
+	}
+}
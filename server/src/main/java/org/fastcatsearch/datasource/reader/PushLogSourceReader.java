@@ -0,0 +1,100 @@
+package org.fastcatsearch.datasource.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import net.minidev.json.parser.ParseException;
+
+import org.fastcatsearch.ir.DocumentPushLog;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.util.JSONParser;
+
+/**
+ * push api 로 기록된 DocumentPushLog 파일들을 오래된 순으로 읽는다.
+ * 삭제 레코드는 deleteIdList 에 넣고, 추가 레코드는 json 을 map 으로 변환하여 리턴한다.
+ * */
+public class PushLogSourceReader extends SingleSourceReader<Map<String, Object>> {
+
+	private List<File> fileList;
+	private int filePos;
+	private DocumentPushLog.LogReader logReader;
+	private JSONParser jsonParser;
+	private Map<String, Object> dataMap;
+
+	public PushLogSourceReader(List<File> fileList) {
+		this.fileList = fileList;
+		jsonParser = new JSONParser();
+	}
+
+	@Override
+	protected void initParameters() {
+	}
+
+	@Override
+	public void init() throws IRException {
+		filePos = 0;
+	}
+
+	@Override
+	public boolean hasNext() throws IRException {
+		if (dataMap != null) {
+			return true;
+		}
+		try {
+			while (true) {
+				if (logReader == null) {
+					if (filePos >= fileList.size()) {
+						return false;
+					}
+					logReader = new DocumentPushLog.LogReader(fileList.get(filePos++));
+				}
+				if (!logReader.next()) {
+					logReader.close();
+					logReader = null;
+					continue;
+				}
+				if (logReader.type() == DocumentPushLog.DELETE) {
+					if (deleteIdList == null) {
+						//pk 가 없는 컬렉션은 삭제할수 없다.
+						continue;
+					}
+					try {
+						deleteIdList.add(logReader.keys());
+					} catch (IRException e) {
+						logger.warn("Skip push delete request. {}", e.getMessage());
+					}
+				} else {
+					try {
+						dataMap = jsonParser.parse(logReader.document());
+						return true;
+					} catch (ParseException e) {
+						logger.error("error while convert json to map : " + logReader.document(), e);
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new IRException(e);
+		}
+	}
+
+	@Override
+	protected Map<String, Object> next() throws IRException {
+		Map<String, Object> map = dataMap;
+		dataMap = null;
+		return map;
+	}
+
+	@Override
+	public void close() throws IRException {
+		if (logReader != null) {
+			try {
+				logReader.close();
+			} catch (IOException e) {
+				throw new IRException(e);
+			}
+			logReader = null;
+		}
+	}
+}
@@ -31,7 +31,12 @@ public class HttpServiceController {
 		HttpAction action = createAction(request, httpChannel);
 		if (action != null) {
 			try {
-				executorService.execute(action);
+				if (action.isAsync()) {
+					//작업만 요청하고 바로 리턴하므로 쓰레드를 넘기지 않는다. 결과는 작업을 마친 쓰레드에서 기록한다.
+					action.run();
+				} else {
+					executorService.execute(action);
+				}
 			} catch (Exception e) {
 				logger.error("Action job allocation error!", e);
 			}
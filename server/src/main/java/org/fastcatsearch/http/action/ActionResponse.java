@@ -29,6 +29,8 @@ public class ActionResponse {
 	//객체유지용.
 	private Writer writer;
 	private StreamWriter streamWriter;
+	//결과를 다른 쓰레드에서 나중에 보내는지. true 이면 action 종료시 응답하지 않고, 결과를 받은 쓰레드에서 done()을 호출한다.
+	private volatile boolean isAsync;
 	
 	public ActionResponse(HttpChannel httpChannel) {
 		this.httpChannel = httpChannel;
@@ -126,6 +128,14 @@ public class ActionResponse {
 		return contentType;
 	}
 
+	public void setAsync(boolean isAsync) {
+		this.isAsync = isAsync;
+	}
+
+	public boolean isAsync() {
+		return isAsync;
+	}
+
 	public boolean isEmpty() {
 		return isEmpty;
 	}
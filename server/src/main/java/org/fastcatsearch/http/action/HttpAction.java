@@ -50,7 +50,9 @@ public abstract class HttpAction implements Runnable, Cloneable {
 		
 		try {
 			runAction(request, response);
-			response.done();
+			if(!response.isAsync()) {
+				response.done();
+			}
         } catch (ActionException e) {
             response.error(e);
 		} catch (Throwable e) {
@@ -61,6 +63,13 @@ public abstract class HttpAction implements Runnable, Cloneable {
 		
 	}
 
+	/**
+	 * 결과를 기다리지 않고 응답을 나중에 보내는 action 인지. true 이면 요청을 별도 쓰레드풀에 넘기지 않고 받은 쓰레드에서 바로 실행한다.
+	 * */
+	public boolean isAsync() {
+		return false;
+	}
+
 	public boolean isMethod(ActionMethod actionMethod){
 		for(ActionMethod m : this.method){
 			if(m == actionMethod){
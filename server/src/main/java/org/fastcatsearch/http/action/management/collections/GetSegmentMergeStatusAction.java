@@ -0,0 +1,56 @@
+package org.fastcatsearch.http.action.management.collections;
+
+import java.io.Writer;
+
+import org.fastcatsearch.http.ActionAuthority;
+import org.fastcatsearch.http.ActionAuthorityLevel;
+import org.fastcatsearch.http.ActionMapping;
+import org.fastcatsearch.http.action.ActionRequest;
+import org.fastcatsearch.http.action.ActionResponse;
+import org.fastcatsearch.http.action.AuthAction;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.index.merge.SegmentMergeStatistics;
+import org.fastcatsearch.ir.index.merge.TieredMergePolicy;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.ResponseWriter;
+
+@ActionMapping(value = "/management/collections/segment-merge-status", authority = ActionAuthority.Collections, authorityLevel = ActionAuthorityLevel.READABLE)
+public class GetSegmentMergeStatusAction extends AuthAction {
+
+	@Override
+	public void doAuthAction(ActionRequest request, ActionResponse response) throws Exception {
+
+		String collectionId = request.getParameter("collectionId");
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+
+		Writer writer = response.getWriter();
+		ResponseWriter responseWriter = getDefaultResponseWriter(writer);
+		responseWriter.object()
+		.key("collectionId").value(collectionId);
+
+		if(collectionHandler != null){
+			TieredMergePolicy mergePolicy = collectionHandler.mergePolicy();
+			SegmentMergeStatistics statistics = collectionHandler.mergeStatistics();
+			responseWriter.key("segmentSize").value(collectionHandler.segmentSize())
+			.key("policy").value(mergePolicy.toString())
+			.key("enabled").value(mergePolicy.isEnabled())
+			.key("running").value(statistics.isRunning())
+			.key("mergeCount").value(statistics.getMergeCount())
+			.key("mergedSegmentCount").value(statistics.getMergedSegmentCount())
+			.key("mergedDocumentCount").value(statistics.getMergedDocumentCount())
+			.key("purgedDocumentCount").value(statistics.getPurgedDocumentCount())
+			.key("totalElapsed").value(statistics.getTotalElapsed())
+			.key("lastMergeTime").value(statistics.getLastMergeTime())
+			.key("lastElapsed").value(statistics.getLastElapsed())
+			.key("lastSegmentCount").value(statistics.getLastSegmentCount())
+			.key("lastDocumentCount").value(statistics.getLastDocumentCount())
+			.key("lastPurgeCount").value(statistics.getLastPurgeCount());
+		}
+
+		responseWriter.endObject();
+		responseWriter.done();
+	}
+
+}
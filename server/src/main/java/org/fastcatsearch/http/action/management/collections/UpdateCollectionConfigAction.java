@@ -47,6 +47,8 @@ public class UpdateCollectionConfigAction extends AuthAction {
 		collectionConfig.getDataPlanConfig().setSegmentRevisionBackupSize(segmentRevisionBackupSize);
 		collectionConfig.getDataPlanConfig().setSegmentDocumentLimit(segmentDocumentLimit);
 		collectionConfig.setFullIndexingSegmentSize(fullIndexingSegmentSize);
+		collectionConfig.setParallelSegmentSearch(request.getBooleanParameter("parallelSegmentSearch", collectionConfig.getParallelSegmentSearch()));
+		collectionConfig.setMmapFileTypes(request.getParameter("mmapFileTypes", collectionConfig.getMmapFileTypes()));
 		
 		List<String> searchNodeListObj = new ArrayList<String>();
 		for(String nodeStr : searchNodeList.split(",")){
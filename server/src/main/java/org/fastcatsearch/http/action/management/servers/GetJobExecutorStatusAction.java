@@ -0,0 +1,49 @@
+package org.fastcatsearch.http.action.management.servers;
+
+import org.fastcatsearch.control.BoundedJobExecutor;
+import org.fastcatsearch.control.JobService;
+import org.fastcatsearch.http.ActionAuthority;
+import org.fastcatsearch.http.ActionAuthorityLevel;
+import org.fastcatsearch.http.ActionMapping;
+import org.fastcatsearch.http.action.ActionRequest;
+import org.fastcatsearch.http.action.ActionResponse;
+import org.fastcatsearch.http.action.AuthAction;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.ResponseWriter;
+
+/**
+ * 이 노드의 작업종류별 실행기 대기열, 대기시간 통계.
+ * */
+@ActionMapping(value = "/management/servers/job-executor-status", authority = ActionAuthority.Servers, authorityLevel = ActionAuthorityLevel.READABLE)
+public class GetJobExecutorStatusAction extends AuthAction {
+
+	@Override
+	public void doAuthAction(ActionRequest request, ActionResponse response) throws Exception {
+
+		JobService jobService = ServiceManager.getInstance().getService(JobService.class);
+
+		ResponseWriter responseWriter = getDefaultResponseWriter(response.getWriter());
+		responseWriter.object()
+		.key("runningJobSize").value(jobService.runningJobSize())
+		.key("inQueueJobSize").value(jobService.inQueueJobSize())
+		.key("executors").array();
+		for (BoundedJobExecutor executor : jobService.getBoundedJobExecutors()) {
+			responseWriter.object()
+			.key("name").value(executor.name())
+			.key("poolSize").value(executor.poolSize())
+			.key("active").value(executor.activeCount())
+			.key("queueSize").value(executor.queueSize())
+			.key("queueDepth").value(executor.queueDepth())
+			.key("queueTimeout").value(executor.queueTimeout())
+			.key("executed").value(executor.executedCount())
+			.key("rejected").value(executor.rejectedCount())
+			.key("timeout").value(executor.timeoutCount())
+			.key("averageWaitTime").value(executor.averageWaitTime())
+			.key("maxWaitTime").value(executor.maxWaitTime())
+			.endObject();
+		}
+		responseWriter.endArray().endObject();
+		responseWriter.done();
+	}
+
+}
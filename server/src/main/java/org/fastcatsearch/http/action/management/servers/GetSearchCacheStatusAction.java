@@ -0,0 +1,40 @@
+package org.fastcatsearch.http.action.management.servers;
+
+import org.fastcatsearch.common.SearchResultCacheModule;
+import org.fastcatsearch.http.ActionAuthority;
+import org.fastcatsearch.http.ActionAuthorityLevel;
+import org.fastcatsearch.http.ActionMapping;
+import org.fastcatsearch.http.action.ActionRequest;
+import org.fastcatsearch.http.action.ActionResponse;
+import org.fastcatsearch.http.action.AuthAction;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.ResponseWriter;
+
+/**
+ * 이 노드의 검색결과 캐시 통계.
+ * */
+@ActionMapping(value = "/management/servers/search-cache-status", authority = ActionAuthority.Servers, authorityLevel = ActionAuthorityLevel.READABLE)
+public class GetSearchCacheStatusAction extends AuthAction {
+
+	@Override
+	public void doAuthAction(ActionRequest request, ActionResponse response) throws Exception {
+
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		SearchResultCacheModule searchCache = irService.searchCache();
+
+		ResponseWriter responseWriter = getDefaultResponseWriter(response.getWriter());
+		responseWriter.object()
+		.key("size").value(searchCache.size())
+		.key("memorySize").value(searchCache.memorySize())
+		.key("maxMemorySize").value(searchCache.maxMemorySize())
+		.key("hit").value(searchCache.hitCount())
+		.key("miss").value(searchCache.missCount())
+		.key("evict").value(searchCache.evictionCount())
+		.key("stale").value(searchCache.staleCount())
+		.key("invalidate").value(searchCache.invalidationCount())
+		.endObject();
+		responseWriter.done();
+	}
+
+}
@@ -0,0 +1,85 @@
+package org.fastcatsearch.http.action.management.servers;
+
+import java.util.Map;
+
+import org.fastcatsearch.http.ActionAuthority;
+import org.fastcatsearch.http.ActionAuthorityLevel;
+import org.fastcatsearch.http.ActionMapping;
+import org.fastcatsearch.http.action.ActionRequest;
+import org.fastcatsearch.http.action.ActionResponse;
+import org.fastcatsearch.http.action.AuthAction;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.SearchMetricsModule;
+import org.fastcatsearch.ir.query.QueryTrace;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.LatencyHistogram;
+import org.fastcatsearch.util.ResponseWriter;
+import org.fastcatsearch.util.ResultWriterException;
+
+/**
+ * 이 노드의 컬렉션별 검색 응답시간 분포, 단계별 시간 분포와 느린 검색 목록. 시간단위는 us 이다.
+ * enabled=true|false 로 측정을 켜고 끄며, reset=true 이면 기록을 지운다.
+ * */
+@ActionMapping(value = "/management/servers/search-metrics", authority = ActionAuthority.Servers, authorityLevel = ActionAuthorityLevel.READABLE)
+public class GetSearchMetricsAction extends AuthAction {
+
+	@Override
+	public void doAuthAction(ActionRequest request, ActionResponse response) throws Exception {
+
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		SearchMetricsModule searchMetrics = irService.searchMetrics();
+
+		String enabled = request.getParameter("enabled");
+		if (enabled != null) {
+			searchMetrics.setEnabled(Boolean.parseBoolean(enabled));
+		}
+		if (request.getBooleanParameter("reset", false)) {
+			searchMetrics.reset();
+		}
+
+		ResponseWriter responseWriter = getDefaultResponseWriter(response.getWriter());
+		responseWriter.object()
+		.key("enabled").value(searchMetrics.isEnabled())
+		.key("slowQueryTime").value(searchMetrics.slowQueryTime())
+		.key("collections").array();
+		for (Map.Entry<String, SearchMetricsModule.CollectionMetrics> entry : searchMetrics.collectionMetrics().entrySet()) {
+			SearchMetricsModule.CollectionMetrics metrics = entry.getValue();
+			responseWriter.object().key("id").value(entry.getKey());
+			writeHistogram(responseWriter.key("total"), metrics.total());
+			responseWriter.key("phases").object();
+			for (QueryTrace.Phase phase : QueryTrace.Phase.values()) {
+				writeHistogram(responseWriter.key(phase.name().toLowerCase()), metrics.phase(phase));
+			}
+			responseWriter.endObject().endObject();
+		}
+		responseWriter.endArray();
+
+		responseWriter.key("slowQueries").array();
+		for (SearchMetricsModule.SlowQuery slowQuery : searchMetrics.slowQueries()) {
+			responseWriter.object()
+			.key("time").value(slowQuery.time())
+			.key("collection").value(slowQuery.collectionId())
+			.key("query").value(slowQuery.queryString())
+			.key("elapsed").value(slowQuery.elapsedTime())
+			.key("phases").object();
+			for (QueryTrace.Phase phase : QueryTrace.Phase.values()) {
+				responseWriter.key(phase.name().toLowerCase()).value(slowQuery.phaseTime(phase));
+			}
+			responseWriter.endObject().endObject();
+		}
+		responseWriter.endArray().endObject();
+		responseWriter.done();
+	}
+
+	private void writeHistogram(ResponseWriter responseWriter, LatencyHistogram histogram) throws ResultWriterException {
+		responseWriter.object()
+		.key("count").value(histogram.count())
+		.key("mean").value((long) histogram.mean())
+		.key("p50").value(histogram.percentile(50))
+		.key("p90").value(histogram.percentile(90))
+		.key("p99").value(histogram.percentile(99))
+		.key("p999").value(histogram.percentile(99.9))
+		.key("max").value(histogram.max())
+		.endObject();
+	}
+}
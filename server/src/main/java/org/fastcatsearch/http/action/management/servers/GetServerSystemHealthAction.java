@@ -76,6 +76,8 @@ public class GetServerSystemHealthAction extends AuthAction {
 		.key("totalDiskSize").value(info.totalDiskSize)
 		.key("usedDiskSize").value(info.usedDiskSize)
 		.key("freeDiskSize").value(info.freeDiskSize)
+		.key("columnCacheHeapSize").value(info.columnCacheHeapSize)
+		.key("columnCacheOffHeapSize").value(info.columnCacheOffHeapSize)
 		.endObject();
 	}
 }
@@ -1,5 +1,6 @@
 package org.fastcatsearch.http.action.service;
 
+import org.fastcatsearch.control.ExecutorMaxCapacityExceedException;
 import org.fastcatsearch.control.JobService;
 import org.fastcatsearch.control.ResultFuture;
 import org.fastcatsearch.error.SearchError;
@@ -9,15 +10,20 @@ import org.fastcatsearch.http.action.ServiceAction;
 import org.fastcatsearch.http.writer.AbstractSearchResultWriter;
 import org.fastcatsearch.http.writer.SearchResultWriter;
 import org.fastcatsearch.ir.query.Metadata;
+import org.fastcatsearch.ir.IRService;
 import org.fastcatsearch.ir.query.Query;
+import org.fastcatsearch.ir.query.QueryTrace;
 import org.fastcatsearch.job.Job;
+import org.fastcatsearch.job.search.ClusterSearchJob;
 import org.fastcatsearch.query.QueryMap;
+import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.util.ResponseWriter;
 import org.fastcatsearch.util.ResultWriterException;
 import org.jboss.netty.handler.codec.http.HttpResponseStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.Writer;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -47,6 +53,12 @@ public abstract class AbstractSearchAction extends ServiceAction {
 		Object obj = jobResult.poll(timeout);
 		searchTime = (System.nanoTime() - st) / 1000000;
 
+		writeSearchResult(queryMap, obj, searchTime, jobResult.isSuccess(), writer);
+
+		return obj;
+	}
+
+	protected void writeSearchResult(QueryMap queryMap, Object obj, long searchTime, boolean isSuccess, Writer writer) throws IOException {
         // searchOption에서 lowercase가 존재하는지 확인후, 존재하면 lowercase로 결과를 기록하도록 한다.
         String so = queryMap.get(Query.EL.so.name());
         Metadata meta = new Metadata();
@@ -56,14 +68,12 @@ public abstract class AbstractSearchAction extends ServiceAction {
         AbstractSearchResultWriter resultWriter = createSearchResultWriter(writer, isFieldLowercase, noUnicode);
 
 		try {
-			resultWriter.writeResult(obj, searchTime, jobResult.isSuccess());
+			resultWriter.writeResult(obj, searchTime, isSuccess);
 		} catch (ResultWriterException e) {
 			logger.error("", e);
 		}
 
 		writer.close();
-
-		return obj;
 	}
 
 	protected long getRequestId() {
@@ -71,11 +81,11 @@ public abstract class AbstractSearchAction extends ServiceAction {
 	}
 
 	@Override
-	public void doAction(ActionRequest request, ActionResponse response) throws Exception {
-		long requestId = getRequestId();
+	public void doAction(final ActionRequest request, final ActionResponse response) throws Exception {
+		final long requestId = getRequestId();
 		requestLogger.info("request id:{} uri:{} param:{}", requestId, request.uri(), request.getParameterString());
 		logger.debug("request.getParameterMap() >> {}", request.getParameterMap());
-		QueryMap queryMap = new QueryMap(request.getParameterMap());
+		final QueryMap queryMap = new QueryMap(request.getParameterMap());
 		logger.debug("queryMap tostring>> {}", queryMap);
 		Integer timeout = request.getIntParameter("timeout", DEFAULT_TIMEOUT);
 		String responseCharset = request.getParameter("responseCharset", DEFAULT_CHARSET);
@@ -86,16 +96,72 @@ public abstract class AbstractSearchAction extends ServiceAction {
 		if (timeout == null) {
 			timeout = DEFAULT_TIMEOUT;
 		}
-		Writer writer = response.getWriter();
+		final Writer writer = response.getWriter();
 		response.setStatus(HttpResponseStatus.OK);
-		Object obj = null;
+
+		final long st = System.nanoTime();
+		Job searchJob = createSearchJob(queryMap);
+		final QueryTrace trace = startTrace(searchJob);
+		//결과는 작업을 마친 쓰레드에서 기록하고 응답한다. 요청 쓰레드는 결과를 기다리지 않는다.
+		response.setAsync(true);
 		try {
-			obj = doSearch(requestId, queryMap, timeout, writer);
-		} finally {
-			writer.close();
-			requestLogger.info("end request id:{}",requestId);
+			JobService.getInstance().offer(searchJob, new ResultFuture.ResultListener() {
+				@Override
+				public void onResult(Object obj, boolean isSuccess) {
+					long searchTime = (System.nanoTime() - st) / 1000000;
+					try {
+						long writeStartTime = System.nanoTime();
+						writeSearchResult(queryMap, obj, searchTime, isSuccess, writer);
+						if (trace != null) {
+							long et = System.nanoTime();
+							trace.add(QueryTrace.Phase.SERIALIZE, et - writeStartTime);
+							if (isSuccess) {
+								ServiceManager.getInstance().getService(IRService.class).searchMetrics().record(queryMap.get(Query.EL.cn.name()), queryMap.queryString(), et - st, trace);
+							}
+						}
+						afterSearch(requestId, request, response, obj);
+						response.done();
+					} catch (Throwable e) {
+						logger.error("error while writing search result", e);
+						response.error(e);
+					} finally {
+						requestLogger.info("end request id:{}", requestId);
+					}
+				}
+			}, timeout);
+		} catch (RuntimeException e) {
+			response.setAsync(false);
+			throw e;
 		}
+	}
 
+	/**
+	 * 검색측정이 켜져 있으면 검색작업에 trace 를 넣어 단계별 시간을 측정하게 한다.
+	 * */
+	protected QueryTrace startTrace(Job searchJob) {
+		if (!(searchJob instanceof ClusterSearchJob)) {
+			return null;
+		}
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		if (irService == null || irService.searchMetrics() == null) {
+			return null;
+		}
+		QueryTrace trace = irService.searchMetrics().newTrace();
+		((ClusterSearchJob) searchJob).setTrace(trace);
+		return trace;
+	}
+
+	@Override
+	public boolean isAsync() {
+		return true;
+	}
+
+	protected void afterSearch(long requestId, ActionRequest request, ActionResponse response, Object obj) {
+		if(isRejected(obj)) {
+			//과부하로 거부된 요청은 바로 503으로 응답하여 클라이언트가 재시도하거나 다른 노드로 보낼수 있도록 한다.
+			response.setStatus(HttpResponseStatus.SERVICE_UNAVAILABLE);
+		}
+		
 		if(obj instanceof Exception) {
 			Exception e = (Exception) obj;
 			searchErrorLogger.error("REQ-{} URL: {}?{}", requestId, request.uri(), request.getParameterString());
@@ -105,10 +171,21 @@ public abstract class AbstractSearchAction extends ServiceAction {
                 searchErrorLogger.error("RES-" + requestId, e);
             }
 		}
-
 	}
 
-	
+	/**
+	 * 실행기 대기열이 가득차거나 대기시간을 초과하여 거부된 결과인지 확인한다. 다른 노드에서 거부된 경우 cause 로 감싸져 있다.
+	 * */
+	protected boolean isRejected(Object obj) {
+		Throwable t = obj instanceof Throwable ? (Throwable) obj : null;
+		while (t != null) {
+			if (t instanceof ExecutorMaxCapacityExceedException) {
+				return true;
+			}
+			t = t.getCause();
+		}
+		return false;
+	}
 
 	protected ResponseWriter getSearchResultWriter(Writer writer, boolean isFieldLowercase, boolean noUnicode) {
 		return getSearchResultWriter(writer, "_search_callback", isFieldLowercase, noUnicode);
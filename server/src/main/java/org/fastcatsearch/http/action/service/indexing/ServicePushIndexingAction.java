@@ -0,0 +1,59 @@
+package org.fastcatsearch.http.action.service.indexing;
+
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.control.ResultFuture;
+import org.fastcatsearch.http.ActionMapping;
+import org.fastcatsearch.http.ActionMethod;
+import org.fastcatsearch.http.action.ActionException;
+import org.fastcatsearch.http.action.ActionRequest;
+import org.fastcatsearch.http.action.ActionResponse;
+import org.fastcatsearch.http.action.ServiceAction;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.job.indexing.DocumentPushJob;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.ResponseWriter;
+
+/**
+ * 문서를 색인노드의 push 로그에 기록한다. 기록된 문서는 응답후 바로 메모리 세그먼트에서 검색되고, push.flush_interval 주기로 세그먼트에 반영된다.
+ * data 는 한줄에 json 문서 하나씩, delete 는 한줄에 pk 하나씩(pk 필드가 여러개이면 tab 으로 구분) 넣는다.
+ * */
+@ActionMapping(value = "/service/indexing/push", method = { ActionMethod.POST })
+public class ServicePushIndexingAction extends ServiceAction {
+
+	@Override
+	public void doAction(ActionRequest request, ActionResponse response) throws Exception {
+
+		String collectionId = request.getParameter("collectionId");
+		String documents = request.getParameter("data");
+		String deletes = request.getParameter("delete");
+
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		CollectionContext collectionContext = irService.collectionContext(collectionId);
+		if (collectionContext == null) {
+			throw new ActionException("Collection [" + collectionId + "] is not exist.");
+		}
+
+		NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+		Node indexNode = nodeService.getNodeById(collectionContext.collectionConfig().getIndexNode());
+		ResultFuture resultFuture = nodeService.sendRequest(indexNode, new DocumentPushJob(collectionId, documents, deletes));
+		if (resultFuture == null) {
+			throw new ActionException("Cannot send documents to index node " + indexNode);
+		}
+		Object result = resultFuture.take();
+		if (!resultFuture.isSuccess()) {
+			throw new ActionException(String.valueOf(result));
+		}
+
+		writeHeader(response);
+		ResponseWriter resultWriter = getDefaultResponseWriter(response.getWriter());
+		resultWriter.object()
+		.key("success").value(true)
+		.key("collectionId").value(collectionId)
+		.key("count").value(result)
+		.endObject();
+		resultWriter.done();
+	}
+
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.Date;
 
 import org.fastcatsearch.datasource.reader.DataSourceReader;
+import org.fastcatsearch.datasource.reader.ParallelDocumentReader;
 import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.SettingException;
@@ -85,7 +86,8 @@ public abstract class AbstractCollectionIndexer implements CollectionIndexerable
 		
 		
 		File filePath = collectionContext.collectionFilePaths().file();
-		dataSourceReader = createDataSourceReader(filePath, schema.schemaSetting());
+		//parse-thread-size 가 있으면 수집과 문서변환을 색인과 동시에 수행한다.
+		dataSourceReader = ParallelDocumentReader.wrap(createDataSourceReader(filePath, schema.schemaSetting()), indexConfig.parseThreadSize());
 		
 		indexWriter = createIndexWriter(schema, segmentDir, revisionInfo, indexConfig);
 		
@@ -35,11 +35,20 @@ public class CollectionAddIndexer extends AbstractCollectionIndexer {
 	private CollectionHandler collectionHandler;
 	
 	public CollectionAddIndexer(CollectionHandler collectionHandler) throws IRException {
+		this(collectionHandler, true);
+	}
+	
+	/**
+	 * 하위클래스가 createDataSourceReader 에서 사용할 필드를 먼저 셋팅해야 한다면 isInit=false 로 생성한후 init 을 직접 호출한다.
+	 * */
+	protected CollectionAddIndexer(CollectionHandler collectionHandler, boolean isInit) throws IRException {
 		super(collectionHandler.collectionContext(), collectionHandler.analyzerPoolManager());
 		this.collectionHandler = collectionHandler;
 		
-		//증분색인시는 현재 스키마를 그대로 사용한다.
-		init(collectionContext.schema());
+		if(isInit) {
+			//증분색인시는 현재 스키마를 그대로 사용한다.
+			init(collectionContext.schema());
+		}
 	}
 	
 	@Override
@@ -0,0 +1,51 @@
+package org.fastcatsearch.ir;
+
+import java.io.File;
+import java.util.List;
+
+import org.fastcatsearch.datasource.reader.DataSourceReader;
+import org.fastcatsearch.datasource.reader.DefaultDataSourceReader;
+import org.fastcatsearch.datasource.reader.PushLogSourceReader;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.CollectionIndexStatus.IndexStatus;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.fastcatsearch.job.indexing.IndexingStopException;
+
+/**
+ * push api 로 기록된 문서를 증분색인과 같은 방식으로 세그먼트 리비전에 반영하는 indexer.
+ * 데이터소스 대신 DocumentPushLog 파일들을 읽는다.
+ * */
+public class CollectionPushIndexer extends CollectionAddIndexer {
+
+	private List<File> pushLogFileList;
+
+	public CollectionPushIndexer(CollectionHandler collectionHandler, List<File> pushLogFileList) throws IRException {
+		super(collectionHandler, false);
+		this.pushLogFileList = pushLogFileList;
+		init(collectionContext.schema());
+	}
+
+	@Override
+	protected DataSourceReader createDataSourceReader(File filePath, SchemaSetting schemaSetting) throws IRException {
+		DefaultDataSourceReader dataSourceReader = new DefaultDataSourceReader(schemaSetting);
+		dataSourceReader.addSourceReader(new PushLogSourceReader(pushLogFileList));
+		dataSourceReader.init();
+		return dataSourceReader;
+	}
+
+	@Override
+	protected boolean done(RevisionInfo revisionInfo, IndexStatus indexStatus) throws IRException, IndexingStopException {
+		//push 반영은 데이터소스 증분색인의 기준시각(lastIndexTime)을 바꾸지 않도록 이전 증분색인 상태를 유지한다.
+		IndexStatus prevIndexStatus = collectionContext.indexStatus().getAddIndexStatus();
+		if (prevIndexStatus != null) {
+			prevIndexStatus = prevIndexStatus.copy();
+		}
+		try {
+			return super.done(revisionInfo, indexStatus);
+		} finally {
+			collectionContext.indexStatus().setAddIndexStatus(prevIndexStatus);
+		}
+	}
+}
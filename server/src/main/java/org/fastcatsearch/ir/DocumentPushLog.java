@@ -0,0 +1,324 @@
+package org.fastcatsearch.ir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * push api 로 받은 문서를 색인전까지 보관하는 컬렉션별 write-ahead log.
+ * 파일은 push.{seq}.log 이며, 레코드는 [int 길이][int crc32][byte 종류][데이터] 로 기록된다.
+ * 추가문서의 데이터는 json 문자열, 삭제문서의 데이터는 pk 필드값 목록이다.
+ * rotate() 로 닫힌 파일은 색인대상이 되며, 색인이 성공하면 remove() 로 지운다.
+ * 재시작시 남아있는 파일은 모두 닫힌 파일로 취급하며, 기록중 끊긴 마지막 레코드는 crc 로 걸러낸다.
+ * append 는 요청의 레코드를 한번에 기록하고, 도중에 실패하면 마지막으로 성공한 위치까지 파일을 잘라낸다.
+ * 잘라낼수 없으면 새 파일로 넘어가서, 이후 요청의 레코드가 끊긴 레코드 뒤에 기록되어 읽히지 않는 일이 없도록 한다.
+ * 파일의 seq 는 메모리 세그먼트의 generation 으로 사용되며, 반영된 파일의 seq 까지 메모리 세그먼트에서 버린다.
+ * */
+public class DocumentPushLog {
+	protected static final Logger logger = LoggerFactory.getLogger(DocumentPushLog.class);
+
+	public static final byte INSERT = 1;
+	public static final byte DELETE = 2;
+
+	private static final String FILE_PREFIX = "push.";
+	private static final String FILE_SUFFIX = ".log";
+	private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+	private File dir;
+	private boolean isSync;
+	private int sequence;
+	private FileOutputStream fileOutput;
+	//기록중인 파일에서 마지막으로 성공한 append 의 끝위치.
+	private long length;
+	private int recordCount;
+	private List<File> closedFileList;
+
+	public DocumentPushLog(File dir, boolean isSync) {
+		this.dir = dir;
+		this.isSync = isSync;
+		closedFileList = new ArrayList<File>();
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				int seq = sequenceOf(file);
+				if (seq >= 0) {
+					closedFileList.add(file);
+					sequence = Math.max(sequence, seq + 1);
+				}
+			}
+		}
+		sortBySequence(closedFileList);
+	}
+
+	/**
+	 * 문서들을 로그에 기록하고 isSync 이면 디스크에 동기화한 후 리턴한다.
+	 * 예외가 발생하면 이번 요청의 레코드는 하나도 기록되지 않은 것으로 본다.
+	 * @param documentList json 형식의 추가문서 목록
+	 * @param deleteList pk 필드값 목록
+	 * @return 기록된 파일의 seq
+	 * */
+	public synchronized int append(List<String> documentList, List<String[]> deleteList) throws IOException {
+		ByteArrayOutputStream batch = new ByteArrayOutputStream();
+		DataOutputStream batchOutput = new DataOutputStream(batch);
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream recordOutput = new DataOutputStream(buffer);
+		int count = 0;
+		if (documentList != null) {
+			for (String document : documentList) {
+				buffer.reset();
+				recordOutput.writeByte(INSERT);
+				recordOutput.write(document.getBytes("UTF-8"));
+				writeRecord(batchOutput, buffer);
+				count++;
+			}
+		}
+		if (deleteList != null) {
+			for (String[] keys : deleteList) {
+				buffer.reset();
+				recordOutput.writeByte(DELETE);
+				recordOutput.writeShort(keys.length);
+				for (String key : keys) {
+					recordOutput.writeUTF(key);
+				}
+				writeRecord(batchOutput, buffer);
+				count++;
+			}
+		}
+		if (count == 0) {
+			return sequence;
+		}
+
+		if (fileOutput == null) {
+			dir.mkdirs();
+			File file = currentFile();
+			fileOutput = new FileOutputStream(file, true);
+			length = file.length();
+		}
+		try {
+			write(fileOutput, batch.toByteArray());
+			if (isSync) {
+				fileOutput.getFD().sync();
+			}
+		} catch (IOException e) {
+			discardFailedWrite();
+			throw e;
+		}
+		length += batch.size();
+		recordCount += count;
+		return sequence;
+	}
+
+	private void writeRecord(DataOutputStream output, ByteArrayOutputStream buffer) throws IOException {
+		byte[] data = buffer.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		output.writeInt(data.length);
+		output.writeInt((int) crc.getValue());
+		output.write(data);
+	}
+
+	/*
+	 * 파일에 기록한다. 테스트에서 기록중 실패를 흉내내기 위해 분리한다.
+	 * */
+	void write(FileOutputStream output, byte[] data) throws IOException {
+		output.write(data);
+	}
+
+	/*
+	 * 일부만 기록되었을수 있으므로 마지막으로 성공한 위치까지 잘라낸다. 다음 append 에서 파일을 다시 연다.
+	 * 잘라낼수 없으면 지금 파일은 닫힌 파일로 넘기고 새 파일을 사용한다. 끊긴 레코드 앞까지는 읽을수 있다.
+	 * */
+	private void discardFailedWrite() {
+		File file = currentFile();
+		try {
+			fileOutput.close();
+		} catch (IOException ignore) {
+		}
+		fileOutput = null;
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				raf.setLength(length);
+				if (isSync) {
+					raf.getFD().sync();
+				}
+			} finally {
+				raf.close();
+			}
+			logger.warn("Push log write failed. truncated {} to {}", file.getName(), length);
+		} catch (IOException e) {
+			logger.error("Cannot truncate push log " + file.getAbsolutePath() + ". switch to next file.", e);
+			closedFileList.add(file);
+			sequence++;
+			length = 0;
+		}
+	}
+
+	private File currentFile() {
+		return new File(dir, FILE_PREFIX + sequence + FILE_SUFFIX);
+	}
+
+	/**
+	 * 기록중인 파일을 닫고, 색인되지 않은 닫힌 파일 목록을 오래된 순으로 리턴한다.
+	 * */
+	public synchronized List<File> rotate() throws IOException {
+		if (fileOutput != null) {
+			fileOutput.close();
+			fileOutput = null;
+		}
+		//기록실패후 다시 열지 않은 파일도 닫힌 파일로 넘긴다.
+		File file = currentFile();
+		if (file.exists()) {
+			closedFileList.add(file);
+			sequence++;
+		}
+		length = 0;
+		recordCount = 0;
+		return new ArrayList<File>(closedFileList);
+	}
+
+	/**
+	 * 색인이 끝난 파일들을 지운다.
+	 * */
+	public synchronized void remove(List<File> fileList) {
+		for (File file : fileList) {
+			if (!file.delete() && file.exists()) {
+				logger.warn("Cannot delete push log {}", file.getAbsolutePath());
+			}
+			closedFileList.remove(file);
+		}
+	}
+
+	/**
+	 * 색인되지 않은 모든 파일을 오래된 순으로 리턴한다. 기록중인 파일도 포함한다. 재시작시 메모리 세그먼트를 복구하는데 사용한다.
+	 * */
+	public synchronized List<File> fileList() {
+		List<File> fileList = new ArrayList<File>(closedFileList);
+		File file = currentFile();
+		if (file.exists()) {
+			fileList.add(file);
+		}
+		return fileList;
+	}
+
+	public synchronized boolean hasPending() {
+		return recordCount > 0 || closedFileList.size() > 0;
+	}
+
+	public synchronized void close() throws IOException {
+		if (fileOutput != null) {
+			fileOutput.close();
+			fileOutput = null;
+		}
+	}
+
+	/**
+	 * 로그파일의 seq. 로그파일이 아니면 -1.
+	 * */
+	public static int sequenceOf(File file) {
+		String name = file.getName();
+		if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX)) {
+			try {
+				return Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+			} catch (NumberFormatException e) {
+			}
+		}
+		return -1;
+	}
+
+	private static void sortBySequence(List<File> fileList) {
+		Collections.sort(fileList, new Comparator<File>() {
+			@Override
+			public int compare(File o1, File o2) {
+				return sequenceOf(o1) - sequenceOf(o2);
+			}
+		});
+	}
+
+	/**
+	 * 로그파일 하나의 레코드를 순서대로 읽는다.
+	 * */
+	public static class LogReader {
+		private File file;
+		private DataInputStream input;
+		private byte type;
+		private String document;
+		private String[] keys;
+
+		public LogReader(File file) throws IOException {
+			this.file = file;
+			input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		}
+
+		/**
+		 * 다음 레코드로 이동한다. 파일끝이거나 끊기거나 손상된 레코드를 만나면 false 를 리턴한다.
+		 * */
+		public boolean next() throws IOException {
+			byte[] data = null;
+			try {
+				int length = input.readInt();
+				int checksum = input.readInt();
+				if (length <= 0 || length > MAX_RECORD_SIZE) {
+					logger.warn("Invalid push log record length {} at {}", length, file.getName());
+					return false;
+				}
+				data = new byte[length];
+				input.readFully(data);
+				CRC32 crc = new CRC32();
+				crc.update(data);
+				if ((int) crc.getValue() != checksum) {
+					logger.warn("Push log record checksum mismatch at {}", file.getName());
+					return false;
+				}
+			} catch (EOFException e) {
+				return false;
+			}
+
+			type = data[0];
+			if (type == INSERT) {
+				document = new String(data, 1, data.length - 1, "UTF-8");
+				keys = null;
+			} else {
+				DataInputStream recordInput = new DataInputStream(new ByteArrayInputStream(data, 1, data.length - 1));
+				keys = new String[recordInput.readShort()];
+				for (int i = 0; i < keys.length; i++) {
+					keys[i] = recordInput.readUTF();
+				}
+				document = null;
+			}
+			return true;
+		}
+
+		public byte type() {
+			return type;
+		}
+
+		public String document() {
+			return document;
+		}
+
+		public String[] keys() {
+			return keys;
+		}
+
+		public void close() throws IOException {
+			input.close();
+		}
+	}
+}
@@ -0,0 +1,344 @@
+package org.fastcatsearch.ir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.minidev.json.parser.ParseException;
+
+import org.fastcatsearch.cluster.ClusterUtils;
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.cluster.NodeJobResult;
+import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.common.SearchResultCacheModule;
+import org.fastcatsearch.control.JobService;
+import org.fastcatsearch.datasource.reader.DefaultDataSourceReader;
+import org.fastcatsearch.env.Environment;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.CollectionsConfig.Collection;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.PrimaryKeys;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.job.cluster.NodeDocumentPushJob;
+import org.fastcatsearch.job.cluster.NodePushFlushedJob;
+import org.fastcatsearch.job.indexing.CollectionPushIndexingJob;
+import org.fastcatsearch.module.AbstractModule;
+import org.fastcatsearch.module.ModuleException;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.settings.Settings;
+import org.fastcatsearch.util.JSONParser;
+
+/**
+ * push api 로 받은 문서를 컬렉션별 DocumentPushLog 에 기록하고, 색인노드와 데이터노드의 메모리 세그먼트에 넣어 바로 검색되도록 한다.
+ * 메모리 세그먼트의 문서는 같은 pk 의 세그먼트 문서를 가리며, push.flush_interval(ms) 주기로 색인노드에서 세그먼트 리비전으로 반영된 후 버려진다.
+ * 반영은 증분색인과 같은 mutex 를 사용하므로 색인중이면 다음 주기에 반영된다.
+ * push.fsync 가 true 이면 push 요청마다 로그를 디스크에 동기화한 후 응답한다.
+ * 색인노드는 재시작시 남은 로그로 메모리 세그먼트를 복구하고, 데이터노드는 받은 요청을 반영될때까지 보관하였다가 컬렉션을 다시 로딩할때 넣는다.
+ * 데이터노드가 재시작되면 보관하던 요청이 없으므로 다음 반영전까지 해당 문서가 검색되지 않는다.
+ * */
+public class DocumentPushModule extends AbstractModule {
+
+	private static final String PUSH_LOG_DIR = "push";
+	private static final int DEFAULT_FLUSH_INTERVAL = 60 * 1000; //ms.
+
+	private IRService irService;
+	private boolean isSync;
+	private Map<String, DocumentPushLog> pushLogMap;
+	//데이터노드에서 세그먼트에 반영되기 전의 push 요청. 컬렉션별 lock 으로도 사용한다.
+	private Map<String, List<PushRequest>> pendingMap;
+	private Timer timer;
+
+	static class PushRequest {
+		int sequence;
+		List<String> documentList;
+		List<String[]> deleteList;
+
+		PushRequest(int sequence, List<String> documentList, List<String[]> deleteList) {
+			this.sequence = sequence;
+			this.documentList = documentList;
+			this.deleteList = deleteList;
+		}
+	}
+
+	class PushFlushTask extends TimerTask {
+		@Override
+		public void run() {
+			try {
+				NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+				for (Collection collection : irService.getCollectionList()) {
+					String collectionId = collection.getId();
+					CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+					if (collectionHandler == null || !collectionHandler.isLoaded()) {
+						continue;
+					}
+					String indexNodeId = collectionHandler.collectionContext().collectionConfig().getIndexNode();
+					if (!nodeService.isMyNode(nodeService.getNodeById(indexNodeId))) {
+						continue;
+					}
+					//재시작시 남아있던 로그도 여기서 찾아서 반영된다.
+					DocumentPushLog pushLog = pushLog(collectionId);
+					if (pushLog == null || !pushLog.hasPending() || JobService.getInstance().isIndexing(collectionId)) {
+						continue;
+					}
+					CollectionPushIndexingJob pushIndexingJob = new CollectionPushIndexingJob();
+					pushIndexingJob.setArgs(collectionId);
+					pushIndexingJob.setNoResult();
+					JobService.getInstance().offer(pushIndexingJob);
+				}
+			} catch (Throwable t) {
+				logger.error("document push flush error", t);
+			}
+		}
+	}
+
+	public DocumentPushModule(Environment environment, Settings settings, IRService irService) {
+		super(environment, settings);
+		this.irService = irService;
+	}
+
+	@Override
+	protected boolean doLoad() throws ModuleException {
+		isSync = settings.getBoolean("push.fsync", true);
+		long period = settings.getInt("push.flush_interval", DEFAULT_FLUSH_INTERVAL);
+		pushLogMap = new ConcurrentHashMap<String, DocumentPushLog>();
+		pendingMap = new ConcurrentHashMap<String, List<PushRequest>>();
+		timer = new Timer("DocumentPushTimer", true);
+		timer.schedule(new PushFlushTask(), period, period);
+		return true;
+	}
+
+	@Override
+	protected boolean doUnload() throws ModuleException {
+		timer.cancel();
+		timer = null;
+		for (DocumentPushLog pushLog : pushLogMap.values()) {
+			try {
+				pushLog.close();
+			} catch (IOException e) {
+				logger.error("", e);
+			}
+		}
+		pushLogMap.clear();
+		pendingMap.clear();
+		return true;
+	}
+
+	/**
+	 * 컬렉션의 push 로그. 컬렉션이 없으면 null.
+	 * */
+	public DocumentPushLog pushLog(String collectionId) {
+		CollectionContext collectionContext = irService.collectionContext(collectionId);
+		if (collectionContext == null) {
+			return null;
+		}
+		return pushLog(collectionContext);
+	}
+
+	/**
+	 * 아직 IRService 에 등록되지 않은 컬렉션의 push 로그. 컬렉션을 로딩하면서 사용한다.
+	 * */
+	public synchronized DocumentPushLog pushLog(CollectionContext collectionContext) {
+		String collectionId = collectionContext.collectionId();
+		DocumentPushLog pushLog = pushLogMap.get(collectionId);
+		if (pushLog == null) {
+			File dir = collectionContext.collectionFilePaths().file(PUSH_LOG_DIR);
+			pushLog = new DocumentPushLog(dir, isSync);
+			pushLogMap.put(collectionId, pushLog);
+		}
+		return pushLog;
+	}
+
+	/**
+	 * push 요청과 컬렉션 로딩이 서로 끼어들지 않도록 하는 컬렉션별 lock. 모듈이 로딩되지 않았으면 null.
+	 * */
+	public Object pushLock(String collectionId) {
+		return pendingList(collectionId);
+	}
+
+	private synchronized List<PushRequest> pendingList(String collectionId) {
+		if (pendingMap == null) {
+			return null;
+		}
+		List<PushRequest> pendingList = pendingMap.get(collectionId);
+		if (pendingList == null) {
+			pendingList = new ArrayList<PushRequest>();
+			pendingMap.put(collectionId, pendingList);
+		}
+		return pendingList;
+	}
+
+	/**
+	 * 문서를 로그에 기록하고 색인노드와 데이터노드의 메모리 세그먼트에 넣는다. 리턴후 바로 검색된다.
+	 * 문서를 먼저 스키마로 변환하므로 변환할수 없는 문서가 있으면 아무것도 기록하지 않는다.
+	 * */
+	public void push(String collectionId, List<String> documentList, List<String[]> deleteList) throws IOException {
+		CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+		DocumentPushLog pushLog = pushLog(collectionId);
+		if (collectionHandler == null || pushLog == null) {
+			throw new IOException("Collection [" + collectionId + "] is not exist.");
+		}
+		synchronized (pushLock(collectionId)) {
+			//로딩중에 handler 가 바뀌었을수 있으므로 lock 안에서 다시 가져온다.
+			collectionHandler = irService.collectionHandler(collectionId);
+			List<Document> pushDocumentList = toDocumentList(collectionHandler, documentList);
+			int sequence = pushLog.append(documentList, deleteList);
+			try {
+				collectionHandler.pushDocuments(pushDocumentList, toPrimaryKeysList(deleteList), sequence);
+			} catch (IRException e) {
+				//로그에는 기록되었으므로 다음 반영때 검색된다.
+				logger.error("[" + collectionId + "] cannot push documents to memory segment", e);
+			}
+
+			//데이터노드에도 순서대로 넣어지도록 응답을 기다린다.
+			CollectionContext collectionContext = collectionHandler.collectionContext();
+			NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+			List<Node> nodeList = new ArrayList<Node>(nodeService.getNodeById(collectionContext.collectionConfig().getDataNodeList()));
+			nodeList.remove(nodeService.getMyNode());
+			if (nodeList.size() > 0) {
+				Job pushJob = new NodeDocumentPushJob(collectionId, sequence, documentList, deleteList);
+				NodeJobResult[] nodeResultList = ClusterUtils.sendJobToNodeList(pushJob, nodeService, nodeList, false);
+				for (NodeJobResult r : nodeResultList) {
+					if (!r.isSuccess()) {
+						logger.warn("[{}] push to data node {} failed. documents are searchable after flush.", collectionId, r.node());
+					}
+				}
+			}
+		}
+		invalidateCache(collectionId);
+	}
+
+	/**
+	 * 데이터노드에서 색인노드가 보낸 push 요청을 메모리 세그먼트에 넣고, 반영될때까지 보관한다.
+	 * */
+	public void pushToMemory(String collectionId, int sequence, List<String> documentList, List<String[]> deleteList) throws IOException, IRException {
+		synchronized (pushLock(collectionId)) {
+			pendingList(collectionId).add(new PushRequest(sequence, documentList, deleteList));
+			CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+			if (collectionHandler != null) {
+				collectionHandler.pushDocuments(toDocumentList(collectionHandler, documentList), toPrimaryKeysList(deleteList), sequence);
+			}
+		}
+		invalidateCache(collectionId);
+	}
+
+	/**
+	 * sequence 로그파일까지 세그먼트에 반영되었으므로 메모리 세그먼트에서 버린다. 색인노드는 데이터노드에도 전달한다.
+	 * */
+	public void flushed(String collectionId, int sequence) throws IOException, IRException {
+		dropPushed(collectionId, sequence);
+		CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+		if (collectionHandler == null) {
+			return;
+		}
+		NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+		List<Node> nodeList = new ArrayList<Node>(nodeService.getNodeById(collectionHandler.collectionContext().collectionConfig().getDataNodeList()));
+		nodeList.remove(nodeService.getMyNode());
+		if (nodeList.size() > 0) {
+			ClusterUtils.sendJobToNodeList(new NodePushFlushedJob(collectionId, sequence), nodeService, nodeList, false);
+		}
+	}
+
+	public void dropPushed(String collectionId, int sequence) throws IOException, IRException {
+		synchronized (pushLock(collectionId)) {
+			Iterator<PushRequest> iterator = pendingList(collectionId).iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().sequence <= sequence) {
+					iterator.remove();
+				}
+			}
+			CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+			if (collectionHandler != null) {
+				collectionHandler.dropPushedDocuments(sequence);
+			}
+		}
+		invalidateCache(collectionId);
+	}
+
+	/**
+	 * 새로 로딩한 handler 에 반영되지 않은 push 문서를 넣는다. IRService 에 등록하기 전에 pushLock 안에서 호출한다.
+	 * 색인노드는 남은 로그파일을, 데이터노드는 보관중인 요청을 순서대로 넣는다.
+	 * */
+	public void loadPushedDocuments(CollectionHandler collectionHandler) {
+		CollectionContext collectionContext = collectionHandler.collectionContext();
+		String collectionId = collectionContext.collectionId();
+		try {
+			if (environment.myNodeId().equals(collectionContext.collectionConfig().getIndexNode())) {
+				JSONParser jsonParser = new JSONParser();
+				for (File file : pushLog(collectionContext).fileList()) {
+					int sequence = DocumentPushLog.sequenceOf(file);
+					List<String> documentList = new ArrayList<String>();
+					List<String[]> deleteList = new ArrayList<String[]>();
+					DocumentPushLog.LogReader reader = new DocumentPushLog.LogReader(file);
+					try {
+						while (reader.next()) {
+							if (reader.type() == DocumentPushLog.DELETE) {
+								deleteList.add(reader.keys());
+							} else {
+								try {
+									jsonParser.parse(reader.document());
+									documentList.add(reader.document());
+								} catch (ParseException e) {
+									logger.error("error while convert json to map : " + reader.document(), e);
+								}
+							}
+						}
+					} finally {
+						reader.close();
+					}
+					collectionHandler.pushDocuments(toDocumentList(collectionHandler, documentList), toPrimaryKeysList(deleteList), sequence);
+				}
+			} else {
+				for (PushRequest request : pendingList(collectionId)) {
+					collectionHandler.pushDocuments(toDocumentList(collectionHandler, request.documentList), toPrimaryKeysList(request.deleteList), request.sequence);
+				}
+			}
+			logger.info("[{}] Loaded pushed documents. memory segment size = {}", collectionId, collectionHandler.memorySegment().size());
+		} catch (Exception e) {
+			logger.error("[" + collectionId + "] cannot load pushed documents. documents are searchable after flush.", e);
+		}
+	}
+
+	private List<Document> toDocumentList(CollectionHandler collectionHandler, List<String> documentList) throws IOException {
+		List<Document> list = new ArrayList<Document>();
+		if (documentList == null || documentList.size() == 0) {
+			return list;
+		}
+		JSONParser jsonParser = new JSONParser();
+		try {
+			DefaultDataSourceReader reader = new DefaultDataSourceReader(collectionHandler.schema().schemaSetting());
+			for (String document : documentList) {
+				list.add(reader.createDocument(jsonParser.parse(document)));
+			}
+		} catch (ParseException e) {
+			throw new IOException(e);
+		} catch (IRException e) {
+			throw new IOException(e);
+		}
+		return list;
+	}
+
+	private List<PrimaryKeys> toPrimaryKeysList(List<String[]> deleteList) {
+		List<PrimaryKeys> list = new ArrayList<PrimaryKeys>();
+		if (deleteList != null) {
+			for (String[] keys : deleteList) {
+				list.add(new PrimaryKeys(keys));
+			}
+		}
+		return list;
+	}
+
+	private void invalidateCache(String collectionId) {
+		SearchResultCacheModule searchCache = irService.searchCache();
+		if (searchCache != null) {
+			searchCache.invalidate(collectionId);
+		}
+	}
+}
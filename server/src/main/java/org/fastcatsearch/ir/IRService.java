@@ -31,6 +31,7 @@ import org.apache.commons.io.FileUtils;
 import org.fastcatsearch.alert.ClusterAlertService;
 import org.fastcatsearch.cluster.NodeLoadBalancable;
 import org.fastcatsearch.common.QueryCacheModule;
+import org.fastcatsearch.common.SearchResultCacheModule;
 import org.fastcatsearch.control.JobService;
 import org.fastcatsearch.env.Environment;
 import org.fastcatsearch.exception.FastcatSearchException;
@@ -49,6 +50,8 @@ import org.fastcatsearch.ir.config.JDBCSourceInfo;
 import org.fastcatsearch.ir.config.JDBCSupportConfig;
 import org.fastcatsearch.ir.group.GroupResults;
 import org.fastcatsearch.ir.group.GroupsData;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
 import org.fastcatsearch.ir.query.InternalSearchResult;
 import org.fastcatsearch.ir.query.Result;
 import org.fastcatsearch.ir.search.CollectionHandler;
@@ -65,16 +68,20 @@ import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.settings.SearchPageSettings;
 import org.fastcatsearch.settings.SettingFileNames;
 import org.fastcatsearch.settings.Settings;
+import org.fastcatsearch.transport.vo.StreamableGroupResults;
+import org.fastcatsearch.transport.vo.StreamableGroupsData;
+import org.fastcatsearch.transport.vo.StreamableInternalSearchResult;
 import org.fastcatsearch.util.CollectionContextUtil;
 import org.fastcatsearch.util.FilePaths;
 import org.fastcatsearch.util.JAXBConfigs;
+import org.fastcatsearch.util.OffHeapCache;
 
 public class IRService extends AbstractService {
 
 	private Map<String, CollectionHandler> collectionHandlerMap;
 
 	// TODO 캐시방식을 변경하자.
-	private QueryCacheModule<String, Result> searchCache;
+	private SearchResultCacheModule searchCache;
 	private QueryCacheModule<String, InternalSearchResult> shardSearchCache;
 	private QueryCacheModule<String, GroupResults> groupingCache;
 	private QueryCacheModule<String, GroupsData> groupingDataCache;
@@ -87,6 +94,9 @@ public class IRService extends AbstractService {
 	private File collectionsRoot;
 
 	private RealtimeQueryCountModule realtimeQueryStatisticsModule;
+	private SegmentMergeModule segmentMergeModule;
+	private SearchMetricsModule searchMetricsModule;
+	private DocumentPushModule documentPushModule;
 
 	private AnalyzerFactoryManager analyzerFactoryManager;
 	
@@ -95,6 +105,9 @@ public class IRService extends AbstractService {
 	public IRService(Environment environment, Settings settings, ServiceManager serviceManager) {
 		super(environment, settings, serviceManager);
 		realtimeQueryStatisticsModule = new RealtimeQueryCountModule(environment, settings);
+		segmentMergeModule = new SegmentMergeModule(environment, settings, this);
+		searchMetricsModule = new SearchMetricsModule(environment, settings);
+		documentPushModule = new DocumentPushModule(environment, settings, this);
 	}
 
 	public void setAnalyzerFactoryManager(AnalyzerProvider analyzerProvider){
@@ -109,6 +122,21 @@ public class IRService extends AbstractService {
 		}catch(Throwable t){
 			ClusterAlertService.getInstance().alert(t);
 		}
+		try{
+			segmentMergeModule.load();
+		}catch(Throwable t){
+			ClusterAlertService.getInstance().alert(t);
+		}
+		try{
+			searchMetricsModule.load();
+		}catch(Throwable t){
+			ClusterAlertService.getInstance().alert(t);
+		}
+		try{
+			documentPushModule.load();
+		}catch(Throwable t){
+			ClusterAlertService.getInstance().alert(t);
+		}
 		collectionHandlerMap = new ConcurrentHashMap<String, CollectionHandler>();
 		// collections 셋팅을 읽어온다.
 		collectionsRoot = environment.filePaths().getCollectionsRoot().file();
@@ -175,10 +203,47 @@ public class IRService extends AbstractService {
 			ClusterAlertService.getInstance().alert(e);
 		}
 
-		searchCache = new QueryCacheModule<String, Result>(environment, settings);
-		shardSearchCache = new QueryCacheModule<String, InternalSearchResult>(environment, settings);
-		groupingCache = new QueryCacheModule<String, GroupResults>(environment, settings);
-		groupingDataCache = new QueryCacheModule<String, GroupsData>(environment, settings);
+		searchCache = new SearchResultCacheModule(environment, settings, this);
+		shardSearchCache = new QueryCacheModule<String, InternalSearchResult>(environment, settings, new OffHeapCache.Serializer<InternalSearchResult>() {
+			@Override
+			public void write(InternalSearchResult value, DataOutput output) throws IOException {
+				new StreamableInternalSearchResult(value).writeTo(output);
+			}
+
+			@Override
+			public InternalSearchResult read(DataInput input) throws IOException {
+				StreamableInternalSearchResult result = new StreamableInternalSearchResult();
+				result.readFrom(input);
+				return result.getInternalSearchResult();
+			}
+		});
+		groupingCache = new QueryCacheModule<String, GroupResults>(environment, settings, new OffHeapCache.Serializer<GroupResults>() {
+			@Override
+			public void write(GroupResults value, DataOutput output) throws IOException {
+				new StreamableGroupResults(value).writeTo(output);
+			}
+
+			@Override
+			public GroupResults read(DataInput input) throws IOException {
+				StreamableGroupResults result = new StreamableGroupResults();
+				result.readFrom(input);
+				return result.groupResults();
+			}
+		});
+		groupingDataCache = new QueryCacheModule<String, GroupsData>(environment, settings, new OffHeapCache.Serializer<GroupsData>() {
+			@Override
+			public void write(GroupsData value, DataOutput output) throws IOException {
+				new StreamableGroupsData(value).writeTo(output);
+			}
+
+			@Override
+			public GroupsData read(DataInput input) throws IOException {
+				StreamableGroupsData result = new StreamableGroupsData();
+				result.readFrom(input);
+				return result.groupData();
+			}
+		});
+		//Result 는 직렬화 형식이 없으므로 LRUCache 를 사용한다.
 		documentCache = new QueryCacheModule<String, Result>(environment, settings);
 		try {
 			searchCache.load();
@@ -237,7 +302,7 @@ public class IRService extends AbstractService {
 			/*
 			 * 이전 컬렉션 handler가 있다면 닫아준다. 
 			 */
-			CollectionHandler previousCollectionHandler = collectionHandlerMap.put(collectionId, collectionHandler);
+			CollectionHandler previousCollectionHandler = putWithPushedDocuments(collectionId, collectionHandler);
 			if(previousCollectionHandler != null){
 				try {
 					previousCollectionHandler.close();
@@ -421,7 +486,21 @@ public class IRService extends AbstractService {
 				logger.error("", e);
 			}
 		}
-		return collectionHandlerMap.put(collectionId, collectionHandler);
+		return putWithPushedDocuments(collectionId, collectionHandler);
+	}
+
+	/*
+	 * 반영되지 않은 push 문서를 새 handler 의 메모리 세그먼트에 넣고 등록한다. 그 사이에 들어온 push 요청이 빠지지 않도록 push lock 안에서 수행한다.
+	 * */
+	private CollectionHandler putWithPushedDocuments(String collectionId, CollectionHandler collectionHandler) {
+		Object pushLock = documentPushModule != null ? documentPushModule.pushLock(collectionId) : null;
+		if (pushLock == null) {
+			return collectionHandlerMap.put(collectionId, collectionHandler);
+		}
+		synchronized (pushLock) {
+			documentPushModule.loadPushedDocuments(collectionHandler);
+			return collectionHandlerMap.put(collectionId, collectionHandler);
+		}
 	}
 
 	public CollectionHandler loadCollectionHandler(CollectionContext collectionContext) throws IRException, SettingException {
@@ -430,6 +509,9 @@ public class IRService extends AbstractService {
 
 	protected boolean doStop() throws FastcatSearchException {
 		realtimeQueryStatisticsModule.unload();
+		segmentMergeModule.unload();
+		searchMetricsModule.unload();
+		documentPushModule.unload();
 
 		Iterator<Entry<String, CollectionHandler>> iter = collectionHandlerMap.entrySet().iterator();
 		while (iter.hasNext()) {
@@ -459,10 +541,13 @@ public class IRService extends AbstractService {
 	protected boolean doClose() throws FastcatSearchException {
 		collectionHandlerMap = null;
 		realtimeQueryStatisticsModule = null;
+		segmentMergeModule = null;
+		searchMetricsModule = null;
+		documentPushModule = null;
 		return true;
 	}
 
-	public QueryCacheModule<String, Result> searchCache() {
+	public SearchResultCacheModule searchCache() {
 		return searchCache;
 	}
 
@@ -491,6 +576,14 @@ public class IRService extends AbstractService {
 	public RealtimeQueryCountModule queryCountModule() {
 		return realtimeQueryStatisticsModule;
 	}
+
+	public SearchMetricsModule searchMetrics() {
+		return searchMetricsModule;
+	}
+
+	public DocumentPushModule documentPush() {
+		return documentPushModule;
+	}
 	
 	private SimpleDateFormat simpleDateFormat = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
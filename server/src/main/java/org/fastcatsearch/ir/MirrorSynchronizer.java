@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 
 import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.document.DocumentWriter;
 import org.fastcatsearch.ir.index.IndexWriteInfo;
 import org.fastcatsearch.ir.index.IndexWriteInfoList;
 import org.fastcatsearch.ir.io.BufferedFileInput;
@@ -73,14 +74,6 @@ public class MirrorSynchronizer {
 					try {
 						output = new BufferedFileOutput(targetFile, true);
 						IOUtil.transferFrom(output, input, length, buffer);
-						
-						if(filename.equalsIgnoreCase(IndexFileNames.docStored)){
-							//document는 맨앞에 count를 다시기록해주어야한다! 
-							if(documentSize > 0){
-								output.seek(0);
-								output.writeInt(documentSize);
-							}
-						}
 					} finally {
 						if (output != null) {
 							try {
@@ -89,6 +82,13 @@ public class MirrorSynchronizer {
 							}
 						}
 					}
+					
+					if(filename.equalsIgnoreCase(IndexFileNames.docStored)){
+						//document는 헤더에 count를 다시기록해주어야한다! 블럭포맷은 포맷표시 다음에 기록된다.
+						if(documentSize > 0){
+							DocumentWriter.writeDocumentCount(targetFile, documentSize);
+						}
+					}
 				}
 			}
 			input.close();
@@ -3,6 +3,7 @@ package org.fastcatsearch.ir;
 import org.apache.commons.io.FileUtils;
 import org.fastcatsearch.datasource.reader.DataSourceReader;
 import org.fastcatsearch.datasource.reader.DefaultDataSourceReaderFactory;
+import org.fastcatsearch.datasource.reader.ParallelDocumentReader;
 import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexingType;
@@ -144,7 +145,8 @@ public class MultiThreadCollectionFullIndexer implements CollectionIndexerable {
 			consumerList.add(new SegmentIndexWriteConsumer(segmentId, indexWriter, documentQueue, latch));
 		}
 		File filePath = collectionContext.collectionFilePaths().file();
-		dataSourceReader = createDataSourceReader(filePath, schema.schemaSetting());
+		//parse-thread-size 가 있으면 수집과 문서변환을 색인과 동시에 수행한다.
+		dataSourceReader = ParallelDocumentReader.wrap(createDataSourceReader(filePath, schema.schemaSetting()), indexConfig.parseThreadSize());
 		
 		indexWriteInfoList = new IndexWriteInfoList();
 		
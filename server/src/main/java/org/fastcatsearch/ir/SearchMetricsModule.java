@@ -0,0 +1,187 @@
+package org.fastcatsearch.ir;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.fastcatsearch.env.Environment;
+import org.fastcatsearch.ir.query.QueryTrace;
+import org.fastcatsearch.module.AbstractModule;
+import org.fastcatsearch.module.ModuleException;
+import org.fastcatsearch.settings.Settings;
+import org.fastcatsearch.util.LatencyHistogram;
+
+/**
+ * 컬렉션별 검색 응답시간 분포와 단계별(파싱, clause 생성, 포스팅 읽기, 필터, 그룹, 랭킹, 병합, 문서조회, 하이라이팅, 결과쓰기) 소요시간 분포를 기록한다.
+ * 응답시간이 metrics.slow_query_time(ms) 이상인 검색은 단계별 시간과 함께 최근 metrics.slow_query_size 건을 보관한다.
+ * metrics.enabled 가 false 이면 QueryTrace 를 만들지 않으므로 검색중 시간측정을 전혀 하지 않는다.
+ * */
+public class SearchMetricsModule extends AbstractModule {
+
+	private static final QueryTrace.Phase[] PHASES = QueryTrace.Phase.values();
+
+	private volatile boolean isEnabled;
+	private long slowQueryTime;
+	private int slowQuerySize;
+	private ConcurrentMap<String, CollectionMetrics> metricsMap;
+	private LinkedList<SlowQuery> slowQueryList;
+
+	public SearchMetricsModule(Environment environment, Settings settings) {
+		super(environment, settings);
+	}
+
+	@Override
+	protected boolean doLoad() throws ModuleException {
+		isEnabled = settings.getBoolean("metrics.enabled", false);
+		slowQueryTime = settings.getInt("metrics.slow_query_time", 1000);
+		slowQuerySize = settings.getInt("metrics.slow_query_size", 100);
+		metricsMap = new ConcurrentHashMap<String, CollectionMetrics>();
+		slowQueryList = new LinkedList<SlowQuery>();
+		return true;
+	}
+
+	@Override
+	protected boolean doUnload() throws ModuleException {
+		return true;
+	}
+
+	public boolean isEnabled() {
+		return isEnabled;
+	}
+
+	public void setEnabled(boolean isEnabled) {
+		this.isEnabled = isEnabled;
+	}
+
+	/**
+	 * 측정이 켜져 있으면 새 trace 를, 꺼져 있으면 null 을 리턴한다.
+	 * */
+	public QueryTrace newTrace() {
+		return isEnabled ? new QueryTrace() : null;
+	}
+
+	/**
+	 * 검색 한건의 전체 응답시간과 단계별 시간을 기록한다.
+	 * @param elapsedTime 전체 응답시간(ns)
+	 * */
+	public void record(String collectionId, String queryString, long elapsedTime, QueryTrace trace) {
+		if (collectionId == null || trace == null) {
+			return;
+		}
+		CollectionMetrics metrics = metricsMap.get(collectionId);
+		if (metrics == null) {
+			CollectionMetrics newMetrics = new CollectionMetrics();
+			metrics = metricsMap.putIfAbsent(collectionId, newMetrics);
+			if (metrics == null) {
+				metrics = newMetrics;
+			}
+		}
+		metrics.total.record(elapsedTime / 1000);
+		long[] phaseTimeList = new long[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++) {
+			long time = trace.time(PHASES[i]);
+			phaseTimeList[i] = time / 1000;
+			//측정되지 않은 단계는 분포에 넣지 않는다.
+			if (time > 0) {
+				metrics.phases[i].record(phaseTimeList[i]);
+			}
+		}
+
+		if (elapsedTime / 1000000 >= slowQueryTime) {
+			synchronized (slowQueryList) {
+				slowQueryList.addLast(new SlowQuery(System.currentTimeMillis(), collectionId, queryString, elapsedTime / 1000, phaseTimeList));
+				while (slowQueryList.size() > slowQuerySize) {
+					slowQueryList.removeFirst();
+				}
+			}
+		}
+	}
+
+	public Map<String, CollectionMetrics> collectionMetrics() {
+		return metricsMap;
+	}
+
+	/**
+	 * 오래된 것부터 정렬된 느린 검색 목록.
+	 * */
+	public List<SlowQuery> slowQueries() {
+		synchronized (slowQueryList) {
+			return new ArrayList<SlowQuery>(slowQueryList);
+		}
+	}
+
+	public long slowQueryTime() {
+		return slowQueryTime;
+	}
+
+	public void reset() {
+		metricsMap.clear();
+		synchronized (slowQueryList) {
+			slowQueryList.clear();
+		}
+	}
+
+	public static class CollectionMetrics {
+		private final LatencyHistogram total = new LatencyHistogram();
+		private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+
+		public CollectionMetrics() {
+			for (int i = 0; i < phases.length; i++) {
+				phases[i] = new LatencyHistogram();
+			}
+		}
+
+		public LatencyHistogram total() {
+			return total;
+		}
+
+		public LatencyHistogram phase(QueryTrace.Phase phase) {
+			return phases[phase.ordinal()];
+		}
+	}
+
+	public static class SlowQuery {
+		private final long time;
+		private final String collectionId;
+		private final String queryString;
+		private final long elapsedTime;
+		private final long[] phaseTimeList;
+
+		public SlowQuery(long time, String collectionId, String queryString, long elapsedTime, long[] phaseTimeList) {
+			this.time = time;
+			this.collectionId = collectionId;
+			this.queryString = queryString;
+			this.elapsedTime = elapsedTime;
+			this.phaseTimeList = phaseTimeList;
+		}
+
+		public long time() {
+			return time;
+		}
+
+		public String collectionId() {
+			return collectionId;
+		}
+
+		public String queryString() {
+			return queryString;
+		}
+
+		/**
+		 * 전체 응답시간(us).
+		 * */
+		public long elapsedTime() {
+			return elapsedTime;
+		}
+
+		/**
+		 * 단계별 시간(us).
+		 * */
+		public long phaseTime(QueryTrace.Phase phase) {
+			return phaseTimeList[phase.ordinal()];
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.fastcatsearch.ir;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.control.JobService;
+import org.fastcatsearch.env.Environment;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.CollectionsConfig.Collection;
+import org.fastcatsearch.ir.index.merge.TieredMergePolicy;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.job.indexing.CollectionSegmentMergeJob;
+import org.fastcatsearch.module.AbstractModule;
+import org.fastcatsearch.module.ModuleException;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.settings.Settings;
+
+/**
+ * 주기적으로 색인노드인 컬렉션들의 세그먼트 머징정책을 확인하여 머징작업을 등록한다.
+ * 머징작업은 색인작업과 같은 mutex 를 사용하므로 색인중이면 다음 주기에 다시 시도된다.
+ * */
+public class SegmentMergeModule extends AbstractModule {
+
+	private static final int DEFAULT_CHECK_PERIOD = 60; //초.
+
+	private IRService irService;
+	private Timer timer;
+
+	class SegmentMergeCheckTask extends TimerTask {
+		@Override
+		public void run() {
+			try {
+				NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+				for (Collection collection : irService.getCollectionList()) {
+					String collectionId = collection.getId();
+					CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+					if (collectionHandler == null || !collectionHandler.isLoaded() || collectionHandler.mergeStatistics().isRunning()) {
+						continue;
+					}
+					CollectionContext collectionContext = collectionHandler.collectionContext();
+					String indexNodeId = collectionContext.collectionConfig().getIndexNode();
+					if (!nodeService.isMyNode(nodeService.getNodeById(indexNodeId))) {
+						continue;
+					}
+					TieredMergePolicy mergePolicy = collectionHandler.mergePolicy();
+					if (!mergePolicy.isEnabled()) {
+						continue;
+					}
+					if (collectionHandler.findMergeSegment(mergePolicy) >= 0) {
+						logger.debug("[{}] offer segment merge job. {}", collectionId, mergePolicy);
+						CollectionSegmentMergeJob mergeJob = new CollectionSegmentMergeJob();
+						mergeJob.setArgs(collectionId);
+						JobService.getInstance().offer(mergeJob);
+					}
+				}
+			} catch (Throwable t) {
+				logger.error("segment merge check error", t);
+			}
+		}
+	}
+
+	public SegmentMergeModule(Environment environment, Settings settings, IRService irService) {
+		super(environment, settings);
+		this.irService = irService;
+	}
+
+	@Override
+	protected boolean doLoad() throws ModuleException {
+		long period = settings.getInt("segment_merge_check_period", DEFAULT_CHECK_PERIOD) * 1000L;
+		timer = new Timer("SegmentMergeTimer", true);
+		timer.schedule(new SegmentMergeCheckTask(), period, period);
+		return true;
+	}
+
+	@Override
+	protected boolean doUnload() throws ModuleException {
+		timer.cancel();
+		timer = null;
+		return true;
+	}
+}
@@ -18,6 +18,7 @@ import org.fastcatsearch.service.ServiceManager;
 public class CacheServiceRestartJob extends Job{
 	private static final long serialVersionUID = -720747639860359291L;
 	private int delay;
+	private String collectionId; //null 이면 검색결과 캐시 전체를 비운다.
 	
 	public CacheServiceRestartJob(){ 
 		delay = 1000; //1초.
@@ -27,6 +28,14 @@ public class CacheServiceRestartJob extends Job{
 		this.delay = delay;
 	}
 	
+	/**
+	 * 세그먼트가 갱신된 컬렉션의 검색결과 캐시만 지운다.
+	 * */
+	public CacheServiceRestartJob(String collectionId){ 
+		this();
+		this.collectionId = collectionId;
+	}
+	
 	@Override
 	public JobResult doRun() {
 		try {
@@ -37,10 +46,14 @@ public class CacheServiceRestartJob extends Job{
 		
 		boolean result = true;
 		
-		try {
-			result = irService.searchCache().unload() && result;
-		} catch (Exception e) {
-			logger.debug("ERROR Unloading Search Cache : {}", e.getMessage());
+		if (collectionId != null) {
+			irService.searchCache().invalidate(collectionId);
+		} else {
+			try {
+				result = irService.searchCache().unload() && result;
+			} catch (Exception e) {
+				logger.debug("ERROR Unloading Search Cache : {}", e.getMessage());
+			}
 		}
 		try {
 			result = irService.groupingCache().unload() && result;
@@ -52,7 +65,9 @@ public class CacheServiceRestartJob extends Job{
 		} catch (Exception e) {
 			logger.debug("ERROR Unloading Document Cache : {}", e.getMessage());
 		}
-		result = irService.searchCache().load() && result;
+		if (collectionId == null) {
+			result = irService.searchCache().load() && result;
+		}
 		result = irService.groupingCache().load() && result;
 		result = irService.documentCache().load() && result;
 		
@@ -11,6 +11,8 @@
 
 package org.fastcatsearch.job;
 
+import java.io.IOException;
+
 import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.error.ServerErrorCode;
 import org.fastcatsearch.exception.FastcatSearchException;
@@ -82,8 +84,11 @@ public class DocumentListJob extends Job {
             }
 
 
-            //FIXME
-//				result = collectionHandler.searcher().listDocument(collection, start, rows);
+            try {
+                result = collectionHandler.searcher().listDocument(start, rows);
+            } catch (IOException e) {
+                throw new FastcatSearchException(e);
+            }
 
             if(!noCache){
                 irService.documentCache().put(cacheKey, result);
@@ -0,0 +1,88 @@
+package org.fastcatsearch.job.cluster;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.service.ServiceManager;
+
+/**
+ * 색인노드에서 push 로그에 기록한 문서를 데이터노드의 메모리 세그먼트에 넣는다.
+ * sequence 는 기록된 push 로그파일의 seq 이며, 해당 파일이 세그먼트에 반영되면 NodePushFlushedJob 으로 버린다.
+ * */
+public class NodeDocumentPushJob extends Job implements Streamable {
+
+	private static final long serialVersionUID = 3865392418126075512L;
+
+	private String collectionId;
+	private int sequence;
+	private List<String> documentList;
+	private List<String[]> deleteList;
+
+	public NodeDocumentPushJob() {
+	}
+
+	public NodeDocumentPushJob(String collectionId, int sequence, List<String> documentList, List<String[]> deleteList) {
+		this.collectionId = collectionId;
+		this.sequence = sequence;
+		this.documentList = documentList;
+		this.deleteList = deleteList;
+	}
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		try {
+			IRService irService = ServiceManager.getInstance().getService(IRService.class);
+			irService.documentPush().pushToMemory(collectionId, sequence, documentList, deleteList);
+			return new JobResult(true);
+		} catch (Exception e) {
+			logger.error("", e);
+			throw new FastcatSearchException("ERR-00525", e);
+		}
+	}
+
+	@Override
+	public void readFrom(DataInput input) throws IOException {
+		collectionId = input.readString();
+		sequence = input.readInt();
+		int size = input.readVInt();
+		documentList = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			documentList.add(input.readString());
+		}
+		size = input.readVInt();
+		deleteList = new ArrayList<String[]>(size);
+		for (int i = 0; i < size; i++) {
+			String[] keys = new String[input.readVInt()];
+			for (int j = 0; j < keys.length; j++) {
+				keys[j] = input.readString();
+			}
+			deleteList.add(keys);
+		}
+	}
+
+	@Override
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeString(collectionId);
+		output.writeInt(sequence);
+		output.writeVInt(documentList == null ? 0 : documentList.size());
+		if (documentList != null) {
+			for (String document : documentList) {
+				output.writeString(document);
+			}
+		}
+		output.writeVInt(deleteList == null ? 0 : deleteList.size());
+		if (deleteList != null) {
+			for (String[] keys : deleteList) {
+				output.writeStringArray(keys);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package org.fastcatsearch.job.cluster;
+
+import java.io.IOException;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.service.ServiceManager;
+
+/**
+ * push 로그가 sequence 파일까지 세그먼트에 반영되었으므로 데이터노드의 메모리 세그먼트에서 해당 문서를 버린다.
+ * 세그먼트는 NodeSegmentUpdateJob 으로 먼저 적용되어 있어야 한다.
+ * */
+public class NodePushFlushedJob extends Job implements Streamable {
+
+	private static final long serialVersionUID = -4409152735521866043L;
+
+	private String collectionId;
+	private int sequence;
+
+	public NodePushFlushedJob() {
+	}
+
+	public NodePushFlushedJob(String collectionId, int sequence) {
+		this.collectionId = collectionId;
+		this.sequence = sequence;
+	}
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		try {
+			IRService irService = ServiceManager.getInstance().getService(IRService.class);
+			irService.documentPush().dropPushed(collectionId, sequence);
+			return new JobResult(true);
+		} catch (Exception e) {
+			logger.error("", e);
+			throw new FastcatSearchException("ERR-00525", e);
+		}
+	}
+
+	@Override
+	public void readFrom(DataInput input) throws IOException {
+		collectionId = input.readString();
+		sequence = input.readInt();
+	}
+
+	@Override
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeString(collectionId);
+		output.writeInt(sequence);
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.fastcatsearch.job.cluster;
+
+import java.io.IOException;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.job.CacheServiceRestartJob;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.CollectionContextUtil;
+
+/**
+ * 색인노드에서 수행한 세그먼트 머징을 데이터노드에서 동일하게 수행한다.
+ * 색인파일을 전송하는 대신 같은 세그먼트로부터 같은 머징을 하며, 머징전 세그먼트 상태가 색인노드와 다르면 수행하지 않는다.
+ * */
+public class NodeSegmentMergeJob extends Job implements Streamable {
+
+	private static final long serialVersionUID = 4712850627416702945L;
+
+	private String collectionId;
+	private int fromIndex;
+	private int segmentSize;
+	private String lastRevisionUUID;
+	private String mergedRevisionUUID;
+
+	public NodeSegmentMergeJob() {
+	}
+
+	public NodeSegmentMergeJob(String collectionId, int fromIndex, int segmentSize, String lastRevisionUUID, String mergedRevisionUUID) {
+		this.collectionId = collectionId;
+		this.fromIndex = fromIndex;
+		this.segmentSize = segmentSize;
+		this.lastRevisionUUID = lastRevisionUUID;
+		this.mergedRevisionUUID = mergedRevisionUUID;
+	}
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		try {
+			IRService irService = ServiceManager.getInstance().getService(IRService.class);
+			CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+			CollectionContext collectionContext = irService.collectionContext(collectionId);
+			if (collectionHandler == null || collectionContext == null) {
+				throw new FastcatSearchException("Collection [" + collectionId + "] is not exist.");
+			}
+			SegmentInfo lastSegmentInfo = collectionContext.dataInfo().getLastSegmentInfo();
+			if (collectionHandler.segmentSize() != segmentSize || lastSegmentInfo == null
+					|| !lastRevisionUUID.equals(lastSegmentInfo.getRevisionInfo().getUuid())) {
+				logger.error("[{}] Segment status is different from index node. segmentSize={}, {}", new Object[] { collectionId, collectionHandler.segmentSize(),
+						lastSegmentInfo });
+				return new JobResult(false);
+			}
+
+			SegmentInfo mergedSegmentInfo = collectionHandler.mergeSegments(fromIndex);
+			if (!mergedRevisionUUID.equals(mergedSegmentInfo.getRevisionInfo().getUuid())) {
+				logger.warn("[{}] Merged revision uuid is different from index node. {} : {}", new Object[] { collectionId, mergedRevisionUUID,
+						mergedSegmentInfo.getRevisionInfo().getUuid() });
+			}
+			CollectionContextUtil.saveCollectionAfterIndexing(collectionContext);
+
+			/*
+			 * 캐시 클리어.
+			 */
+			getJobExecutor().offer(new CacheServiceRestartJob(collectionId));
+			return new JobResult(true);
+
+		} catch (Exception e) {
+			logger.error("", e);
+			throw new FastcatSearchException("ERR-00525", e);
+		}
+	}
+
+	@Override
+	public void readFrom(DataInput input) throws IOException {
+		collectionId = input.readString();
+		fromIndex = input.readInt();
+		segmentSize = input.readInt();
+		lastRevisionUUID = input.readString();
+		mergedRevisionUUID = input.readString();
+	}
+
+	@Override
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeString(collectionId);
+		output.writeInt(fromIndex);
+		output.writeInt(segmentSize);
+		output.writeString(lastRevisionUUID);
+		output.writeString(mergedRevisionUUID);
+	}
+
+}
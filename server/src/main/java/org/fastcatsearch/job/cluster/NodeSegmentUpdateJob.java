@@ -73,7 +73,7 @@ public class NodeSegmentUpdateJob extends Job implements Streamable {
 			/*
 			 * 캐시 클리어.
 			 */
-			getJobExecutor().offer(new CacheServiceRestartJob());
+			getJobExecutor().offer(new CacheServiceRestartJob(collectionId));
 			return new JobResult(true);
 
 		} catch (Exception e) {
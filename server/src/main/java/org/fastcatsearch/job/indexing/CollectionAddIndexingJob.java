@@ -27,6 +27,7 @@ import org.fastcatsearch.exception.FastcatSearchException;
 import org.fastcatsearch.ir.CollectionAddIndexer;
 import org.fastcatsearch.ir.IRService;
 import org.fastcatsearch.ir.MirrorSynchronizer;
+import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexingType;
 import org.fastcatsearch.ir.config.CollectionContext;
 import org.fastcatsearch.ir.config.CollectionIndexStatus.IndexStatus;
@@ -104,7 +105,7 @@ public class CollectionAddIndexingJob extends IndexingJob {
 				lastRevisionUUID = lastSegmentInfo.getRevisionInfo().getUuid();
 			}
 			boolean isIndexed = false;
-			CollectionAddIndexer collectionIndexer = new CollectionAddIndexer(collectionHandler);
+			CollectionAddIndexer collectionIndexer = createIndexer(collectionHandler);
 			indexer = collectionIndexer;
 			collectionIndexer.setTaskState(indexingTaskState);
 			Throwable indexingThrowable = null;
@@ -288,7 +289,7 @@ public class CollectionAddIndexingJob extends IndexingJob {
 			/*
 			 * 캐시 클리어.
 			 */
-			getJobExecutor().offer(new CacheServiceRestartJob());
+			getJobExecutor().offer(new CacheServiceRestartJob(collectionId));
 
 			IndexStatus indexStatus = collectionContext.indexStatus().getAddIndexStatus();
 			indexingLogger.info("[{}] Collection Add Indexing Finished! {} time = {}", collectionId, indexStatus, duration);
@@ -327,4 +328,10 @@ public class CollectionAddIndexingJob extends IndexingJob {
 
 	}
 
+	/**
+	 * 색인에 사용할 indexer 를 만든다. 색인 mutex 를 얻은 후에 호출된다.
+	 * */
+	protected CollectionAddIndexer createIndexer(CollectionHandler collectionHandler) throws IRException {
+		return new CollectionAddIndexer(collectionHandler);
+	}
 }
@@ -141,7 +141,7 @@ public class CollectionFullIndexingStepBuildJob extends IndexingJob {
 			/*
 			 * 캐시 클리어.
 			 */
-			getJobExecutor().offer(new CacheServiceRestartJob());
+			getJobExecutor().offer(new CacheServiceRestartJob(collectionId));
 
 			IndexStatus indexStatus = collectionContext.indexStatus().getFullIndexStatus();
 			indexingLogger.info("[{}] Collection Full Indexing Finished! {} time = {}", collectionId, indexStatus, duration);
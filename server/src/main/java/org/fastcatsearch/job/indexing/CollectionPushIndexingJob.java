@@ -0,0 +1,68 @@
+package org.fastcatsearch.job.indexing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.CollectionAddIndexer;
+import org.fastcatsearch.ir.CollectionPushIndexer;
+import org.fastcatsearch.ir.DocumentPushLog;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.service.ServiceManager;
+
+/**
+ * push api 로 기록된 문서를 세그먼트 리비전으로 반영하는 job. DocumentPushModule 이 색인노드에서 주기적으로 등록한다.
+ * 색인 mutex 를 얻은 후 로그를 rotate 하여 그때까지 닫힌 로그파일들을 증분색인과 같은 방식으로 색인, 전송한다.
+ * 반영된 로그파일은 지우고 해당 파일의 문서를 색인노드와 데이터노드의 메모리 세그먼트에서 버린다.
+ * 색인이 실패하거나 중지되면 남겨두어 다음 주기에 다시 반영한다.
+ * */
+public class CollectionPushIndexingJob extends CollectionAddIndexingJob {
+
+	private static final long serialVersionUID = -2783491610372528862L;
+
+	private transient DocumentPushLog pushLog;
+	private transient List<File> pushLogFileList;
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		String collectionId = getStringArgs();
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		pushLog = irService.documentPush().pushLog(collectionId);
+		if (pushLog == null) {
+			throw new FastcatSearchException("Collection [" + collectionId + "] is not exist.");
+		}
+		JobResult jobResult = super.doRun();
+		//색인중이라 시작하지 못했거나 중지요청된 경우는 남겨둔다.
+		if (pushLogFileList != null && !stopRequested) {
+			pushLog.remove(pushLogFileList);
+			int flushedSequence = -1;
+			for (File file : pushLogFileList) {
+				flushedSequence = Math.max(flushedSequence, DocumentPushLog.sequenceOf(file));
+			}
+			if (flushedSequence >= 0) {
+				try {
+					irService.documentPush().flushed(collectionId, flushedSequence);
+				} catch (Exception e) {
+					logger.error("[" + collectionId + "] cannot drop flushed documents from memory segment", e);
+				}
+			}
+		}
+		return jobResult;
+	}
+
+	@Override
+	protected CollectionAddIndexer createIndexer(CollectionHandler collectionHandler) throws IRException {
+		List<File> fileList = null;
+		try {
+			fileList = pushLog.rotate();
+		} catch (IOException e) {
+			throw new IRException(e);
+		}
+		CollectionPushIndexer pushIndexer = new CollectionPushIndexer(collectionHandler, fileList);
+		pushLogFileList = fileList;
+		return pushIndexer;
+	}
+}
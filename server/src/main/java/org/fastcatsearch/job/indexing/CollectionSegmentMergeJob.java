@@ -0,0 +1,93 @@
+package org.fastcatsearch.job.indexing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.cluster.ClusterUtils;
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.cluster.NodeJobResult;
+import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
+import org.fastcatsearch.ir.index.merge.TieredMergePolicy;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.job.CacheServiceRestartJob;
+import org.fastcatsearch.job.cluster.NodeSegmentMergeJob;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.CollectionContextUtil;
+
+/**
+ * 색인노드에서 머징정책에 따라 세그먼트를 머징하고, 데이터노드들에도 같은 머징을 요청한다.
+ * 색인작업과 같은 mutex 를 사용하도록 IndexingJob 을 상속하므로 색인중에는 수행되지 않는다.
+ * */
+public class CollectionSegmentMergeJob extends IndexingJob {
+
+	private static final long serialVersionUID = -2150389204863207548L;
+
+	@Override
+	public void requestStop() {
+		//머징은 중간에 멈추지 않는다.
+		logger.info("Collection [{}] segment merge cannot be stopped.", collectionId);
+	}
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		collectionId = getStringArgs();
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+		CollectionContext collectionContext = irService.collectionContext(collectionId);
+		if (collectionHandler == null || collectionContext == null) {
+			throw new FastcatSearchException("Collection [" + collectionId + "] is not exist.");
+		}
+		String indexNodeId = collectionContext.collectionConfig().getIndexNode();
+		NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+		if (!nodeService.isMyNode(nodeService.getNodeById(indexNodeId))) {
+			throw new RuntimeException("Invalid index node collection[" + collectionId + "] node[" + indexNodeId + "]");
+		}
+
+		try {
+			TieredMergePolicy mergePolicy = collectionHandler.mergePolicy();
+			int fromIndex = collectionHandler.findMergeSegment(mergePolicy);
+			if (fromIndex < 0) {
+				logger.debug("[{}] No segments to merge. {}", collectionId, mergePolicy);
+				return new JobResult(false);
+			}
+			int segmentSize = collectionHandler.segmentSize();
+			String lastRevisionUUID = collectionContext.dataInfo().getLastSegmentInfo().getRevisionInfo().getUuid();
+
+			indexingLogger.info("[{}] Segment merge start. segment {} ~ {}", new Object[] { collectionId, fromIndex, segmentSize - 1 });
+			SegmentInfo mergedSegmentInfo = collectionHandler.mergeSegments(fromIndex);
+			CollectionContextUtil.saveCollectionAfterIndexing(collectionContext);
+			indexingLogger.info("[{}] Segment merge finished. {}", collectionId, collectionHandler.mergeStatistics());
+
+			/*
+			 * 데이터노드에 같은 머징 요청.
+			 */
+			List<Node> nodeList = new ArrayList<Node>(nodeService.getNodeById(collectionContext.collectionConfig().getDataNodeList()));
+			nodeList.remove(nodeService.getMyNode());
+			if (nodeList.size() > 0) {
+				NodeSegmentMergeJob mergeJob = new NodeSegmentMergeJob(collectionId, fromIndex, segmentSize, lastRevisionUUID, mergedSegmentInfo.getRevisionInfo()
+						.getUuid());
+				NodeJobResult[] nodeResultList = ClusterUtils.sendJobToNodeList(mergeJob, nodeService, nodeList, false);
+				for (NodeJobResult r : nodeResultList) {
+					if (r.isSuccess()) {
+						logger.info("{} Segment merge OK.", r.node());
+					} else {
+						logger.warn("{} Segment merge Fail.", r.node());
+					}
+				}
+			}
+
+			/*
+			 * 캐시 클리어.
+			 */
+			getJobExecutor().offer(new CacheServiceRestartJob(collectionId));
+			return new JobResult(true);
+		} catch (Exception e) {
+			logger.error("[" + collectionId + "] segment merge error", e);
+			throw new FastcatSearchException(e);
+		}
+	}
+}
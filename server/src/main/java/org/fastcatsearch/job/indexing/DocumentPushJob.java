@@ -0,0 +1,103 @@
+package org.fastcatsearch.job.indexing;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minidev.json.parser.ParseException;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.JSONParser;
+
+/**
+ * push 문서를 색인노드의 DocumentPushModule 로그에 기록하고 메모리 세그먼트에 넣는다. 결과는 기록된 추가, 삭제문서 수의 합이다.
+ * 추가문서는 한줄에 json 문서 하나씩, 삭제문서는 한줄에 pk 하나씩이며 pk 필드가 여러개이면 tab 으로 구분한다.
+ * 로그에 기록하기 전에 json 을 검사하므로 잘못된 문서가 있으면 아무것도 기록하지 않는다.
+ * */
+public class DocumentPushJob extends Job implements Streamable {
+
+	private static final long serialVersionUID = -6195583180239171946L;
+
+	private String collectionId;
+	private String documents;
+	private String deletes;
+
+	public DocumentPushJob() {
+	}
+
+	public DocumentPushJob(String collectionId, String documents, String deletes) {
+		this.collectionId = collectionId;
+		this.documents = documents;
+		this.deletes = deletes;
+	}
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		List<String> documentList = new ArrayList<String>();
+		List<String[]> deleteList = new ArrayList<String[]>();
+		if (documents != null) {
+			JSONParser jsonParser = new JSONParser();
+			String[] lines = documents.split("\n");
+			for (int i = 0; i < lines.length; i++) {
+				String line = lines[i].trim();
+				if (line.length() == 0) {
+					continue;
+				}
+				try {
+					jsonParser.parse(line);
+				} catch (ParseException e) {
+					throw new FastcatSearchException("Invalid json document at line " + (i + 1) + " : " + e.getMessage());
+				}
+				documentList.add(line);
+			}
+		}
+		if (deletes != null) {
+			for (String line : deletes.split("\n")) {
+				line = line.trim();
+				if (line.length() > 0) {
+					deleteList.add(line.split("\t"));
+				}
+			}
+		}
+
+		try {
+			IRService irService = ServiceManager.getInstance().getService(IRService.class);
+			irService.documentPush().push(collectionId, documentList, deleteList);
+		} catch (IOException e) {
+			logger.error("", e);
+			throw new FastcatSearchException("ERR-00000", e);
+		}
+		return new JobResult(documentList.size() + deleteList.size());
+	}
+
+	@Override
+	public void readFrom(DataInput input) throws IOException {
+		collectionId = input.readString();
+		if (input.readBoolean()) {
+			documents = input.readString();
+		}
+		if (input.readBoolean()) {
+			deletes = input.readString();
+		}
+	}
+
+	@Override
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeString(collectionId);
+		output.writeBoolean(documents != null);
+		if (documents != null) {
+			output.writeString(documents);
+		}
+		output.writeBoolean(deletes != null);
+		if (deletes != null) {
+			output.writeString(deletes);
+		}
+	}
+
+}
@@ -13,8 +13,11 @@ import org.fastcatsearch.ir.query.InternalSearchResult;
 import org.fastcatsearch.ir.query.Metadata;
 import org.fastcatsearch.ir.query.Query;
 import org.fastcatsearch.ir.query.QueryModifier;
+import org.fastcatsearch.ir.query.QueryTrace;
 import org.fastcatsearch.ir.search.CollectionHandler;
 import org.fastcatsearch.ir.search.CollectionSearcher;
+import org.fastcatsearch.ir.search.DocIdList;
+import org.fastcatsearch.ir.search.DocumentResult;
 import org.fastcatsearch.ir.search.HitElement;
 import org.fastcatsearch.ir.search.PkScore;
 import org.fastcatsearch.ir.search.PkScoreList;
@@ -28,6 +31,10 @@ public class InternalSearchJob extends Job implements Streamable {
 	private static final long serialVersionUID = 4998297114497342795L;
 	private QueryMap queryMap;
 	private boolean forMerging;
+	//검색결과 문서를 같이 가져와서 broker 의 문서조회 요청을 생략하도록 한다.
+	private boolean fetchDocuments;
+	//단계별 검색시간을 측정하여 결과와 같이 보낸다.
+	private boolean isTrace;
 	
 	public InternalSearchJob(){}
 	
@@ -40,10 +47,28 @@ public class InternalSearchJob extends Job implements Streamable {
 		this.forMerging = forMerging;
 	}
 	
+	public InternalSearchJob(QueryMap queryMap, boolean forMerging, boolean fetchDocuments){
+		this.queryMap = queryMap;
+		this.forMerging = forMerging;
+		this.fetchDocuments = fetchDocuments;
+	}
+	
+	public InternalSearchJob(QueryMap queryMap, boolean forMerging, boolean fetchDocuments, boolean isTrace){
+		this.queryMap = queryMap;
+		this.forMerging = forMerging;
+		this.fetchDocuments = fetchDocuments;
+		this.isTrace = isTrace;
+	}
+	
 	@Override
 	public JobResult doRun() throws FastcatSearchException {
 		
+		QueryTrace trace = isTrace ? new QueryTrace() : null;
+		long st = System.nanoTime();
 		Query q = QueryParser.getInstance().parseQuery(queryMap);
+		if (trace != null) {
+			trace.add(QueryTrace.Phase.PARSE, System.nanoTime() - st);
+		}
 
 		String collectionId = queryMap.collectionId();
 		try {
@@ -90,10 +115,23 @@ public class InternalSearchJob extends Job implements Streamable {
                         logger.error("error while boosting query > " + boostQuery, t);
                     }
 				}
+				q.setTrace(trace);
 				result = collectionHandler.searcher().searchInternal(q, forMerging, pkScoreList);
 			}
 
-			return new JobResult(new StreamableInternalSearchResult(result));
+			if(fetchDocuments) {
+				//hit 순서대로 문서를 가져온다. broker 에서는 병합후 필요한 문서만 골라 쓴다.
+				CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+				HitElement[] hitElementList = result.getHitElementList();
+				DocIdList docIdList = new DocIdList(result.getCount());
+				for (int i = 0; i < result.getCount(); i++) {
+					HitElement el = hitElementList[i];
+					docIdList.add(el.segmentSequence(), el.docNo(), el.getBundleDocIdList());
+				}
+				DocumentResult documentResult = collectionHandler.searcher().searchDocument(docIdList, q.getViews(), meta.tags(), result.getHighlightInfo(), trace);
+				return new JobResult(new StreamableInternalSearchResult(result, documentResult, trace));
+			}
+			return new JobResult(new StreamableInternalSearchResult(result, null, trace));
 
         } catch (SearchError e){
             throw e;
@@ -107,10 +145,14 @@ public class InternalSearchJob extends Job implements Streamable {
 		this.queryMap = new QueryMap();
 		queryMap.readFrom(input);
 		this.forMerging = input.readBoolean();
+		this.fetchDocuments = input.readBoolean();
+		this.isTrace = input.readBoolean();
 	}
 	@Override
 	public void writeTo(DataOutput output) throws IOException {
 		queryMap.writeTo(output);
 		output.writeBoolean(forMerging);
+		output.writeBoolean(fetchDocuments);
+		output.writeBoolean(isTrace);
 	}
 }
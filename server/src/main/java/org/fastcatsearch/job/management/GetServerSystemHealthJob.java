@@ -6,6 +6,7 @@ import org.fastcatsearch.common.io.Streamable;
 import org.fastcatsearch.exception.FastcatSearchException;
 import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.search.ColumnCache;
 import org.fastcatsearch.job.Job;
 import org.fastcatsearch.management.JvmCpuInfo;
 import org.fastcatsearch.management.JvmMemoryInfo;
@@ -39,6 +40,9 @@ public class GetServerSystemHealthJob extends Job {
 		result.totalDiskSize = systemDiskInfo.totalDiskSize;
 		result.usedDiskSize = systemDiskInfo.usedDiskSize;
 		result.freeDiskSize = systemDiskInfo.freeDiskSize;
+		
+		result.columnCacheHeapSize = ColumnCache.heapMemorySize();
+		result.columnCacheOffHeapSize = ColumnCache.offHeapMemorySize();
 		return new JobResult(result);
 	}
 	
@@ -58,6 +62,10 @@ public class GetServerSystemHealthJob extends Job {
 		public int usedDiskSize;
 		public int freeDiskSize;
 		
+		//필드/그룹 색인 컬럼캐시가 사용하는 byte 수.
+		public long columnCacheHeapSize;
+		public long columnCacheOffHeapSize;
+		
 		@Override
 		public void readFrom(DataInput input) throws IOException {
 			jvmCpuUse = input.readInt();
@@ -70,6 +78,8 @@ public class GetServerSystemHealthJob extends Job {
 			totalDiskSize = input.readInt();
 			usedDiskSize = input.readInt();
 			freeDiskSize = input.readInt();
+			columnCacheHeapSize = input.readLong();
+			columnCacheOffHeapSize = input.readLong();
 		}
 
 		@Override
@@ -84,6 +94,8 @@ public class GetServerSystemHealthJob extends Job {
 			output.writeInt(totalDiskSize);
 			output.writeInt(usedDiskSize);
 			output.writeInt(freeDiskSize);
+			output.writeLong(columnCacheHeapSize);
+			output.writeLong(columnCacheOffHeapSize);
 		}
 		
 		
@@ -84,6 +84,8 @@ public class UpdateCollectionConfigJob extends Job implements Streamable {
 		collectionConfig.setDataNodeList(this.collectionConfig.getDataNodeList());
 		collectionConfig.setDataPlanConfig(this.collectionConfig.getDataPlanConfig());
 		collectionConfig.setFullIndexingSegmentSize(this.collectionConfig.getFullIndexingSegmentSize());
+		collectionConfig.setParallelSegmentSearch(this.collectionConfig.getParallelSegmentSearch());
+		collectionConfig.setMmapFileTypes(this.collectionConfig.getMmapFileTypes());
 	
 		Exception ex = null;
 		try {
@@ -75,7 +75,7 @@ public class ClusterGroupSearchJob extends Job {
 			
 			//보내는 곳마다 collectionId를 재 셋팅한다. (collection group명일수 있기때문에) 
 			InternalGroupSearchJob job = new InternalGroupSearchJob(newQueryMap);
-			resultFutureList[i] = nodeService.sendRequest(dataNode, job);
+			resultFutureList[i] = nodeService.sendHedgedSearchRequest(id, dataNode, job);
             // 노드 접속불가일경우 resultFutureList[i]가 null로 리턴됨.
             if (resultFutureList[i] == null) {
                 throw new SearchError(ServerErrorCode.DATA_NODE_CONNECTION_ERROR, dataNode.toString() );
@@ -1,5 +1,6 @@
 package org.fastcatsearch.job.search;
 
+import org.fastcatsearch.cluster.HedgedResultFuture;
 import org.fastcatsearch.cluster.Node;
 import org.fastcatsearch.cluster.NodeService;
 import org.fastcatsearch.control.ResultFuture;
@@ -22,6 +23,7 @@ import org.fastcatsearch.job.internal.InternalSearchJob;
 import org.fastcatsearch.query.QueryMap;
 import org.fastcatsearch.query.QueryParser;
 import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.settings.Settings;
 import org.fastcatsearch.transport.vo.StreamableDocumentResult;
 import org.fastcatsearch.transport.vo.StreamableInternalSearchResult;
 import org.slf4j.Logger;
@@ -37,6 +39,17 @@ public class ClusterSearchJob extends Job {
 	private static final long serialVersionUID = 2375551165135599911L;
 	protected static Logger searchLogger = LoggerFactory.getLogger("SEARCH_LOG");
 
+	//단계별 검색시간 추적. 검색요청 action 에서 측정이 켜져 있을때만 넣어준다.
+	private transient QueryTrace trace;
+
+	public void setTrace(QueryTrace trace) {
+		this.trace = trace;
+	}
+
+	public QueryTrace getTrace() {
+		return trace;
+	}
+
 	@Override
 	public JobResult doRun() throws FastcatSearchException {
 
@@ -46,9 +59,13 @@ public class ClusterSearchJob extends Job {
 		String collectionId = null;
 		String searchKeyword = null;
 		boolean isCache = false;
+		String[] cacheRevisionList = null;
 		Result searchResult = null;
 		try {
             Query q = QueryParser.getInstance().parseQuery(queryMap);
+			if (trace != null) {
+				trace.add(QueryTrace.Phase.PARSE, System.nanoTime() - st);
+			}
 
 			Metadata meta = q.getMeta();
 			QueryModifier queryModifier = meta.queryModifier();
@@ -71,13 +88,15 @@ public class ClusterSearchJob extends Job {
 	
 			IRService irService = ServiceManager.getInstance().getService(IRService.class);
 			if (!noCache) {
-				Result result = irService.searchCache().get(queryMap.queryString());
+				Result result = irService.searchCache().get(collectionId, queryMap.normalizedQueryString());
 				// logger.debug("CACHE_GET result>>{}, qr >>{}", result, queryMap.queryString());
 				if (result != null) {
 					isCache = true;
 					searchResult = result;
 					return new JobResult(result);
 				}
+				//검색전의 리비전으로 결과를 기록해야 검색중에 바뀐 색인과 섞이지 않는다.
+				cacheRevisionList = irService.searchCache().begin(collectionId);
 			}
 			
 			NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
@@ -98,6 +117,7 @@ public class ClusterSearchJob extends Job {
 			Node[] selectedNodeList = new Node[collectionIdList.length];
 
 			boolean forMerging = collectionIdList.length > 1;
+			boolean fetchWithQuery = isFetchWithQuery(collectionIdList.length, meta);
 			for (int i = 0; i < collectionIdList.length; i++) {
 				String id = collectionIdList[i];
 				if(irService.collectionHandler(id) == null) {
@@ -117,8 +137,8 @@ public class ClusterSearchJob extends Job {
 				newQueryMap.setId(id);
 				logger.debug("query-{} {} >> {}", i, id, newQueryMap);
 				// collectionId가 하나이상이면 머징을 해야한다.
-				InternalSearchJob job = new InternalSearchJob(newQueryMap, forMerging);
-				resultFutureList[i] = nodeService.sendRequest(dataNode, job);
+				InternalSearchJob job = new InternalSearchJob(newQueryMap, forMerging, fetchWithQuery, trace != null);
+				resultFutureList[i] = nodeService.sendHedgedSearchRequest(id, dataNode, job);
                 // 노드 접속불가일경우 resultFutureList[i]가 null로 리턴됨.
                 if (resultFutureList[i] == null) {
                     throw new SearchError(ServerErrorCode.DATA_NODE_CONNECTION_ERROR, dataNode.toString() );
@@ -126,6 +146,7 @@ public class ClusterSearchJob extends Job {
 			}
 
 			List<InternalSearchResult> resultList = new ArrayList<InternalSearchResult>(collectionIdList.length);
+			DocumentResult[] fetchedDocumentList = new DocumentResult[collectionIdList.length];
 			HighlightInfo highlightInfo = null;
 
 			for (int i = 0; i < collectionIdList.length; i++) {
@@ -140,10 +161,20 @@ public class ClusterSearchJob extends Job {
                     }
 				}
 
+				//헤지요청으로 다른 노드가 응답했다면 문서도 그 노드에서 가져와야 한다.
+				Node answeredNode = ((HedgedResultFuture) resultFutureList[i]).node();
+				if (answeredNode != null) {
+					selectedNodeList[i] = answeredNode;
+				}
+
 				StreamableInternalSearchResult obj2 = (StreamableInternalSearchResult) obj;
 				InternalSearchResult internalSearchResult = obj2.getInternalSearchResult();
 				internalSearchResult.setNodeId(selectedNodeList[i].id());
 				resultList.add(internalSearchResult);
+				fetchedDocumentList[i] = obj2.getDocumentResult();
+				if (trace != null) {
+					trace.merge(obj2.getTrace());
+				}
 
 				// TODO highlightInfo 들을 머지해야하나?
 				highlightInfo = internalSearchResult.getHighlightInfo();
@@ -154,6 +185,7 @@ public class ClusterSearchJob extends Job {
 			// collectionIdList 내의 스키마는 동일하다는 가정하에 진행한다. collectionIdList[0] 의 스키마를 가져온다.
 			//
 
+			long mergeStartTime = System.nanoTime();
 			Schema schema = collectionContext.schema();
 			SearchResultAggregator aggregator = new SearchResultAggregator(q, schema);
 			InternalSearchResult aggregatedSearchResult = aggregator.aggregate(resultList);
@@ -214,27 +246,44 @@ public class ClusterSearchJob extends Job {
 				idx++;
 			}
 
+			if (trace != null) {
+				trace.add(QueryTrace.Phase.MERGE, System.nanoTime() - mergeStartTime);
+			}
+
+			// 검색단계에서 문서를 같이 받았으면 필요한 문서만 골라내고 document 요청은 생략한다.
+			DocumentResult[] docResultList = new DocumentResult[collectionIdList.length];
+			for (int i = 0; i < collectionIdList.length; i++) {
+				if (fetchedDocumentList[i] != null) {
+					docResultList[i] = selectDocuments(resultList.get(i), fetchedDocumentList[i], docIdList[i]);
+				}
+			}
+
 			// document 요청을 보낸다.
+			long fetchStartTime = System.nanoTime();
 			resultFutureList = new ResultFuture[collectionIdList.length];
 			ViewContainer views = q.getViews();
 			String[] tags = q.getMeta().tags();
 			for (int i = 0; i < collectionIdList.length; i++) {
+				if (docResultList[i] != null) {
+					continue;
+				}
 				String cid = collectionIdList[i];
 				Node dataNode = selectedNodeList[i];
 
 				logger.debug("collection [{}] search at {}", cid, dataNode);
 
 				InternalDocumentSearchJob job = new InternalDocumentSearchJob(cid, docIdList[i], views, tags, highlightInfo);
-				resultFutureList[i] = nodeService.sendRequest(dataNode, job);
+				resultFutureList[i] = nodeService.sendSearchRequest(dataNode, job);
                 if (resultFutureList[i] == null) {
                     throw new SearchError(ServerErrorCode.DATA_NODE_CONNECTION_ERROR, dataNode.toString() );
                 }
 			}
 
 			// document 결과를 받는다.
-			DocumentResult[] docResultList = new DocumentResult[collectionIdList.length];
-
 			for (int i = 0; i < collectionIdList.length; i++) {
+				if (resultFutureList[i] == null) {
+					continue;
+				}
 				String cid = collectionIdList[i];
 				Object obj = resultFutureList[i].take();
 				if (!resultFutureList[i].isSuccess()) {
@@ -255,6 +304,10 @@ public class ClusterSearchJob extends Job {
 					logger.warn("{}의 documentList가 null입니다.", cid);
 				}
 			}
+			if (trace != null) {
+				//document 요청의 응답대기 시간. 검색단계에서 같이 가져온 문서는 데이터노드의 측정값이 이미 더해져 있다.
+				trace.add(QueryTrace.Phase.FETCH, System.nanoTime() - fetchStartTime);
+			}
 			String[] fieldIdList = docResultList[0].fieldIdList();
 			Row[] rows = new Row[realSize];
 			Row[][] bundleRows = null;
@@ -286,7 +339,11 @@ public class ClusterSearchJob extends Job {
 			GroupsData groupsData = aggregatedSearchResult.getGroupsData();
 			GroupResults groupResults = null;
 			if (aggregatedSearchResult.getGroupsData() != null) {
+				long groupStartTime = System.nanoTime();
 				groupResults = groups.getGroupResultsGenerator().generate(groupsData);
+				if (trace != null) {
+					trace.add(QueryTrace.Phase.GROUP, System.nanoTime() - groupStartTime);
+				}
 			}
 
 			searchResult = new Result(rows, bundleRows, bundleTotalSizeList, groupResults, fieldIdList, realSize, totalSize, meta.start(), explanations, rowExplanationsList);
@@ -302,7 +359,7 @@ public class ClusterSearchJob extends Job {
 			}
 			
 			if(!noCache && realSize > 0){
-				irService.searchCache().put(queryMap.queryString(), searchResult);
+				irService.searchCache().put(collectionId, queryMap.normalizedQueryString(), cacheRevisionList, searchResult);
 			}
 //			logger.debug("CACHE_PUT result>>{}, qr >>{}", searchResult, queryMap.queryString());
 
@@ -316,6 +373,52 @@ public class ClusterSearchJob extends Job {
 		}
 	}
 
+	/**
+	 * 검색요청시 문서까지 같이 가져올지 결정한다. 컬렉션이 하나이면 병합할 필요가 없으므로 항상 가져오고,
+	 * 여러 컬렉션이면 각 노드가 start+rows 만큼 문서를 가져와야 하므로 search.fetch_with_query_max_rows 이하일때만 가져온다.
+	 * */
+	private boolean isFetchWithQuery(int collectionSize, Metadata meta) {
+		Settings settings = environment.settingManager().getSystemSettings();
+		if (!settings.getBoolean("search.fetch_with_query", true)) {
+			return false;
+		}
+		if (collectionSize == 1) {
+			return true;
+		}
+		return meta.start() - 1 + meta.rows() <= settings.getInt("search.fetch_with_query_max_rows", 10);
+	}
+
+	/**
+	 * 노드가 hit 순서대로 가져온 문서중 병합결과에 포함된 문서를 docIdList 순서로 골라낸다.
+	 * 찾을수 없는 문서가 있으면 null 을 리턴하여 document 요청으로 가져오게 한다.
+	 * */
+	private DocumentResult selectDocuments(InternalSearchResult internalSearchResult, DocumentResult fetchedResult, DocIdList docIdList) {
+		HitElement[] hitElementList = internalSearchResult.getHitElementList();
+		Map<Long, Integer> positionMap = new HashMap<Long, Integer>();
+		for (int i = 0; i < internalSearchResult.getCount(); i++) {
+			positionMap.put(docKey(hitElementList[i].segmentSequence(), hitElementList[i].docNo()), i);
+		}
+		Row[] fetchedRows = fetchedResult.rows();
+		Row[][] fetchedBundleRows = fetchedResult.bundleRows();
+		Row[] rows = new Row[docIdList.size()];
+		Row[][] bundleRows = fetchedBundleRows != null ? new Row[docIdList.size()][] : null;
+		for (int i = 0; i < docIdList.size(); i++) {
+			Integer position = positionMap.get(docKey(docIdList.segmentSequence(i), docIdList.docNo(i)));
+			if (position == null || position >= fetchedRows.length) {
+				return null;
+			}
+			rows[i] = fetchedRows[position];
+			if (bundleRows != null) {
+				bundleRows[i] = fetchedBundleRows[position];
+			}
+		}
+		return new DocumentResult(rows, bundleRows, fetchedResult.fieldIdList());
+	}
+
+	private static long docKey(int segmentSequence, int docNo) {
+		return ((long) segmentSequence << 32) | (docNo & 0xFFFFFFFFL);
+	}
+
 	// Fisher-Yates shuffle
 	Random random = new Random(System.nanoTime());
 	private void shuffleCollectionList(String[] collectionId) {
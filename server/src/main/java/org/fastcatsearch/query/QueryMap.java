@@ -3,6 +3,7 @@ package org.fastcatsearch.query;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.fastcatsearch.common.io.Streamable;
 import org.fastcatsearch.ir.io.DataInput;
@@ -13,6 +14,7 @@ public class QueryMap extends HashMap<String, String> implements Streamable {
 	private static final long serialVersionUID = 6450718773572982562L;
 	private String collectionId;
 	private String queryString;
+	private String normalizedQueryString;
 	
 	public QueryMap(){
 	}
@@ -44,6 +46,34 @@ public class QueryMap extends HashMap<String, String> implements Streamable {
 		return queryString;
 	}
 
+	/**
+	 * 캐시키로 사용하는 쿼리문자열. 파라미터 순서와 값 앞뒤 공백에 상관없이 같은 쿼리는 같은 문자열이 되도록 키순서로 정렬하고, 빈 값은 제외한다.
+	 * */
+	public String normalizedQueryString(){
+		if(normalizedQueryString == null){
+			Map<String, String> sortedMap = new TreeMap<String, String>();
+			for(Map.Entry<String, String> entry : entrySet()){
+				String value = entry.getValue();
+				if(value == null){
+					continue;
+				}
+				value = value.trim();
+				if(value.length() > 0){
+					sortedMap.put(entry.getKey(), value);
+				}
+			}
+			StringBuilder sb = new StringBuilder();
+			for(Map.Entry<String, String> entry : sortedMap.entrySet()){
+				if(sb.length() > 0){
+					sb.append('&');
+				}
+				sb.append(entry.getKey()).append('=').append(entry.getValue());
+			}
+			normalizedQueryString = sb.toString();
+		}
+		return normalizedQueryString;
+	}
+	
 	@Override
 	public QueryMap clone(){
 		QueryMap queryMap = (QueryMap) super.clone();
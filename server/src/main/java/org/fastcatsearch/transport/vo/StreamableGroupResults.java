@@ -0,0 +1,123 @@
+package org.fastcatsearch.transport.vo;
+
+import java.io.IOException;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.ir.group.GroupEntry;
+import org.fastcatsearch.ir.group.GroupFunctionType;
+import org.fastcatsearch.ir.group.GroupResult;
+import org.fastcatsearch.ir.group.GroupResults;
+import org.fastcatsearch.ir.group.GroupingValue;
+import org.fastcatsearch.ir.group.value.DoubleGroupingValue;
+import org.fastcatsearch.ir.group.value.FloatGroupingValue;
+import org.fastcatsearch.ir.group.value.IntGroupingValue;
+import org.fastcatsearch.ir.group.value.LongGroupingValue;
+import org.fastcatsearch.ir.group.value.StringGroupingValue;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+
+/**
+ * 그룹결과(GroupResults)를 읽고 쓴다. 그룹검색 캐시에 직렬화하여 넣을때 사용한다.
+ * */
+public class StreamableGroupResults implements Streamable {
+
+	private GroupResults groupResults;
+
+	public StreamableGroupResults() {
+	}
+
+	public StreamableGroupResults(GroupResults groupResults) {
+		this.groupResults = groupResults;
+	}
+
+	public GroupResults groupResults() {
+		return groupResults;
+	}
+
+	@Override
+	public void readFrom(DataInput input) throws IOException {
+		int totalSearchCount = input.readVInt();
+		int groupSize = input.readVInt();
+		groupResults = new GroupResults(groupSize, totalSearchCount);
+		GroupFunctionType[] groupFunctionTypeList = GroupFunctionType.values();
+		for (int groupNum = 0; groupNum < groupSize; groupNum++) {
+			String fieldId = input.readString();
+			String[] headerNameList = null;
+			if (input.readBoolean()) {
+				headerNameList = new String[input.readVInt()];
+				for (int i = 0; i < headerNameList.length; i++) {
+					headerNameList[i] = input.readString();
+				}
+			}
+			int totalCount = input.readVInt();
+			int size = input.readVInt();
+			GroupResult groupResult = new GroupResult(fieldId, headerNameList, totalCount, size);
+			for (int j = 0; j < size; j++) {
+				if (!input.readBoolean()) {
+					continue;
+				}
+				String key = input.readString();
+				int functionSize = input.readVInt();
+				GroupingValue[] valueList = new GroupingValue[functionSize];
+				for (int i = 0; i < functionSize; i++) {
+					GroupFunctionType type = groupFunctionTypeList[input.readVInt()];
+					Object obj = input.readGenericValue();
+					if (obj instanceof Integer) {
+						valueList[i] = new IntGroupingValue((Integer) obj, type);
+					} else if (obj instanceof Long) {
+						valueList[i] = new LongGroupingValue((Long) obj, type);
+					} else if (obj instanceof Float) {
+						valueList[i] = new FloatGroupingValue((Float) obj, type);
+					} else if (obj instanceof Double) {
+						valueList[i] = new DoubleGroupingValue((Double) obj, type);
+					} else if (obj instanceof String) {
+						valueList[i] = new StringGroupingValue((String) obj, type);
+					}
+				}
+				groupResult.setEntry(j, new GroupEntry(key, valueList));
+			}
+			groupResults.add(groupResult);
+		}
+	}
+
+	@Override
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeVInt(groupResults.totalSearchCount());
+		int groupSize = groupResults.groupSize();
+		output.writeVInt(groupSize);
+		for (int groupNum = 0; groupNum < groupSize; groupNum++) {
+			GroupResult groupResult = groupResults.getGroupResult(groupNum);
+			output.writeString(groupResult.fieldId());
+			String[] headerNameList = groupResult.headerNameList();
+			output.writeBoolean(headerNameList != null);
+			if (headerNameList != null) {
+				output.writeVInt(headerNameList.length);
+				for (String headerName : headerNameList) {
+					output.writeString(headerName);
+				}
+			}
+			output.writeVInt(groupResult.totalCount());
+			int size = groupResult.size();
+			output.writeVInt(size);
+			for (int j = 0; j < size; j++) {
+				GroupEntry groupEntry = groupResult.getEntry(j);
+				output.writeBoolean(groupEntry != null);
+				if (groupEntry == null) {
+					continue;
+				}
+				output.writeString(groupEntry.key);
+				output.writeVInt(groupEntry.size());
+				for (int i = 0; i < groupEntry.size(); i++) {
+					GroupingValue groupingValue = groupEntry.groupingValue(i);
+					if (groupingValue == null) {
+						output.writeVInt(GroupFunctionType.NONE.ordinal());
+						output.writeGenericValue("");
+					} else {
+						output.writeVInt(groupingValue.getType().ordinal());
+						output.writeGenericValue(groupingValue.get());
+					}
+				}
+			}
+		}
+	}
+}
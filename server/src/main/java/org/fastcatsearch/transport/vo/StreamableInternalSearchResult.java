@@ -10,10 +10,16 @@ import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.DataOutput;
 import org.fastcatsearch.ir.query.HighlightInfo;
 import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.QueryTrace;
+import org.fastcatsearch.ir.search.DocumentResult;
 import org.fastcatsearch.ir.search.Explanation;
 
 public class StreamableInternalSearchResult implements Streamable {
 	private InternalSearchResult internalSearchResult;
+	//검색결과 hit 순서대로 가져온 문서. 문서조회를 같이 요청한 경우에만 존재한다.
+	private DocumentResult documentResult;
+	//데이터노드의 단계별 검색시간. broker 가 추적을 요청한 경우에만 존재한다.
+	private QueryTrace trace;
 
 	public StreamableInternalSearchResult(){ } 
 
@@ -21,9 +27,28 @@ public class StreamableInternalSearchResult implements Streamable {
 		this.internalSearchResult = internalSearchResult;
 	}
 
+	public StreamableInternalSearchResult(InternalSearchResult internalSearchResult, DocumentResult documentResult) {
+		this.internalSearchResult = internalSearchResult;
+		this.documentResult = documentResult;
+	}
+
+	public StreamableInternalSearchResult(InternalSearchResult internalSearchResult, DocumentResult documentResult, QueryTrace trace) {
+		this.internalSearchResult = internalSearchResult;
+		this.documentResult = documentResult;
+		this.trace = trace;
+	}
+
 	public InternalSearchResult getInternalSearchResult() {
 		return internalSearchResult;
 	}
+
+	public DocumentResult getDocumentResult() {
+		return documentResult;
+	}
+
+	public QueryTrace getTrace() {
+		return trace;
+	}
 	
 	@Override
 	public void readFrom(DataInput input) throws IOException {
@@ -54,6 +79,25 @@ public class StreamableInternalSearchResult implements Streamable {
 		this.internalSearchResult = new InternalSearchResult(collectionId, sHitElement.getHitElementList(), count, totalCount,
 				sGroupData.groupData(), highlightInfo, explanations);
 
+		if(input.readBoolean()){
+			StreamableDocumentResult sDocumentResult = new StreamableDocumentResult();
+			sDocumentResult.readFrom(input);
+			documentResult = sDocumentResult.documentResult();
+		}
+
+		if(input.readBoolean()){
+			trace = new QueryTrace();
+			QueryTrace.Phase[] phases = QueryTrace.Phase.values();
+			int size = input.readVInt();
+			for (int i = 0; i < size; i++) {
+				long time = input.readVLong();
+				//모르는 단계는 버린다.
+				if (i < phases.length) {
+					trace.add(phases[i], time);
+				}
+			}
+		}
+
 	}
 
 	@Override
@@ -93,6 +137,24 @@ public class StreamableInternalSearchResult implements Streamable {
 		}else{
 			output.writeBoolean(false);
 		}
+
+		if(documentResult != null){
+			output.writeBoolean(true);
+			new StreamableDocumentResult(documentResult).writeTo(output);
+		}else{
+			output.writeBoolean(false);
+		}
+
+		if(trace != null){
+			output.writeBoolean(true);
+			QueryTrace.Phase[] phases = QueryTrace.Phase.values();
+			output.writeVInt(phases.length);
+			for (QueryTrace.Phase phase : phases) {
+				output.writeVLong(trace.time(phase));
+			}
+		}else{
+			output.writeBoolean(false);
+		}
 	}
 
 }
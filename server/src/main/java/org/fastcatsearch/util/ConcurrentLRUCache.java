@@ -0,0 +1,210 @@
+package org.fastcatsearch.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 메모리 크기로 제한되는 LRU 캐시. 키 해시로 나눈 segment 별로 접근순서 LinkedHashMap 을 사용하므로 get/put/evict 가 모두 O(1)이며,
+ * segment 단위로만 lock 을 잡는다. 각 segment 는 전체 메모리의 1/segment 수 만큼을 사용한다.
+ * 값의 크기는 Weigher 로 추정한다.
+ * */
+public class ConcurrentLRUCache<K, V> {
+
+	public static interface Weigher<K, V> {
+		public long weigh(K key, V value);
+	}
+
+	public static interface EvictionListener<K, V> {
+		public void onEvict(K key, V value);
+	}
+
+	private static final int DEFAULT_SEGMENT_SIZE = 16;
+
+	private final Segment[] segments;
+	private final long maxMemorySize;
+	private final Weigher<K, V> weigher;
+	private EvictionListener<K, V> evictionListener;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public ConcurrentLRUCache(long maxMemorySize, Weigher<K, V> weigher) {
+		this(maxMemorySize, weigher, DEFAULT_SEGMENT_SIZE);
+	}
+
+	public ConcurrentLRUCache(long maxMemorySize, Weigher<K, V> weigher, int segmentSize) {
+		this.maxMemorySize = maxMemorySize;
+		this.weigher = weigher;
+		segments = new ConcurrentLRUCache.Segment[segmentSize];
+		long segmentMemorySize = Math.max(1, maxMemorySize / segmentSize);
+		for (int i = 0; i < segmentSize; i++) {
+			segments[i] = new Segment(segmentMemorySize);
+		}
+	}
+
+	public void setEvictionListener(EvictionListener<K, V> evictionListener) {
+		this.evictionListener = evictionListener;
+	}
+
+	private Segment segment(Object key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[(h & 0x7fffffff) % segments.length];
+	}
+
+	public V get(K key) {
+		V value = segment(key).get(key);
+		if (value != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		if (value == null) {
+			return;
+		}
+		long weight = weigher.weigh(key, value);
+		segment(key).put(key, value, weight);
+	}
+
+	public V remove(K key) {
+		return segment(key).remove(key);
+	}
+
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	public long memorySize() {
+		long memorySize = 0;
+		for (Segment segment : segments) {
+			memorySize += segment.memorySize();
+		}
+		return memorySize;
+	}
+
+	public long maxMemorySize() {
+		return maxMemorySize;
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	public long evictionCount() {
+		return evictionCount.get();
+	}
+
+	private class Entry {
+		V value;
+		long weight;
+
+		Entry(V value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	private class Segment {
+		private final long maxMemorySize;
+		private final LinkedHashMap<K, Entry> map;
+		private long memorySize;
+
+		Segment(long maxMemorySize) {
+			this.maxMemorySize = maxMemorySize;
+			//접근순서로 정렬하여 get 시 O(1)로 최근사용으로 옮긴다.
+			map = new LinkedHashMap<K, Entry>(16, 0.75f, true);
+		}
+
+		V get(K key) {
+			synchronized (this) {
+				Entry entry = map.get(key);
+				return entry != null ? entry.value : null;
+			}
+		}
+
+		void put(K key, V value, long weight) {
+			List<Map.Entry<K, Entry>> evicted = null;
+			synchronized (this) {
+				if (weight > maxMemorySize) {
+					//segment 보다 큰 값은 캐시하지 않는다.
+					Entry old = map.remove(key);
+					if (old != null) {
+						memorySize -= old.weight;
+					}
+					return;
+				}
+				Entry old = map.put(key, new Entry(value, weight));
+				if (old != null) {
+					memorySize -= old.weight;
+				}
+				memorySize += weight;
+				Iterator<Map.Entry<K, Entry>> iterator = map.entrySet().iterator();
+				while (memorySize > maxMemorySize && iterator.hasNext()) {
+					Map.Entry<K, Entry> eldest = iterator.next();
+					iterator.remove();
+					memorySize -= eldest.getValue().weight;
+					evictionCount.incrementAndGet();
+					if (evictionListener != null) {
+						if (evicted == null) {
+							evicted = new ArrayList<Map.Entry<K, Entry>>();
+						}
+						evicted.add(eldest);
+					}
+				}
+			}
+			//리스너는 lock 밖에서 호출한다.
+			if (evicted != null) {
+				for (Map.Entry<K, Entry> e : evicted) {
+					evictionListener.onEvict(e.getKey(), e.getValue().value);
+				}
+			}
+		}
+
+		V remove(K key) {
+			synchronized (this) {
+				Entry old = map.remove(key);
+				if (old != null) {
+					memorySize -= old.weight;
+					return old.value;
+				}
+				return null;
+			}
+		}
+
+		synchronized void clear() {
+			map.clear();
+			memorySize = 0;
+		}
+
+		synchronized int size() {
+			return map.size();
+		}
+
+		synchronized long memorySize() {
+			return memorySize;
+		}
+	}
+}
@@ -43,11 +43,10 @@ public class LRUCache<K, V> {
 	}
 
 
+	//닫힌 뒤에도 동시에 호출된 get/put 이 실패하지 않도록 비우기만 한다.
 	public void close() {
 		map.clear();
 		lruQueue.clear();
-		map = null;
-		lruQueue = null;
 	}
 
 	public void put(K key, V value) {
@@ -0,0 +1,100 @@
+package org.fastcatsearch.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 응답시간 분포. HDR histogram 과 같이 2의 거듭제곱 구간을 다시 16칸으로 나누어 세므로 값의 오차는 6.25% 이내이다.
+ * 32 미만의 값은 그대로 센다. 기록은 배열 카운터 하나를 증가시키는 것이므로 lock 이 없다.
+ * 단위는 호출자가 정하며, 검색시간은 us 로 기록한다.
+ * */
+public class LatencyHistogram {
+
+	private static final int LINEAR_SIZE = 32;
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_SIZE = 1 << SUB_BUCKET_BITS;
+	//2^40 us(약 12일)까지 구분하고 그 이상은 마지막 칸에 센다.
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKET_SIZE = LINEAR_SIZE + (MAX_EXPONENT - 5 + 1) * SUB_BUCKET_SIZE;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_SIZE);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalValue = new AtomicLong();
+	private final AtomicLong maxValue = new AtomicLong();
+
+	static int bucketIndex(long value) {
+		if (value < LINEAR_SIZE) {
+			return value < 0 ? 0 : (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKET_SIZE - 1;
+		}
+		int shift = exponent - SUB_BUCKET_BITS;
+		return LINEAR_SIZE + (exponent - 5) * SUB_BUCKET_SIZE + (int) ((value >>> shift) - SUB_BUCKET_SIZE);
+	}
+
+	/**
+	 * 칸에 들어가는 가장 큰 값.
+	 * */
+	static long bucketValue(int index) {
+		if (index < LINEAR_SIZE) {
+			return index;
+		}
+		int exponent = (index - LINEAR_SIZE) / SUB_BUCKET_SIZE + 5;
+		int shift = exponent - SUB_BUCKET_BITS;
+		long lower = (long) ((index - LINEAR_SIZE) % SUB_BUCKET_SIZE + SUB_BUCKET_SIZE) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+	public void record(long value) {
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.incrementAndGet();
+		totalValue.addAndGet(value);
+		long max = maxValue.get();
+		while (value > max && !maxValue.compareAndSet(max, value)) {
+			max = maxValue.get();
+		}
+	}
+
+	public long count() {
+		return totalCount.get();
+	}
+
+	public long max() {
+		return maxValue.get();
+	}
+
+	public double mean() {
+		long count = totalCount.get();
+		return count == 0 ? 0 : (double) totalValue.get() / count;
+	}
+
+	/**
+	 * 백분위수. 해당 값이 들어간 칸의 가장 큰 값을 리턴하되 최대값을 넘지 않는다. 기록이 없으면 0.
+	 * */
+	public long percentile(double percentile) {
+		long count = totalCount.get();
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long sum = 0;
+		for (int i = 0; i < BUCKET_SIZE; i++) {
+			sum += counts.get(i);
+			if (sum >= target) {
+				return Math.min(bucketValue(i), maxValue.get());
+			}
+		}
+		return maxValue.get();
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKET_SIZE; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalValue.set(0);
+		maxValue.set(0);
+	}
+}
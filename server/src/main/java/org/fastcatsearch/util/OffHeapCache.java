@@ -0,0 +1,451 @@
+package org.fastcatsearch.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.fastcatsearch.common.io.BytesStreamInput;
+import org.fastcatsearch.common.io.BytesStreamOutput;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+
+/**
+ * 값을 직렬화하여 힙 밖(direct buffer)의 slab 에 보관하는 캐시. 크기는 바이트로 제한된다.
+ * 키 해시로 나눈 segment 마다 lock 과 slab 을 따로 가지며, slab 은 고정크기 블럭으로 나누어 값의 크기만큼 블럭을 할당한다.
+ * 교체는 segmented LRU 로 한다. 새 항목은 probation 영역에 들어가고 다시 조회되면 protected 영역으로 옮겨진다.
+ * 공간이 부족하면 probation 의 가장 오래된 항목을 지우는데, 최근 접근빈도(TinyLFU)가 지울 항목보다 높지 않은 새 항목은 넣지 않는다.
+ * 힙에는 키와 블럭번호만 남으므로 캐시 크기가 GC 에 영향을 주지 않고, SoftReference 처럼 GC 시점에 한번에 비워지지도 않는다.
+ * */
+public class OffHeapCache<K, V> {
+
+	/**
+	 * 값을 바이트로 쓰고 읽는다.
+	 * */
+	public static interface Serializer<V> {
+		public void write(V value, DataOutput output) throws IOException;
+
+		public V read(DataInput input) throws IOException;
+	}
+
+	private static final int DEFAULT_SEGMENT_SIZE = 16;
+	private static final int DEFAULT_BLOCK_SIZE = 4 * 1024;
+	//segment 블럭중 protected 영역이 차지할수 있는 비율.
+	private static final double PROTECTED_RATIO = 0.8;
+	//ByteBuffer 는 int 크기까지만 할당할수 있다.
+	private static final long MAX_SLAB_SIZE = Integer.MAX_VALUE;
+
+	private final Segment[] segments;
+	private final Serializer<V> serializer;
+	private final int blockSize;
+	private final long maxMemorySize;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong rejectCount = new AtomicLong();
+
+	public OffHeapCache(long maxMemorySize, Serializer<V> serializer) {
+		this(maxMemorySize, serializer, DEFAULT_SEGMENT_SIZE, DEFAULT_BLOCK_SIZE);
+	}
+
+	public OffHeapCache(long maxMemorySize, Serializer<V> serializer, int segmentSize, int blockSize) {
+		this.serializer = serializer;
+		this.blockSize = blockSize;
+		int blockCount = segmentBlockCount(maxMemorySize, segmentSize, blockSize);
+		this.maxMemorySize = (long) blockCount * blockSize * segmentSize;
+		segments = new OffHeapCache.Segment[segmentSize];
+		for (int i = 0; i < segmentSize; i++) {
+			segments[i] = new Segment(blockCount);
+		}
+	}
+
+	/**
+	 * segment 하나의 블럭수. slab 은 direct buffer 하나이므로 segment 당 크기는 MAX_SLAB_SIZE 를 넘지 않도록 줄인다.
+	 * */
+	static int segmentBlockCount(long maxMemorySize, int segmentSize, int blockSize) {
+		long blockCount = maxMemorySize / segmentSize / blockSize;
+		blockCount = Math.min(blockCount, MAX_SLAB_SIZE / blockSize);
+		return (int) Math.max(1, blockCount);
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return h & 0x7fffffff;
+	}
+
+	private Segment segment(int hash) {
+		return segments[hash % segments.length];
+	}
+
+	public V get(K key) {
+		int hash = hash(key);
+		byte[] data = segment(hash).get(key, hash);
+		if (data == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		try {
+			return serializer.read(new BytesStreamInput(data, false));
+		} catch (IOException e) {
+			//읽지 못하는 값은 지운다.
+			remove(key);
+			return null;
+		}
+	}
+
+	/**
+	 * 값을 넣는다. 크기가 segment 보다 크거나 접근빈도가 낮아 들어가지 못하면 false 를 리턴한다.
+	 * */
+	public boolean put(K key, V value) {
+		if (value == null) {
+			return false;
+		}
+		BytesStreamOutput output = new BytesStreamOutput();
+		try {
+			serializer.write(value, output);
+		} catch (IOException e) {
+			return false;
+		}
+		int hash = hash(key);
+		boolean isAdmitted = segment(hash).put(key, hash, output.bytes(), (int) output.size());
+		if (!isAdmitted) {
+			rejectCount.incrementAndGet();
+		}
+		return isAdmitted;
+	}
+
+	public boolean remove(K key) {
+		return segment(hash(key)).remove(key);
+	}
+
+	/**
+	 * 모든 항목을 지운다. 할당된 slab 은 유지하여 다시 사용한다.
+	 * */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * 모든 항목을 지우고 slab 을 놓는다. direct buffer 는 GC 시 해제된다.
+	 * */
+	public void close() {
+		for (Segment segment : segments) {
+			segment.close();
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * 할당된 블럭의 바이트수.
+	 * */
+	public long memorySize() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.usedBlockCount();
+		}
+		return size * blockSize;
+	}
+
+	public long maxMemorySize() {
+		return maxMemorySize;
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	public long evictionCount() {
+		return evictionCount.get();
+	}
+
+	public long rejectCount() {
+		return rejectCount.get();
+	}
+
+	private static class Entry {
+		private int[] blocks;
+		private int length;
+
+		public Entry(int[] blocks, int length) {
+			this.blocks = blocks;
+			this.length = length;
+		}
+	}
+
+	private class Segment {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final int blockCount;
+		private final int protectedMaxBlockCount;
+		private ByteBuffer slab;
+		private int[] freeBlocks;
+		private int freeCount;
+		private int protectedBlockCount;
+		//접근순서 map. 첫 항목이 가장 오래전에 사용된 항목이다.
+		private LinkedHashMap<K, Entry> probationMap = new LinkedHashMap<K, Entry>(16, 0.75f, true);
+		private LinkedHashMap<K, Entry> protectedMap = new LinkedHashMap<K, Entry>(16, 0.75f, true);
+		private final FrequencySketch sketch;
+
+		public Segment(int blockCount) {
+			this.blockCount = blockCount;
+			this.protectedMaxBlockCount = (int) (blockCount * PROTECTED_RATIO);
+			sketch = new FrequencySketch(blockCount);
+		}
+
+		//slab 은 처음 사용할때 할당한다.
+		private void ensureSlab() {
+			if (slab == null) {
+				slab = ByteBuffer.allocateDirect((int) ((long) blockCount * blockSize));
+				freeBlocks = new int[blockCount];
+				resetFreeBlocks();
+			}
+		}
+
+		private void resetFreeBlocks() {
+			for (int i = 0; i < blockCount; i++) {
+				freeBlocks[i] = blockCount - i - 1;
+			}
+			freeCount = blockCount;
+		}
+
+		public byte[] get(K key, int hash) {
+			lock.lock();
+			try {
+				sketch.increment(hash);
+				Entry entry = protectedMap.get(key);
+				if (entry == null) {
+					entry = probationMap.remove(key);
+					if (entry == null) {
+						return null;
+					}
+					//다시 조회된 항목은 protected 로 옮기고, 넘치면 protected 의 오래된 항목을 probation 으로 내린다.
+					protectedMap.put(key, entry);
+					protectedBlockCount += entry.blocks.length;
+					demoteProtected();
+				}
+				return read(entry);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public boolean put(K key, int hash, byte[] data, int length) {
+			int needBlockCount = Math.max(1, (length + blockSize - 1) / blockSize);
+			if (needBlockCount > blockCount) {
+				return false;
+			}
+			lock.lock();
+			try {
+				ensureSlab();
+				sketch.increment(hash);
+				removeEntry(key);
+				while (freeCount < needBlockCount) {
+					Map.Entry<K, Entry> victim = eldest();
+					//새 항목의 접근빈도가 지울 항목보다 높을때만 자리를 내준다.
+					if (sketch.frequency(hash) <= sketch.frequency(hash(victim.getKey()))) {
+						return false;
+					}
+					removeEntry(victim.getKey());
+					evictionCount.incrementAndGet();
+				}
+				int[] blocks = new int[needBlockCount];
+				for (int i = 0; i < needBlockCount; i++) {
+					blocks[i] = freeBlocks[--freeCount];
+				}
+				Entry entry = new Entry(blocks, length);
+				write(entry, data);
+				probationMap.put(key, entry);
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public boolean remove(K key) {
+			lock.lock();
+			try {
+				return removeEntry(key);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		//항목만 지우고 slab 은 다시 쓴다.
+		public void clear() {
+			lock.lock();
+			try {
+				probationMap.clear();
+				protectedMap.clear();
+				protectedBlockCount = 0;
+				if (slab != null) {
+					resetFreeBlocks();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public void close() {
+			lock.lock();
+			try {
+				probationMap.clear();
+				protectedMap.clear();
+				protectedBlockCount = 0;
+				slab = null;
+				freeBlocks = null;
+				freeCount = 0;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public int size() {
+			lock.lock();
+			try {
+				return probationMap.size() + protectedMap.size();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public int usedBlockCount() {
+			lock.lock();
+			try {
+				return slab == null ? 0 : blockCount - freeCount;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private Map.Entry<K, Entry> eldest() {
+			Iterator<Map.Entry<K, Entry>> iterator = probationMap.isEmpty() ? protectedMap.entrySet().iterator() : probationMap.entrySet().iterator();
+			return iterator.next();
+		}
+
+		private void demoteProtected() {
+			while (protectedBlockCount > protectedMaxBlockCount && protectedMap.size() > 1) {
+				Iterator<Map.Entry<K, Entry>> iterator = protectedMap.entrySet().iterator();
+				Map.Entry<K, Entry> eldest = iterator.next();
+				iterator.remove();
+				protectedBlockCount -= eldest.getValue().blocks.length;
+				probationMap.put(eldest.getKey(), eldest.getValue());
+			}
+		}
+
+		private boolean removeEntry(K key) {
+			Entry entry = probationMap.remove(key);
+			if (entry == null) {
+				entry = protectedMap.remove(key);
+				if (entry == null) {
+					return false;
+				}
+				protectedBlockCount -= entry.blocks.length;
+			}
+			for (int block : entry.blocks) {
+				freeBlocks[freeCount++] = block;
+			}
+			return true;
+		}
+
+		private void write(Entry entry, byte[] data) {
+			ByteBuffer buffer = slab.duplicate();
+			int offset = 0;
+			for (int block : entry.blocks) {
+				int length = Math.min(blockSize, entry.length - offset);
+				buffer.position(block * blockSize);
+				buffer.put(data, offset, length);
+				offset += length;
+			}
+		}
+
+		private byte[] read(Entry entry) {
+			byte[] data = new byte[entry.length];
+			ByteBuffer buffer = slab.duplicate();
+			int offset = 0;
+			for (int block : entry.blocks) {
+				int length = Math.min(blockSize, entry.length - offset);
+				buffer.position(block * blockSize);
+				buffer.get(data, offset, length);
+				offset += length;
+			}
+			return data;
+		}
+	}
+
+	/**
+	 * 키 해시별 최근 접근빈도를 추정하는 count-min sketch.
+	 * 카운터는 15 까지만 세고, 추가횟수가 카운터수의 10배가 되면 모든 카운터를 반으로 줄여 오래된 빈도가 사라지게 한다.
+	 * */
+	static class FrequencySketch {
+		private static final int DEPTH = 4;
+		private static final int MAX_COUNT = 15;
+		private static final int[] SEEDS = new int[] { 0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F };
+
+		private final byte[][] table;
+		private final int mask;
+		private final int resetSize;
+		private int additions;
+
+		public FrequencySketch(int expectedSize) {
+			int width = Integer.highestOneBit(Math.max(16, expectedSize * 4) - 1) << 1;
+			table = new byte[DEPTH][width];
+			mask = width - 1;
+			resetSize = width * 10;
+		}
+
+		private int index(int hash, int i) {
+			int h = hash * SEEDS[i];
+			h ^= (h >>> 17);
+			return h & mask;
+		}
+
+		public void increment(int hash) {
+			boolean isAdded = false;
+			for (int i = 0; i < DEPTH; i++) {
+				int index = index(hash, i);
+				if (table[i][index] < MAX_COUNT) {
+					table[i][index]++;
+					isAdded = true;
+				}
+			}
+			if (isAdded && ++additions >= resetSize) {
+				reset();
+			}
+		}
+
+		public int frequency(int hash) {
+			int frequency = MAX_COUNT;
+			for (int i = 0; i < DEPTH; i++) {
+				frequency = Math.min(frequency, table[i][index(hash, i)]);
+			}
+			return frequency;
+		}
+
+		private void reset() {
+			for (byte[] row : table) {
+				for (int i = 0; i < row.length; i++) {
+					row[i] >>= 1;
+				}
+			}
+			additions /= 2;
+		}
+	}
+}
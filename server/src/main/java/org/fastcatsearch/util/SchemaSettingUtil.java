@@ -304,6 +304,7 @@ public class SchemaSettingUtil {
 				setting.setRef(data.optString("field").trim());
 				setting.setSize(data.optInt("size"));
 				setting.setIgnoreCase("true".equals(data.optString("ignoreCase")));
+				setting.setColumnCache(data.optString("columnCache", null));
 				fieldIndexSettingList.add(setting);
 			}
 		}
@@ -325,6 +326,7 @@ public class SchemaSettingUtil {
 				setting.setName(data.optString("name"));
 				setting.setRef(data.optString("ref").trim());
 				setting.setIgnoreCase("true".equals(data.optString("ignoreCase")));
+				setting.setColumnCache(data.optString("columnCache", null));
 				groupIndexesSettingList.add(setting);
 			}
 		}
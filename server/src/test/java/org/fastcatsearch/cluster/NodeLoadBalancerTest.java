@@ -8,8 +8,14 @@ import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.fastcatsearch.control.ResultFuture;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 /**
  * 여러 컬렉션을 검색할때 잘 분배되는지 테스트가 필요하다.
  * */
@@ -96,6 +102,149 @@ public class NodeLoadBalancerTest {
 
 	}
 
+	@Test
+	public void testAdaptive() {
+		NodeLoadBalancer nodeLoadBalancer = new NodeLoadBalancer(true);
+		List<Node> list = new ArrayList<Node>();
+		list.add(makeNode(0));
+		list.add(makeNode(1));
+		list.add(makeNode(2));
+		nodeLoadBalancer.update("col1", list);
+
+		//측정전에는 round-robin 과 같이 분배된다.
+		int[] hit = new int[3];
+		for (int i = 0; i < 30; i++) {
+			hit[Integer.parseInt(nodeLoadBalancer.getBalancedNode("col1").id().substring(5))]++;
+		}
+		assertEquals(10, hit[0]);
+		assertEquals(10, hit[1]);
+		assertEquals(10, hit[2]);
+
+		//node-0 은 느리고, node-2 는 빠르지만 처리중인 요청이 많다.
+		for (int i = 0; i < 10; i++) {
+			record(nodeLoadBalancer.getStat(list.get(0)), 100);
+			record(nodeLoadBalancer.getStat(list.get(1)), 10);
+			record(nodeLoadBalancer.getStat(list.get(2)), 10);
+		}
+		for (int i = 0; i < 5; i++) {
+			nodeLoadBalancer.getStat(list.get(2)).start();
+		}
+		for (int i = 0; i < 10; i++) {
+			assertEquals("node-1", nodeLoadBalancer.getBalancedNode("col1").id());
+		}
+		//헤지요청용으로 node-1 을 제외하면 (5+1)*11 < 101 이므로 node-2 를 선택한다.
+		assertEquals("node-2", nodeLoadBalancer.getAdaptiveNode("col1", list.get(1)).id());
+
+		//node-1 이 inactive 가 되면 선택하지 않는다.
+		list.get(1).setInactive();
+		assertEquals("node-2", nodeLoadBalancer.getBalancedNode("col1").id());
+		assertEquals(100, nodeLoadBalancer.getStat(list.get(0)).percentileTime(95));
+	}
+
+	@Test
+	public void testNodeLoadStat() {
+		NodeLoadStat stat = new NodeLoadStat("node-0");
+		assertEquals(-1, stat.percentileTime(95));
+		for (int i = 1; i <= 100; i++) {
+			record(stat, i);
+		}
+		assertEquals(95, stat.percentileTime(95));
+		assertEquals(50, stat.percentileTime(50));
+		assertEquals(100, stat.requestCount());
+		assertEquals(0, stat.outstandingCount());
+
+		ResultFuture resultFuture = new ResultFuture(1, new ConcurrentHashMap<Long, ResultFuture>());
+		stat.track(resultFuture);
+		assertEquals(1, stat.outstandingCount());
+		resultFuture.put("ok", true);
+		assertEquals(0, stat.outstandingCount());
+		assertEquals(101, stat.requestCount());
+	}
+
+	@Test
+	public void testHedgedResultFuture() {
+		Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+		Node node0 = makeNode(0);
+		Node node1 = makeNode(1);
+
+		//두번째 요청이 먼저 응답하면 그 결과를 사용한다.
+		HedgedResultFuture hedgedResultFuture = new HedgedResultFuture();
+		ResultFuture resultFuture0 = new ResultFuture(0, resultFutureMap);
+		ResultFuture resultFuture1 = new ResultFuture(1, resultFutureMap);
+		hedgedResultFuture.addRequest(node0, resultFuture0);
+		hedgedResultFuture.addRequest(node1, resultFuture1);
+		assertFalse(hedgedResultFuture.isAnswered());
+		assertNull(hedgedResultFuture.node());
+		resultFuture1.put("result-1", true);
+		resultFuture0.put("result-0", true);
+		assertEquals("result-1", hedgedResultFuture.take());
+		assertEquals(node1, hedgedResultFuture.node());
+
+		//실패결과는 다른 요청이 남아있으면 기다린다.
+		hedgedResultFuture = new HedgedResultFuture();
+		resultFuture0 = new ResultFuture(2, resultFutureMap);
+		resultFuture1 = new ResultFuture(3, resultFutureMap);
+		hedgedResultFuture.addRequest(node0, resultFuture0);
+		hedgedResultFuture.addRequest(node1, resultFuture1);
+		resultFuture0.put(new Exception("fail"), false);
+		assertFalse(hedgedResultFuture.isAnswered());
+		resultFuture1.put("result-1", true);
+		assertEquals("result-1", hedgedResultFuture.take());
+		assertTrue(hedgedResultFuture.isSuccess());
+
+		//모두 실패하면 마지막 실패결과를 받는다.
+		hedgedResultFuture = new HedgedResultFuture();
+		resultFuture0 = new ResultFuture(4, resultFutureMap);
+		hedgedResultFuture.addRequest(node0, resultFuture0);
+		resultFuture0.put("fail", false);
+		assertEquals("fail", hedgedResultFuture.take());
+		assertFalse(hedgedResultFuture.isSuccess());
+	}
+
+	@Test
+	public void testHedgedResultFutureTimeout() {
+		Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+		NodeLoadStat stat0 = new NodeLoadStat("node-0");
+		NodeLoadStat stat1 = new NodeLoadStat("node-1");
+
+		HedgedResultFuture hedgedResultFuture = new HedgedResultFuture();
+		ResultFuture resultFuture0 = new ResultFuture(0, resultFutureMap);
+		ResultFuture resultFuture1 = new ResultFuture(1, resultFutureMap);
+		resultFutureMap.put(0L, resultFuture0);
+		resultFutureMap.put(1L, resultFuture1);
+		stat0.track(resultFuture0);
+		stat1.track(resultFuture1);
+		hedgedResultFuture.addRequest(makeNode(0), resultFuture0);
+		hedgedResultFuture.addRequest(makeNode(1), resultFuture1);
+
+		//시간초과로 포기하면 노드별 요청도 map 에서 제거되고 처리중 요청수가 줄어든다.
+		assertNull(hedgedResultFuture.poll(0));
+		assertTrue(hedgedResultFuture.isCancelled());
+		assertTrue(resultFutureMap.isEmpty());
+		assertEquals(0, stat0.outstandingCount());
+		assertEquals(0, stat1.outstandingCount());
+		assertEquals(1, stat0.failCount());
+		assertEquals(1, stat1.failCount());
+
+		//나중에 도착한 결과는 버린다.
+		resultFuture0.put("late", true);
+		assertFalse(hedgedResultFuture.isAnswered());
+		assertEquals(1, stat0.requestCount());
+
+		//포기한 뒤에 추가된 요청은 바로 취소한다.
+		ResultFuture resultFuture2 = new ResultFuture(2, resultFutureMap);
+		resultFutureMap.put(2L, resultFuture2);
+		stat0.track(resultFuture2);
+		hedgedResultFuture.addRequest(makeNode(0), resultFuture2);
+		assertTrue(resultFutureMap.isEmpty());
+		assertEquals(0, stat0.outstandingCount());
+	}
+
+	private void record(NodeLoadStat stat, long time) {
+		stat.start();
+		stat.complete(time, true);
+	}
+
 	AtomicInteger[] totalHit = new AtomicInteger[]{ new AtomicInteger(), new AtomicInteger(), new AtomicInteger() };
 	@Test
 	public void testMultiThread() {
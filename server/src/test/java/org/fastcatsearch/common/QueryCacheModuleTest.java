@@ -1,11 +1,14 @@
 package org.fastcatsearch.common;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.fastcatsearch.settings.Settings;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
 public class QueryCacheModuleTest {
 
 	@Test
@@ -104,4 +107,43 @@ public class QueryCacheModuleTest {
 			System.out.println(r[i] +" finished!");
 		}
 	}
+
+	/*
+	 * 캐시 재시작(unload/load) 중에도 get/put 이 실패하지 않아야 한다.
+	 * */
+	@Test
+	public void testRestartWhileInUse() throws InterruptedException {
+		final QueryCacheModule<String, String> cacheModule = new QueryCacheModule<String, String>(null, new Settings());
+		cacheModule.load();
+		final AtomicBoolean isRunning = new AtomicBoolean(true);
+		final AtomicInteger errorCount = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					int i = 0;
+					while (isRunning.get()) {
+						try {
+							String key = String.valueOf(i++ % 1000);
+							cacheModule.put(key, key);
+							cacheModule.get(key);
+							cacheModule.size();
+						} catch (Throwable t) {
+							errorCount.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < 200; i++) {
+			cacheModule.unload();
+			cacheModule.load();
+		}
+		isRunning.set(false);
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		assertEquals(0, errorCount.get());
+	}
 }
@@ -0,0 +1,121 @@
+package org.fastcatsearch.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.job.Job;
+import org.junit.Test;
+
+public class BoundedJobExecutorTest {
+
+	//작업결과를 jobId 별로 모은다.
+	private static class ResultCollector implements JobExecutor {
+		private Map<Long, Object> resultMap = new ConcurrentHashMap<Long, Object>();
+		private CountDownLatch latch;
+
+		public ResultCollector(int count) {
+			latch = new CountDownLatch(count);
+		}
+
+		@Override
+		public ResultFuture offer(Job job) {
+			return null;
+		}
+
+		@Override
+		public void result(Job job, Object result, boolean isSuccess) {
+			resultMap.put(job.getId(), result);
+			latch.countDown();
+		}
+
+		@Override
+		public int runningJobSize() {
+			return 0;
+		}
+
+		@Override
+		public int inQueueJobSize() {
+			return 0;
+		}
+	}
+
+	private static class WaitJob extends Job {
+		private static final long serialVersionUID = 1L;
+		private CountDownLatch start;
+
+		public WaitJob(long id, CountDownLatch start, JobExecutor jobExecutor) {
+			this.start = start;
+			setId(id);
+			setJobExecutor(jobExecutor);
+		}
+
+		@Override
+		public JobResult doRun() throws FastcatSearchException {
+			try {
+				start.await();
+			} catch (InterruptedException e) {
+			}
+			return new JobResult("done");
+		}
+	}
+
+	@Test
+	public void testQueueFullAndTimeout() throws InterruptedException {
+		ResultCollector collector = new ResultCollector(3);
+		BoundedJobExecutor executor = new BoundedJobExecutor("test", 1, 1, 100, collector);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			assertTrue(executor.execute(new WaitJob(1, start, collector)));
+			//첫 작업이 쓰레드를 차지할때까지 기다린다.
+			while (executor.activeCount() == 0) {
+				Thread.sleep(10);
+			}
+			assertTrue(executor.execute(new WaitJob(2, start, collector)));
+			assertEquals(1, executor.queueDepth());
+			//대기열이 가득차서 바로 거부된다.
+			assertFalse(executor.execute(new WaitJob(3, start, collector)));
+			assertTrue(collector.resultMap.get(3L) instanceof ExecutorMaxCapacityExceedException);
+
+			//대기시간을 넘긴 작업은 실행되지 않는다.
+			Thread.sleep(200);
+			start.countDown();
+			assertTrue(collector.latch.await(5, TimeUnit.SECONDS));
+			assertEquals("done", collector.resultMap.get(1L));
+			assertTrue(collector.resultMap.get(2L) instanceof ExecutorMaxCapacityExceedException);
+			assertEquals(1, executor.executedCount());
+			assertEquals(2, executor.rejectedCount());
+			assertEquals(1, executor.timeoutCount());
+			assertTrue(executor.maxWaitTime() >= 100);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testRejectWhenQueueIsBehind() throws InterruptedException {
+		ResultCollector collector = new ResultCollector(4);
+		BoundedJobExecutor executor = new BoundedJobExecutor("test", 1, 10, 100, collector);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			executor.execute(new WaitJob(1, start, collector));
+			while (executor.activeCount() == 0) {
+				Thread.sleep(10);
+			}
+			assertTrue(executor.execute(new WaitJob(2, start, collector)));
+			Thread.sleep(200);
+			//대기열의 작업이 이미 시간을 넘겼으므로 자리가 있어도 새 작업은 거부한다.
+			assertFalse(executor.execute(new WaitJob(3, start, collector)));
+			assertTrue(collector.resultMap.get(3L) instanceof ExecutorMaxCapacityExceedException);
+			start.countDown();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package org.fastcatsearch.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ResultFutureTest {
+
+	private Timer timer = new Timer("ResultFutureTestTimer", true);
+
+	private static class Listener implements ResultFuture.ResultListener {
+		private List<Object> resultList = new ArrayList<Object>();
+		private boolean isSuccess;
+		private CountDownLatch latch = new CountDownLatch(1);
+
+		@Override
+		public void onResult(Object result, boolean isSuccess) {
+			resultList.add(result);
+			this.isSuccess = isSuccess;
+			latch.countDown();
+		}
+	}
+
+	@Test
+	public void testResultAfterListener() {
+		Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+		ResultFuture resultFuture = new ResultFuture(1, resultFutureMap);
+		Listener listener = new Listener();
+		resultFuture.setListener(listener, timer, 5);
+		assertEquals(0, listener.resultList.size());
+		resultFuture.put("result", true);
+		assertEquals(1, listener.resultList.size());
+		assertEquals("result", listener.resultList.get(0));
+		assertTrue(listener.isSuccess);
+	}
+
+	@Test
+	public void testResultBeforeListener() {
+		Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+		ResultFuture resultFuture = new ResultFuture(1, resultFutureMap);
+		resultFuture.put(null, true);
+		Listener listener = new Listener();
+		//이미 도착한 결과는 바로 전달된다.
+		resultFuture.setListener(listener, timer, 5);
+		assertEquals(1, listener.resultList.size());
+		assertNull(listener.resultList.get(0));
+		assertTrue(listener.isSuccess);
+	}
+
+	@Test
+	public void testTimeout() throws InterruptedException {
+		Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+		ResultFuture resultFuture = new ResultFuture(1, resultFutureMap);
+		resultFutureMap.put(1L, resultFuture);
+		Listener listener = new Listener();
+		resultFuture.setListener(listener, timer, 1);
+		assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+		assertNull(listener.resultList.get(0));
+		assertFalse(listener.isSuccess);
+		assertFalse(resultFutureMap.containsKey(1L));
+
+		//시간초과 이후 도착한 결과는 전달하지 않는다.
+		resultFuture.put("late", true);
+		assertEquals(1, listener.resultList.size());
+	}
+
+	@Test
+	public void testFailResult() {
+		Listener listener = new Listener();
+		new ResultFuture().setListener(listener, timer, 5);
+		assertEquals(1, listener.resultList.size());
+		assertNull(listener.resultList.get(0));
+		assertFalse(listener.isSuccess);
+	}
+}
@@ -0,0 +1,145 @@
+package org.fastcatsearch.ir;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DocumentPushLogTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = new File("temp/push_log_test");
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@Test
+	public void testAppendAndRotate() throws IOException {
+		DocumentPushLog pushLog = new DocumentPushLog(dir, false);
+		assertFalse(pushLog.hasPending());
+
+		pushLog.append(Arrays.asList("{\"id\":\"1\",\"title\":\"첫번째\"}", "{\"id\":\"2\"}"), null);
+		List<String[]> deleteList = new ArrayList<String[]>();
+		deleteList.add(new String[] { "3" });
+		pushLog.append(null, deleteList);
+		assertTrue(pushLog.hasPending());
+
+		List<File> fileList = pushLog.rotate();
+		assertEquals(1, fileList.size());
+		assertEquals(0, DocumentPushLog.sequenceOf(fileList.get(0)));
+		//rotate 후에는 다음 seq 파일에 기록한다.
+		assertEquals(1, pushLog.append(Arrays.asList("{\"id\":\"4\"}"), null));
+		assertEquals(2, pushLog.fileList().size());
+
+		DocumentPushLog.LogReader reader = new DocumentPushLog.LogReader(fileList.get(0));
+		assertTrue(reader.next());
+		assertEquals(DocumentPushLog.INSERT, reader.type());
+		assertEquals("{\"id\":\"1\",\"title\":\"첫번째\"}", reader.document());
+		assertTrue(reader.next());
+		assertEquals("{\"id\":\"2\"}", reader.document());
+		assertTrue(reader.next());
+		assertEquals(DocumentPushLog.DELETE, reader.type());
+		assertArrayEquals(new String[] { "3" }, reader.keys());
+		assertFalse(reader.next());
+		reader.close();
+
+		pushLog.remove(fileList);
+		assertFalse(fileList.get(0).exists());
+		//기록중인 파일이 남아있다.
+		assertTrue(pushLog.hasPending());
+		assertEquals(1, pushLog.rotate().size());
+		pushLog.close();
+	}
+
+	@Test
+	public void testRecoverTornRecord() throws IOException {
+		DocumentPushLog pushLog = new DocumentPushLog(dir, true);
+		pushLog.append(Arrays.asList("{\"id\":\"1\"}", "{\"id\":\"2\"}"), null);
+		pushLog.close();
+
+		//마지막 레코드를 기록중에 끊긴것처럼 자른다.
+		File file = dir.listFiles()[0];
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 3);
+		raf.close();
+
+		//재시작시 남은 파일은 반영대상이다.
+		pushLog = new DocumentPushLog(dir, true);
+		assertTrue(pushLog.hasPending());
+		pushLog.append(Arrays.asList("{\"id\":\"3\"}"), null);
+		List<File> fileList = pushLog.rotate();
+		assertEquals(2, fileList.size());
+		assertEquals(file, fileList.get(0));
+
+		DocumentPushLog.LogReader reader = new DocumentPushLog.LogReader(fileList.get(0));
+		assertTrue(reader.next());
+		assertEquals("{\"id\":\"1\"}", reader.document());
+		assertFalse(reader.next());
+		reader.close();
+
+		reader = new DocumentPushLog.LogReader(fileList.get(1));
+		assertTrue(reader.next());
+		assertEquals("{\"id\":\"3\"}", reader.document());
+		assertFalse(reader.next());
+		reader.close();
+		pushLog.close();
+	}
+
+	@Test
+	public void testTruncateFailedAppend() throws IOException {
+		final boolean[] isFailing = new boolean[1];
+		DocumentPushLog pushLog = new DocumentPushLog(dir, true) {
+			@Override
+			void write(FileOutputStream output, byte[] data) throws IOException {
+				if (isFailing[0]) {
+					//일부만 기록하고 실패한다.
+					output.write(data, 0, data.length / 2);
+					throw new IOException("disk full");
+				}
+				super.write(output, data);
+			}
+		};
+		pushLog.append(Arrays.asList("{\"id\":\"1\"}"), null);
+		isFailing[0] = true;
+		try {
+			pushLog.append(Arrays.asList("{\"id\":\"2\"}", "{\"id\":\"3\"}"), null);
+			fail();
+		} catch (IOException expected) {
+		}
+		isFailing[0] = false;
+		//실패한 요청 뒤에 기록한 문서도 읽을수 있어야 한다.
+		pushLog.append(Arrays.asList("{\"id\":\"4\"}"), null);
+		List<File> fileList = pushLog.rotate();
+		assertEquals(1, fileList.size());
+
+		DocumentPushLog.LogReader reader = new DocumentPushLog.LogReader(fileList.get(0));
+		assertTrue(reader.next());
+		assertEquals("{\"id\":\"1\"}", reader.document());
+		assertTrue(reader.next());
+		assertEquals("{\"id\":\"4\"}", reader.document());
+		assertFalse(reader.next());
+		reader.close();
+		pushLog.close();
+	}
+}
@@ -0,0 +1,105 @@
+package org.fastcatsearch.ir;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.config.DataInfo.RevisionInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.document.DocumentReader;
+import org.fastcatsearch.ir.document.DocumentWriter;
+import org.fastcatsearch.ir.field.LongField;
+import org.fastcatsearch.ir.field.UStringField;
+import org.fastcatsearch.ir.index.IndexWriteInfoList;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MirrorSynchronizerTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = new File("temp/mirror_sync_test");
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	private SchemaSetting createSchemaSetting() {
+		SchemaSetting schemaSetting = new SchemaSetting();
+		List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+		fieldSettingList.add(new FieldSetting("id", "아이디", FieldSetting.Type.LONG));
+		FieldSetting fieldSetting = new FieldSetting("title", "제목", FieldSetting.Type.STRING);
+		fieldSetting.setSize(30);
+		fieldSettingList.add(fieldSetting);
+		schemaSetting.setFieldSettingList(fieldSettingList);
+		return schemaSetting;
+	}
+
+	private void write(SchemaSetting schemaSetting, File segmentDir, RevisionInfo revisionInfo, IndexConfig indexConfig, int start, int end,
+			IndexWriteInfoList indexWriteInfoList) throws Exception {
+		DocumentWriter writer = new DocumentWriter(schemaSetting, segmentDir, revisionInfo, indexConfig);
+		for (int i = start; i < end; i++) {
+			Document document = new Document(2);
+			document.add(new LongField("id", Integer.toString(i)).parseIndexable());
+			document.add(new UStringField("title", "미러 동기화 문서 " + i).parseIndexable());
+			writer.write(document);
+		}
+		writer.close();
+		if (indexWriteInfoList != null) {
+			writer.getIndexWriteInfo(indexWriteInfoList);
+		}
+	}
+
+	private void applyAndRead(int blockSize) throws Exception {
+		SchemaSetting schemaSetting = createSchemaSetting();
+		IndexConfig indexConfig = new IndexConfig();
+		indexConfig.setDocumentBlockSize(blockSize);
+		File masterDir = new File(dir, "master-" + blockSize);
+		File slaveDir = new File(dir, "slave-" + blockSize);
+
+		//두 노드가 같은 0 리비전을 가지고, 마스터에서만 1 리비전 문서를 이어쓴다.
+		write(schemaSetting, masterDir, new RevisionInfo(), indexConfig, 0, 50, null);
+		FileUtils.copyDirectory(masterDir, slaveDir);
+		IndexWriteInfoList indexWriteInfoList = new IndexWriteInfoList();
+		write(schemaSetting, masterDir, new RevisionInfo(1, "append", 50, 0, 0, 0, null), indexConfig, 50, 80, indexWriteInfoList);
+
+		MirrorSynchronizer mirrorSynchronizer = new MirrorSynchronizer();
+		File mirrorSyncFile = mirrorSynchronizer.createMirrorSyncFile(indexWriteInfoList, IndexFileNames.getRevisionDir(masterDir, 1));
+		mirrorSynchronizer.applyMirrorSyncFile(mirrorSyncFile, IndexFileNames.getRevisionDir(slaveDir, 1));
+
+		DocumentReader reader = new DocumentReader(schemaSetting, slaveDir);
+		try {
+			assertEquals(80, reader.getDocumentCount());
+			for (int i = 0; i < 80; i++) {
+				Document document = reader.readDocument(i);
+				assertEquals(Integer.toString(i), document.get(0).rawString());
+				assertEquals("미러 동기화 문서 " + i, document.get(1).rawString());
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testApplyToBlockFormat() throws Exception {
+		applyAndRead(16);
+	}
+
+	@Test
+	public void testApplyToLegacyFormat() throws Exception {
+		applyAndRead(0);
+	}
+}
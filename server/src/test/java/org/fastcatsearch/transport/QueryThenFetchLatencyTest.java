@@ -0,0 +1,204 @@
+package org.fastcatsearch.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.control.JobExecutor;
+import org.fastcatsearch.control.ResultFuture;
+import org.fastcatsearch.env.Environment;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.Row;
+import org.fastcatsearch.ir.search.DocumentResult;
+import org.fastcatsearch.ir.search.HitElement;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.settings.Settings;
+import org.fastcatsearch.transport.vo.StreamableDocumentResult;
+import org.fastcatsearch.transport.vo.StreamableInternalSearchResult;
+import org.junit.Test;
+
+/**
+ * 로컬 transport 로 두 노드를 띄워 검색후 문서조회를 따로 요청하는 방법(2회 왕복)과
+ * 검색결과에 문서를 같이 받는 방법(1회 왕복)의 응답시간을 비교한다.
+ * 검색, 문서조회 자체의 비용은 없으므로 통신 왕복과 직렬화 비용만 비교된다.
+ * 반복횟수는 -DrepeatCount, 페이지 크기는 -Drows 로 바꿀수 있다.
+ * */
+public class QueryThenFetchLatencyTest {
+
+	private static final int PORT1 = 9310;
+	private static final int PORT2 = 9320;
+
+	//작업을 바로 실행하고 결과를 담아 리턴한다.
+	private JobExecutor executor = new JobExecutor() {
+		private AtomicLong jobId = new AtomicLong();
+		private Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+
+		@Override
+		public ResultFuture offer(Job job) {
+			long id = jobId.getAndIncrement();
+			ResultFuture resultFuture = new ResultFuture(id, resultFutureMap);
+			resultFutureMap.put(id, resultFuture);
+			job.setId(id);
+			job.setJobExecutor(this);
+			job.run();
+			return resultFuture;
+		}
+
+		@Override
+		public void result(Job job, Object result, boolean isSuccess) {
+			ResultFuture resultFuture = resultFutureMap.remove(job.getId());
+			if (resultFuture != null) {
+				resultFuture.put(result, isSuccess);
+			}
+		}
+
+		@Override
+		public int runningJobSize() {
+			return 0;
+		}
+
+		@Override
+		public int inQueueJobSize() {
+			return 0;
+		}
+	};
+
+	@Test
+	public void testLatency() throws FastcatSearchException, TransportException {
+		int repeatCount = Integer.parseInt(System.getProperty("repeatCount", "2000"));
+		int rows = Integer.parseInt(System.getProperty("rows", "10"));
+		Environment environment = new Environment(new File(System.getProperty("java.io.tmpdir")).getAbsolutePath());
+		TransportModule broker = new TransportModule(environment, new Settings(), PORT1, executor);
+		TransportModule dataNode = new TransportModule(environment, new Settings(), PORT2, executor);
+		broker.load();
+		dataNode.load();
+		try {
+			Node node = new Node("node-2", "", "localhost", PORT2);
+			node.setActive();
+			node.setEnabled();
+
+			//warm up
+			for (int i = 0; i < repeatCount / 10; i++) {
+				searchThenFetch(broker, node, rows);
+				searchWithFetch(broker, node, rows);
+			}
+
+			long twoPhaseTime = 0;
+			long onePhaseTime = 0;
+			for (int i = 0; i < repeatCount; i++) {
+				long st = System.nanoTime();
+				searchThenFetch(broker, node, rows);
+				twoPhaseTime += System.nanoTime() - st;
+				st = System.nanoTime();
+				searchWithFetch(broker, node, rows);
+				onePhaseTime += System.nanoTime() - st;
+			}
+			System.out.println("rows=" + rows + " repeat=" + repeatCount + " query-then-fetch=" + (twoPhaseTime / repeatCount / 1000) + "us fetch-with-query="
+					+ (onePhaseTime / repeatCount / 1000) + "us");
+		} finally {
+			broker.unload();
+			dataNode.unload();
+		}
+	}
+
+	private void searchThenFetch(TransportModule transport, Node node, int rows) throws TransportException {
+		ResultFuture searchFuture = transport.sendRequest(node, new TestSearchJob(rows, false));
+		StreamableInternalSearchResult searchResult = (StreamableInternalSearchResult) searchFuture.take();
+		assertEquals(rows, searchResult.getInternalSearchResult().getCount());
+		ResultFuture fetchFuture = transport.sendRequest(node, new TestFetchJob(rows));
+		StreamableDocumentResult documentResult = (StreamableDocumentResult) fetchFuture.take();
+		assertEquals(rows, documentResult.documentResult().rows().length);
+	}
+
+	private void searchWithFetch(TransportModule transport, Node node, int rows) throws TransportException {
+		ResultFuture searchFuture = transport.sendRequest(node, new TestSearchJob(rows, true));
+		StreamableInternalSearchResult searchResult = (StreamableInternalSearchResult) searchFuture.take();
+		assertEquals(rows, searchResult.getInternalSearchResult().getCount());
+		assertNotNull(searchResult.getDocumentResult());
+	}
+
+	private static DocumentResult makeDocumentResult(int rows) {
+		Row[] rowList = new Row[rows];
+		for (int i = 0; i < rows; i++) {
+			rowList[i] = new Row(3);
+			rowList[i].put(0, ("ID-" + i).toCharArray());
+			rowList[i].put(1, ("<b>검색</b> 결과 제목 " + i).toCharArray());
+			rowList[i].put(2, "검색결과 본문 요약 내용이 들어간다. 검색결과 본문 요약 내용이 들어간다. 검색결과 본문 요약 내용이 들어간다.".toCharArray());
+		}
+		return new DocumentResult(rowList, new String[] { "ID", "TITLE", "CONTENT" });
+	}
+
+	public static class TestSearchJob extends Job implements Streamable {
+		private static final long serialVersionUID = 1L;
+		private int rows;
+		private boolean fetchDocuments;
+
+		public TestSearchJob() {
+		}
+
+		public TestSearchJob(int rows, boolean fetchDocuments) {
+			this.rows = rows;
+			this.fetchDocuments = fetchDocuments;
+		}
+
+		@Override
+		public JobResult doRun() throws FastcatSearchException {
+			HitElement[] hitElements = new HitElement[rows];
+			for (int i = 0; i < rows; i++) {
+				hitElements[i] = new HitElement(0, i, 100 - i, 1, new BytesRef[0], null);
+			}
+			InternalSearchResult result = new InternalSearchResult("test", hitElements, rows, 10000, null, null, null);
+			return new JobResult(new StreamableInternalSearchResult(result, fetchDocuments ? makeDocumentResult(rows) : null));
+		}
+
+		@Override
+		public void readFrom(DataInput input) throws IOException {
+			rows = input.readVInt();
+			fetchDocuments = input.readBoolean();
+		}
+
+		@Override
+		public void writeTo(DataOutput output) throws IOException {
+			output.writeVInt(rows);
+			output.writeBoolean(fetchDocuments);
+		}
+	}
+
+	public static class TestFetchJob extends Job implements Streamable {
+		private static final long serialVersionUID = 1L;
+		private int rows;
+
+		public TestFetchJob() {
+		}
+
+		public TestFetchJob(int rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public JobResult doRun() throws FastcatSearchException {
+			return new JobResult(new StreamableDocumentResult(makeDocumentResult(rows)));
+		}
+
+		@Override
+		public void readFrom(DataInput input) throws IOException {
+			rows = input.readVInt();
+		}
+
+		@Override
+		public void writeTo(DataOutput output) throws IOException {
+			output.writeVInt(rows);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package org.fastcatsearch.transport.vo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.common.io.BytesStreamInput;
+import org.fastcatsearch.common.io.BytesStreamOutput;
+import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.QueryTrace;
+import org.fastcatsearch.ir.query.Row;
+import org.fastcatsearch.ir.search.DocumentResult;
+import org.fastcatsearch.ir.search.HitElement;
+import org.junit.Test;
+
+public class StreamableInternalSearchResultTest {
+
+	private InternalSearchResult makeResult(int count) {
+		HitElement[] hitElements = new HitElement[count];
+		for (int i = 0; i < count; i++) {
+			hitElements[i] = new HitElement(1, i * 10, 100 - i, 1, new BytesRef[0], null);
+		}
+		return new InternalSearchResult("test", hitElements, count, 1000, null, null, null);
+	}
+
+	private StreamableInternalSearchResult writeAndRead(StreamableInternalSearchResult result) throws IOException {
+		BytesStreamOutput output = new BytesStreamOutput();
+		result.writeTo(output);
+		StreamableInternalSearchResult result2 = new StreamableInternalSearchResult();
+		result2.readFrom(new BytesStreamInput(output.bytesReference()));
+		return result2;
+	}
+
+	@Test
+	public void testWithoutDocuments() throws IOException {
+		StreamableInternalSearchResult result = writeAndRead(new StreamableInternalSearchResult(makeResult(3)));
+		assertEquals(3, result.getInternalSearchResult().getCount());
+		assertEquals(1000, result.getInternalSearchResult().getTotalCount());
+		assertNull(result.getDocumentResult());
+		assertNull(result.getTrace());
+	}
+
+	@Test
+	public void testWithTrace() throws IOException {
+		QueryTrace trace = new QueryTrace();
+		trace.add(QueryTrace.Phase.POSTING, 1500);
+		trace.add(QueryTrace.Phase.FETCH, 30000);
+		StreamableInternalSearchResult result = writeAndRead(new StreamableInternalSearchResult(makeResult(3), null, trace));
+		assertNull(result.getDocumentResult());
+		assertEquals(1500, result.getTrace().time(QueryTrace.Phase.POSTING));
+		assertEquals(30000, result.getTrace().time(QueryTrace.Phase.FETCH));
+		assertEquals(0, result.getTrace().time(QueryTrace.Phase.PARSE));
+	}
+
+	@Test
+	public void testWithDocuments() throws IOException {
+		int count = 3;
+		Row[] rows = new Row[count];
+		for (int i = 0; i < count; i++) {
+			rows[i] = new Row(2);
+			rows[i].put(0, ("id" + i).toCharArray());
+			rows[i].put(1, ("제목" + i).toCharArray());
+		}
+		DocumentResult documentResult = new DocumentResult(rows, new String[] { "ID", "TITLE" });
+		StreamableInternalSearchResult result = writeAndRead(new StreamableInternalSearchResult(makeResult(count), documentResult));
+
+		InternalSearchResult internalSearchResult = result.getInternalSearchResult();
+		assertEquals(count, internalSearchResult.getCount());
+		assertEquals(20, internalSearchResult.getHitElementList()[2].docNo());
+		DocumentResult documentResult2 = result.getDocumentResult();
+		assertEquals(count, documentResult2.rows().length);
+		assertEquals("TITLE", documentResult2.fieldIdList()[1]);
+		assertEquals("제목2", new String(documentResult2.rows()[2].get(1)));
+	}
+}
@@ -0,0 +1,71 @@
+package org.fastcatsearch.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ConcurrentLRUCacheTest {
+
+	private ConcurrentLRUCache.Weigher<String, String> weigher = new ConcurrentLRUCache.Weigher<String, String>() {
+		@Override
+		public long weigh(String key, String value) {
+			return value.length();
+		}
+	};
+
+	@Test
+	public void testMemoryBound() {
+		//segment 하나, 100 바이트.
+		ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<String, String>(100, weigher, 1);
+		final List<String> evicted = new ArrayList<String>();
+		cache.setEvictionListener(new ConcurrentLRUCache.EvictionListener<String, String>() {
+			@Override
+			public void onEvict(String key, String value) {
+				evicted.add(key);
+			}
+		});
+		for (int i = 0; i < 10; i++) {
+			cache.put("k" + i, "0123456789");
+		}
+		assertEquals(10, cache.size());
+		assertEquals(100, cache.memorySize());
+
+		//k0 을 최근사용으로 만들면 다음 입력시 k1 이 지워진다.
+		assertEquals("0123456789", cache.get("k0"));
+		cache.put("k10", "0123456789");
+		assertEquals(1, evicted.size());
+		assertEquals("k1", evicted.get(0));
+		assertNull(cache.get("k1"));
+		assertEquals(100, cache.memorySize());
+
+		//큰 값은 여러개를 지운다.
+		cache.put("big", "012345678901234567890123456789");
+		assertEquals(4, evicted.size());
+		assertTrue(cache.memorySize() <= 100);
+
+		//최대크기보다 큰 값은 캐시하지 않는다.
+		cache.put("huge", new String(new char[101]));
+		assertNull(cache.get("huge"));
+
+		assertEquals(1, cache.hitCount());
+		assertEquals(2, cache.missCount());
+		assertEquals(4, cache.evictionCount());
+	}
+
+	@Test
+	public void testReplaceAndRemove() {
+		ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<String, String>(1000, weigher);
+		cache.put("a", "12345");
+		cache.put("a", "123");
+		assertEquals(1, cache.size());
+		assertEquals(3, cache.memorySize());
+		assertEquals("123", cache.remove("a"));
+		assertEquals(0, cache.memorySize());
+		assertNull(cache.remove("a"));
+	}
+}
@@ -0,0 +1,43 @@
+package org.fastcatsearch.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucket() {
+		//32 미만은 그대로, 이후는 구간별 16칸.
+		assertEquals(31, LatencyHistogram.bucketValue(LatencyHistogram.bucketIndex(31)));
+		assertEquals(33, LatencyHistogram.bucketValue(LatencyHistogram.bucketIndex(32)));
+		assertEquals(63, LatencyHistogram.bucketValue(LatencyHistogram.bucketIndex(63)));
+		for (long value = 1; value < 100000000L; value = value * 3 + 7) {
+			long bucketValue = LatencyHistogram.bucketValue(LatencyHistogram.bucketIndex(value));
+			assertTrue(bucketValue >= value);
+			assertTrue((bucketValue - value) <= value / 16);
+		}
+	}
+
+	@Test
+	public void testPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.percentile(99));
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000);
+		}
+		assertEquals(1000, histogram.count());
+		assertEquals(1000000, histogram.max());
+		assertEquals(500500, (long) histogram.mean());
+		long p50 = histogram.percentile(50);
+		assertTrue(p50 >= 500000 && p50 <= 500000 * 17 / 16);
+		long p99 = histogram.percentile(99);
+		assertTrue(p99 >= 990000 && p99 <= 1000000);
+		assertEquals(1000000, histogram.percentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.count());
+		assertEquals(0, histogram.max());
+	}
+}
@@ -0,0 +1,110 @@
+package org.fastcatsearch.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+	private OffHeapCache.Serializer<String> serializer = new OffHeapCache.Serializer<String>() {
+		@Override
+		public void write(String value, DataOutput output) throws IOException {
+			output.writeString(value);
+		}
+
+		@Override
+		public String read(DataInput input) throws IOException {
+			return input.readString();
+		}
+	};
+
+	@Test
+	public void testAdmissionAndEviction() {
+		//segment 하나, 16바이트 블럭 4개.
+		OffHeapCache<String, String> cache = new OffHeapCache<String, String>(64, serializer, 1, 16);
+		assertTrue(cache.put("a", "value-a"));
+		assertTrue(cache.put("b", "value-b"));
+		assertTrue(cache.put("c", "value-c"));
+		assertTrue(cache.put("d", "value-d"));
+		assertEquals(4, cache.size());
+		assertEquals(64, cache.memorySize());
+
+		//a 는 다시 조회되어 protected 로 옮겨진다.
+		assertEquals("value-a", cache.get("a"));
+
+		//처음 보는 키는 지울 항목(b)보다 빈도가 높지 않으므로 들어가지 못한다.
+		assertFalse(cache.put("e", "value-e"));
+		assertEquals(1, cache.rejectCount());
+		assertNull(cache.get("e"));
+
+		//여러번 요청된 키는 probation 의 가장 오래된 항목을 밀어낸다.
+		assertTrue(cache.put("e", "value-e"));
+		assertEquals(1, cache.evictionCount());
+		assertNull(cache.get("b"));
+		assertEquals("value-e", cache.get("e"));
+		assertEquals("value-a", cache.get("a"));
+		assertEquals(4, cache.size());
+
+		//segment 보다 큰 값은 캐시하지 않는다.
+		assertFalse(cache.put("huge", new String(new char[100])));
+		assertTrue(cache.memorySize() <= 64);
+	}
+
+	@Test
+	public void testMultiBlockValue() {
+		OffHeapCache<String, String> cache = new OffHeapCache<String, String>(1024, serializer, 2, 16);
+		String value = "여러 블럭에 나누어 저장되는 긴 문자열 값입니다.";
+		assertTrue(cache.put("key", value));
+		assertEquals(value, cache.get("key"));
+
+		//같은 키로 다시 넣으면 이전 블럭은 반납된다.
+		cache.put("key", "short");
+		assertEquals("short", cache.get("key"));
+		assertEquals(1, cache.size());
+		assertEquals(16, cache.memorySize());
+
+		assertTrue(cache.remove("key"));
+		assertFalse(cache.remove("key"));
+		assertEquals(0, cache.memorySize());
+		cache.close();
+		assertNull(cache.get("key"));
+	}
+
+	@Test
+	public void testClearReusesSlab() {
+		OffHeapCache<String, String> cache = new OffHeapCache<String, String>(64, serializer, 1, 16);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(cache.put("key" + i, "value" + i));
+		}
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.memorySize());
+		assertNull(cache.get("key0"));
+
+		//비운 뒤에도 모든 블럭을 다시 쓸수 있다.
+		for (int i = 0; i < 4; i++) {
+			assertTrue(cache.put("new" + i, "value" + i));
+		}
+		assertEquals(64, cache.memorySize());
+		assertEquals("value3", cache.get("new3"));
+	}
+
+	@Test
+	public void testSegmentSlabSizeLimit() {
+		//segment 당 2GB 를 넘으면 int 범위 안으로 줄인다.
+		int blockCount = OffHeapCache.segmentBlockCount(64L * 1024 * 1024 * 1024, 16, 4096);
+		assertTrue((long) blockCount * 4096 <= Integer.MAX_VALUE);
+		assertEquals(Integer.MAX_VALUE / 4096, blockCount);
+		assertEquals(1024, OffHeapCache.segmentBlockCount(64L * 1024 * 1024, 16, 4096));
+		assertEquals(1, OffHeapCache.segmentBlockCount(10, 16, 4096));
+		OffHeapCache<String, String> cache = new OffHeapCache<String, String>(64L * 1024 * 1024 * 1024, serializer, 16, 4096);
+		assertEquals(16L * blockCount * 4096, cache.maxMemorySize());
+	}
+}